@@ -23,4 +23,10 @@ public class ControllerConstants {
     public static final String EXTRA_HEURISTICS = "/extraHeuristics";
 
     public static final String DATABASE_COMMAND = "/databaseCommand";
+
+    public static final String SQL_CACHE_STATS = "/sqlCacheStats";
+
+    public static final String METRICS = "/metrics";
+
+    public static final String ARCHIVE_BASELINE = "/archiveBaseline";
 }
@@ -3,4 +3,10 @@ package org.evomaster.client.java.controller.api;
 public class Formats {
 
     public static final String JSON_V1 = "application/json;charset=utf8;version=1";
+
+    /**
+     * See {@link TestResultsBinaryFormat}. The version is the one of the encoding,
+     * so Core and Driver using different encodings would fail content negotiation
+     */
+    public static final String BINARY_TEST_RESULTS = "application/octet-stream;version=" + TestResultsBinaryFormat.VERSION;
 }
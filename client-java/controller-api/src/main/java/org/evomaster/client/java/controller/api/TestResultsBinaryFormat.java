@@ -0,0 +1,427 @@
+package org.evomaster.client.java.controller.api;
+
+/*
+    Note: this class is in this module, as to make sure that the exact same code
+    is used in the EvoMaster Core (to decode) and in the EvoMaster Driver (to encode)
+ */
+
+import org.evomaster.client.java.controller.api.dto.*;
+import org.evomaster.client.java.controller.api.dto.database.execution.ExecutionDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary representation of {@link TestResultsDto}, used as an alternative
+ * to JSON when both EvoMaster Core and the Driver support it
+ * (see {@link ControllerInfoDto#supportBinaryTestResults}).
+ *
+ * <p>
+ * Main differences with the JSON representation:
+ * <ul>
+ *     <li>integers are written as variable-length quantities (varint)</li>
+ *     <li>fitness values of targets are written as raw 8-byte doubles. Note: these are not
+ *     rounded to floats, as, for example, a value just below 1 could become 1,
+ *     ie, a target would wrongly be considered as covered</li>
+ *     <li>action indices of targets are written as deltas from the previous target</li>
+ *     <li>each distinct string is written only once per message, and then referred by index</li>
+ * </ul>
+ *
+ * <p>
+ * Descriptive ids of targets are already sent by the Driver only the first time
+ * a target is encountered, so they are usually null, which takes a single byte.
+ */
+public class TestResultsBinaryFormat {
+
+    public static final byte VERSION = 2;
+
+    /*
+        Tags used when writing a string
+     */
+    private static final int NULL_STRING = 0;
+    private static final int NEW_STRING = 1;
+    private static final int STRING_REFERENCE_OFFSET = 2;
+
+
+    public static byte[] encode(TestResultsDto dto) {
+        Objects.requireNonNull(dto);
+        return new Writer().writeTestResults(dto);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not a valid encoding
+     */
+    public static TestResultsDto decode(byte[] data) {
+        Objects.requireNonNull(data);
+        try {
+            return new Reader(data).readTestResults();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated binary test results", e);
+        }
+    }
+
+
+    private static class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        byte[] writeTestResults(TestResultsDto dto) {
+
+            out.write(VERSION);
+
+            writeSize(dto.targets);
+            if (dto.targets != null) {
+                int previousAction = 0;
+                for (TargetInfoDto t : dto.targets) {
+                    if (t.id == null || t.value == null || t.actionIndex == null) {
+                        throw new IllegalArgumentException("Target info with missing fields");
+                    }
+                    writeVarInt(t.id);
+                    writeString(t.descriptiveId);
+                    writeLong(Double.doubleToLongBits(t.value));
+                    writeVarInt(zigZag(t.actionIndex - previousAction));
+                    previousAction = t.actionIndex;
+                }
+            }
+
+            writeSize(dto.additionalInfoList);
+            if (dto.additionalInfoList != null) {
+                for (AdditionalInfoDto info : dto.additionalInfoList) {
+                    writeStrings(info.queryParameters);
+                    writeStrings(info.headers);
+                    writeSize(info.stringSpecializations == null ? null : info.stringSpecializations.entrySet());
+                    if (info.stringSpecializations != null) {
+                        for (Map.Entry<String, List<StringSpecializationInfoDto>> e : info.stringSpecializations.entrySet()) {
+                            writeString(e.getKey());
+                            writeSize(e.getValue());
+                            if (e.getValue() != null) {
+                                for (StringSpecializationInfoDto s : e.getValue()) {
+                                    writeString(s.stringSpecialization);
+                                    writeString(s.value);
+                                }
+                            }
+                        }
+                    }
+                    writeString(info.lastExecutedStatement);
+                }
+            }
+
+            writeSize(dto.extraHeuristics);
+            if (dto.extraHeuristics != null) {
+                for (ExtraHeuristicsDto extra : dto.extraHeuristics) {
+                    writeSize(extra.heuristics);
+                    if (extra.heuristics != null) {
+                        for (HeuristicEntryDto h : extra.heuristics) {
+                            writeHeuristicEntry(h);
+                        }
+                    }
+                    writeExecution(extra.databaseExecutionDto);
+                }
+            }
+
+            return out.toByteArray();
+        }
+
+        private void writeHeuristicEntry(HeuristicEntryDto h) {
+            if (h == null) {
+                out.write(0);
+                return;
+            }
+            out.write(1);
+            writeVarInt(h.type == null ? 0 : h.type.ordinal() + 1);
+            writeVarInt(h.objective == null ? 0 : h.objective.ordinal() + 1);
+            writeString(h.id);
+            if (h.value == null) {
+                out.write(0);
+            } else {
+                out.write(1);
+                writeLong(Double.doubleToLongBits(h.value));
+            }
+        }
+
+        private void writeExecution(ExecutionDto e) {
+            if (e == null) {
+                out.write(0);
+                return;
+            }
+            out.write(1);
+            writeTableColumns(e.queriedData);
+            writeTableColumns(e.updatedData);
+            writeTableColumns(e.insertedData);
+            writeStrings(e.deletedData);
+            writeTableColumns(e.failedWhere);
+            writeVarInt(e.numberOfSqlCommands);
+        }
+
+        private void writeTableColumns(Map<String, Set<String>> map) {
+            writeSize(map == null ? null : map.entrySet());
+            if (map != null) {
+                for (Map.Entry<String, Set<String>> e : map.entrySet()) {
+                    writeString(e.getKey());
+                    writeStrings(e.getValue());
+                }
+            }
+        }
+
+        private void writeStrings(Collection<String> values) {
+            writeSize(values);
+            if (values != null) {
+                for (String s : values) {
+                    writeString(s);
+                }
+            }
+        }
+
+        /**
+         * Collections are written with their size + 1, where 0 represents null
+         */
+        private void writeSize(Collection<?> values) {
+            writeVarInt(values == null ? 0 : values.size() + 1);
+        }
+
+        private void writeString(String s) {
+            if (s == null) {
+                writeVarInt(NULL_STRING);
+                return;
+            }
+
+            Integer index = strings.get(s);
+            if (index != null) {
+                writeVarInt(index + STRING_REFERENCE_OFFSET);
+                return;
+            }
+
+            strings.put(s, strings.size());
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(NEW_STRING);
+            writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+    }
+
+
+    private static class Reader {
+
+        private final byte[] data;
+
+        private int position = 0;
+
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        TestResultsDto readTestResults() {
+
+            byte version = data[position++];
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported version of binary test results: " + version);
+            }
+
+            TestResultsDto dto = new TestResultsDto();
+
+            int n = readSize();
+            if (n < 0) {
+                dto.targets = null;
+            } else {
+                int previousAction = 0;
+                for (int i = 0; i < n; i++) {
+                    TargetInfoDto t = new TargetInfoDto();
+                    t.id = readVarInt();
+                    t.descriptiveId = readString();
+                    t.value = Double.longBitsToDouble(readLong());
+                    t.actionIndex = previousAction + unZigZag(readVarInt());
+                    previousAction = t.actionIndex;
+                    dto.targets.add(t);
+                }
+            }
+
+            n = readSize();
+            if (n < 0) {
+                dto.additionalInfoList = null;
+            } else {
+                for (int i = 0; i < n; i++) {
+                    AdditionalInfoDto info = new AdditionalInfoDto();
+                    info.queryParameters = readStrings(new HashSet<>());
+                    info.headers = readStrings(new HashSet<>());
+                    int k = readSize();
+                    if (k < 0) {
+                        info.stringSpecializations = null;
+                    } else {
+                        for (int j = 0; j < k; j++) {
+                            String key = readString();
+                            int m = readSize();
+                            List<StringSpecializationInfoDto> list = null;
+                            if (m >= 0) {
+                                list = new ArrayList<>(m);
+                                for (int z = 0; z < m; z++) {
+                                    list.add(new StringSpecializationInfoDto(readString(), readString()));
+                                }
+                            }
+                            info.stringSpecializations.put(key, list);
+                        }
+                    }
+                    info.lastExecutedStatement = readString();
+                    dto.additionalInfoList.add(info);
+                }
+            }
+
+            n = readSize();
+            if (n < 0) {
+                dto.extraHeuristics = null;
+            } else {
+                for (int i = 0; i < n; i++) {
+                    ExtraHeuristicsDto extra = new ExtraHeuristicsDto();
+                    int k = readSize();
+                    if (k < 0) {
+                        extra.heuristics = null;
+                    } else {
+                        for (int j = 0; j < k; j++) {
+                            extra.heuristics.add(readHeuristicEntry());
+                        }
+                    }
+                    extra.databaseExecutionDto = readExecution();
+                    dto.extraHeuristics.add(extra);
+                }
+            }
+
+            if (position != data.length) {
+                throw new IllegalArgumentException("Unexpected " + (data.length - position) + " trailing bytes");
+            }
+
+            return dto;
+        }
+
+        private HeuristicEntryDto readHeuristicEntry() {
+            if (data[position++] == 0) {
+                return null;
+            }
+            HeuristicEntryDto h = new HeuristicEntryDto();
+            int type = readVarInt();
+            h.type = type == 0 ? null : HeuristicEntryDto.Type.values()[type - 1];
+            int objective = readVarInt();
+            h.objective = objective == 0 ? null : HeuristicEntryDto.Objective.values()[objective - 1];
+            h.id = readString();
+            if (data[position++] != 0) {
+                h.value = Double.longBitsToDouble(readLong());
+            }
+            return h;
+        }
+
+        private ExecutionDto readExecution() {
+            if (data[position++] == 0) {
+                return null;
+            }
+            ExecutionDto e = new ExecutionDto();
+            e.queriedData = readTableColumns();
+            e.updatedData = readTableColumns();
+            e.insertedData = readTableColumns();
+            e.deletedData = readStrings(new HashSet<>());
+            e.failedWhere = readTableColumns();
+            e.numberOfSqlCommands = readVarInt();
+            return e;
+        }
+
+        private Map<String, Set<String>> readTableColumns() {
+            int n = readSize();
+            if (n < 0) {
+                return null;
+            }
+            Map<String, Set<String>> map = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                map.put(readString(), readStrings(new HashSet<>()));
+            }
+            return map;
+        }
+
+        private <C extends Collection<String>> C readStrings(C collection) {
+            int n = readSize();
+            if (n < 0) {
+                return null;
+            }
+            for (int i = 0; i < n; i++) {
+                collection.add(readString());
+            }
+            return collection;
+        }
+
+        /**
+         * @return -1 if the collection was null
+         */
+        private int readSize() {
+            return readVarInt() - 1;
+        }
+
+        private String readString() {
+            int tag = readVarInt();
+            if (tag == NULL_STRING) {
+                return null;
+            }
+            if (tag == NEW_STRING) {
+                int length = readVarInt();
+                if (length < 0 || position + length > data.length) {
+                    throw new IllegalArgumentException("Invalid string length: " + length);
+                }
+                String s = new String(data, position, length, StandardCharsets.UTF_8);
+                position += length;
+                strings.add(s);
+                return s;
+            }
+            int index = tag - STRING_REFERENCE_OFFSET;
+            if (index < 0 || index >= strings.size()) {
+                throw new IllegalArgumentException("Invalid string reference: " + index);
+            }
+            return strings.get(index);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+                if (shift > 28) {
+                    throw new IllegalArgumentException("Malformed varint");
+                }
+            }
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+    }
+
+    private static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static int unZigZag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
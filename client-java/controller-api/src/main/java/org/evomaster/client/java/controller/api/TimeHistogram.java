@@ -0,0 +1,108 @@
+package org.evomaster.client.java.controller.api;
+
+import org.evomaster.client.java.controller.api.dto.TimeHistogramDto;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of the durations of some operation.
+ * Durations are kept in buckets with exponentially growing sizes (powers of 2
+ * in microseconds), so recording has constant cost and memory, and percentiles
+ * are approximated by the upper bound of the bucket they fall in.
+ * <br>
+ * This can be updated concurrently.
+ * <br>
+ * Used by both the Driver (eg, for the SUT endpoints) and the core (eg, for the HTTP calls to the SUT).
+ */
+public class TimeHistogram {
+
+    /**
+     * Bucket i contains durations in [2^(i-1), 2^i) microseconds, with bucket 0 for
+     * anything below 1 microsecond. The last bucket is for anything above 2^40 microseconds
+     */
+    private static final int BUCKETS = 42;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong(0);
+
+    private final AtomicLong totalNs = new AtomicLong(0);
+
+    private final AtomicLong maxNs = new AtomicLong(0);
+
+
+    public void record(long durationNs) {
+        long ns = Math.max(0, durationNs);
+        long micros = ns / 1000;
+        int index = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+        buckets.incrementAndGet(index);
+        count.incrementAndGet();
+        totalNs.addAndGet(ns);
+        maxNs.accumulateAndGet(ns, Math::max);
+    }
+
+    /**
+     * Record the time elapsed since {@code startNs}, as given by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNs) {
+        record(System.nanoTime() - startNs);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double averageMs() {
+        long n = count.get();
+        return n == 0 ? 0 : ((double) totalNs.get() / n) / 1_000_000;
+    }
+
+    public double maxMs() {
+        return maxNs.get() / 1_000_000d;
+    }
+
+    public double totalMs() {
+        return totalNs.get() / 1_000_000d;
+    }
+
+    /**
+     * @param p percentile, in (0,100]
+     * @return an upper bound (in milliseconds) for the duration of the p% fastest recorded operations
+     */
+    public double percentileMs(double p) {
+        if (p <= 0 || p > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + p);
+        }
+
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(n * p / 100d);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) {
+                long upperMicros = i == 0 ? 1 : (1L << i);
+                //no point in giving a bound higher than what actually observed
+                return Math.min(upperMicros / 1000d, maxMs());
+            }
+        }
+        return maxMs();
+    }
+
+    public TimeHistogramDto toDto(String name) {
+        TimeHistogramDto dto = new TimeHistogramDto();
+        dto.name = name;
+        dto.count = getCount();
+        dto.averageMs = averageMs();
+        dto.p50Ms = percentileMs(50);
+        dto.p99Ms = percentileMs(99);
+        dto.maxMs = maxMs();
+        dto.totalMs = totalMs();
+        return dto;
+    }
+}
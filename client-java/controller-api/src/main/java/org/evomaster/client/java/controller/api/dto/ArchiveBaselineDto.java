@@ -0,0 +1,27 @@
+package org.evomaster.client.java.controller.api.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lowest heuristic values with which a test could still be added to the archive of
+ * EvoMaster for each target.
+ * These are used when only the targets that could improve the archive are returned
+ * in the test results (ie, "improvedOnly"), and they can only be computed by EvoMaster,
+ * as what seen in the SUT includes what executed when the SUT starts or is reset,
+ * and tests that EvoMaster discarded.
+ */
+public class ArchiveBaselineDto {
+
+    /**
+     * Whether all the values previously sent should be discarded
+     */
+    public Boolean reset;
+
+    /**
+     * Key -> numeric id of the target, as used in the Driver
+     * <br>
+     * Value -> lowest heuristic value accepted by the archive, or {@code null} if any would be
+     */
+    public Map<Integer, Double> values = new HashMap<>();
+}
@@ -15,4 +15,28 @@ public class ControllerInfoDto {
      * to collect data about its execution
      */
     public Boolean isInstrumentationOn;
+
+
+    /**
+     * Whether the controller can return the test results in the
+     * binary format {@link org.evomaster.client.java.controller.api.TestResultsBinaryFormat},
+     * instead of JSON
+     */
+    public Boolean supportBinaryTestResults;
+
+    /**
+     * Whether the controller can return only the targets that could improve
+     * the archive of EvoMaster in a test execution (with the query parameter "improvedOnly"
+     * on the test results), instead of the ones explicitly asked for.
+     * Which values could improve the archive is told by EvoMaster
+     * (see {@link org.evomaster.client.java.controller.api.dto.ArchiveBaselineDto})
+     */
+    public Boolean supportImprovedTargetsOnly;
+
+    /**
+     * Whether the controller can save and restore snapshots of the
+     * state of the database (see "snapshotKey" in
+     * {@link org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto})
+     */
+    public Boolean supportDatabaseSnapshots;
 }
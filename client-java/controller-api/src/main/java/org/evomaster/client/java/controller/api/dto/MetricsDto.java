@@ -0,0 +1,13 @@
+package org.evomaster.client.java.controller.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timings of the operations done in the SUT controller since it was started,
+ * to diagnose where the time of evaluating the tests is spent
+ */
+public class MetricsDto {
+
+    public List<TimeHistogramDto> histograms = new ArrayList<>();
+}
@@ -0,0 +1,29 @@
+package org.evomaster.client.java.controller.api.dto;
+
+/**
+ * Summary of the distribution of the durations of an operation
+ * done in the SUT controller (eg, handling a specific endpoint).
+ * Percentiles are approximated.
+ */
+public class TimeHistogramDto {
+
+    /**
+     * What the durations refer to
+     */
+    public String name;
+
+    /**
+     * How many times the operation was executed
+     */
+    public long count;
+
+    public double averageMs;
+
+    public double p50Ms;
+
+    public double p99Ms;
+
+    public double maxMs;
+
+    public double totalMs;
+}
@@ -0,0 +1,31 @@
+package org.evomaster.client.java.controller.api.dto.database.execution;
+
+/**
+ * Statistics on the caching of the parsing and analyses of the SQL commands
+ * executed by the SUT.
+ */
+public class SqlCacheStatsDto {
+
+    /**
+     * How many times a parsed statement, or the result of an analysis on it,
+     * was retrieved from the cache
+     */
+    public long hits;
+
+    /**
+     * How many times a statement had to be parsed, or analyzed, as
+     * not in the cache
+     */
+    public long misses;
+
+    /**
+     * Number of elements currently in the cache
+     */
+    public int cachedEntries;
+
+    /**
+     * Estimation of how much time was saved thanks to the cache, in milliseconds.
+     * This is based on how long it took to compute the cached results.
+     */
+    public long savedTimeMs;
+}
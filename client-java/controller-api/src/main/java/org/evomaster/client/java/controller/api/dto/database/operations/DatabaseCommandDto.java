@@ -20,4 +20,20 @@ public class DatabaseCommandDto {
      * come in this list AFTER Y.
      */
     public List<InsertionDto> insertions = new ArrayList<>();
+
+    /**
+     * If "command" is a SELECT, the max number of rows to return.
+     * Null or negative values mean no limit.
+     */
+    public Integer maxRows;
+
+    /**
+     * If not null, used to save or restore a snapshot of the state of the database.
+     * If there are "insertions", then, after executing them, a snapshot of the
+     * modified tables is saved with this key.
+     * If there is no "insertions" nor "command", then the snapshot previously
+     * saved with this key is restored, instead of executing again its insertions.
+     * If no such snapshot exists, a 404 status is returned.
+     */
+    public String snapshotKey;
 }
@@ -0,0 +1,189 @@
+package org.evomaster.client.java.controller.api;
+
+import org.evomaster.client.java.controller.api.dto.*;
+import org.evomaster.client.java.controller.api.dto.database.execution.ExecutionDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestResultsBinaryFormatTest {
+
+    private static TargetInfoDto target(int id, String descriptiveId, double value, int actionIndex) {
+        TargetInfoDto t = new TargetInfoDto();
+        t.id = id;
+        t.descriptiveId = descriptiveId;
+        t.value = value;
+        t.actionIndex = actionIndex;
+        return t;
+    }
+
+    @Test
+    public void testEmpty() {
+
+        TestResultsDto dto = TestResultsBinaryFormat.decode(TestResultsBinaryFormat.encode(new TestResultsDto()));
+
+        assertTrue(dto.targets.isEmpty());
+        assertTrue(dto.additionalInfoList.isEmpty());
+        assertTrue(dto.extraHeuristics.isEmpty());
+    }
+
+    @Test
+    public void testTargets() {
+
+        TestResultsDto dto = new TestResultsDto();
+        dto.targets.add(target(0, "Line_at_com.foo.Bar_00012", 1.0, 0));
+        dto.targets.add(target(300, null, 0.5, 3));
+        dto.targets.add(target(70000, null, 0.0, -1));
+        dto.targets.add(target(5, "Line_at_com.foo.Bar_00012", 0.25, 2));
+
+        TestResultsDto res = TestResultsBinaryFormat.decode(TestResultsBinaryFormat.encode(dto));
+
+        assertEquals(dto.targets.size(), res.targets.size());
+        for (int i = 0; i < dto.targets.size(); i++) {
+            TargetInfoDto expected = dto.targets.get(i);
+            TargetInfoDto actual = res.targets.get(i);
+            assertEquals(expected.id, actual.id);
+            assertEquals(expected.descriptiveId, actual.descriptiveId);
+            assertEquals(expected.value, actual.value, 0.0000001);
+            assertEquals(expected.actionIndex, actual.actionIndex);
+        }
+    }
+
+    @Test
+    public void testValuesAreNotRounded() {
+
+        double almostCovered = 1 - 1e-9;
+        double tiny = 1e-50;
+
+        TestResultsDto dto = new TestResultsDto();
+        dto.targets.add(target(0, null, almostCovered, 0));
+        dto.targets.add(target(1, null, tiny, 0));
+        dto.targets.add(target(2, null, 1d / 3, 0));
+
+        TestResultsDto res = TestResultsBinaryFormat.decode(TestResultsBinaryFormat.encode(dto));
+
+        //as float, this would be 1, ie, a covered target
+        assertTrue(res.targets.get(0).value < 1d);
+        assertEquals(almostCovered, res.targets.get(0).value);
+        //as float, this would be 0, ie, a target with no impact
+        assertTrue(res.targets.get(1).value > 0d);
+        assertEquals(1d / 3, res.targets.get(2).value);
+    }
+
+    @Test
+    public void testAdditionalInfoAndExtraHeuristics() {
+
+        TestResultsDto dto = new TestResultsDto();
+
+        AdditionalInfoDto info = new AdditionalInfoDto();
+        info.headers.add("x-foo");
+        info.queryParameters.add("q");
+        info.stringSpecializations.put("42", Arrays.asList(new StringSpecializationInfoDto("INTEGER", null)));
+        info.lastExecutedStatement = "com.foo.Bar_00012";
+        dto.additionalInfoList.add(info);
+        dto.additionalInfoList.add(new AdditionalInfoDto());
+
+        ExtraHeuristicsDto extra = new ExtraHeuristicsDto();
+        extra.heuristics.add(new HeuristicEntryDto(HeuristicEntryDto.Type.SQL,
+                HeuristicEntryDto.Objective.MINIMIZE_TO_ZERO, "select * from Foo where x=5", 12345.678));
+        extra.heuristics.add(null);
+        extra.databaseExecutionDto = new ExecutionDto();
+        extra.databaseExecutionDto.queriedData.put("Foo", new HashSet<>(Arrays.asList("x", "y")));
+        extra.databaseExecutionDto.failedWhere.put("Foo", new HashSet<>(Arrays.asList("x")));
+        extra.databaseExecutionDto.deletedData.add("Bar");
+        extra.databaseExecutionDto.numberOfSqlCommands = 3;
+        dto.extraHeuristics.add(extra);
+        dto.extraHeuristics.add(new ExtraHeuristicsDto());
+
+        TestResultsDto res = TestResultsBinaryFormat.decode(TestResultsBinaryFormat.encode(dto));
+
+        assertEquals(2, res.additionalInfoList.size());
+        AdditionalInfoDto resInfo = res.additionalInfoList.get(0);
+        assertEquals(info.headers, resInfo.headers);
+        assertEquals(info.queryParameters, resInfo.queryParameters);
+        assertEquals("com.foo.Bar_00012", resInfo.lastExecutedStatement);
+        assertEquals(1, resInfo.stringSpecializations.get("42").size());
+        assertEquals("INTEGER", resInfo.stringSpecializations.get("42").get(0).stringSpecialization);
+        assertNull(resInfo.stringSpecializations.get("42").get(0).value);
+        assertNull(res.additionalInfoList.get(1).lastExecutedStatement);
+
+        assertEquals(2, res.extraHeuristics.size());
+        ExtraHeuristicsDto resExtra = res.extraHeuristics.get(0);
+        assertEquals(2, resExtra.heuristics.size());
+        HeuristicEntryDto h = resExtra.heuristics.get(0);
+        assertEquals(HeuristicEntryDto.Type.SQL, h.type);
+        assertEquals(HeuristicEntryDto.Objective.MINIMIZE_TO_ZERO, h.objective);
+        assertEquals("select * from Foo where x=5", h.id);
+        assertEquals(12345.678, h.value, 0.0);
+        assertNull(resExtra.heuristics.get(1));
+        assertEquals(extra.databaseExecutionDto.queriedData, resExtra.databaseExecutionDto.queriedData);
+        assertEquals(extra.databaseExecutionDto.failedWhere, resExtra.databaseExecutionDto.failedWhere);
+        assertEquals(extra.databaseExecutionDto.deletedData, resExtra.databaseExecutionDto.deletedData);
+        assertTrue(resExtra.databaseExecutionDto.updatedData.isEmpty());
+        assertEquals(3, resExtra.databaseExecutionDto.numberOfSqlCommands);
+        assertNull(res.extraHeuristics.get(1).databaseExecutionDto);
+    }
+
+    @Test
+    public void testRepeatedStringsAreWrittenOnce() {
+
+        String longId = "Branch_at_com.foo.SomeVeryLongClassNameForTesting_at_line_00042_position_0_trueBranch";
+
+        TestResultsDto once = new TestResultsDto();
+        once.targets.add(target(0, longId, 1.0, 0));
+
+        TestResultsDto twice = new TestResultsDto();
+        twice.targets.add(target(0, longId, 1.0, 0));
+        twice.targets.add(target(1, longId, 1.0, 0));
+
+        int a = TestResultsBinaryFormat.encode(once).length;
+        int b = TestResultsBinaryFormat.encode(twice).length;
+
+        //id + string reference + double + action delta
+        assertTrue(b - a <= 11, "" + (b - a));
+    }
+
+    @Test
+    public void testInvalidInput() {
+
+        assertThrows(IllegalArgumentException.class, () -> TestResultsBinaryFormat.decode(new byte[]{42}));
+
+        byte[] data = TestResultsBinaryFormat.encode(new TestResultsDto());
+        assertThrows(IllegalArgumentException.class,
+                () -> TestResultsBinaryFormat.decode(Arrays.copyOf(data, data.length - 1)));
+    }
+
+    @Test
+    public void testInvalidStringLength() {
+
+        TestResultsDto dto = new TestResultsDto();
+        dto.targets.add(target(1, "abc", 1, 0));
+        byte[] data = TestResultsBinaryFormat.encode(dto);
+
+        //the string is written as its tag, its length, and then its UTF-8 bytes
+        int position = indexOf(data, new byte[]{1, 3, 'a', 'b', 'c'}) + 1;
+        assertTrue(position > 0);
+
+        byte[] tooLong = data.clone();
+        tooLong[position] = 100;
+        assertThrows(IllegalArgumentException.class, () -> TestResultsBinaryFormat.decode(tooLong));
+
+        //-1 as a varint
+        byte[] negative = new byte[data.length + 4];
+        System.arraycopy(data, 0, negative, 0, position);
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}, 0, negative, position, 5);
+        System.arraycopy(data, position + 1, negative, position + 5, data.length - position - 1);
+        assertThrows(IllegalArgumentException.class, () -> TestResultsBinaryFormat.decode(negative));
+    }
+
+    private static int indexOf(byte[] data, byte[] sequence) {
+        for (int i = 0; i + sequence.length <= data.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(data, i, i + sequence.length), sequence)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
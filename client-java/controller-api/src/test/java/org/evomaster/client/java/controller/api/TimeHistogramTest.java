@@ -0,0 +1,60 @@
+package org.evomaster.client.java.controller.api;
+
+import org.evomaster.client.java.controller.api.dto.TimeHistogramDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        TimeHistogram h = new TimeHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0d, h.averageMs());
+        assertEquals(0d, h.percentileMs(50));
+        assertEquals(0d, h.maxMs());
+    }
+
+    @Test
+    public void testPercentiles() {
+        TimeHistogram h = new TimeHistogram();
+
+        //90 calls of ~1ms, and 10 of ~100ms
+        for (int i = 0; i < 90; i++) {
+            h.record(1_000_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            h.record(100_000_000);
+        }
+
+        assertEquals(100, h.getCount());
+        assertEquals(10.9, h.averageMs(), 0.001);
+        assertEquals(100d, h.maxMs(), 0.001);
+
+        //1000 microseconds are in the bucket [512, 1024)
+        assertEquals(1.024, h.percentileMs(50), 0.001);
+        assertEquals(1.024, h.percentileMs(90), 0.001);
+        //bounded by the max
+        assertEquals(100d, h.percentileMs(99), 0.001);
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        TimeHistogram h = new TimeHistogram();
+        assertThrows(IllegalArgumentException.class, () -> h.percentileMs(0));
+        assertThrows(IllegalArgumentException.class, () -> h.percentileMs(101));
+    }
+
+    @Test
+    public void testToDto() {
+        TimeHistogram h = new TimeHistogram();
+        h.record(2_000_000);
+
+        TimeHistogramDto dto = h.toDto("foo");
+        assertEquals("foo", dto.name);
+        assertEquals(1L, dto.count);
+        assertEquals(2d, dto.maxMs, 0.001);
+        assertEquals(2d, dto.totalMs, 0.001);
+    }
+}
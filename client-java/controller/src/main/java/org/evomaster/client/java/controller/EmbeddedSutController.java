@@ -7,6 +7,7 @@ import org.evomaster.client.java.instrumentation.staticstate.ExecutionTracer;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 
 public abstract class EmbeddedSutController extends SutController {
@@ -31,6 +32,16 @@ public abstract class EmbeddedSutController extends SutController {
         return InstrumentationController.getTargetInfos(ids);
     }
 
+    @Override
+    public final List<TargetInfo> getImprovedTargetInfos(){
+        return InstrumentationController.getImprovedTargetInfos();
+    }
+
+    @Override
+    public final void updateArchiveBaseline(boolean reset, Map<Integer, Double> values){
+        InstrumentationController.updateArchiveBaseline(reset, values);
+    }
+
     @Override
     public final List<AdditionalInfo> getAdditionalInfoList(){
         return InstrumentationController.getAdditionalInfoList();
@@ -11,6 +11,7 @@ import org.evomaster.client.java.instrumentation.AdditionalInfo;
 import org.evomaster.client.java.instrumentation.TargetInfo;
 import org.evomaster.client.java.instrumentation.external.JarAgentLocator;
 import org.evomaster.client.java.instrumentation.external.ServerController;
+import org.evomaster.client.java.instrumentation.external.SharedMemoryRegion;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -20,6 +21,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -119,6 +121,28 @@ public abstract class ExternalSutController extends SutController {
      */
     public abstract void postStop();
 
+    /**
+     * Starting the SUT with bytecode instrumentation can be expensive, and it is done each time
+     * the SUT is restarted.
+     * Instrumented classes can be kept in a persistent cache on disk, which can be re-used
+     * among different runs.
+     *
+     * @return path to the directory of such cache, or {@code null} if no cache should be used.
+     */
+    public String getInstrumentationCacheDirectory() {
+        return null;
+    }
+
+    /**
+     * As the SUT runs on the same host, coverage info can be read from a memory-mapped
+     * file written directly by the Java Agent, instead of being serialized over TCP.
+     *
+     * @return size in bytes of such shared memory region, or 0 if it should not be used.
+     */
+    public int getCoverageSharedMemorySize() {
+        return SharedMemoryRegion.DEFAULT_SIZE;
+    }
+
     //-------------------------------------------------------------
 
     @Override
@@ -159,6 +183,11 @@ public abstract class ExternalSutController extends SutController {
                 command.add("-D" + InputProperties.SQL_DRIVER + "=" + driver);
             }
 
+            String cacheDir = getInstrumentationCacheDirectory();
+            if (cacheDir != null && !cacheDir.isEmpty()) {
+                command.add("-D" + InputProperties.CACHE_DIR + "=" + cacheDir);
+            }
+
             String jarPath = JarAgentLocator.getAgentJarPath();
             if (jarPath == null) {
                 throw new IllegalStateException("Cannot locate JAR file with EvoMaster Java Agent");
@@ -216,6 +245,11 @@ public abstract class ExternalSutController extends SutController {
                 SimpleLogger.error("Could not establish connection to retrieve code metrics");
                 return null;
             }
+
+            int size = getCoverageSharedMemorySize();
+            if (size > 0 && !serverController.initSharedMemory(size)) {
+                SimpleLogger.warn("Coverage info will be sent over TCP, as shared memory cannot be used");
+            }
         }
 
         //need to block until server is ready
@@ -312,6 +346,20 @@ public abstract class ExternalSutController extends SutController {
         return serverController.getTargetInfos(ids);
     }
 
+    @Override
+    public final List<TargetInfo> getImprovedTargetInfos() {
+        checkInstrumentation();
+        return serverController.getImprovedTargetInfos();
+    }
+
+    @Override
+    public final void updateArchiveBaseline(boolean reset, Map<Integer, Double> values) {
+        checkInstrumentation();
+        if (!serverController.updateArchiveBaseline(reset, values)) {
+            throw new IllegalStateException("Failed to send archive baseline to the SUT");
+        }
+    }
+
     @Override
     public final List<AdditionalInfo> getAdditionalInfoList(){
         checkInstrumentation();
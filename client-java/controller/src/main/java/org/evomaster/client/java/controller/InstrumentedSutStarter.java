@@ -3,6 +3,8 @@ package org.evomaster.client.java.controller;
 import com.ea.agentloader.AgentLoader;
 import org.evomaster.client.java.controller.internal.db.StandardOutputTracker;
 import org.evomaster.client.java.controller.internal.SutController;
+import org.evomaster.client.java.databasespy.P6SpyChannelLogger;
+import org.evomaster.client.java.databasespy.SqlEventChannel;
 import org.evomaster.client.java.instrumentation.InstrumentingAgent;
 
 /**
@@ -13,6 +15,12 @@ import org.evomaster.client.java.instrumentation.InstrumentingAgent;
  */
 public class InstrumentedSutStarter {
 
+    /**
+     * If set to true, SQL commands of an embedded SUT are intercepted by scanning
+     * its standard output, instead of passing them directly in memory
+     */
+    public static final String PROP_SQL_FROM_STDOUT = "em.sqlFromStdout";
+
     static {
         /*
             Force loading of Agent here, just to make sure it is called only once
@@ -25,18 +33,26 @@ public class InstrumentedSutStarter {
 
     private final SutController sutController;
 
+    private final boolean sqlChannel;
+
 
     public InstrumentedSutStarter(SutController sutController) {
 
         this.sutController = sutController;
 
+        boolean channel = false;
+
         if (sutController instanceof EmbeddedSutController) {
             InstrumentingAgent.changePackagesToInstrument(sutController.getPackagePrefixesToCover());
 
             String driver = sutController.getDatabaseDriverName();
             if(driver!=null && ! driver.isEmpty()){
-                InstrumentingAgent.initP6Spy(driver);
-                return;
+                if(Boolean.parseBoolean(System.getProperty(PROP_SQL_FROM_STDOUT))){
+                    InstrumentingAgent.initP6Spy(driver);
+                } else {
+                    InstrumentingAgent.initP6Spy(driver, P6SpyChannelLogger.class.getName());
+                    channel = true;
+                }
             }
 
         } else if(sutController instanceof ExternalSutController){
@@ -51,15 +67,25 @@ public class InstrumentedSutStarter {
         } else {
             throw new IllegalArgumentException("Invalid SUT controller type");
         }
+
+        sqlChannel = channel;
     }
 
     public boolean start() {
-        StandardOutputTracker.setTracker(true, sutController);
+        if(sqlChannel){
+            SqlEventChannel.setConsumer(sql -> StandardOutputTracker.handleSql(sutController, sql));
+        } else {
+            StandardOutputTracker.setTracker(true, sutController);
+        }
         return sutController.startTheControllerServer();
     }
 
     public boolean stop() {
-        StandardOutputTracker.setTracker(false, null);
+        if(sqlChannel){
+            SqlEventChannel.setConsumer(null);
+        } else {
+            StandardOutputTracker.setTracker(false, null);
+        }
         return sutController.stopTheControllerServer();
     }
 
@@ -24,7 +24,7 @@ public class DataRow {
      */
     private final List<Object> values;
 
-    private final static String NULL_VALUE = "NULL";
+    final static String NULL_VALUE = "NULL";
 
 
     public DataRow(String columnName, Object value, String tableName) {
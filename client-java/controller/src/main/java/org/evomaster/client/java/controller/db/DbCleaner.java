@@ -4,9 +4,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -101,15 +99,180 @@ public class DbCleaner {
         }
     }
 
-    private static void truncateTables(List<String> tablesToSkip, Statement s, String schema, boolean singleCommand) throws SQLException {
+    /**
+     * Clear only the tables that might have been modified, which is cheaper than
+     * clearing the whole database when there are many tables but each test only
+     * touches few of them.
+     * All sequences are still reset, as those are cheap to reset, and can be
+     * modified by commands that do not change any table (eg, a SELECT calling NEXTVAL).
+     *
+     * <p>
+     * Note: this assumes that all the tables that are not in {@code modifiedTables}
+     * are already clean, eg because this method (or {@link #clearDatabase_H2}) was
+     * already called before.
+     *
+     * @param modifiedTables names of the tables to clear, eg as returned by
+     *                       {@link org.evomaster.client.java.controller.internal.SutController#collectModifiedTables()}.
+     *                       If null, or if any of those tables cannot be found, all tables are cleared.
+     */
+    public static void clearModifiedTables_H2(Connection connection, Collection<String> modifiedTables) {
+        clearModifiedTables_H2(connection, "PUBLIC", null, modifiedTables);
+    }
+
+    public static void clearModifiedTables_H2(Connection connection, String schemaName, List<String> tablesToSkip,
+                                              Collection<String> modifiedTables) {
+
+        if (modifiedTables == null) {
+            clearDatabase_H2(connection, schemaName, tablesToSkip);
+            return;
+        }
+
+        try {
+            Statement s = connection.createStatement();
+
+            Set<String> tables = getTables(s, schemaName);
+            Set<String> toClear = resolveTables(tables, modifiedTables);
+            if (toClear == null) {
+                s.close();
+                clearDatabase_H2(connection, schemaName, tablesToSkip);
+                return;
+            }
+
+            s.execute("SET REFERENTIAL_INTEGRITY FALSE");
+
+            truncateTables(tablesToSkip, s, schemaName, false, tables, toClear);
+
+            resetSequences(s, schemaName);
+
+            s.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            s.close();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #clearModifiedTables_H2(Connection, Collection)}, but for Postgres.
+     * Note: the tables with foreign keys to the modified ones are cleared as well.
+     */
+    public static void clearModifiedTables_Postgres(Connection connection, Collection<String> modifiedTables) {
+        clearModifiedTables_Postgres(connection, "public", null, modifiedTables);
+    }
+
+    public static void clearModifiedTables_Postgres(Connection connection, String schemaName, List<String> tablesToSkip,
+                                                    Collection<String> modifiedTables) {
+
+        if (modifiedTables == null) {
+            clearDatabase_Postgres(connection, schemaName, tablesToSkip);
+            return;
+        }
+
+        try {
+            Statement s = connection.createStatement();
+
+            Set<String> tables = getTables(s, schemaName);
+            Set<String> toClear = resolveTables(tables, modifiedTables);
+            if (toClear == null) {
+                s.close();
+                clearDatabase_Postgres(connection, schemaName, tablesToSkip);
+                return;
+            }
+
+            toClear = addReferencingTables_Postgres(s, schemaName, toClear);
+
+            truncateTables(tablesToSkip, s, schemaName, true, tables, toClear);
+
+            resetSequences(s, schemaName);
 
-        // Find all tables and truncate them
+            s.close();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Set<String> getTables(Statement s, String schema) throws SQLException {
         Set<String> tables = new HashSet<>();
         ResultSet rs = s.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES  where TABLE_SCHEMA='" + schema + "' AND (TABLE_TYPE='TABLE' OR TABLE_TYPE='BASE TABLE')");
         while (rs.next()) {
             tables.add(rs.getString(1));
         }
         rs.close();
+        return tables;
+    }
+
+    /**
+     * Map the names of the tables as used in SQL commands (eg, with quotes, or
+     * qualified with the schema) to the actual names of the tables in the database
+     *
+     * @return null if any of the names cannot be mapped
+     */
+    private static Set<String> resolveTables(Set<String> tables, Collection<String> names) {
+
+        Set<String> resolved = new HashSet<>();
+
+        for (String name : names) {
+            String n = name.trim();
+            int dot = n.lastIndexOf('.');
+            if (dot >= 0) {
+                n = n.substring(dot + 1);
+            }
+            n = n.replace("\"", "").replace("`", "").trim();
+
+            String target = n;
+            Optional<String> table = tables.stream().filter(t -> t.equalsIgnoreCase(target)).findFirst();
+            if (!table.isPresent()) {
+                return null;
+            }
+            resolved.add(table.get());
+        }
+
+        return resolved;
+    }
+
+    /**
+     * In Postgres, a table cannot be truncated if any other table has a foreign key to it,
+     * unless those other tables are truncated in the same command.
+     * So, given the tables to truncate, we also add all the tables that directly or
+     * indirectly reference them
+     */
+    private static Set<String> addReferencingTables_Postgres(Statement s, String schema, Set<String> tables) throws SQLException {
+
+        //referenced table -> referencing tables
+        Map<String, Set<String>> references = new HashMap<>();
+
+        ResultSet rs = s.executeQuery("SELECT DISTINCT tc.table_name, ccu.table_name " +
+                "FROM information_schema.table_constraints tc " +
+                "JOIN information_schema.constraint_column_usage ccu " +
+                "ON tc.constraint_name = ccu.constraint_name AND tc.constraint_schema = ccu.constraint_schema " +
+                "WHERE tc.constraint_type = 'FOREIGN KEY' AND tc.table_schema='" + schema + "'");
+        while (rs.next()) {
+            references.computeIfAbsent(rs.getString(2), k -> new HashSet<>()).add(rs.getString(1));
+        }
+        rs.close();
+
+        Set<String> all = new HashSet<>(tables);
+        Deque<String> toVisit = new ArrayDeque<>(tables);
+        while (!toVisit.isEmpty()) {
+            for (String t : references.getOrDefault(toVisit.pop(), Collections.emptySet())) {
+                if (all.add(t)) {
+                    toVisit.push(t);
+                }
+            }
+        }
+
+        return all;
+    }
+
+    private static void truncateTables(List<String> tablesToSkip, Statement s, String schema, boolean singleCommand) throws SQLException {
+        truncateTables(tablesToSkip, s, schema, singleCommand, getTables(s, schema), null);
+    }
+
+    /**
+     * @param tables  all the tables in the schema
+     * @param toClear if not null, only these tables are truncated
+     */
+    private static void truncateTables(List<String> tablesToSkip, Statement s, String schema, boolean singleCommand,
+                                       Set<String> tables, Set<String> toClear) throws SQLException {
 
         if (tables.isEmpty()) {
             throw new IllegalStateException("Could not find any table");
@@ -127,10 +290,15 @@ public class DbCleaner {
         }
 
         List<String> tablesToClear = tables.stream()
+                .filter(n -> toClear == null || toClear.contains(n))
                 .filter(n -> tablesToSkip == null || tablesToSkip.isEmpty() ||
                         !tablesToSkip.stream().anyMatch(skip -> skip.equalsIgnoreCase(n)))
                 .collect(Collectors.toList());
 
+        if (tablesToClear.isEmpty()) {
+            return;
+        }
+
         if (singleCommand) {
             String ts = tablesToClear.stream()
                     .sorted()
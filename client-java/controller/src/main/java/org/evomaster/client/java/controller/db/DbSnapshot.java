@@ -0,0 +1,263 @@
+package org.evomaster.client.java.controller.db;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * A copy of the content of some tables (and of all the sequences in the current schema)
+ * of a database, which can be later used to bring back the database to the same state.
+ *
+ * <p>
+ * This is useful when the same SQL insertions need to be executed over and over again
+ * at the beginning of each test: restoring a snapshot with JDBC batches is cheaper than
+ * executing each single insertion (and resolving the ids of its foreign keys).
+ * It assumes that, before a restore, the database is in the same state it was before
+ * taking the snapshot (eg, just after the cleaning done when resetting the SUT).
+ *
+ * <p>
+ * Currently, only H2 and Postgres are supported.
+ */
+public class DbSnapshot {
+
+    private enum Dialect {H2, POSTGRES}
+
+    private static class TableData {
+
+        final String name;
+
+        /**
+         * Already quoted
+         */
+        final List<String> columns;
+
+        /**
+         * For each column, its type as defined in {@link java.sql.Types}
+         */
+        final int[] sqlTypes;
+
+        final List<Object[]> rows;
+
+        TableData(String name, List<String> columns, int[] sqlTypes, List<Object[]> rows) {
+            this.name = name;
+            this.columns = columns;
+            this.sqlTypes = sqlTypes;
+            this.rows = rows;
+        }
+    }
+
+    private final Dialect dialect;
+
+    /**
+     * In the same order in which they were given (eg, referenced tables first)
+     */
+    private final List<TableData> tables;
+
+    /**
+     * Sequence name (already qualified and quoted) -> SQL command to bring it back to its current state
+     */
+    private final Map<String, String> sequences;
+
+
+    private DbSnapshot(Dialect dialect, List<TableData> tables, Map<String, String> sequences) {
+        this.dialect = dialect;
+        this.tables = tables;
+        this.sequences = sequences;
+    }
+
+    public static boolean isSupported(Connection connection) throws SQLException {
+        return getDialect(connection) != null;
+    }
+
+    private static Dialect getDialect(Connection connection) throws SQLException {
+        String name = connection.getMetaData().getDatabaseProductName();
+        if (name == null) {
+            return null;
+        }
+        if (name.equalsIgnoreCase("H2")) {
+            return Dialect.H2;
+        }
+        if (name.equalsIgnoreCase("PostgreSQL")) {
+            return Dialect.POSTGRES;
+        }
+        return null;
+    }
+
+    /**
+     * @param tableNames the tables to copy, as they would be referred to in a SQL command.
+     *                   Referenced tables should come before the tables referring to them.
+     * @throws IllegalStateException if the database is not supported
+     */
+    public static DbSnapshot take(Connection connection, Collection<String> tableNames) throws SQLException {
+
+        Dialect dialect = getDialect(connection);
+        if (dialect == null) {
+            throw new IllegalStateException("Database snapshots are not supported for "
+                    + connection.getMetaData().getDatabaseProductName());
+        }
+
+        List<TableData> tables = new ArrayList<>();
+
+        try (Statement s = connection.createStatement()) {
+
+            for (String name : new LinkedHashSet<>(tableNames)) {
+
+                List<String> columns = new ArrayList<>();
+                int[] sqlTypes;
+                List<Object[]> rows = new ArrayList<>();
+
+                try (ResultSet rs = s.executeQuery("SELECT * FROM " + name)) {
+
+                    ResultSetMetaData md = rs.getMetaData();
+                    sqlTypes = new int[md.getColumnCount()];
+                    for (int i = 1; i <= md.getColumnCount(); i++) {
+                        columns.add("\"" + md.getColumnName(i) + "\"");
+                        sqlTypes[i - 1] = md.getColumnType(i);
+                    }
+
+                    while (rs.next()) {
+                        Object[] row = new Object[columns.size()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        rows.add(row);
+                    }
+                }
+
+                tables.add(new TableData(name, columns, sqlTypes, rows));
+            }
+
+            Map<String, String> sequences = dialect == Dialect.H2
+                    ? readSequences_H2(s, connection.getSchema())
+                    : readSequences_Postgres(s, connection.getSchema());
+
+            return new DbSnapshot(dialect, tables, sequences);
+        }
+    }
+
+    private static Map<String, String> readSequences_H2(Statement s, String schema) throws SQLException {
+
+        Map<String, String> sequences = new LinkedHashMap<>();
+
+        try (ResultSet rs = s.executeQuery("SELECT SEQUENCE_NAME, CURRENT_VALUE, INCREMENT " +
+                "FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA='" + schema + "'")) {
+            while (rs.next()) {
+                String name = "\"" + schema + "\".\"" + rs.getString(1) + "\"";
+                long next = rs.getLong(2) + rs.getLong(3);
+                sequences.put(name, "ALTER SEQUENCE " + name + " RESTART WITH " + next);
+            }
+        }
+
+        return sequences;
+    }
+
+    private static Map<String, String> readSequences_Postgres(Statement s, String schema) throws SQLException {
+
+        List<String> names = new ArrayList<>();
+
+        try (ResultSet rs = s.executeQuery("SELECT sequence_name FROM information_schema.sequences " +
+                "WHERE sequence_schema='" + schema + "'")) {
+            while (rs.next()) {
+                names.add("\"" + schema + "\".\"" + rs.getString(1) + "\"");
+            }
+        }
+
+        Map<String, String> sequences = new LinkedHashMap<>();
+
+        for (String name : names) {
+            try (ResultSet rs = s.executeQuery("SELECT last_value, is_called FROM " + name)) {
+                rs.next();
+                sequences.put(name, "SELECT setval('" + name.replace("'", "''") + "', "
+                        + rs.getLong(1) + ", " + rs.getBoolean(2) + ")");
+            }
+        }
+
+        return sequences;
+    }
+
+    /**
+     * Bring the snapshot tables and all the sequences back to the state they had when the
+     * snapshot was taken. Any data currently in those tables is removed.
+     * Tables are modified in a single transaction: if anything fails, they are left untouched.
+     * Sequences are updated last (note: in H2 this is DDL, which is committed immediately).
+     */
+    public void restore(Connection connection) throws SQLException {
+
+        if (getDialect(connection) != dialect) {
+            throw new IllegalArgumentException("Snapshot taken on a different type of database");
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try (Statement s = connection.createStatement()) {
+
+            //referring tables first, to avoid issues with FKs
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                s.executeUpdate("DELETE FROM " + tables.get(i).name);
+            }
+
+            for (TableData table : tables) {
+                insertRows(connection, table);
+            }
+
+            for (String command : sequences.values()) {
+                s.execute(command);
+            }
+
+            connection.commit();
+
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void insertRows(Connection connection, TableData table) throws SQLException {
+
+        if (table.rows.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO ").append(table.name)
+                .append(" (").append(String.join(", ", table.columns)).append(") VALUES (");
+        for (int i = 0; i < table.columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("?");
+        }
+        sql.append(")");
+
+        try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+            for (Object[] row : table.rows) {
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] == null) {
+                        ps.setNull(i + 1, table.sqlTypes[i]);
+                    } else {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * @return the names of the copied tables, as given when taking the snapshot
+     */
+    public List<String> getTableNames() {
+        List<String> names = new ArrayList<>();
+        for (TableData t : tables) {
+            names.add(t.name);
+        }
+        return names;
+    }
+
+    public int getNumberOfRows() {
+        return tables.stream().mapToInt(t -> t.rows.size()).sum();
+    }
+}
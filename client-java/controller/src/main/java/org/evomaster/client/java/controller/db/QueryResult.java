@@ -6,6 +6,7 @@ import org.evomaster.client.java.utils.SimpleLogger;
 import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -33,7 +34,7 @@ public class QueryResult {
     }
 
 
-    private String getColumnName(ResultSetMetaData md, int index) throws Exception{
+    private static String getColumnName(ResultSetMetaData md, int index) throws Exception{
         /*
             Unfortunately, in Postgres, calling getColumnName does NOT return the column
             name, but rather its alias (if any).
@@ -57,25 +58,10 @@ public class QueryResult {
         }
 
         try {
-            ResultSetMetaData md = resultSet.getMetaData();
-
-            for (int i = 0; i < md.getColumnCount(); i++) {
-                int index = i + 1;
-                VariableDescriptor desc = new VariableDescriptor(
-                        getColumnName(md, index),
-                        md.getColumnLabel(index),
-                        md.getTableName(index)
-                );
-                variableDescriptors.add(desc);
-            }
+            variableDescriptors.addAll(extractVariableDescriptors(resultSet));
 
             while (resultSet.next()) {
-                List<Object> row = new ArrayList<>();
-                for (int i = 0; i < md.getColumnCount(); i++) {
-                    Object value = resultSet.getObject(i + 1);
-                    row.add(value);
-                }
-                rows.add(new DataRow(variableDescriptors, row));
+                rows.add(readRow(resultSet, variableDescriptors));
             }
 
         } catch (Exception e) {
@@ -83,6 +69,36 @@ public class QueryResult {
         }
     }
 
+    static List<VariableDescriptor> extractVariableDescriptors(ResultSet resultSet) throws Exception {
+
+        ResultSetMetaData md = resultSet.getMetaData();
+        List<VariableDescriptor> descriptors = new ArrayList<>(md.getColumnCount());
+
+        for (int i = 0; i < md.getColumnCount(); i++) {
+            int index = i + 1;
+            VariableDescriptor desc = new VariableDescriptor(
+                    getColumnName(md, index),
+                    md.getColumnLabel(index),
+                    md.getTableName(index)
+            );
+            descriptors.add(desc);
+        }
+
+        return descriptors;
+    }
+
+    /**
+     * Read the values of the current row of the result set
+     */
+    static DataRow readRow(ResultSet resultSet, List<VariableDescriptor> descriptors) throws SQLException {
+        List<Object> row = new ArrayList<>(descriptors.size());
+        for (int i = 0; i < descriptors.size(); i++) {
+            Object value = resultSet.getObject(i + 1);
+            row.add(value);
+        }
+        return new DataRow(descriptors, row);
+    }
+
     public void addRow(DataRow row) {
         if (!sameVariableNames(row)) {
             throw new IllegalArgumentException("Variable name mismatch");
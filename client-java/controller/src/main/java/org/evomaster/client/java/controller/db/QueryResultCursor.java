@@ -0,0 +1,265 @@
+package org.evomaster.client.java.controller.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The results of a SQL Select query, read one row at a time from the database.
+ * Compared to {@link QueryResult}, rows are not all kept in memory, which matters
+ * when dealing with large tables.
+ *
+ * <p>
+ * Rows can be read either as {@link DataRow} objects (via {@link #next()}), or,
+ * to avoid creating objects (eg boxing of numbers), with {@link #advance()} followed
+ * by the typed getters on the current row.
+ *
+ * <p>
+ * Note: some drivers ignore the fetch size when the connection is in auto-commit mode
+ * (eg Postgres), and so would still load all the data at once.
+ * Therefore, if the connection is in auto-commit mode, the query is run in its own
+ * read-only transaction, and the connection is restored when the cursor is closed.
+ * MySQL instead only streams the rows when the fetch size is {@link Integer#MIN_VALUE},
+ * so such value is used regardless of the requested one.
+ */
+public class QueryResultCursor implements Iterator<DataRow>, AutoCloseable {
+
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    private final Connection connection;
+
+    /**
+     * Whether the connection was in auto-commit mode, and so its state
+     * has to be restored when this cursor is closed
+     */
+    private final boolean autoCommit;
+
+    private final boolean readOnly;
+
+    private final Statement statement;
+
+    private final ResultSet resultSet;
+
+    private final List<VariableDescriptor> variableDescriptors;
+
+    /**
+     * For each column, its type as defined in {@link java.sql.Types}
+     */
+    private final int[] sqlTypes;
+
+    /**
+     * Whether there is a next row, if already checked but not consumed yet
+     */
+    private Boolean hasNext;
+
+
+    /**
+     * @param fetchSize hint to the driver on how many rows to retrieve from the database in each round-trip
+     * @param maxRows   max number of rows to read. A negative value means no limit
+     */
+    public QueryResultCursor(Connection connection, String select, int fetchSize, int maxRows) throws SQLException {
+
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+        }
+
+        this.connection = connection;
+        autoCommit = connection.getAutoCommit();
+        readOnly = connection.isReadOnly();
+
+        Statement st = null;
+        try {
+            if (autoCommit) {
+                //read-only must be set before starting the transaction
+                connection.setReadOnly(true);
+                connection.setAutoCommit(false);
+            }
+
+            st = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement = st;
+
+            statement.setFetchSize(isMySql(connection) ? Integer.MIN_VALUE : fetchSize);
+            if (maxRows >= 0) {
+                /*
+                    0 means no limit in JDBC. Asking for no row at all is rather pointless,
+                    but let's still handle it
+                 */
+                statement.setMaxRows(Math.max(maxRows, 1));
+            }
+
+            try {
+                resultSet = statement.executeQuery(select);
+            } catch (SQLException e) {
+                String errText = String.format("Error executing '%s': %s", select, e.getMessage());
+                throw new SQLException(errText, e);
+            }
+
+            if (maxRows == 0) {
+                hasNext = false;
+            }
+
+            variableDescriptors = Collections.unmodifiableList(QueryResult.extractVariableDescriptors(resultSet));
+
+            ResultSetMetaData md = resultSet.getMetaData();
+            sqlTypes = new int[variableDescriptors.size()];
+            for (int i = 0; i < sqlTypes.length; i++) {
+                sqlTypes[i] = md.getColumnType(i + 1);
+            }
+
+        } catch (SQLException e) {
+            release(st);
+            throw e;
+        } catch (Exception e) {
+            release(st);
+            throw new SQLException(e);
+        }
+    }
+
+    private static boolean isMySql(Connection connection) throws SQLException {
+        return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * @return how many rows the driver is going to retrieve in each round-trip with the database
+     */
+    public int getFetchSize() {
+        try {
+            return statement.getFetchSize();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<VariableDescriptor> getVariableDescriptors() {
+        return variableDescriptors;
+    }
+
+    public int getColumnCount() {
+        return sqlTypes.length;
+    }
+
+    /**
+     * @return the type of the column, as defined in {@link java.sql.Types}
+     */
+    public int getSqlType(int index) {
+        return sqlTypes[index];
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            try {
+                hasNext = resultSet.next();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public DataRow next() {
+        if (!advance()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return QueryResult.readRow(resultSet, variableDescriptors);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Move to the next row, without reading its values.
+     *
+     * @return false if there is no more row
+     */
+    public boolean advance() {
+        boolean next = hasNext();
+        if (next) {
+            //the result set is already on such row
+            hasNext = null;
+        }
+        return next;
+    }
+
+    public boolean isNull(int index) {
+        try {
+            resultSet.getObject(index + 1);
+            return resultSet.wasNull();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the value of the column in the current row, or 0 if it is null
+     */
+    public long getLong(int index) {
+        try {
+            return resultSet.getLong(index + 1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the value of the column in the current row, or 0 if it is null
+     */
+    public double getDouble(int index) {
+        try {
+            return resultSet.getDouble(index + 1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public String getString(int index) {
+        try {
+            return resultSet.getString(index + 1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Object getObject(int index) {
+        try {
+            return resultSet.getObject(index + 1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        release(statement);
+    }
+
+    /**
+     * Close the statement (if any), and end the transaction started for this cursor (if any)
+     */
+    private void release(Statement st) throws SQLException {
+        try {
+            if (st != null) {
+                //this also closes the result set
+                st.close();
+            }
+        } finally {
+            if (autoCommit) {
+                try {
+                    //nothing to commit, as read-only
+                    connection.rollback();
+                } finally {
+                    connection.setAutoCommit(true);
+                    connection.setReadOnly(readOnly);
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.evomaster.client.java.controller.db;
 
+import org.evomaster.client.java.controller.api.dto.database.operations.DataRowDto;
 import org.evomaster.client.java.controller.api.dto.database.operations.InsertionDto;
 import org.evomaster.client.java.controller.api.dto.database.operations.InsertionEntryDto;
+import org.evomaster.client.java.controller.api.dto.database.operations.QueryResultDto;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -15,10 +17,13 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -155,11 +160,23 @@ public class SqlScriptRunner {
     }
 
 
+    /**
+     * Max number of rows in a single multi-row INSERT
+     */
+    public static final int MAX_ROWS_PER_INSERT = 500;
+
     /**
      * Execute the different SQL insertions.
      * Those can refer to each other via foreign keys, even in the case
      * of auto-generated ids
      *
+     * <p>
+     * To reduce the number of round-trips with the database, insertions on the same table
+     * (and with same columns) that do not depend on each other are executed together, in
+     * a single multi-row INSERT, inside a transaction.
+     * If anything goes wrong, the transaction is rolled back, and the insertions are executed
+     * again one at a time, to be able to report exactly which one failed.
+     *
      * @return a map from InsertionDto id to id of auto-generated primary
      * keys in the database (if any was generated).
      * If an InsertionDto has no id, we will not keep track of any auto-generated
@@ -171,6 +188,22 @@ public class SqlScriptRunner {
             throw new IllegalArgumentException("No data to insert");
         }
 
+        /*
+            if already in a transaction, we cannot roll back in case of failure
+            without losing what was done before
+         */
+        if (insertions.size() > 1 && conn.getAutoCommit()) {
+            Map<Long, Long> map = execInsertInGroups(conn, insertions);
+            if (map != null) {
+                return map;
+            }
+        }
+
+        return execInsertOneByOne(conn, insertions);
+    }
+
+    private static Map<Long, Long> execInsertOneByOne(Connection conn, List<InsertionDto> insertions) throws SQLException {
+
         String insertSql = "INSERT INTO ";
 
         //From DTO Insertion Id to generated Id in database
@@ -192,50 +225,177 @@ public class SqlScriptRunner {
                 throw new SQLException(msg, e);
             }
 
-            if(insDto.id == null){
-                //throw new IllegalArgumentException("Insertion for an autoincrement value in table " + insDto.targetTable + " does not have an id");
-                continue;
+            updateIdMapping(map, insDto, autoGeneratedId);
+        }
+
+        return map;
+    }
+
+    /**
+     * @return null if the insertions could not be executed in groups, in which case the database is left unchanged
+     */
+    private static Map<Long, Long> execInsertInGroups(Connection conn, List<InsertionDto> insertions) throws SQLException {
+
+        List<List<Integer>> groups = groupInsertions(insertions);
+        if (groups == null || groups.size() == insertions.size()) {
+            //nothing to gain
+            return null;
+        }
+
+        conn.setAutoCommit(false);
+
+        try (Statement statement = conn.createStatement()) {
+
+            Map<Long, Long> map = new HashMap<>();
+
+            for (List<Integer> group : groups) {
+                for (int from = 0; from < group.size(); from += MAX_ROWS_PER_INSERT) {
+
+                    List<Integer> rows = group.subList(from, Math.min(group.size(), from + MAX_ROWS_PER_INSERT));
+                    InsertionDto first = insertions.get(rows.get(0));
+
+                    StringBuilder sql = new StringBuilder("INSERT INTO ");
+                    sql.append(first.targetTable).append(" (");
+                    sql.append(getColumns(first));
+                    sql.append(" )  VALUES ");
+                    sql.append(rows.stream()
+                            .map(i -> "(" + getValues(map, i, insertions.get(i)) + ")")
+                            .collect(Collectors.joining(", ")));
+
+                    statement.executeUpdate(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+
+                    List<Long> keys = readGeneratedIds(statement.getGeneratedKeys());
+                    if (!keys.isEmpty() && keys.size() != rows.size()) {
+                        //cannot know which key is for which row
+                        conn.rollback();
+                        return null;
+                    }
+
+                    for (int k = 0; k < rows.size(); k++) {
+                        updateIdMapping(map, insertions.get(rows.get(k)), keys.isEmpty() ? null : keys.get(k));
+                    }
+                }
             }
 
-            if (autoGeneratedId != null) {
-                map.put(insDto.id, autoGeneratedId);
+            conn.commit();
+            return map;
+
+        } catch (SQLException | RuntimeException e) {
+            /*
+                eg, a violated constraint, or a foreign key to a row in another
+                table that, due to the grouping, is inserted later
+             */
+            conn.rollback();
+            return null;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
 
-            } else {
+    /**
+     * Group together the insertions on the same table with the same columns, and that do not
+     * depend on each other.
+     * Each insertion is given a level, ie 1 + the highest level of the insertions
+     * it refers to via {@link InsertionEntryDto#foreignKeyToPreviouslyGeneratedRow}.
+     * Groups are sorted by level, and then by the position of their first insertion.
+     *
+     * @return the indices of the insertions in each group, or null if references among insertions are invalid
+     */
+    static List<List<Integer>> groupInsertions(List<InsertionDto> insertions) {
+
+        Map<Long, Integer> levelsById = new HashMap<>();
+        int[] levels = new int[insertions.size()];
 
-                /*
-                    check if in this insertion there is no auto-generated PK,
-                    but there is a foreign key to an auto-increment.
+        //the order of insertion in LinkedHashMap is the one of the first insertion in each group
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
 
-                    There can at most one entry that can be a FK to an auto-increment value.
-                    FIXME: this is not really true, eg consider tables to handle relationships,
-                    where PK is composed of 2 FK columns, ie the PKs of the 2 related tables.
-                    NEED to support multi-column PKs/FKs
-                 */
+        for (int i = 0; i < insertions.size(); i++) {
 
-                InsertionEntryDto entry = insDto.data.stream()
-                        .filter(e -> e.foreignKeyToPreviouslyGeneratedRow != null)
-                        .findFirst().orElse(null);
+            InsertionDto insDto = insertions.get(i);
 
-                if (entry != null) {
-                    long previouslyGeneratedValue = map.get(entry.foreignKeyToPreviouslyGeneratedRow);
-                    map.put(insDto.id, previouslyGeneratedValue);
+            int level = 0;
+            for (InsertionEntryDto e : insDto.data) {
+                if (e.printableValue == null && e.foreignKeyToPreviouslyGeneratedRow != null) {
+                    Integer referred = levelsById.get(e.foreignKeyToPreviouslyGeneratedRow);
+                    if (referred == null) {
+                        return null;
+                    }
+                    level = Math.max(level, referred + 1);
                 }
             }
+
+            levels[i] = level;
+            if (insDto.id != null) {
+                levelsById.put(insDto.id, level);
+            }
+
+            String key = level + "|" + insDto.targetTable + "|" + getColumns(insDto);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
         }
 
-        return map;
+        List<List<Integer>> sorted = new ArrayList<>(groups.values());
+        //stable sort, so groups at same level keep their order
+        sorted.sort(Comparator.comparingInt(g -> levels[g.get(0)]));
+
+        return sorted;
+    }
+
+    private static void updateIdMapping(Map<Long, Long> map, InsertionDto insDto, Long autoGeneratedId) {
+
+        if(insDto.id == null){
+            //throw new IllegalArgumentException("Insertion for an autoincrement value in table " + insDto.targetTable + " does not have an id");
+            return;
+        }
+
+        if (autoGeneratedId != null) {
+            map.put(insDto.id, autoGeneratedId);
+
+        } else {
+
+            /*
+                check if in this insertion there is no auto-generated PK,
+                but there is a foreign key to an auto-increment.
+
+                There can at most one entry that can be a FK to an auto-increment value.
+                FIXME: this is not really true, eg consider tables to handle relationships,
+                where PK is composed of 2 FK columns, ie the PKs of the 2 related tables.
+                NEED to support multi-column PKs/FKs
+             */
+
+            InsertionEntryDto entry = insDto.data.stream()
+                    .filter(e -> e.foreignKeyToPreviouslyGeneratedRow != null)
+                    .findFirst().orElse(null);
+
+            if (entry != null) {
+                long previouslyGeneratedValue = map.get(entry.foreignKeyToPreviouslyGeneratedRow);
+                map.put(insDto.id, previouslyGeneratedValue);
+            }
+        }
     }
 
     private static String prepareSqlInsertionCommand(String insertSql, Map<Long, Long> map, int i, InsertionDto insDto) {
         StringBuilder sql = new StringBuilder(insertSql);
         sql.append(insDto.targetTable).append(" (");
 
-        sql.append(insDto.data.stream()
-                .map(e -> e.variableName)
-                .collect(Collectors.joining(",")));
+        sql.append(getColumns(insDto));
 
         sql.append(" )  VALUES (");
 
+        sql.append(getValues(map, i, insDto));
+
+        sql.append(");");
+
+        return sql.toString();
+    }
+
+    private static String getColumns(InsertionDto insDto) {
+        return insDto.data.stream()
+                .map(e -> e.variableName)
+                .collect(Collectors.joining(","));
+    }
+
+    private static String getValues(Map<Long, Long> map, int i, InsertionDto insDto) {
+
         for (InsertionEntryDto e : insDto.data) {
             if (e.printableValue == null && e.foreignKeyToPreviouslyGeneratedRow != null) {
                 if (!map.containsKey(e.foreignKeyToPreviouslyGeneratedRow)) {
@@ -251,15 +411,11 @@ public class SqlScriptRunner {
             }
         }
 
-        sql.append(insDto.data.stream()
+        return insDto.data.stream()
                 .map(e -> e.printableValue != null
                         ? replaceQuotes(e.printableValue)
                         : map.get(e.foreignKeyToPreviouslyGeneratedRow).toString()
-                ).collect(Collectors.joining(",")));
-
-        sql.append(");");
-
-        return sql.toString();
+                ).collect(Collectors.joining(","));
     }
 
     /**
@@ -307,27 +463,41 @@ public class SqlScriptRunner {
             throw new SQLException(errText, e);
         }
 
-        ResultSet generatedKeys = statement.getGeneratedKeys();
-        ResultSetMetaData generatedKeysMetaData = generatedKeys.getMetaData();
-        Long autoGeneratedId = null;
-        if (generatedKeys.next()) {
-            int columnType = generatedKeysMetaData.getColumnType(1);
-            switch (columnType) {
-                case Types.INTEGER:
-                case Types.TINYINT:
-                case Types.SMALLINT:
-                case Types.BIGINT:
-                    autoGeneratedId = generatedKeys.getLong(1);
-                    break;
-                default:
-                    // TODO Support non-Long generated keys
-                    autoGeneratedId = null;
-            }
-        }
+        List<Long> ids = readGeneratedIds(statement.getGeneratedKeys());
 
         statement.close();
 
-        return autoGeneratedId;
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * @return the auto-generated ids, one per inserted row, or an empty list if none was generated
+     */
+    private static List<Long> readGeneratedIds(ResultSet generatedKeys) throws SQLException {
+
+        List<Long> ids = new ArrayList<>();
+
+        try {
+            ResultSetMetaData generatedKeysMetaData = generatedKeys.getMetaData();
+            while (generatedKeys.next()) {
+                int columnType = generatedKeysMetaData.getColumnType(1);
+                switch (columnType) {
+                    case Types.INTEGER:
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                    case Types.BIGINT:
+                        ids.add(generatedKeys.getLong(1));
+                        break;
+                    default:
+                        // TODO Support non-Long generated keys
+                        return new ArrayList<>();
+                }
+            }
+        } finally {
+            generatedKeys.close();
+        }
+
+        return ids;
     }
 
     public static QueryResult execCommand(Connection conn, String command) throws SQLException {
@@ -349,4 +519,49 @@ public class SqlScriptRunner {
         return queryResult;
     }
 
+    /**
+     * Execute the given SELECT, and let the handler consume its rows one at a time,
+     * without loading all of them in memory.
+     * The handler can stop early by not reading all the rows from the cursor.
+     * If the connection is in auto-commit mode, the query is run in its own read-only
+     * transaction, as otherwise some drivers ignore the fetch size (see {@link QueryResultCursor}).
+     *
+     * @param fetchSize hint to the driver on how many rows to retrieve from the database in each round-trip
+     * @return the result of the handler
+     */
+    public static <T> T execQuery(Connection conn, String select, int fetchSize,
+                                  Function<QueryResultCursor, T> handler) throws SQLException {
+
+        try (QueryResultCursor cursor = new QueryResultCursor(conn, select, fetchSize, -1)) {
+            return handler.apply(cursor);
+        }
+    }
+
+    /**
+     * Execute the given SELECT, and directly build the DTO with its results, without
+     * creating any intermediate {@link QueryResult}.
+     *
+     * @param maxRows max number of rows to retrieve. A negative value means no limit
+     */
+    public static QueryResultDto execQueryAsDto(Connection conn, String select, int maxRows) throws SQLException {
+
+        QueryResultDto dto = new QueryResultDto();
+
+        try (QueryResultCursor cursor = new QueryResultCursor(conn, select, QueryResultCursor.DEFAULT_FETCH_SIZE, maxRows)) {
+
+            int n = cursor.getColumnCount();
+
+            while ((maxRows < 0 || dto.rows.size() < maxRows) && cursor.advance()) {
+                DataRowDto row = new DataRowDto();
+                row.columnData = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    Object value = cursor.getObject(i);
+                    row.columnData.add(value != null ? value.toString() : DataRow.NULL_VALUE);
+                }
+                dto.rows.add(row);
+            }
+        }
+
+        return dto;
+    }
 }
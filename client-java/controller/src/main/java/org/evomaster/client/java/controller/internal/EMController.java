@@ -2,12 +2,16 @@ package org.evomaster.client.java.controller.internal;
 
 import org.evomaster.client.java.controller.api.ControllerConstants;
 import org.evomaster.client.java.controller.api.Formats;
+import org.evomaster.client.java.controller.api.TestResultsBinaryFormat;
 import org.evomaster.client.java.controller.api.dto.*;
+import org.evomaster.client.java.controller.api.dto.database.execution.SqlCacheStatsDto;
 import org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto;
+import org.evomaster.client.java.controller.api.dto.database.operations.QueryResultDto;
 import org.evomaster.client.java.controller.api.dto.problem.GraphqlProblemDto;
 import org.evomaster.client.java.controller.api.dto.problem.RestProblemDto;
 import org.evomaster.client.java.controller.db.QueryResult;
 import org.evomaster.client.java.controller.db.SqlScriptRunner;
+import org.evomaster.client.java.controller.internal.db.ParserUtils;
 import org.evomaster.client.java.controller.problem.GraphqlProblem;
 import org.evomaster.client.java.controller.problem.ProblemInfo;
 import org.evomaster.client.java.controller.problem.RestProblem;
@@ -85,6 +89,9 @@ public class EMController {
         ControllerInfoDto dto = new ControllerInfoDto();
         dto.fullName = sutController.getClass().getName();
         dto.isInstrumentationOn = sutController.isInstrumentationActivated();
+        dto.supportBinaryTestResults = true;
+        dto.supportImprovedTargetsOnly = true;
+        dto.supportDatabaseSnapshots = true;
 
         return Response.status(200).entity(WrappedResponseDto.withData(dto)).build();
     }
@@ -189,7 +196,43 @@ public class EMController {
     public Response getTestResults(
             @QueryParam("ids")
             @DefaultValue("")
-                    String idList) {
+                    String idList,
+            @QueryParam("improvedOnly")
+            @DefaultValue("false")
+                    boolean improvedOnly) {
+
+        return getTestResults(idList, improvedOnly, false);
+    }
+
+    /**
+     * Same as {@link #getTestResults(String, boolean)}, but data is sent
+     * with {@link TestResultsBinaryFormat}.
+     * Errors are still returned as JSON
+     */
+    @Path(ControllerConstants.TEST_RESULTS)
+    @GET
+    @Produces(Formats.BINARY_TEST_RESULTS)
+    public Response getTestResultsBinary(
+            @QueryParam("ids")
+            @DefaultValue("")
+                    String idList,
+            @QueryParam("improvedOnly")
+            @DefaultValue("false")
+                    boolean improvedOnly) {
+
+        Response response = getTestResults(idList, improvedOnly, true);
+
+        if (response.getStatus() != 200) {
+            return Response.fromResponse(response).type(Formats.JSON_V1).build();
+        }
+        return response;
+    }
+
+    /**
+     * @param improvedOnly if true, rather than the targets in {@code idList}, return all the targets
+     *                     whose values could improve the archive of EvoMaster (see {@link #updateArchiveBaseline})
+     */
+    private Response getTestResults(String idList, boolean improvedOnly, boolean binary) {
 
         try {
             TestResultsDto dto = new TestResultsDto();
@@ -207,9 +250,19 @@ public class EMController {
                 return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
             }
 
-            List<TargetInfo> targetInfos = sutController.getTargetInfos(ids);
+            if (improvedOnly && !ids.isEmpty()) {
+                String msg = "Parameter 'ids' cannot be used together with 'improvedOnly'";
+                SimpleLogger.warn(msg);
+                return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
+            }
+
+            List<TargetInfo> targetInfos = improvedOnly
+                    ? sutController.getImprovedTargetInfos()
+                    : sutController.getTargetInfos(ids);
             if (targetInfos == null) {
-                String msg = "Failed to collect target information for " + ids.size() + " ids";
+                String msg = improvedOnly
+                        ? "Failed to collect information on improved targets"
+                        : "Failed to collect target information for " + ids.size() + " ids";
                 SimpleLogger.error(msg);
                 return Response.status(500).entity(WrappedResponseDto.withError(msg)).build();
             }
@@ -255,6 +308,10 @@ public class EMController {
 
             dto.extraHeuristics = sutController.getExtraHeuristics();
 
+            if (binary) {
+                return Response.status(200).entity(TestResultsBinaryFormat.encode(dto)).build();
+            }
+
             return Response.status(200).entity(WrappedResponseDto.withData(dto)).build();
 
         } catch (RuntimeException e) {
@@ -282,6 +339,49 @@ public class EMController {
     }
 
 
+    @Path(ControllerConstants.SQL_CACHE_STATS)
+    @GET
+    public Response getSqlCacheStats() {
+
+        SqlCacheStatsDto dto = sutController.getSqlCacheStats();
+
+        return Response.status(200).entity(WrappedResponseDto.withData(dto)).build();
+    }
+
+
+    @Path(ControllerConstants.METRICS)
+    @GET
+    public Response getMetrics() {
+
+        MetricsDto dto = sutController.getMetrics();
+
+        return Response.status(200).entity(WrappedResponseDto.withData(dto)).build();
+    }
+
+
+    @Path(ControllerConstants.ARCHIVE_BASELINE)
+    @Consumes(Formats.JSON_V1)
+    @PUT
+    public Response updateArchiveBaseline(ArchiveBaselineDto dto) {
+
+        if (dto == null || dto.values == null) {
+            String msg = "No specified archive baseline";
+            SimpleLogger.warn(msg);
+            return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
+        }
+
+        try {
+            sutController.updateArchiveBaseline(dto.reset != null && dto.reset, dto.values);
+        } catch (RuntimeException e) {
+            String msg = "Failed to update archive baseline: " + e.getMessage();
+            SimpleLogger.error(msg, e);
+            return Response.status(500).entity(WrappedResponseDto.withError(msg)).build();
+        }
+
+        return Response.status(204).entity(WrappedResponseDto.withNoData()).build();
+    }
+
+
     @Path(ControllerConstants.DATABASE_COMMAND)
     @Consumes(Formats.JSON_V1)
     @POST
@@ -295,7 +395,7 @@ public class EMController {
                 return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
             }
 
-            if (dto.command == null && (dto.insertions == null || dto.insertions.isEmpty())) {
+            if (dto.command == null && (dto.insertions == null || dto.insertions.isEmpty()) && dto.snapshotKey == null) {
                 String msg = "No input command";
                 SimpleLogger.warn(msg);
                 return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
@@ -307,6 +407,10 @@ public class EMController {
                 return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
             }
 
+            if (dto.command == null && (dto.insertions == null || dto.insertions.isEmpty())) {
+                return restoreDatabaseSnapshot(dto.snapshotKey);
+            }
+
             if (dto.insertions != null) {
                 if (dto.insertions.stream().anyMatch(i -> i.targetTable == null || i.targetTable.isEmpty())) {
                     String msg = "Insertion with no target table";
@@ -315,14 +419,36 @@ public class EMController {
                 }
             }
 
-            QueryResult queryResult = null;
+            QueryResultDto queryResult = null;
             Map<Long, Long> idMapping = null;
 
             try {
-                if (dto.command != null) {
-                    queryResult = SqlScriptRunner.execCommand(connection, dto.command);
+                if (dto.command != null && ParserUtils.isSelect(dto.command)) {
+                    /*
+                        the result of a SELECT could be large, so we avoid
+                        loading it all in memory before creating the DTO
+                     */
+                    int maxRows = dto.maxRows == null ? -1 : dto.maxRows;
+                    queryResult = SqlScriptRunner.execQueryAsDto(connection, dto.command, maxRows);
+                } else if (dto.command != null) {
+                    sutController.trackModifyingSql(dto.command);
+                    QueryResult result = SqlScriptRunner.execCommand(connection, dto.command);
+                    if (result != null) {
+                        queryResult = result.toDto();
+                    }
                 } else {
+                    /*
+                        the connection used here is not necessarily monitored,
+                        so we need to keep track of these insertions explicitly
+                     */
+                    sutController.markTablesAsModified(dto.insertions.stream()
+                            .map(i -> i.targetTable)
+                            .collect(Collectors.toSet()));
                     idMapping = SqlScriptRunner.execInsert(connection, dto.insertions);
+
+                    if (dto.snapshotKey != null) {
+                        saveDatabaseSnapshot(dto);
+                    }
                 }
             } catch (Exception e) {
                 String msg = "Failed to execute database command: " + e.getMessage();
@@ -331,7 +457,7 @@ public class EMController {
             }
 
             if (queryResult != null) {
-                return Response.status(200).entity(WrappedResponseDto.withData(queryResult.toDto())).build();
+                return Response.status(200).entity(WrappedResponseDto.withData(queryResult)).build();
             } else if (idMapping != null) {
                 return Response.status(200).entity(WrappedResponseDto.withData(idMapping)).build();
             } else {
@@ -350,4 +476,39 @@ public class EMController {
             return Response.status(500).entity(WrappedResponseDto.withError(msg)).build();
         }
     }
+
+    private Response restoreDatabaseSnapshot(String key) {
+
+        boolean restored;
+        try {
+            restored = sutController.restoreDatabaseSnapshot(key);
+        } catch (Exception e) {
+            String msg = "Failed to restore database snapshot: " + e.getMessage();
+            SimpleLogger.warn(msg);
+            return Response.status(400).entity(WrappedResponseDto.withError(msg)).build();
+        }
+
+        if (!restored) {
+            return Response.status(404).entity(WrappedResponseDto.withError("No database snapshot for key " + key)).build();
+        }
+
+        return Response.status(204).entity(WrappedResponseDto.withNoData()).build();
+    }
+
+    private void saveDatabaseSnapshot(DatabaseCommandDto dto) {
+        /*
+            not being able to save a snapshot is not an error, as the
+            insertions were executed anyway
+         */
+        try {
+            boolean saved = sutController.saveDatabaseSnapshot(dto.snapshotKey, dto.insertions.stream()
+                    .map(i -> i.targetTable)
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+            if (!saved) {
+                SimpleLogger.uniqueWarn("Database snapshots are not supported for the used database");
+            }
+        } catch (Exception e) {
+            SimpleLogger.uniqueWarn("Failed to save database snapshot: " + e.getMessage());
+        }
+    }
 }
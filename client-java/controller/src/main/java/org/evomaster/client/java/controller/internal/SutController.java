@@ -7,13 +7,17 @@ import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.evomaster.client.java.controller.SutHandler;
 import org.evomaster.client.java.controller.api.dto.*;
+import org.evomaster.client.java.controller.db.DbSnapshot;
 import org.evomaster.client.java.controller.db.SqlScriptRunner;
 import org.evomaster.client.java.controller.internal.db.SchemaExtractor;
 import org.evomaster.client.java.controller.internal.db.SqlHandler;
 import org.evomaster.client.java.controller.problem.ProblemInfo;
+import org.evomaster.client.java.databasespy.SqlEventChannel;
 import org.evomaster.client.java.utils.SimpleLogger;
 import org.evomaster.client.java.controller.api.ControllerConstants;
+import org.evomaster.client.java.controller.api.TimeHistogram;
 import org.evomaster.client.java.controller.api.dto.database.execution.ExecutionDto;
+import org.evomaster.client.java.controller.api.dto.database.execution.SqlCacheStatsDto;
 import org.evomaster.client.java.controller.api.dto.database.operations.InsertionDto;
 import org.evomaster.client.java.controller.api.dto.database.schema.DbSchemaDto;
 import org.evomaster.client.java.instrumentation.AdditionalInfo;
@@ -27,7 +31,9 @@ import java.net.InetSocketAddress;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 /**
  * Abstract class used to connect to the EvoMaster process, and
@@ -55,6 +61,34 @@ public abstract class SutController implements SutHandler {
 
     private int actionIndex = -1;
 
+    /**
+     * Value of {@link SqlEventChannel#getNumberOfDropped()} at the last call of
+     * {@link #collectModifiedTables()}
+     */
+    private int droppedSqlCommandsAtLastCollection = 0;
+
+    /**
+     * Max number of snapshots of the database kept in memory
+     */
+    public static final int MAX_DATABASE_SNAPSHOTS = 128;
+
+    /**
+     * Snapshots of the database taken after the SQL insertions at the
+     * beginning of a test, based on a key given by EvoMaster
+     */
+    private final Map<String, DbSnapshot> databaseSnapshots = Collections.synchronizedMap(
+            new LinkedHashMap<String, DbSnapshot>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DbSnapshot> eldest) {
+                    return size() > MAX_DATABASE_SNAPSHOTS;
+                }
+            });
+
+    /**
+     * Durations of handling the endpoints of {@link EMController}, by endpoint
+     */
+    private final Map<String, TimeHistogram> endpointTimes = new ConcurrentHashMap<>();
+
     /**
      * Start the controller as a RESTful server.
      * Use the setters of this class to change the default
@@ -68,6 +102,7 @@ public abstract class SutController implements SutHandler {
         ResourceConfig config = new ResourceConfig();
         config.register(JacksonFeature.class);
         config.register(new EMController(this));
+        config.register(new TimingFilter(this));
         config.register(LoggingFeature.class);
 
         //Jetty
@@ -142,6 +177,10 @@ public abstract class SutController implements SutHandler {
             throw new IllegalStateException("No connection to database");
         }
 
+        markTablesAsModified(insertions.stream()
+                .map(i -> i.targetTable)
+                .collect(Collectors.toSet()));
+
         try {
             SqlScriptRunner.execInsert(connection, insertions);
         } catch (SQLException e) {
@@ -174,9 +213,142 @@ public abstract class SutController implements SutHandler {
      */
     public final void initSqlHandler() {
         sqlHandler.setConnection(getConnection());
+        //the SUT could had done anything on the database when starting
+        sqlHandler.invalidateModifiedTables();
+        databaseSnapshots.clear();
+    }
+
+    /**
+     * Save the current state of the given tables (and the sequences) of the database,
+     * to be later restored with {@link #restoreDatabaseSnapshot(String)}.
+     *
+     * @return whether the snapshot was saved, which is not the case if the database is not supported
+     */
+    public final boolean saveDatabaseSnapshot(String key, Collection<String> tables) {
+        Objects.requireNonNull(key);
+
+        Connection connection = getConnection();
+        if (connection == null) {
+            throw new IllegalStateException("No connection to database");
+        }
+
+        try {
+            if (!DbSnapshot.isSupported(connection)) {
+                return false;
+            }
+            databaseSnapshots.put(key, DbSnapshot.take(connection, tables));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Bring the database back to the state saved with {@link #saveDatabaseSnapshot(String, Collection)}.
+     * This assumes the state of the SUT has just been reset.
+     *
+     * @return false if there is no snapshot for such key
+     */
+    public final boolean restoreDatabaseSnapshot(String key) {
+        Objects.requireNonNull(key);
+
+        Connection connection = getConnection();
+        if (connection == null) {
+            throw new IllegalStateException("No connection to database");
+        }
+
+        DbSnapshot snapshot = databaseSnapshots.get(key);
+        if (snapshot == null) {
+            return false;
+        }
+
+        markTablesAsModified(snapshot.getTableNames());
+
+        try {
+            snapshot.restore(connection);
+        } catch (SQLException e) {
+            //the snapshot might no longer be valid, eg if the schema was changed
+            databaseSnapshots.remove(key);
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Keep track that the given SQL command, executed on a connection
+     * not monitored by the SUT (eg, by EvoMaster directly), might modify some tables
+     */
+    public final void trackModifyingSql(String sql) {
+        Objects.requireNonNull(sql);
+        sqlHandler.trackModifications(sql);
+    }
+
+    /**
+     * Keep track that the given tables were modified with a
+     * connection not monitored by the SUT (eg, by EvoMaster directly)
+     */
+    public final void markTablesAsModified(Collection<String> tables) {
+        Objects.requireNonNull(tables);
+        sqlHandler.markAsModified(tables);
+    }
+
+    /**
+     * Tables that might have been modified by the SQL commands executed since the
+     * last call of this method.
+     * This can be used in {@link #resetStateOfSUT()} to clean only those tables,
+     * eg with {@link org.evomaster.client.java.controller.db.DbCleaner#clearModifiedTables_H2}.
+     * Note: this resets the tracking of the modified tables.
+     *
+     * @return null if the modified tables cannot be determined, and so all tables
+     * should be considered as modified (eg, at the first call, if the SQL commands
+     * of the SUT are not monitored, or if some of them were lost)
+     */
+    public final Set<String> collectModifiedTables() {
+
+        SqlEventChannel.flush();
+
+        int dropped = SqlEventChannel.getNumberOfDropped();
+        boolean lost = dropped != droppedSqlCommandsAtLastCollection;
+        droppedSqlCommandsAtLastCollection = dropped;
+
+        /*
+            If the SQL commands are not sent to this handler directly, but
+            rather for example via the standard output of an external process,
+            then some might still be on their way.
+         */
+        boolean monitored = SqlEventChannel.isActive() && getConnection() != null;
+
+        Set<String> tables = sqlHandler.consumeModifiedTables();
+
+        return monitored && !lost ? tables : null;
+    }
+
+    public final SqlCacheStatsDto getSqlCacheStats() {
+        return sqlHandler.getCacheStats();
+    }
+
+    public final TimeHistogram getEndpointTimes(String endpoint) {
+        return endpointTimes.computeIfAbsent(endpoint, k -> new TimeHistogram());
+    }
+
+    /**
+     * @return the timings of the endpoints of the controller, and of the computation of the SQL heuristics
+     */
+    public final MetricsDto getMetrics() {
+
+        MetricsDto dto = new MetricsDto();
+
+        endpointTimes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> dto.histograms.add(e.getValue().toDto(e.getKey())));
+
+        dto.histograms.add(sqlHandler.getDistanceTimes().toDto("SQL distances"));
+
+        return dto;
     }
 
     public final void resetExtraHeuristics() {
+        SqlEventChannel.flush();
         sqlHandler.reset();
     }
 
@@ -191,6 +363,9 @@ public abstract class SutController implements SutHandler {
 
     public final ExtraHeuristicsDto computeExtraHeuristics() {
 
+        //make sure all SQL commands executed so far by the SUT are handled
+        SqlEventChannel.flush();
+
         ExtraHeuristicsDto dto = new ExtraHeuristicsDto();
 
         if(sqlHandler.isCalculateHeuristics()) {
@@ -335,6 +510,23 @@ public abstract class SutController implements SutHandler {
 
     public abstract List<TargetInfo> getTargetInfos(Collection<Integer> ids);
 
+    /**
+     * Get info on all the targets reached in the last test execution whose value
+     * could improve the archive of EvoMaster, based on what set with {@link #updateArchiveBaseline}.
+     * This is an alternative to {@link #getTargetInfos(Collection)}, in which
+     * EvoMaster does not need to specify which targets it is interested into.
+     */
+    public abstract List<TargetInfo> getImprovedTargetInfos();
+
+    /**
+     * Set the lowest heuristic values of the targets with which a test could still
+     * be added to the archive of EvoMaster, see {@link #getImprovedTargetInfos()}
+     *
+     * @param reset  whether the values set in previous calls should be discarded
+     * @param values Key -> id of the target, Value -> lowest value, or {@code null} if any would be accepted
+     */
+    public abstract void updateArchiveBaseline(boolean reset, Map<Integer, Double> values);
+
     /**
      * Get additional info for each action in the test.
      * The list is ordered based on the action index.
@@ -0,0 +1,38 @@
+package org.evomaster.client.java.controller.internal;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+
+/**
+ * Record how long the handling of each endpoint of {@link EMController} takes
+ */
+public class TimingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String START_PROPERTY = "evomaster.timing.start";
+
+    private final SutController sutController;
+
+    public TimingFilter(SutController sutController) {
+        this.sutController = sutController;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if (start == null) {
+            //eg, request rejected before reaching the endpoint
+            return;
+        }
+
+        String name = requestContext.getMethod() + " /" + requestContext.getUriInfo().getPath();
+        sutController.getEndpointTimes(name).recordSince((Long) start);
+    }
+}
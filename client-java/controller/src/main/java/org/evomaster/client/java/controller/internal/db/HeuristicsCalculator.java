@@ -16,6 +16,7 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -37,7 +38,30 @@ public class HeuristicsCalculator {
             return Double.MAX_VALUE;
         }
 
-        Statement stmt = ParserUtils.asStatement(statement);
+        return computeDistance(ParserUtils.asStatement(statement), data);
+    }
+
+    /**
+     * @param stmt the parsed SQL command. Note: it is not modified
+     * @param data current data in the database, based on the columns/tables involved in the WHERE
+     */
+    public static double computeDistance(Statement stmt, QueryResult data) {
+        return computeDistance(stmt, data.seeRows().iterator());
+    }
+
+    /**
+     * Compute the distance by reading the data one row at a time.
+     * No more rows are read as soon as one satisfying the WHERE clause is found.
+     *
+     * @param stmt the parsed SQL command. Note: it is not modified
+     * @param rows current data in the database, based on the columns/tables involved in the WHERE
+     */
+    public static double computeDistance(Statement stmt, Iterator<DataRow> rows) {
+
+        if (!rows.hasNext()) {
+            //if no data, we have no info whatsoever
+            return Double.MAX_VALUE;
+        }
 
         Expression where = getWhere(stmt);
         if (where == null) {
@@ -50,8 +74,8 @@ public class HeuristicsCalculator {
         HeuristicsCalculator calculator = new HeuristicsCalculator(context);
 
         double min = Double.MAX_VALUE;
-        for (DataRow row : data.seeRows()) {
-            double dist = calculator.computeExpression(where, row);
+        while (rows.hasNext()) {
+            double dist = calculator.computeExpression(where, rows.next());
             if (dist == 0) {
                 return 0;
             }
@@ -3,12 +3,16 @@ package org.evomaster.client.java.controller.internal.db;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.ExpressionVisitor;
 import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.update.Update;
 import org.evomaster.client.java.controller.api.dto.database.execution.ExecutionDto;
-import org.evomaster.client.java.controller.db.QueryResult;
+import org.evomaster.client.java.controller.api.dto.database.execution.SqlCacheStatsDto;
 import org.evomaster.client.java.controller.db.SqlScriptRunner;
+import org.evomaster.client.java.controller.api.TimeHistogram;
 import org.evomaster.client.java.utils.SimpleLogger;
 
 import java.sql.Connection;
@@ -16,15 +20,27 @@ import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.evomaster.client.java.controller.internal.db.ParserUtils.*;
 
 /**
- * Class used to act upon SQL commands executed by the SUT
+ * Class used to act upon SQL commands executed by the SUT.
+ *
+ * <p>
+ * Commands can be handled by a thread different from the one of the Driver
+ * (eg, the background flush of the SQL channel, or the reader of the standard
+ * output of an external SUT), so the methods accessing the collected data are synchronized.
  */
 public class SqlHandler {
 
+    /**
+     * How many rows to retrieve at each round-trip with the database
+     * when computing the heuristics
+     */
+    private static final int FETCH_SIZE = 500;
+
     /**
      * Computing heuristics on SQL is expensive, as we need to run
      * further queries. So, we buffer them, and execute them only
@@ -44,6 +60,31 @@ public class SqlHandler {
     private final Map<String, Set<String>> failedWhere;
     private final List<String> deletedData;
 
+    /**
+     * Parsing and analyses of the SQL commands, re-used across tests
+     */
+    private final SqlParsingCache cache;
+
+    /**
+     * Tables that might have been modified since the last call to
+     * {@link #consumeModifiedTables()}.
+     * Differently from the other data in this class, this is not reset
+     * at each action, but it spans whole tests
+     */
+    private final Set<String> modifiedTables;
+
+    /**
+     * Whether some SQL command could have modified tables that we
+     * cannot identify (eg, DDL commands, or SQL we cannot parse).
+     * At the beginning, we do not know what the SUT did when it started
+     */
+    private final AtomicBoolean unknownModifications;
+
+    /**
+     * Durations of computing the heuristic distances of the SQL commands
+     */
+    private final TimeHistogram distanceTimes;
+
     private int numberOfSqlCommands;
 
     private volatile Connection connection;
@@ -60,12 +101,16 @@ public class SqlHandler {
         insertedData = new ConcurrentHashMap<>();
         failedWhere = new ConcurrentHashMap<>();
         deletedData = new CopyOnWriteArrayList<>();
+        cache = new SqlParsingCache();
+        modifiedTables = ConcurrentHashMap.newKeySet();
+        unknownModifications = new AtomicBoolean(true);
+        distanceTimes = new TimeHistogram();
 
         calculateHeuristics = true;
         numberOfSqlCommands = 0;
     }
 
-    public void reset() {
+    public synchronized void reset() {
         buffer.clear();
         distances.clear();
         queriedData.clear();
@@ -80,7 +125,7 @@ public class SqlHandler {
         this.connection = connection;
     }
 
-    public void handle(String sql) {
+    public synchronized void handle(String sql) {
         Objects.requireNonNull(sql);
 
         if(!calculateHeuristics && !extractSqlExecution){
@@ -89,20 +134,104 @@ public class SqlHandler {
 
         buffer.add(sql);
 
+        trackModifications(sql);
+
         if (isSelect(sql)) {
-            mergeNewData(queriedData, ColumnTableAnalyzer.getSelectReadDataFields(sql));
+            mergeNewData(queriedData, cache.getAnalysis("read", sql,
+                    s -> ColumnTableAnalyzer.getSelectReadDataFields((Select) cache.getStatement(s))));
         } else if(isDelete(sql)){
-            deletedData.addAll(ColumnTableAnalyzer.getDeletedTables(sql));
+            deletedData.addAll(cache.getAnalysis("deleted", sql,
+                    s -> ColumnTableAnalyzer.getDeletedTables((Delete) cache.getStatement(s))));
         } else if(isInsert(sql)){
-            mergeNewData(insertedData, ColumnTableAnalyzer.getInsertedDataFields(sql));
+            mergeNewData(insertedData, cache.getAnalysis("inserted", sql,
+                    s -> ColumnTableAnalyzer.getInsertedDataFields((Insert) cache.getStatement(s))));
         } else if(isUpdate(sql)){
-            mergeNewData(updatedData, ColumnTableAnalyzer.getUpdatedDataFields(sql));
+            mergeNewData(updatedData, cache.getAnalysis("updated", sql,
+                    s -> ColumnTableAnalyzer.getUpdatedDataFields((Update) cache.getStatement(s))));
         }
 
         numberOfSqlCommands++;
     }
 
-    public ExecutionDto getExecutionDto() {
+    /**
+     * Keep track of which tables could be modified by the given SQL command
+     */
+    public synchronized void trackModifications(String sql) {
+        Objects.requireNonNull(sql);
+
+        if (isSelect(sql)) {
+            return;
+        }
+
+        try {
+            if (isDelete(sql)) {
+                modifiedTables.addAll(cache.getAnalysis("deleted", sql,
+                        s -> ColumnTableAnalyzer.getDeletedTables((Delete) cache.getStatement(s))));
+            } else if (isInsert(sql)) {
+                modifiedTables.addAll(cache.getAnalysis("inserted", sql,
+                        s -> ColumnTableAnalyzer.getInsertedDataFields((Insert) cache.getStatement(s))).keySet());
+            } else if (isUpdate(sql)) {
+                modifiedTables.addAll(cache.getAnalysis("updated", sql,
+                        s -> ColumnTableAnalyzer.getUpdatedDataFields((Update) cache.getStatement(s))).keySet());
+            } else if (!doesNotModifyData(sql)) {
+                unknownModifications.set(true);
+            }
+        } catch (RuntimeException e) {
+            //cannot parse it, so we do not know which tables are affected
+            unknownModifications.set(true);
+        }
+    }
+
+    /**
+     * Commands that do not change the content of any table, or that
+     * would anyway be undone by a full clean of the affected tables
+     */
+    private static boolean doesNotModifyData(String sql) {
+        String s = sql.trim().toLowerCase();
+        return s.startsWith("truncate")
+                || s.startsWith("alter sequence")
+                || s.startsWith("set ")
+                || s.startsWith("call next value")
+                || s.startsWith("commit")
+                || s.startsWith("rollback");
+    }
+
+    /**
+     * Mark the given tables as modified, eg when data is inserted by EvoMaster
+     * with a connection that is not monitored
+     */
+    public synchronized void markAsModified(Collection<String> tables) {
+        modifiedTables.addAll(tables);
+    }
+
+    /**
+     * Forget which tables were modified, and consider any of them as possibly modified
+     */
+    public void invalidateModifiedTables() {
+        unknownModifications.set(true);
+    }
+
+    /**
+     * Return the names (as written in the SQL commands) of the tables that might have been
+     * modified since the last call of this method, and then reset such tracking.
+     *
+     * @return null if it cannot be determined, ie all tables should be considered as modified
+     */
+    public synchronized Set<String> consumeModifiedTables() {
+
+        boolean unknown = unknownModifications.getAndSet(false);
+
+        Set<String> tables = new HashSet<>(modifiedTables);
+        modifiedTables.removeAll(tables);
+
+        if (unknown || (!calculateHeuristics && !extractSqlExecution)) {
+            return null;
+        }
+
+        return tables;
+    }
+
+    public synchronized ExecutionDto getExecutionDto() {
 
         if(!calculateHeuristics && !extractSqlExecution){
             return null;
@@ -119,12 +248,13 @@ public class SqlHandler {
         return executionDto;
     }
 
-    public List<PairCommandDistance> getDistances() {
+    public synchronized List<PairCommandDistance> getDistances() {
 
         if (connection == null || !calculateHeuristics) {
             return distances;
         }
 
+        long start = System.nanoTime();
 
         buffer.stream()
                 .forEach(sql -> {
@@ -143,6 +273,8 @@ public class SqlHandler {
         //side effects on buffer is not important, as it is just a cache
         buffer.clear();
 
+        distanceTimes.recordSince(start);
+
         return distances;
     }
 
@@ -156,14 +288,15 @@ public class SqlHandler {
         Statement statement;
 
         try {
-            statement = CCJSqlParserUtil.parse(command);
+            statement = cache.getStatement(command);
         } catch (Exception e) {
             SimpleLogger.uniqueWarn("Cannot handle command: " + command + "\n" + e.toString());
             return Double.MAX_VALUE;
         }
 
 
-        Map<String, Set<String>> columns = extractColumnsInvolvedInWhere(statement);
+        Map<String, Set<String>> columns = cache.getAnalysis("where", command,
+                s -> extractColumnsInvolvedInWhere(statement));
 
         /*
             even if columns.isEmpty(), we need to check if any data was present
@@ -174,7 +307,7 @@ public class SqlHandler {
             //TODO check if table(s) not empty, and give >0 otherwise
             dist = 0;
         } else {
-            dist = getDistanceForWhere(command, columns);
+            dist = getDistanceForWhere(command, statement, columns);
         }
 
         if (dist > 0) {
@@ -184,7 +317,24 @@ public class SqlHandler {
         return dist;
     }
 
-    private double getDistanceForWhere(String command, Map<String, Set<String>> columns) {
+    private double getDistanceForWhere(String command, Statement statement, Map<String, Set<String>> columns) {
+
+        String select = cache.getAnalysis("heuristicSelect", command, s -> createHeuristicSelect(s, columns));
+
+        /*
+            The involved tables could be large, so rows are streamed
+            and not all loaded in memory, and we stop reading them as
+            soon as one satisfying the WHERE is found
+         */
+        try {
+            return SqlScriptRunner.execQuery(connection, select, FETCH_SIZE,
+                    rows -> HeuristicsCalculator.computeDistance(statement, rows));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String createHeuristicSelect(String command, Map<String, Set<String>> columns) {
         String select;
 
         /*
@@ -208,15 +358,7 @@ public class SqlHandler {
             select = createSelectForSingleTable(mapping.getKey(), mapping.getValue());
         }
 
-        QueryResult data;
-
-        try {
-            data = SqlScriptRunner.execCommand(connection, select);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-
-        return HeuristicsCalculator.computeDistance(command, data);
+        return select;
     }
 
     private String createSelectForSingleTable(String tableName, Set<String> columns){
@@ -310,6 +452,14 @@ public class SqlHandler {
         }
     }
 
+    public SqlCacheStatsDto getCacheStats() {
+        return cache.getStats();
+    }
+
+    public TimeHistogram getDistanceTimes() {
+        return distanceTimes;
+    }
+
     public boolean isCalculateHeuristics() {
         return calculateHeuristics;
     }
@@ -0,0 +1,239 @@
+package org.evomaster.client.java.controller.internal.db;
+
+import net.sf.jsqlparser.statement.Statement;
+import org.evomaster.client.java.controller.api.dto.database.execution.SqlCacheStatsDto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Parsing and analyzing SQL commands is expensive, and the SUT typically
+ * executes the very same (prepared) statements over and over again, just
+ * with different values for their parameters.
+ * So, we cache those results, in a bounded LRU cache.
+ *
+ * <p>
+ * Parsed statements (ie, their ASTs) depend on the actual values in the
+ * commands, so they are cached based on their exact text.
+ * All other analyses are cached based on a normalized version of the text,
+ * in which literals are abstracted out.
+ * If the result of an analysis is a SQL command that still contains literals
+ * (eg, a SELECT with constants in a JOIN), then that can only be re-used for
+ * the very same command.
+ *
+ * <p>
+ * Note: cached values are shared, and so must not be modified
+ */
+public class SqlParsingCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static class Entry {
+
+        final Object value;
+
+        /**
+         * How long it took to compute the value
+         */
+        final long costNs;
+
+        /**
+         * If not null, the value can only be re-used for this exact SQL command
+         */
+        final String exactSql;
+
+        Entry(Object value, long costNs, String exactSql) {
+            this.value = value;
+            this.costNs = costNs;
+            this.exactSql = exactSql;
+        }
+    }
+
+    /**
+     * Key -> exact SQL command
+     */
+    private final Map<String, Entry> statements;
+
+    /**
+     * Key -> type of analysis, plus normalized SQL command
+     */
+    private final Map<String, Entry> analyses;
+
+    private final AtomicLong hits = new AtomicLong(0);
+
+    private final AtomicLong misses = new AtomicLong(0);
+
+    private final AtomicLong savedNs = new AtomicLong(0);
+
+    public SqlParsingCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public SqlParsingCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid max size: " + maxSize);
+        }
+        statements = createLRU(maxSize);
+        analyses = createLRU(maxSize);
+    }
+
+    private static Map<String, Entry> createLRU(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * @return the parsed SQL command. Note: it MUST not be modified
+     * @throws IllegalArgumentException if the command cannot be parsed
+     */
+    public Statement getStatement(String sql) {
+        Objects.requireNonNull(sql);
+
+        Entry entry = statements.get(sql);
+        if (entry != null) {
+            registerHit(entry);
+            return (Statement) entry.value;
+        }
+
+        misses.incrementAndGet();
+
+        long start = System.nanoTime();
+        Statement stmt = ParserUtils.asStatement(sql);
+        statements.put(sql, new Entry(stmt, System.nanoTime() - start, null));
+
+        return stmt;
+    }
+
+    /**
+     * Get the result of an analysis on the given SQL command, computing it if it is not in the cache.
+     *
+     * @param type        used to distinguish different analyses on the same command
+     * @param sql         the SQL command to analyze
+     * @param computation the analysis. Its result must not depend on the actual values
+     *                    of the literals in the command, unless it is a String
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAnalysis(String type, String sql, Function<String, T> computation) {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(sql);
+
+        String key = type + ":" + normalize(sql);
+
+        Entry entry = analyses.get(key);
+        if (entry != null && (entry.exactSql == null || entry.exactSql.equals(sql))) {
+            registerHit(entry);
+            return (T) entry.value;
+        }
+
+        misses.incrementAndGet();
+
+        long start = System.nanoTime();
+        T value = computation.apply(sql);
+        long cost = System.nanoTime() - start;
+
+        String exactSql = (value instanceof String && hasLiterals((String) value)) ? sql : null;
+        analyses.put(key, new Entry(value, cost, exactSql));
+
+        return value;
+    }
+
+    private void registerHit(Entry entry) {
+        hits.incrementAndGet();
+        savedNs.addAndGet(entry.costNs);
+    }
+
+    public SqlCacheStatsDto getStats() {
+        SqlCacheStatsDto dto = new SqlCacheStatsDto();
+        dto.hits = hits.get();
+        dto.misses = misses.get();
+        dto.cachedEntries = statements.size() + analyses.size();
+        dto.savedTimeMs = savedNs.get() / 1_000_000;
+        return dto;
+    }
+
+    /**
+     * Collapse white spaces, and replace all string and numeric literals with "?"
+     */
+    public static String normalize(String sql) {
+        return normalize(sql, true);
+    }
+
+    public static boolean hasLiterals(String sql) {
+        return !normalize(sql, true).equals(normalize(sql, false));
+    }
+
+    private static String normalize(String sql, boolean abstractLiterals) {
+
+        StringBuilder sb = new StringBuilder(sql.length());
+        boolean space = false;
+
+        int i = 0;
+        while (i < sql.length()) {
+
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+
+            if (space && sb.length() > 0) {
+                sb.append(' ');
+            }
+            space = false;
+
+            int start = i;
+
+            if (c == '\'') {
+                //string literal, where quotes are escaped by doubling them
+                i++;
+                while (i < sql.length()) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i = Math.min(i + 1, sql.length());
+                sb.append(abstractLiterals ? "?" : sql.substring(start, i));
+
+            } else if (c == '"' || c == '`') {
+                //quoted identifier
+                int end = sql.indexOf(c, i + 1);
+                i = end < 0 ? sql.length() : end + 1;
+                sb.append(sql, start, i);
+
+            } else if (Character.isDigit(c)) {
+                //as identifiers are consumed as a whole, this can only be a number
+                while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append(abstractLiterals ? "?" : sql.substring(start, i));
+
+            } else if (Character.isJavaIdentifierStart(c)) {
+                while (i < sql.length() && Character.isJavaIdentifierPart(sql.charAt(i))) {
+                    i++;
+                }
+                sb.append(sql, start, i);
+
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -24,6 +24,13 @@ import java.util.Objects;
  * handle System.out
  *
  * <p>
+ * Note: when the SUT runs in the same JVM of the driver, by default the
+ * SQL commands are rather passed directly with a custom appender
+ * (see {@link org.evomaster.client.java.databasespy.SqlEventChannel}).
+ * Scanning the standard output is still needed for SUTs running in
+ * their own process, and kept as fallback for the embedded ones.
+ *
+ * <p>
  * This class can be used for any analyses of the SUT output
  */
 public class StandardOutputTracker extends ByteArrayOutputStream{
@@ -85,6 +92,13 @@ public class StandardOutputTracker extends ByteArrayOutputStream{
 
         String sql = line.substring(P6SpyFormatter.PREFIX.length());
 
+        handleSql(sc, sql);
+    }
+
+    public static void handleSql(SutController sc, String sql){
+        Objects.requireNonNull(sc);
+        Objects.requireNonNull(sql);
+
         try {
             sc.handleSql(sql);
         } catch (Exception | Error e){
@@ -6,6 +6,7 @@ import org.evomaster.client.java.controller.InstrumentedSutStarter;
 import org.evomaster.client.java.controller.api.dto.SutRunDto;
 import org.evomaster.client.java.controller.db.DatabaseFakeSutController;
 import org.evomaster.client.java.controller.db.SqlScriptRunner;
+import org.evomaster.client.java.databasespy.P6SpyChannelLogger;
 import org.evomaster.client.java.instrumentation.InstrumentingAgent;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,7 +32,7 @@ public abstract class DatabaseTestTemplate {
 
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
 
-        InstrumentingAgent.initP6Spy("org.h2.Driver");
+        InstrumentingAgent.initP6Spy("org.h2.Driver", P6SpyChannelLogger.class.getName());
 
         connection = DriverManager.getConnection("jdbc:p6spy:h2:mem:db_test", "sa", "");
     }
@@ -16,6 +16,7 @@ import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SutControllerTest {
@@ -151,4 +152,56 @@ public class SutControllerTest {
                 .statusCode(200)
                 .body("data.restProblem.swaggerJsonUrl", is(SWAGGER_URL));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testImprovedTargetsOnly(){
+
+        restController.startSut();
+
+        given().accept(Formats.JSON_V1)
+                .get("/controllerInfo")
+                .then()
+                .statusCode(200)
+                .body("data.supportImprovedTargetsOnly", is(true));
+
+        given().accept(Formats.JSON_V1)
+                .get("/testResults?improvedOnly=true")
+                .then()
+                .statusCode(200);
+
+        given().accept(Formats.JSON_V1)
+                .get("/testResults?improvedOnly=true&ids=1,2")
+                .then()
+                .statusCode(400);
+
+        given().accept(Formats.JSON_V1)
+                .contentType(Formats.JSON_V1)
+                .body("{\"reset\":true,\"values\":{\"1\":0.5,\"2\":null}}")
+                .put("/archiveBaseline")
+                .then()
+                .statusCode(204);
+
+        given().accept(Formats.JSON_V1)
+                .contentType(Formats.JSON_V1)
+                .body("{\"values\":null}")
+                .put("/archiveBaseline")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testMetrics(){
+
+        given().accept(Formats.JSON_V1)
+                .get("/infoSUT")
+                .then()
+                .statusCode(200);
+
+        given().accept(Formats.JSON_V1)
+                .get("/metrics")
+                .then()
+                .statusCode(200)
+                .body("data.histograms.find { it.name == 'GET /infoSUT' }.count", greaterThanOrEqualTo(1))
+                .body("data.histograms.find { it.name == 'SQL distances' }.count", is(0));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeEach;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -43,4 +44,9 @@ public class DbCleanerH2Test  extends DbCleanerTestBase{
     protected void clearDatabase(List<String> tablesToSkip) {
         DbCleaner.clearDatabase_H2(connection, "PUBLIC", tablesToSkip);
     }
+
+    @Override
+    protected void clearModifiedTables(Collection<String> modifiedTables) {
+        DbCleaner.clearModifiedTables_H2(connection, "PUBLIC", null, modifiedTables);
+    }
 }
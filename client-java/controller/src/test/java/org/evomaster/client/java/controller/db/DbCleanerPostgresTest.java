@@ -7,6 +7,7 @@ import org.testcontainers.containers.GenericContainer;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -58,5 +59,10 @@ public class DbCleanerPostgresTest extends DbCleanerTestBase{
         DbCleaner.clearDatabase_Postgres(connection, "public", tablesToSkip);
     }
 
+    @Override
+    protected void clearModifiedTables(Collection<String> modifiedTables) {
+        DbCleaner.clearModifiedTables_Postgres(connection, "public", null, modifiedTables);
+    }
+
 
 }
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -18,6 +19,8 @@ public abstract class DbCleanerTestBase {
 
     protected abstract void clearDatabase(List<String> tablesToSkip);
 
+    protected abstract void clearModifiedTables(Collection<String> modifiedTables);
+
     @Test
     public void testSkipTableMisconfigured() throws Exception{
 
@@ -123,4 +126,73 @@ public abstract class DbCleanerTestBase {
         //this should work without throwing any exception
         clearDatabase(null);
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void testClearOnlyModifiedTables() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x int);");
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Bar(y int);");
+
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (42)");
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Bar (y) VALUES (77)");
+
+        //only Foo is declared as modified, so Bar is left as it is
+        clearModifiedTables(Arrays.asList("Foo"));
+
+        QueryResult res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(0, res.seeRows().size());
+        res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;");
+        assertEquals(1, res.seeRows().size());
+
+        //names could be qualified and quoted
+        clearModifiedTables(Arrays.asList("x.\"Bar\""));
+        res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;");
+        assertEquals(0, res.seeRows().size());
+    }
+
+    @Test
+    public void testClearAllIfModifiedTablesUnknown() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x int);");
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Bar(y int);");
+
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (42)");
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Bar (y) VALUES (77)");
+
+        clearModifiedTables(null);
+
+        QueryResult res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(0, res.seeRows().size());
+        res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;");
+        assertEquals(0, res.seeRows().size());
+
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (42)");
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Bar (y) VALUES (77)");
+
+        //a non-existing table should lead to clear everything
+        clearModifiedTables(Arrays.asList("Foo", "NotExisting"));
+
+        res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(0, res.seeRows().size());
+        res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;");
+        assertEquals(0, res.seeRows().size());
+    }
+
+    @Test
+    public void testResetIdentityOfModifiedTables() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(id bigserial not null, x int, primary key (id));");
+
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (1)");
+        QueryResult res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        long id = (Long) res.seeRows().get(0).getValueByName("id");
+
+        clearModifiedTables(Arrays.asList("Foo"));
+
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (1)");
+        res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(1, res.seeRows().size());
+        assertEquals(id, res.seeRows().get(0).getValueByName("id"));
+    }
+}
@@ -0,0 +1,135 @@
+package org.evomaster.client.java.controller.db;
+
+import io.restassured.http.ContentType;
+import org.evomaster.client.java.controller.DatabaseTestTemplate;
+import org.evomaster.client.java.controller.InstrumentedSutStarter;
+import org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto;
+import org.evomaster.client.java.controller.api.dto.database.operations.InsertionDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.evomaster.client.java.controller.api.ControllerConstants.BASE_PATH;
+import static org.evomaster.client.java.controller.api.ControllerConstants.DATABASE_COMMAND;
+import static org.evomaster.client.java.controller.db.dsl.SqlDsl.sql;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DbSnapshotTest extends DatabaseTestTemplate {
+
+    private void createTables() throws Exception {
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(" +
+                "id bigint generated by default as identity, " +
+                "name varchar(255), " +
+                "primary key (id));" +
+                "CREATE TABLE Bar(" +
+                "id int, " +
+                "foo_id bigint, " +
+                "primary key (id));" +
+                "alter table Bar add constraint FKBar foreign key (foo_id) references Foo;"
+        );
+    }
+
+    private List<InsertionDto> insertions() {
+        return sql()
+                .insertInto("Foo", 0L).d("name", "\"a\"")
+                .and()
+                .insertInto("Foo", 1L)
+                .and()
+                .insertInto("Bar", 2L).d("id", "42").r("foo_id", 0L)
+                .dtos();
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+
+        createTables();
+        SqlScriptRunner.execInsert(getConnection(), insertions());
+
+        DbSnapshot snapshot = DbSnapshot.take(getConnection(), Arrays.asList("Foo", "Bar"));
+        assertEquals(Arrays.asList("Foo", "Bar"), snapshot.getTableNames());
+        assertEquals(3, snapshot.getNumberOfRows());
+
+        DbCleaner.clearDatabase_H2(getConnection());
+        assertEquals(0, SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;").seeRows().size());
+
+        snapshot.restore(getConnection());
+
+        QueryResult foo = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo ORDER BY id;");
+        assertEquals(2, foo.seeRows().size());
+        assertEquals("a", foo.seeRows().get(0).getValueByName("name"));
+        assertNull(foo.seeRows().get(1).getValueByName("name"));
+
+        QueryResult bar = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;");
+        assertEquals(1, bar.seeRows().size());
+        assertEquals(foo.seeRows().get(0).getValueByName("id"), bar.seeRows().get(0).getValueByName("foo_id"));
+
+        //identity should continue from where it was when the snapshot was taken
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (name) VALUES ('b')");
+        foo = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo WHERE name = 'b';");
+        long last = (Long) SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo ORDER BY id;")
+                .seeRows().get(1).getValueByName("id");
+        assertEquals(last + 1, foo.seeRows().get(0).getValueByName("id"));
+    }
+
+    @Test
+    public void testRestoreRemovesCurrentData() throws Exception {
+
+        createTables();
+        SqlScriptRunner.execInsert(getConnection(), insertions());
+
+        DbSnapshot snapshot = DbSnapshot.take(getConnection(), Arrays.asList("Foo", "Bar"));
+
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (name) VALUES ('b')");
+
+        snapshot.restore(getConnection());
+
+        QueryResult foo = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(2, foo.seeRows().size());
+    }
+
+    @Test
+    public void testViaRest() throws Exception {
+
+        createTables();
+
+        InstrumentedSutStarter starter = getInstrumentedSutStarter();
+        String url = start(starter) + BASE_PATH + DATABASE_COMMAND;
+
+        try {
+            DatabaseCommandDto restore = new DatabaseCommandDto();
+            restore.snapshotKey = "foo";
+
+            //nothing saved yet
+            given().contentType(ContentType.JSON)
+                    .body(restore)
+                    .post(url)
+                    .then()
+                    .statusCode(404);
+
+            DatabaseCommandDto insert = new DatabaseCommandDto();
+            insert.insertions = insertions();
+            insert.snapshotKey = "foo";
+
+            given().contentType(ContentType.JSON)
+                    .body(insert)
+                    .post(url)
+                    .then()
+                    .statusCode(200);
+
+            DbCleaner.clearDatabase_H2(getConnection());
+
+            given().contentType(ContentType.JSON)
+                    .body(restore)
+                    .post(url)
+                    .then()
+                    .statusCode(204);
+
+            assertEquals(2, SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;").seeRows().size());
+            assertEquals(1, SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;").seeRows().size());
+        } finally {
+            starter.stop();
+        }
+    }
+}
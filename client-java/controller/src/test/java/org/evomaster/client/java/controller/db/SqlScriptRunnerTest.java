@@ -6,8 +6,11 @@ import org.evomaster.client.java.controller.InstrumentedSutStarter;
 import org.evomaster.client.java.controller.api.dto.database.operations.DataRowDto;
 import org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto;
 import org.evomaster.client.java.controller.api.dto.database.operations.InsertionDto;
+import org.evomaster.client.java.controller.api.dto.database.operations.QueryResultDto;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -465,4 +468,230 @@ public class SqlScriptRunnerTest extends DatabaseTestTemplate {
         assertEquals(2, res.size());
     }
 
+    @Test
+    public void testExecQueryStopEarly() throws Exception{
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x INT)");
+        for(int i=0; i<10; i++) {
+            SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (" + i + ")");
+        }
+
+        int all = SqlScriptRunner.execQuery(getConnection(), "select x from Foo", 3, rows -> {
+            int n = 0;
+            while (rows.hasNext()){
+                assertEquals(n, rows.next().getValueByName("x"));
+                n++;
+            }
+            return n;
+        });
+        assertEquals(10, all);
+
+        int firstEven = SqlScriptRunner.execQuery(getConnection(), "select x from Foo where x>4", 3, rows -> {
+            while (rows.hasNext()){
+                int x = (Integer) rows.next().getValueByName("x");
+                if(x % 2 == 0){
+                    return x;
+                }
+            }
+            return -1;
+        });
+        assertEquals(6, firstEven);
+
+        boolean any = SqlScriptRunner.execQuery(getConnection(), "select x from Foo where x>100", 3, rows -> rows.hasNext());
+        assertFalse(any);
+    }
+
+    @Test
+    public void testCursorTypedValues() throws Exception{
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x INT, y DOUBLE, z VARCHAR(10))");
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x, y, z) VALUES (1, 2.5, 'a')");
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x, y, z) VALUES (2, null, null)");
+        SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x, y, z) VALUES (3, 0, 'c')");
+
+        try(QueryResultCursor cursor = new QueryResultCursor(getConnection(), "select x, y, z from Foo order by x", 1, 2)){
+
+            assertEquals(3, cursor.getColumnCount());
+            assertEquals(java.sql.Types.INTEGER, cursor.getSqlType(0));
+
+            assertTrue(cursor.advance());
+            assertEquals(1L, cursor.getLong(0));
+            assertEquals(2.5, cursor.getDouble(1), 0.0);
+            assertEquals("a", cursor.getString(2));
+            assertFalse(cursor.isNull(1));
+
+            assertTrue(cursor.hasNext());
+            DataRow row = cursor.next();
+            assertEquals(2, row.getValueByName("x"));
+            assertTrue(cursor.isNull(1));
+            assertNull(cursor.getString(2));
+
+            //max 2 rows
+            assertFalse(cursor.advance());
+        }
+    }
+
+    @Test
+    public void testCursorFetchSize() throws Exception{
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x INT)");
+        for(int i=0; i<10; i++) {
+            SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x) VALUES (" + i + ")");
+        }
+
+        Connection connection = getConnection();
+        assertTrue(connection.getAutoCommit());
+        assertFalse(connection.isReadOnly());
+
+        try(QueryResultCursor cursor = new QueryResultCursor(connection, "select x from Foo", 7, -1)){
+            assertEquals(7, cursor.getFetchSize());
+            //otherwise drivers like Postgres would ignore the fetch size
+            assertFalse(connection.getAutoCommit());
+            assertTrue(cursor.advance());
+        }
+
+        assertTrue(connection.getAutoCommit());
+        assertFalse(connection.isReadOnly());
+
+        //connection is restored on failures as well
+        assertThrows(SQLException.class, () -> new QueryResultCursor(connection, "select y from Foo", 7, -1));
+        assertTrue(connection.getAutoCommit());
+        assertFalse(connection.isReadOnly());
+
+        //in an existing transaction, the connection is left as it is
+        connection.setAutoCommit(false);
+        try {
+            SqlScriptRunner.execCommand(connection, "INSERT INTO Foo (x) VALUES (42)");
+            int n = SqlScriptRunner.execQuery(connection, "select x from Foo where x=42", 7, rows -> {
+                assertEquals(7, rows.getFetchSize());
+                int k = 0;
+                while (rows.advance()) {
+                    k++;
+                }
+                return k;
+            });
+            assertEquals(1, n);
+            assertFalse(connection.getAutoCommit());
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Test
+    public void testExecQueryAsDto() throws Exception{
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x INT, z VARCHAR(10))");
+        for(int i=0; i<5; i++) {
+            SqlScriptRunner.execCommand(getConnection(), "INSERT INTO Foo (x, z) VALUES (" + i + ", null)");
+        }
+
+        QueryResultDto all = SqlScriptRunner.execQueryAsDto(getConnection(), "select x, z from Foo", -1);
+        QueryResultDto expected = SqlScriptRunner.execCommand(getConnection(), "select x, z from Foo").toDto();
+        assertEquals(5, all.rows.size());
+        for(int i=0; i<5; i++) {
+            assertEquals(expected.rows.get(i).columnData, all.rows.get(i).columnData);
+        }
+
+        assertEquals(3, SqlScriptRunner.execQueryAsDto(getConnection(), "select x from Foo", 3).rows.size());
+        assertEquals(0, SqlScriptRunner.execQueryAsDto(getConnection(), "select x from Foo", 0).rows.size());
+    }
+
+    @Test
+    public void testGroupInsertions() {
+
+        List<InsertionDto> insertions = sql()
+                .insertInto("Foo", 0L).d("x", "1")
+                .and()
+                .insertInto("Foo", 1L).d("x", "2")
+                .and()
+                .insertInto("Bar", 2L).r("fooId", 0L)
+                .and()
+                .insertInto("Foo", 3L).d("x", "3")
+                .and()
+                .insertInto("Bar", 4L).r("fooId", 3L)
+                .and()
+                .insertInto("Foo", 5L).d("y", "3")
+                .dtos();
+
+        List<List<Integer>> groups = SqlScriptRunner.groupInsertions(insertions);
+
+        assertEquals(3, groups.size());
+        assertEquals(Arrays.asList(0, 1, 3), groups.get(0));
+        assertEquals(Arrays.asList(5), groups.get(1));
+        assertEquals(Arrays.asList(2, 4), groups.get(2));
+    }
+
+    @Test
+    public void testInsertInGroupsWithGeneratedIds() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(" +
+                "id bigint generated by default as identity, " +
+                "x int, " +
+                "primary key (id));" +
+                "CREATE TABLE Bar(" +
+                "id bigint generated by default as identity, " +
+                "fooId bigint, " +
+                "primary key (id));" +
+                "alter table Bar add constraint FKBar foreign key (fooId) references Foo;"
+        );
+
+        List<InsertionDto> insertions = sql()
+                .insertInto("Foo", 10L).d("x", "1")
+                .and()
+                .insertInto("Bar", 11L).r("fooId", 10L)
+                .and()
+                .insertInto("Foo", 12L).d("x", "2")
+                .and()
+                .insertInto("Bar", 13L).r("fooId", 12L)
+                .and()
+                .insertInto("Foo", 14L).d("x", "3")
+                .dtos();
+
+        Map<Long, Long> map = SqlScriptRunner.execInsert(getConnection(), insertions);
+
+        assertEquals(5, map.size());
+
+        QueryResult foo = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(3, foo.seeRows().size());
+        for (DataRow row : foo.seeRows()) {
+            long id = (Long) row.getValueByName("id");
+            int x = (Integer) row.getValueByName("x");
+            assertEquals(id, map.get(8L + 2 * x));
+        }
+
+        QueryResult bar = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Bar;");
+        assertEquals(2, bar.seeRows().size());
+        for (DataRow row : bar.seeRows()) {
+            long id = (Long) row.getValueByName("id");
+            long fooId = (Long) row.getValueByName("fooId");
+            Long insertionId = map.entrySet().stream()
+                    .filter(e -> e.getValue() == id && (e.getKey() == 11L || e.getKey() == 13L))
+                    .map(Map.Entry::getKey)
+                    .findFirst().get();
+            assertEquals(map.get(insertionId - 1), fooId);
+        }
+    }
+
+    @Test
+    public void testInsertInGroupsFailure() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x int not null);");
+
+        List<InsertionDto> insertions = sql()
+                .insertInto("Foo", 0L).d("x", "1")
+                .and()
+                .insertInto("Foo", 1L).d("x", "2")
+                .and()
+                .insertInto("Foo", 2L).d("x", "NULL")
+                .dtos();
+
+        SQLException e = assertThrows(SQLException.class, () -> SqlScriptRunner.execInsert(getConnection(), insertions));
+        assertTrue(e.getMessage().contains("index 2"), e.getMessage());
+
+        //as when executing one insertion at a time, the ones before the failure are in the database
+        QueryResult res = SqlScriptRunner.execCommand(getConnection(), "SELECT * FROM Foo;");
+        assertEquals(2, res.seeRows().size());
+        assertTrue(getConnection().getAutoCommit());
+    }
 }
@@ -3,13 +3,17 @@ package org.evomaster.client.java.controller.internal.db;
 import io.restassured.http.ContentType;
 import org.evomaster.client.java.controller.DatabaseTestTemplate;
 import org.evomaster.client.java.controller.InstrumentedSutStarter;
+import org.evomaster.client.java.controller.api.Formats;
+import org.evomaster.client.java.controller.api.TestResultsBinaryFormat;
 import org.evomaster.client.java.controller.api.dto.TestResultsDto;
 import org.evomaster.client.java.controller.api.dto.database.execution.ExecutionDto;
+import org.evomaster.client.java.controller.api.dto.database.execution.SqlCacheStatsDto;
 import org.evomaster.client.java.controller.db.SqlScriptRunner;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
 import static org.evomaster.client.java.controller.api.ControllerConstants.BASE_PATH;
+import static org.evomaster.client.java.controller.api.ControllerConstants.SQL_CACHE_STATS;
 import static org.evomaster.client.java.controller.api.ControllerConstants.TEST_RESULTS;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,4 +134,75 @@ public class SqlHandlerInDBTest extends DatabaseTestTemplate {
             starter.stop();
         }
     }
+
+    @Test
+    public void testBinaryTestResults() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x INT)");
+
+        InstrumentedSutStarter starter = getInstrumentedSutStarter();
+
+        try {
+            String url = start(starter);
+            url += BASE_PATH;
+
+            startNewTest(url);
+            startNewActionInSameTest(url, 1);
+
+            SqlScriptRunner.execCommand(getConnection(), "insert into Foo (x) values (42)");
+
+            ExecutionDto json = getSqlExecutionDto(1, url);
+
+            byte[] data = given().accept(Formats.BINARY_TEST_RESULTS)
+                    .get(url + TEST_RESULTS)
+                    .then()
+                    .statusCode(200)
+                    .extract().body().asByteArray();
+
+            ExecutionDto binary = TestResultsBinaryFormat.decode(data).extraHeuristics.get(1).databaseExecutionDto;
+
+            assertEquals(json.insertedData, binary.insertedData);
+            assertEquals(json.numberOfSqlCommands, binary.numberOfSqlCommands);
+
+        } finally {
+            starter.stop();
+        }
+    }
+
+    @Test
+    public void testSqlCacheStats() throws Exception {
+
+        SqlScriptRunner.execCommand(getConnection(), "CREATE TABLE Foo(x INT)");
+
+        InstrumentedSutStarter starter = getInstrumentedSutStarter();
+
+        try {
+            String url = start(starter);
+            url += BASE_PATH;
+
+            startNewTest(url);
+            startNewActionInSameTest(url, 1);
+
+            SqlScriptRunner.execCommand(getConnection(), "insert into Foo (x) values (1)");
+            SqlScriptRunner.execCommand(getConnection(), "insert into Foo (x) values (2)");
+
+            ExecutionDto dto = getSqlExecutionDto(1, url);
+            assertEquals(2, dto.numberOfSqlCommands);
+
+            SqlCacheStatsDto stats = given().accept(ContentType.JSON)
+                    .get(url + SQL_CACHE_STATS)
+                    .then()
+                    .statusCode(200)
+                    .extract().body().jsonPath()
+                    .getObject("data", SqlCacheStatsDto.class);
+
+            //second insertion differs only for a literal
+            assertTrue(stats.hits >= 1);
+            assertTrue(stats.misses >= 1);
+            assertTrue(stats.cachedEntries > 0);
+
+        } finally {
+            starter.stop();
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package org.evomaster.client.java.controller.internal.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlHandlerTest {
+
+    @Test
+    public void testModifiedTables() {
+
+        SqlHandler handler = new SqlHandler();
+
+        //at the beginning, we do not know what the SUT did
+        assertNull(handler.consumeModifiedTables());
+
+        Set<String> tables = handler.consumeModifiedTables();
+        assertNotNull(tables);
+        assertTrue(tables.isEmpty());
+
+        handler.handle("SELECT x FROM Foo");
+        handler.handle("INSERT INTO Foo (x) VALUES (1)");
+        handler.handle("UPDATE Bar SET y = 2 WHERE y = 3");
+        handler.handle("DELETE FROM Hello");
+
+        tables = handler.consumeModifiedTables();
+        assertEquals(3, tables.size());
+        assertTrue(tables.containsAll(Arrays.asList("Foo", "Bar", "Hello")));
+
+        //tracking is reset once consumed
+        assertTrue(handler.consumeModifiedTables().isEmpty());
+
+        //tracking spans actions
+        handler.handle("INSERT INTO Foo (x) VALUES (1)");
+        handler.reset();
+        handler.handle("INSERT INTO Bar (y) VALUES (1)");
+        tables = handler.consumeModifiedTables();
+        assertEquals(2, tables.size());
+    }
+
+    @Test
+    public void testUnknownModifications() {
+
+        SqlHandler handler = new SqlHandler();
+        handler.consumeModifiedTables();
+
+        handler.handle("TRUNCATE TABLE Foo");
+        assertNotNull(handler.consumeModifiedTables());
+
+        handler.handle("DROP TABLE Foo");
+        assertNull(handler.consumeModifiedTables());
+
+        handler.handle("MERGE INTO Foo KEY (x) VALUES (1)");
+        assertNull(handler.consumeModifiedTables());
+
+        handler.handle("CREATE TABLE Bar (y INT)");
+        assertNull(handler.consumeModifiedTables());
+
+        handler.trackModifications("DELETE FROM WHERE WHERE");
+        assertNull(handler.consumeModifiedTables());
+
+        handler.markAsModified(Arrays.asList("Foo"));
+        handler.invalidateModifiedTables();
+        assertNull(handler.consumeModifiedTables());
+    }
+
+    @Test
+    public void testNoTrackingIfDisabled() {
+
+        SqlHandler handler = new SqlHandler();
+        handler.consumeModifiedTables();
+
+        handler.setCalculateHeuristics(false);
+        handler.setExtractSqlExecution(false);
+
+        handler.handle("INSERT INTO Foo (x) VALUES (1)");
+        assertNull(handler.consumeModifiedTables());
+    }
+}
@@ -0,0 +1,104 @@
+package org.evomaster.client.java.controller.internal.db;
+
+import net.sf.jsqlparser.statement.Statement;
+import org.evomaster.client.java.controller.api.dto.database.execution.SqlCacheStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlParsingCacheTest {
+
+    @Test
+    public void testNormalize() {
+
+        assertEquals("select * from Foo where x = ? and y = ?",
+                SqlParsingCache.normalize("select *  from Foo\n where x = 42 and y = 'it''s'"));
+        assertEquals("select t1.x from Foo t1 where t1.x > ?",
+                SqlParsingCache.normalize("select t1.x from Foo t1 where t1.x > 3.5"));
+        assertEquals("select \"col 1\" from Foo",
+                SqlParsingCache.normalize("select \"col 1\" from Foo"));
+    }
+
+    @Test
+    public void testHasLiterals() {
+
+        assertFalse(SqlParsingCache.hasLiterals("select x1, y from Foo"));
+        assertTrue(SqlParsingCache.hasLiterals("select x from Foo where x=1"));
+        assertTrue(SqlParsingCache.hasLiterals("select x from Foo where x='a'"));
+    }
+
+    @Test
+    public void testStatementOnExactText() {
+
+        SqlParsingCache cache = new SqlParsingCache();
+
+        Statement a = cache.getStatement("select * from Foo where x=1");
+        Statement b = cache.getStatement("select * from Foo where x=1");
+        Statement c = cache.getStatement("select * from Foo where x=2");
+
+        assertSame(a, b);
+        assertNotSame(a, c);
+
+        SqlCacheStatsDto stats = cache.getStats();
+        assertEquals(1, stats.hits);
+        assertEquals(2, stats.misses);
+        assertEquals(2, stats.cachedEntries);
+    }
+
+    @Test
+    public void testAnalysisOnNormalizedText() {
+
+        SqlParsingCache cache = new SqlParsingCache();
+        AtomicInteger counter = new AtomicInteger(0);
+
+        cache.getAnalysis("foo", "select x from Foo where x=1", s -> counter.incrementAndGet());
+        cache.getAnalysis("foo", "select x from Foo where x=2", s -> counter.incrementAndGet());
+        assertEquals(1, counter.get());
+
+        cache.getAnalysis("bar", "select x from Foo where x=2", s -> counter.incrementAndGet());
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testAnalysisWithLiteralsInResult() {
+
+        SqlParsingCache cache = new SqlParsingCache();
+
+        String a = cache.getAnalysis("foo", "select x from Foo where x=1", s -> s);
+        String b = cache.getAnalysis("foo", "select x from Foo where x=2", s -> s);
+        String c = cache.getAnalysis("foo", "select x from Foo where x=2", s -> "not cached");
+
+        assertEquals("select x from Foo where x=1", a);
+        assertEquals("select x from Foo where x=2", b);
+        assertEquals(b, c);
+    }
+
+    @Test
+    public void testBounded() {
+
+        SqlParsingCache cache = new SqlParsingCache(2);
+
+        cache.getStatement("select * from A");
+        cache.getStatement("select * from B");
+        cache.getStatement("select * from A");
+        cache.getStatement("select * from C");
+
+        assertEquals(2, cache.getStats().cachedEntries);
+
+        //B was the least recently used
+        cache.getStatement("select * from A");
+        cache.getStatement("select * from B");
+        assertEquals(2, cache.getStats().hits);
+    }
+
+    @Test
+    public void testInvalid() {
+
+        SqlParsingCache cache = new SqlParsingCache();
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getStatement("not a sql command"));
+        assertThrows(IllegalArgumentException.class, () -> new SqlParsingCache(0));
+    }
+}
@@ -0,0 +1,38 @@
+package org.evomaster.client.java.databasespy;
+
+import com.p6spy.engine.logging.Category;
+import com.p6spy.engine.spy.appender.P6Logger;
+
+/**
+ * P6Spy appender that, instead of printing the intercepted SQL commands,
+ * passes them directly to the {@link SqlEventChannel}.
+ * Only usable when the SUT and the EvoMaster Driver run in the same JVM.
+ */
+public class P6SpyChannelLogger implements P6Logger {
+
+    @Override
+    public void logSQL(int connectionId,
+                       String now,
+                       long elapsed,
+                       Category category,
+                       String prepared,
+                       String sql) {
+
+        SqlEventChannel.publish(P6SpyFormatter.extractSql(prepared, sql));
+    }
+
+    @Override
+    public void logException(Exception e) {
+        //nothing to do
+    }
+
+    @Override
+    public void logText(String text) {
+        //nothing to do
+    }
+
+    @Override
+    public boolean isCategoryEnabled(Category category) {
+        return SqlEventChannel.isActive();
+    }
+}
@@ -19,11 +19,24 @@ public class P6SpyFormatter implements MessageFormattingStrategy {
                                 String prepared,
                                 String sql) {
 
+        String command = extractSql(prepared, sql);
+        if (command == null) {
+            return "";
+        }
+
+        return PREFIX + command;
+    }
+
+    /**
+     * @return the SQL command on a single line, or {@code null} if there is none
+     */
+    public static String extractSql(String prepared, String sql) {
+
         boolean hasPrepared = (prepared != null && !prepared.trim().isEmpty());
         boolean hasSQL = (sql != null && !sql.trim().isEmpty());
 
         if (!hasPrepared && !hasSQL) {
-            return "";
+            return null;
         }
 
         /*
@@ -31,13 +44,14 @@ public class P6SpyFormatter implements MessageFormattingStrategy {
             of "prepared" and "sql" inputs is rather confusing,
             and we get different behavior based on whether parameters "?"
             are present or not in the query.
+            When present, "sql" has the actual values of the bound parameters.
 
             Furthermore, to simplify the analyses, we want each single SQL command on 1 line
          */
         if (!hasSQL) {
-            return PREFIX + prepared.replace('\n', ' ');
+            return prepared.replace('\n', ' ');
         } else {
-            return PREFIX + sql.replace('\n', ' ');
+            return sql.replace('\n', ' ');
         }
     }
 }
@@ -0,0 +1,148 @@
+package org.evomaster.client.java.databasespy;
+
+import org.evomaster.client.java.utils.SimpleLogger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-process channel through which the SQL commands intercepted by P6Spy
+ * are passed to the EvoMaster Driver, when the SUT runs in the same JVM.
+ * This avoids printing each command on the standard output, and then
+ * having to scan and parse all the output of the SUT to find them back.
+ *
+ * <p>
+ * The threads of the SUT only append to a lock-free queue, and never run
+ * the registered consumer themselves.
+ * The commands are handed to the consumer when the Driver needs them
+ * (ie, when {@link #flush()} is called), or by a single background thread
+ * once the queue gets full.
+ * Flushes are never run concurrently, so the consumer does not need to be thread-safe.
+ * If the background thread cannot keep up, then the queue would grow without bounds.
+ * In such case, new commands are dropped once {@link #MAX_SIZE} is reached.
+ * A warning is logged the first time this happens, and the dropped commands are counted
+ * (see {@link #getNumberOfDropped()}), so that the Driver can detect that some of them were lost.
+ *
+ * <p>
+ * If no consumer is registered, commands are just discarded.
+ */
+public class SqlEventChannel {
+
+    /**
+     * Number of commands in the queue after which they are flushed in the background
+     */
+    public static final int CAPACITY = 4096;
+
+    /**
+     * Max number of commands kept in the queue. Further ones are dropped
+     */
+    public static final int MAX_SIZE = 16 * CAPACITY;
+
+    private static final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Size of the queue. Note: {@link ConcurrentLinkedQueue#size()} is not a constant time operation
+     */
+    private static final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * Number of commands dropped because the queue was full
+     */
+    private static final AtomicInteger dropped = new AtomicInteger(0);
+
+    private static volatile Consumer<String> consumer;
+
+    /**
+     * Thread flushing the queue when it gets full. Started when a consumer is first registered
+     */
+    private static volatile Thread drainer;
+
+
+    public static synchronized void setConsumer(Consumer<String> consumer) {
+        SqlEventChannel.consumer = consumer;
+        if (consumer == null) {
+            queue.clear();
+            size.set(0);
+        } else if (drainer == null) {
+            drainer = new Thread(SqlEventChannel::drain, "EvoMaster-sql-channel");
+            drainer.setDaemon(true);
+            drainer.start();
+        }
+    }
+
+    public static boolean isActive() {
+        return consumer != null;
+    }
+
+    /**
+     * Add a new SQL command, including the values of its bound parameters
+     */
+    public static void publish(String sql) {
+
+        if (sql == null || consumer == null) {
+            return;
+        }
+
+        int n = size.incrementAndGet();
+        if (n > MAX_SIZE) {
+            size.decrementAndGet();
+            if (dropped.getAndIncrement() == 0) {
+                SimpleLogger.warn("Too many SQL commands waiting to be handled (" + MAX_SIZE + ")." +
+                        " Further ones are dropped, so the SQL heuristics and the tracking of modified tables" +
+                        " might be incomplete");
+            }
+            return;
+        }
+
+        queue.add(sql);
+
+        if (n == CAPACITY) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    /**
+     * Pass all the commands in the queue to the registered consumer
+     *
+     * @return number of handled commands
+     */
+    public static synchronized int flush() {
+
+        Consumer<String> c = consumer;
+
+        int n = 0;
+        String sql;
+        while ((sql = queue.poll()) != null) {
+            size.decrementAndGet();
+            if (c != null) {
+                c.accept(sql);
+            }
+            n++;
+        }
+
+        return n;
+    }
+
+    /**
+     * This counter is never reset. To detect whether commands got lost in a given time window,
+     * compare its value at the start and at the end of such window.
+     *
+     * @return how many commands were dropped so far because the queue was full
+     */
+    public static int getNumberOfDropped() {
+        return dropped.get();
+    }
+
+    private static void drain() {
+        while (true) {
+            //spurious wake-ups are not a problem, as then there is just nothing to flush
+            LockSupport.park();
+            if (size.get() >= CAPACITY) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.evomaster.client.java.databasespy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlEventChannelTest {
+
+    @AfterEach
+    public void tearDown() {
+        SqlEventChannel.setConsumer(null);
+    }
+
+    @Test
+    public void testNoConsumer() {
+
+        SqlEventChannel.publish("select * from Foo");
+
+        List<String> handled = new ArrayList<>();
+        SqlEventChannel.setConsumer(handled::add);
+
+        assertEquals(0, SqlEventChannel.flush());
+        assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    public void testFlush() {
+
+        List<String> handled = new ArrayList<>();
+        SqlEventChannel.setConsumer(handled::add);
+
+        SqlEventChannel.publish("select * from Foo");
+        SqlEventChannel.publish(null);
+        SqlEventChannel.publish("delete from Bar");
+
+        //nothing is handled until flushed
+        assertTrue(handled.isEmpty());
+
+        assertEquals(2, SqlEventChannel.flush());
+        assertEquals(2, handled.size());
+        assertEquals("select * from Foo", handled.get(0));
+        assertEquals("delete from Bar", handled.get(1));
+
+        assertEquals(0, SqlEventChannel.flush());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testFlushWhenFull() throws Exception {
+
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        SqlEventChannel.setConsumer(sql -> {
+            threads.add(Thread.currentThread());
+            handled.add(sql);
+        });
+
+        for (int i = 0; i < SqlEventChannel.CAPACITY; i++) {
+            SqlEventChannel.publish("select * from Foo where x=" + i);
+        }
+
+        waitUntil(() -> handled.size() == SqlEventChannel.CAPACITY);
+        assertEquals(0, SqlEventChannel.flush());
+
+        //the consumer is never run by the threads of the SUT
+        assertEquals(1, threads.size());
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testNoConcurrentFlushes() throws Exception {
+
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        AtomicInteger handled = new AtomicInteger(0);
+        SqlEventChannel.setConsumer(sql -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            handled.incrementAndGet();
+            running.decrementAndGet();
+        });
+
+        int perThread = 3 * SqlEventChannel.CAPACITY;
+        List<Thread> sut = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    SqlEventChannel.publish("select * from Foo where x=" + i);
+                    if (i % 1000 == 0) {
+                        SqlEventChannel.flush();
+                    }
+                }
+            });
+            sut.add(thread);
+            thread.start();
+        }
+        for (Thread thread : sut) {
+            thread.join();
+        }
+        SqlEventChannel.flush();
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(4 * perThread, handled.get());
+    }
+
+    @Test
+    public void testDropWhenTooMany() throws Exception {
+
+        int droppedBefore = SqlEventChannel.getNumberOfDropped();
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger(0);
+        SqlEventChannel.setConsumer(sql -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            handled.incrementAndGet();
+        });
+
+        int total = SqlEventChannel.MAX_SIZE + SqlEventChannel.CAPACITY;
+        for (int i = 0; i < total; i++) {
+            SqlEventChannel.publish("select * from Foo where x=" + i);
+        }
+        //the background flush is stuck on the consumer, so the queue filled up
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        release.countDown();
+        waitUntil(() -> SqlEventChannel.flush() == 0 && handled.get() + droppedSince(droppedBefore) == total);
+        assertTrue(droppedSince(droppedBefore) > 0);
+    }
+
+    private static int droppedSince(int before) {
+        return SqlEventChannel.getNumberOfDropped() - before;
+    }
+
+    @Test
+    public void testExtractSql() {
+
+        assertNull(P6SpyFormatter.extractSql(null, " "));
+        assertEquals("select * from Foo", P6SpyFormatter.extractSql("select * from Foo", ""));
+        assertEquals("select * from Foo where x=5",
+                P6SpyFormatter.extractSql("select * from Foo where x=?", "select * from Foo\nwhere x=5"));
+    }
+}
@@ -20,4 +20,10 @@ public class InputProperties {
      * Option to write to disk the obtained coverage once the SUT ends
      */
     public static final String OUTPUT_FILE = "evomaster.javaagent.outputfile";
+
+    /**
+     * Directory in which to keep a persistent cache of the instrumented classes,
+     * to speed up the start of the SUT
+     */
+    public static final String CACHE_DIR = "evomaster.javaagent.cache.dir";
 }
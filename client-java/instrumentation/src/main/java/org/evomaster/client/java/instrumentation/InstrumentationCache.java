@@ -0,0 +1,310 @@
+package org.evomaster.client.java.instrumentation;
+
+import org.evomaster.client.java.instrumentation.coverage.methodreplacement.ReplacementList;
+import org.evomaster.client.java.instrumentation.shared.ClassName;
+import org.evomaster.client.java.instrumentation.staticstate.ObjectiveRecorder;
+import org.evomaster.client.java.utils.SimpleLogger;
+import org.objectweb.asm.ClassReader;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent cache on disk of the instrumented classes, to avoid running the whole
+ * bytecode instrumentation each time the SUT is started.
+ *
+ * <p>
+ * Entries are keyed by a hash of the original bytecode of the class, the version of the
+ * agent, the set of method replacement classes, and whether the class is instrumented
+ * for coverage or not.
+ * Together with the instrumented bytecode, each entry stores the testing targets
+ * registered during its instrumentation, as those registrations have to be replayed
+ * when the entry is used.
+ *
+ * <p>
+ * As numeric ids of the targets are part of the instrumented bytecode, the mapping
+ * from targets to numeric ids is saved as well, and re-loaded when the cache is opened.
+ * If the ids of a cached entry turn out to be different from the current ones (eg, the
+ * cache directory is shared by different SUT processes running at the same time), then
+ * the class is instrumented again.
+ *
+ * <p>
+ * Note: the computation of stack map frames depends on the class hierarchy of the SUT.
+ * If a class is unchanged but its super-types are, then the cache directory should be deleted.
+ */
+public class InstrumentationCache {
+
+    private static final int MAGIC = 0xE7CAC4E0;
+
+    /**
+     * To update each time the format of the cache files is changed
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String ID_MAPPING_FILE = "ids.txt";
+
+    private static final String ENTRY_EXTENSION = ".class.cache";
+
+    private final Path directory;
+
+    /**
+     * Identifies the version of the agent and its method replacements
+     */
+    private final String agentFingerprint;
+
+    private final Writer idMappingWriter;
+
+    private final AtomicInteger hits = new AtomicInteger(0);
+
+    private final AtomicInteger misses = new AtomicInteger(0);
+
+    private static class Entry {
+
+        final List<String> targets;
+
+        final int[] ids;
+
+        final byte[] bytecode;
+
+        Entry(List<String> targets, int[] ids, byte[] bytecode) {
+            this.targets = targets;
+            this.ids = ids;
+            this.bytecode = bytecode;
+        }
+    }
+
+
+    /**
+     * Open (or create) the cache in the given directory, and load its mapping of numeric ids.
+     * This should be done before any class of the SUT is instrumented.
+     */
+    public InstrumentationCache(Path directory) throws IOException {
+
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        agentFingerprint = computeAgentFingerprint();
+
+        Path idFile = directory.resolve(ID_MAPPING_FILE);
+        loadIdMapping(idFile);
+
+        idMappingWriter = Files.newBufferedWriter(idFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        ObjectiveRecorder.setIdMappingListener(this::saveIdMapping);
+    }
+
+    /**
+     * Get the instrumented bytecode of the given class, either from the cache or by instrumenting it
+     * (and then storing it in the cache)
+     */
+    public byte[] transformBytes(Instrumentator instrumentator, ClassLoader classLoader, ClassName className, byte[] original) {
+
+        String key = computeKey(className, instrumentator.canInstrumentForCoverage(className), original);
+        Path path = getPath(key);
+
+        Entry entry = read(path);
+
+        if (entry != null) {
+            boolean valid = true;
+            for (int i = 0; i < entry.targets.size(); i++) {
+                //registration must be replayed regardless of whether the ids are still valid
+                int id = ObjectiveRecorder.registerTarget(entry.targets.get(i));
+                valid = valid && id == entry.ids[i];
+            }
+
+            if (valid) {
+                hits.incrementAndGet();
+                return entry.bytecode;
+            }
+        }
+
+        misses.incrementAndGet();
+
+        byte[][] instrumented = new byte[1][];
+        Set<String> targets = ObjectiveRecorder.collectRegisteredTargets(() ->
+                instrumented[0] = instrumentator.transformBytes(classLoader, className, new ClassReader(original)));
+
+        write(path, new Entry(new ArrayList<>(targets),
+                targets.stream().mapToInt(ObjectiveRecorder::getMappedId).toArray(),
+                instrumented[0]));
+
+        return instrumented[0];
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    private Path getPath(String key) {
+        //avoid having too many files in the same folder
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+    }
+
+    private Entry read(Path path) {
+
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            int n = in.readInt();
+            List<String> targets = new ArrayList<>(n);
+            int[] ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                targets.add(in.readUTF());
+                ids[i] = in.readInt();
+            }
+
+            byte[] bytecode = new byte[in.readInt()];
+            in.readFully(bytecode);
+
+            return new Entry(targets, ids, bytecode);
+
+        } catch (IOException e) {
+            SimpleLogger.warn("Failed to read instrumentation cache entry " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Path path, Entry entry) {
+
+        try {
+            Files.createDirectories(path.getParent());
+
+            /*
+                the same class could be written at the same time by different processes,
+                so first write to a temporary file, and then move it
+             */
+            Path tmp = Files.createTempFile(path.getParent(), "tmp", null);
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entry.targets.size());
+                for (int i = 0; i < entry.targets.size(); i++) {
+                    out.writeUTF(entry.targets.get(i));
+                    out.writeInt(entry.ids[i]);
+                }
+                out.writeInt(entry.bytecode.length);
+                out.write(entry.bytecode);
+            }
+
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+        } catch (IOException e) {
+            SimpleLogger.warn("Failed to write instrumentation cache entry " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void loadIdMapping(Path idFile) throws IOException {
+
+        if (!Files.exists(idFile)) {
+            return;
+        }
+
+        int conflicts = 0;
+
+        for (String line : Files.readAllLines(idFile, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab <= 0) {
+                //eg, last line partially written if process was killed
+                continue;
+            }
+            try {
+                int id = Integer.parseInt(line.substring(0, tab));
+                if (!ObjectiveRecorder.addIdMapping(id, line.substring(tab + 1))) {
+                    conflicts++;
+                }
+            } catch (NumberFormatException e) {
+                //ignore corrupted line
+            }
+        }
+
+        if (conflicts > 0) {
+            SimpleLogger.warn("Conflicting target ids in instrumentation cache: " + conflicts);
+        }
+    }
+
+    private synchronized void saveIdMapping(int id, String descriptiveId) {
+        try {
+            idMappingWriter.write(id + "\t" + descriptiveId + "\n");
+            //as a process could be killed at any time, cannot wait to close the file
+            idMappingWriter.flush();
+        } catch (IOException e) {
+            SimpleLogger.warn("Failed to save target id in instrumentation cache: " + e.getMessage());
+        }
+    }
+
+    private String computeKey(ClassName className, boolean forCoverage, byte[] original) {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        digest.update(agentFingerprint.getBytes(StandardCharsets.UTF_8));
+        digest.update(className.getBytecodeName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) (forCoverage ? 1 : 0));
+        digest.update(original);
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static String computeAgentFingerprint() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(FORMAT_VERSION);
+
+        Package p = InstrumentationCache.class.getPackage();
+        sb.append(";").append(p == null ? null : p.getImplementationVersion());
+
+        /*
+            SNAPSHOT versions can change without changing their version number,
+            so we also consider the location from where the agent is loaded
+         */
+        CodeSource source = InstrumentationCache.class.getProtectionDomain().getCodeSource();
+        URL location = source == null ? null : source.getLocation();
+        sb.append(";").append(location);
+        if (location != null && "file".equals(location.getProtocol())) {
+            try {
+                File file = new File(location.toURI());
+                sb.append(";").append(file.length()).append(";").append(file.lastModified());
+            } catch (Exception e) {
+                //nothing to do
+            }
+        }
+
+        ReplacementList.getList().forEach(r -> sb.append(";").append(r.getClass().getName()));
+
+        return sb.toString();
+    }
+}
@@ -40,17 +40,11 @@ public class InstrumentationController {
 
         List<TargetInfo> list = new ArrayList<>();
 
-        Map<String, TargetInfo> objectives = ExecutionTracer.getInternalReferenceToObjectiveCoverage();
-
         ids.stream().forEach(id -> {
 
-            String descriptiveId = ObjectiveRecorder.getDescriptiveId(id);
-
-            TargetInfo info = objectives.get(descriptiveId);
+            TargetInfo info = ExecutionTracer.getTargetInfo(id);
             if(info == null){
                 info = TargetInfo.notReached(id);
-            } else {
-                info = info.withMappedId(id).withNoDescriptiveId();
             }
 
             list.add(info);
@@ -63,14 +57,43 @@ public class InstrumentationController {
 
             int mappedId = ObjectiveRecorder.getMappedId(s);
 
-            TargetInfo info = objectives.get(s).withMappedId(mappedId);
+            TargetInfo info = ExecutionTracer.getTargetInfo(mappedId);
+            if(info == null){
+                info = TargetInfo.notReached(mappedId);
+            }
 
-            list.add(info);
+            list.add(info.withDescriptiveId(s));
         });
 
         return list;
     }
 
+    /**
+     * Instead of asking for specific targets, return all the targets
+     * whose value could improve the archive of EvoMaster, based on
+     * the baseline set with {@link #updateArchiveBaseline}
+     */
+    public static List<TargetInfo> getImprovedTargetInfos(){
+
+        List<TargetInfo> list = ExecutionTracer.getImprovedTargetInfos();
+
+        /*
+            All newly encountered targets are already part of the list,
+            with their descriptive ids
+         */
+        ObjectiveRecorder.clearFirstTimeEncountered();
+
+        return list;
+    }
+
+    /**
+     * Set the lowest heuristic values of the targets with which a test could still
+     * be added to the archive of EvoMaster, see {@link ObjectiveRecorder#updateArchiveBaseline}
+     */
+    public static void updateArchiveBaseline(boolean reset, Map<Integer, Double> values){
+        ObjectiveRecorder.updateArchiveBaseline(reset, values);
+    }
+
     public static List<AdditionalInfo> getAdditionalInfoList(){
         return new ArrayList<>(ExecutionTracer.exposeAdditionalInfoList());
     }
@@ -88,7 +88,7 @@ public class Instrumentator {
     }
 
 
-    private boolean canInstrumentForCoverage(ClassName className){
+    boolean canInstrumentForCoverage(ClassName className){
 
         return prefixes.stream()
                 .anyMatch(s -> className.getFullNameWithDots().startsWith(s));
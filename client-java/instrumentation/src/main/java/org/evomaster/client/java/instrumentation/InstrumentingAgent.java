@@ -32,6 +32,11 @@ public class InstrumentingAgent {
 
     private static String packagePrefixesToCover;
 
+    /**
+     * Can be null if no cache is used
+     */
+    private static InstrumentationCache cache;
+
     private static boolean active = false;
 
     /**
@@ -56,6 +61,17 @@ public class InstrumentingAgent {
 
         packagePrefixesToCover = agentArgs;
         instrumentator = new Instrumentator(packagePrefixesToCover);
+
+        String cacheDir = System.getProperty(InputProperties.CACHE_DIR);
+        if (cacheDir != null) {
+            SimpleLogger.info("Using instrumentation cache in " + cacheDir);
+            try {
+                cache = new InstrumentationCache(Paths.get(cacheDir));
+            } catch (IOException e) {
+                SimpleLogger.warn("Failed to open instrumentation cache: " + e.getMessage());
+            }
+        }
+
         inst.addTransformer(new TransformerForTests());
         active = true;
 
@@ -112,14 +128,30 @@ public class InstrumentingAgent {
     }
 
     public static void initP6Spy(String driver) {
+        initP6Spy(driver, "com.p6spy.engine.spy.appender.StdoutLogger");
+    }
+
+    /**
+     * @param driver  the actual JDBC driver used by the SUT
+     * @param appender full name of the P6Spy appender class used to output the intercepted SQL commands
+     */
+    public static void initP6Spy(String driver, String appender) {
         Objects.requireNonNull(driver);
+        Objects.requireNonNull(appender);
 
         //see http://p6spy.readthedocs.io/en/latest/configandusage.html
         System.setProperty("p6spy.config.driverlist", driver);
         System.setProperty("p6spy.config.filter", "true");
-        System.setProperty("p6spy.config.include", "select,insert,update,delete");
+        /*
+            Note: this is matched against the whole text of the SQL commands.
+            Besides the ones needed for the heuristics, we also need all the
+            commands that could modify the database (eg, MERGE and DDL), otherwise
+            we could not know which tables need to be cleaned after a test
+         */
+        System.setProperty("p6spy.config.include",
+                "select,insert,update,delete,merge,replace,upsert,truncate,create,drop,alter,call,exec");
         System.setProperty("p6spy.config.autoflush", "true");
-        System.setProperty("p6spy.config.appender", "com.p6spy.engine.spy.appender.StdoutLogger");
+        System.setProperty("p6spy.config.appender", appender);
         System.setProperty("p6spy.config.jmx", "false");
 
         /*
@@ -144,6 +176,10 @@ public class InstrumentingAgent {
             }
 
 
+            if (cache != null) {
+                return cache.transformBytes(instrumentator, loader, ClassName.get(className), classfileBuffer);
+            }
+
             ClassReader reader = new ClassReader(classfileBuffer);
 
             return instrumentator.transformBytes(loader, ClassName.get(className), reader);
@@ -44,6 +44,13 @@ public class TargetInfo implements Serializable{
         return new TargetInfo(theID, descriptiveId, value, actionIndex);
     }
 
+    public TargetInfo withDescriptiveId(String theID){
+        if(descriptiveId != null){
+            throw new IllegalArgumentException("Descriptive id already existing");
+        }
+        return new TargetInfo(mappedId, theID, value, actionIndex);
+    }
+
     public TargetInfo withNoDescriptiveId(){
         return new TargetInfo(mappedId, null, value, actionIndex);
     }
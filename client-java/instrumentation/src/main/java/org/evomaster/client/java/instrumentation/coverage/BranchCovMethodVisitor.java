@@ -52,9 +52,9 @@ public class BranchCovMethodVisitor extends MethodVisitor {
             branch coverage
          */
 
-        ObjectiveRecorder.registerTarget(
+        int thenId = ObjectiveRecorder.registerTarget(
                 ObjectiveNaming.branchObjectiveName(className, latestVisitLine, branchId, true));
-        ObjectiveRecorder.registerTarget(
+        int elseId = ObjectiveRecorder.registerTarget(
                 ObjectiveNaming.branchObjectiveName(className, latestVisitLine, branchId, false));
 
         switch (opcode) {
@@ -67,9 +67,8 @@ public class BranchCovMethodVisitor extends MethodVisitor {
             case Opcodes.IFLE:
                 this.visitInsn(Opcodes.DUP);
                 this.visitLdcInsn(opcode);
-                this.visitLdcInsn(className);
-                this.visitLdcInsn(latestVisitLine);
-                this.visitLdcInsn(branchId);
+                this.visitLdcInsn(thenId);
+                this.visitLdcInsn(elseId);
                 mv.visitMethodInsn(
                         Opcodes.INVOKESTATIC,
                         ClassName.get(ExecutionTracer.class).getBytecodeName(),
@@ -87,9 +86,8 @@ public class BranchCovMethodVisitor extends MethodVisitor {
             case Opcodes.IF_ICMPLE:
                 this.visitInsn(Opcodes.DUP2);
                 this.visitLdcInsn(opcode);
-                this.visitLdcInsn(className);
-                this.visitLdcInsn(latestVisitLine);
-                this.visitLdcInsn(branchId);
+                this.visitLdcInsn(thenId);
+                this.visitLdcInsn(elseId);
                 mv.visitMethodInsn(
                         Opcodes.INVOKESTATIC,
                         ClassName.get(ExecutionTracer.class).getBytecodeName(),
@@ -103,9 +101,8 @@ public class BranchCovMethodVisitor extends MethodVisitor {
             case Opcodes.IF_ACMPNE:
                 this.visitInsn(Opcodes.DUP2);
                 this.visitLdcInsn(opcode);
-                this.visitLdcInsn(className);
-                this.visitLdcInsn(latestVisitLine);
-                this.visitLdcInsn(branchId);
+                this.visitLdcInsn(thenId);
+                this.visitLdcInsn(elseId);
                 mv.visitMethodInsn(
                         Opcodes.INVOKESTATIC,
                         ClassName.get(ExecutionTracer.class).getBytecodeName(),
@@ -119,9 +116,8 @@ public class BranchCovMethodVisitor extends MethodVisitor {
             case Opcodes.IFNONNULL:
                 this.visitInsn(Opcodes.DUP);
                 this.visitLdcInsn(opcode);
-                this.visitLdcInsn(className);
-                this.visitLdcInsn(latestVisitLine);
-                this.visitLdcInsn(branchId);
+                this.visitLdcInsn(thenId);
+                this.visitLdcInsn(elseId);
                 mv.visitMethodInsn(
                         Opcodes.INVOKESTATIC,
                         ClassName.get(ExecutionTracer.class).getBytecodeName(),
@@ -145,11 +141,11 @@ public class BranchCovMethodVisitor extends MethodVisitor {
     @Override
     public void visitMaxs(int maxStack, int maxLocals) {
         /*
-            as we pushed up to 6 elements on stack in a position on which
+            as we pushed up to 5 elements on stack in a position on which
             the stack might not be empty (and so potentially full of maxStack
             elements), we need to add them to the maxStack value
          */
-        int maxElementsAddedOnStackFrame = 6;
+        int maxElementsAddedOnStackFrame = 5;
         super.visitMaxs(maxElementsAddedOnStackFrame +  maxStack, maxLocals);
     }
 }
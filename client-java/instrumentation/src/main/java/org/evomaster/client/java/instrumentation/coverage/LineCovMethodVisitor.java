@@ -65,14 +65,19 @@ public class LineCovMethodVisitor extends MethodVisitor {
             are used to uniquely identify the line.
             Then, we do a call to ExecutionTracer that
             will pop these 4 elements as input parameters.
+
+            Note: all these values are computed here at instrumentation
+            time, and not in the probe, as to avoid creating
+            new strings each time a line is executed
          */
 
-        ObjectiveRecorder.registerTarget(ObjectiveNaming.lineObjectiveName(className, line));
+        int lineId = ObjectiveRecorder.registerTarget(ObjectiveNaming.lineObjectiveName(className, line));
+        int classId = ObjectiveRecorder.getMappedId(ObjectiveNaming.classObjectiveName(className));
 
-        this.visitLdcInsn(className);
-        this.visitLdcInsn(methodName);
-        this.visitLdcInsn(descriptor);
-        this.visitLdcInsn(line);
+        this.visitLdcInsn(lineId);
+        this.visitLdcInsn(classId);
+        this.visitLdcInsn(className + "_" + line + "_" + methodName);
+        this.visitLdcInsn(className + "_" + methodName + "_" + descriptor);
 
         mv.visitMethodInsn(
                 Opcodes.INVOKESTATIC,
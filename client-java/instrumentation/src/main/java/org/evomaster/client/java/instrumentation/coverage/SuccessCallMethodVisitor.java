@@ -56,18 +56,16 @@ public class SuccessCallMethodVisitor extends MethodVisitor {
 
         String targetId = ObjectiveNaming.successCallObjectiveName(className, currentLine, index);
 
-        ObjectiveRecorder.registerTarget(targetId);
+        int id = ObjectiveRecorder.registerTarget(targetId);
 
-        addBaseInstrumentation(index, false);
+        addBaseInstrumentation(id, false);
         super.visitMethodInsn(opcode, owner, name, desc, itf);
-        addBaseInstrumentation(index, true);
+        addBaseInstrumentation(id, true);
     }
 
-    private void addBaseInstrumentation(int index, boolean covered){
+    private void addBaseInstrumentation(int id, boolean covered){
 
-        this.visitLdcInsn(className);
-        this.visitLdcInsn(currentLine);
-        this.visitLdcInsn(index);
+        this.visitLdcInsn(id);
         this.visitLdcInsn(covered);
 
         mv.visitMethodInsn(
@@ -81,9 +79,9 @@ public class SuccessCallMethodVisitor extends MethodVisitor {
     @Override
     public void visitMaxs(int maxStack, int maxLocals) {
         /*
-            We pushed 4 values on stack before a method call,
-            so we need to increase maxStack by at least 4
+            We pushed 2 values on stack before a method call,
+            so we need to increase maxStack by at least 2
          */
-        super.visitMaxs(maxStack + 4, maxLocals);
+        super.visitMaxs(maxStack + 2, maxLocals);
     }
 }
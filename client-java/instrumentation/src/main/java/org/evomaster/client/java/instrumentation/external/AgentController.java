@@ -2,6 +2,7 @@ package org.evomaster.client.java.instrumentation.external;
 
 import org.evomaster.client.java.instrumentation.Action;
 import org.evomaster.client.java.instrumentation.InstrumentationController;
+import org.evomaster.client.java.instrumentation.TargetInfo;
 import org.evomaster.client.java.utils.SimpleLogger;
 
 import java.io.IOException;
@@ -9,6 +10,8 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.Socket;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Code running in the Java Agent to receive and respond to the
@@ -21,6 +24,11 @@ public class AgentController {
     private static ObjectOutputStream out;
     private static ObjectInputStream in;
 
+    /**
+     * Optional, used to send target infos without serialization
+     */
+    private static SharedMemoryRegion sharedMemory;
+
     public static void start(int port){
 
         try{
@@ -70,6 +78,9 @@ public class AgentController {
                     case TARGET_INFOS:
                         handleTargetInfos();
                         break;
+                    case IMPROVED_TARGET_INFOS:
+                        sendObject(InstrumentationController.getImprovedTargetInfos());
+                        break;
                     case ACTION_INDEX:
                         handleActionIndex();
                         sendObject(Command.ACK);
@@ -77,6 +88,19 @@ public class AgentController {
                     case ADDITIONAL_INFO:
                         handleAdditionalInfo();
                         break;
+                    case ARCHIVE_BASELINE:
+                        handleArchiveBaseline();
+                        sendObject(Command.ACK);
+                        break;
+                    case SHARED_MEMORY:
+                        handleSharedMemory();
+                        break;
+                    case SHARED_TARGET_INFOS:
+                        sendViaSharedMemory(InstrumentationController.getTargetInfos(sharedMemory.readIds()));
+                        break;
+                    case SHARED_IMPROVED_TARGET_INFOS:
+                        sendViaSharedMemory(InstrumentationController.getImprovedTargetInfos());
+                        break;
                     default:
                         SimpleLogger.error("Unrecognized command: "+command);
                         return;
@@ -102,6 +126,16 @@ public class AgentController {
         }
     }
 
+    private static void handleArchiveBaseline(){
+        try {
+            boolean reset = (Boolean) in.readObject();
+            Map<Integer, Double> values = (Map<Integer, Double>) in.readObject();
+            InstrumentationController.updateArchiveBaseline(reset, values);
+        } catch (Exception e) {
+            SimpleLogger.error("Failure in handling archive baseline: "+e.getMessage());
+        }
+    }
+
     private static void handleAdditionalInfo(){
         try {
             out.writeObject(InstrumentationController.getAdditionalInfoList());
@@ -111,6 +145,30 @@ public class AgentController {
         }
     }
 
+    private static void handleSharedMemory(){
+        try {
+            String path = (String) in.readObject();
+            sharedMemory = SharedMemoryRegion.open(path);
+            sendObject(Command.ACK);
+        } catch (Exception e) {
+            SimpleLogger.warn("Failed to map shared memory: "+e.getMessage());
+            sharedMemory = null;
+            sendObject("Failed to map shared memory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the infos in the shared memory region, and then send an ACK to signal they are ready.
+     * If they do not fit in the region, they are rather sent serialized on the socket
+     */
+    private static void sendViaSharedMemory(List<TargetInfo> infos){
+        if(sharedMemory.writeTargetInfos(infos)){
+            sendObject(Command.ACK);
+        } else {
+            sendObject(infos);
+        }
+    }
+
     private static void handleTargetInfos() {
 
         try {
@@ -8,5 +8,11 @@ import java.io.Serializable;
  */
 public enum Command implements Serializable {
 
-    NEW_SEARCH, NEW_TEST, TARGET_INFOS, ACK, ACTION_INDEX, ADDITIONAL_INFO
+    NEW_SEARCH, NEW_TEST, TARGET_INFOS, IMPROVED_TARGET_INFOS, ACK, ACTION_INDEX, ADDITIONAL_INFO,
+    ARCHIVE_BASELINE,
+
+    /*
+        Commands using a SharedMemoryRegion, instead of serializing the data on the socket
+     */
+    SHARED_MEMORY, SHARED_TARGET_INFOS, SHARED_IMPROVED_TARGET_INFOS
 }
@@ -12,7 +12,9 @@ import java.io.ObjectOutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The SutController will start a TCP server, and the Agent in the external
@@ -22,6 +24,10 @@ import java.util.List;
  * unnecessary complexity to the Agent (which runs together with the SUT),
  * no REST or RMI is used here, just basic, old-style TCP raw connections
  * with serialized Java objects.
+ * <br>
+ * As the Agent runs on the same host, the (possibly large) lists of target infos
+ * can rather be exchanged via a {@link SharedMemoryRegion}, if one was set up
+ * with {@link #initSharedMemory(int)}.
  */
 public class ServerController {
 
@@ -36,6 +42,8 @@ public class ServerController {
     protected ObjectOutputStream out;
     protected ObjectInputStream in;
 
+    private SharedMemoryRegion sharedMemory;
+
     public synchronized int startServer() {
 
         closeServer();
@@ -52,6 +60,10 @@ public class ServerController {
 
 
     public synchronized void closeServer() {
+        if (sharedMemory != null) {
+            sharedMemory.delete();
+            sharedMemory = null;
+        }
         if (server != null) {
             try {
                 server.close();
@@ -87,6 +99,46 @@ public class ServerController {
         return isConnectionOn();
     }
 
+    /**
+     * Create a shared memory region, and tell the Agent to use it for the target infos.
+     * Must be called after the connection is established.
+     *
+     * @param size of the region, in bytes
+     * @return whether the Agent is going to use the region. If not, all data
+     * keeps being serialized over the TCP connection
+     */
+    public synchronized boolean initSharedMemory(int size) {
+
+        SharedMemoryRegion region;
+        try {
+            region = SharedMemoryRegion.create(size);
+        } catch (Exception e) {
+            SimpleLogger.warn("Failed to create shared memory region: " + e.getMessage());
+            return false;
+        }
+
+        boolean sent = sendCommand(Command.SHARED_MEMORY) && sendObject(region.getPath());
+        if (!sent) {
+            SimpleLogger.error("Failed to send message");
+            region.delete();
+            return false;
+        }
+
+        Object response = waitAndGetResponse();
+        if (!Command.ACK.equals(response)) {
+            SimpleLogger.warn("Java Agent cannot use shared memory: " + response);
+            region.delete();
+            return false;
+        }
+
+        sharedMemory = region;
+        return true;
+    }
+
+    public synchronized boolean isUsingSharedMemory() {
+        return sharedMemory != null;
+    }
+
     public synchronized boolean isConnectionOn() {
         /*
             as the Java Agent is the one starting this communication, if we
@@ -196,7 +248,28 @@ public class ServerController {
         return sendWithDataAndExpectACK(Command.ACTION_INDEX, action);
     }
 
+    /**
+     * See {@link org.evomaster.client.java.instrumentation.InstrumentationController#updateArchiveBaseline}
+     */
+    public synchronized boolean updateArchiveBaseline(boolean reset, Map<Integer, Double> values) {
+
+        boolean sent = sendCommand(Command.ARCHIVE_BASELINE)
+                && sendObject(reset)
+                && sendObject(new HashMap<>(values));
+        if (!sent) {
+            SimpleLogger.error("Failed to send message");
+            return false;
+        }
+
+        return waitForAck();
+    }
+
     public synchronized List<TargetInfo> getTargetInfos(Collection<Integer> ids) {
+
+        if (sharedMemory != null && sharedMemory.writeIds(ids)) {
+            return getTargetInfosViaSharedMemory(Command.SHARED_TARGET_INFOS);
+        }
+
         boolean sent = sendCommand(Command.TARGET_INFOS);
         if (!sent) {
             SimpleLogger.error("Failed to send message");
@@ -223,6 +296,56 @@ public class ServerController {
         return (List<TargetInfo>) response;
     }
 
+    public synchronized List<TargetInfo> getImprovedTargetInfos() {
+
+        if (sharedMemory != null) {
+            return getTargetInfosViaSharedMemory(Command.SHARED_IMPROVED_TARGET_INFOS);
+        }
+
+        boolean sent = sendCommand(Command.IMPROVED_TARGET_INFOS);
+        if (!sent) {
+            SimpleLogger.error("Failed to send message");
+            return null;
+        }
+
+        Object response = waitAndGetResponse();
+        if (response == null) {
+            SimpleLogger.error("Failed to read response about improved targets");
+            return null;
+        }
+
+        if (!(response instanceof List<?>)) {
+            throw new IllegalStateException(errorMsgExpectingResponse(response, "a List"));
+        }
+
+        return (List<TargetInfo>) response;
+    }
+
+    private List<TargetInfo> getTargetInfosViaSharedMemory(Command command) {
+        boolean sent = sendCommand(command);
+        if (!sent) {
+            SimpleLogger.error("Failed to send message");
+            return null;
+        }
+
+        Object response = waitAndGetResponse();
+        if (response == null) {
+            SimpleLogger.error("Failed to read response about targets");
+            return null;
+        }
+
+        if (Command.ACK.equals(response)) {
+            return sharedMemory.readTargetInfos();
+        }
+
+        //too much data to fit in the shared memory, so it was sent on the socket
+        if (!(response instanceof List<?>)) {
+            throw new IllegalStateException(errorMsgExpectingResponse(response, "an ACK or a List"));
+        }
+
+        return (List<TargetInfo>) response;
+    }
+
     public synchronized List<AdditionalInfo> getAdditionalInfoList() {
 
         boolean sent = sendCommand(Command.ADDITIONAL_INFO);
@@ -0,0 +1,170 @@
+package org.evomaster.client.java.instrumentation.external;
+
+import org.evomaster.client.java.instrumentation.TargetInfo;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A memory-mapped file shared between the SutController and the Java Agent
+ * running in the external process of the SUT, on the same host.
+ * <br>
+ * It is used to exchange the (possibly large) lists of target ids and
+ * {@link TargetInfo} without going through Java serialization on the TCP socket.
+ * The TCP connection is still used for the commands, which tell when the
+ * content of the region is ready to be read.
+ * As commands are sent and answered one at a time, a single region is enough
+ * for both requests and responses.
+ * <br>
+ * Layout: an int with the number of entries, followed by the entries.
+ * Ids are plain ints. A {@link TargetInfo} is its mapped id, value and
+ * action index, followed by the length of its UTF-8 descriptive id (-1 if none)
+ * and its bytes.
+ */
+public class SharedMemoryRegion {
+
+    /**
+     * Default size of the region, in bytes.
+     * Responses not fitting in it are sent over TCP.
+     */
+    public static final int DEFAULT_SIZE = 4 * 1024 * 1024;
+
+    private static final int NULL_VALUE = Integer.MIN_VALUE;
+
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private SharedMemoryRegion(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create a new region backed by a temporary file.
+     * This is done by the SutController, which is also responsible to {@link #delete()} it.
+     */
+    public static SharedMemoryRegion create(int size) throws IOException {
+        if (size < 4) {
+            throw new IllegalArgumentException("Too small size: " + size);
+        }
+        Path file = Files.createTempFile("evomaster-coverage-", ".mem");
+        file.toFile().deleteOnExit();
+        return map(file, size);
+    }
+
+    /**
+     * Map a region previously created with {@link #create(int)}.
+     * This is done by the Java Agent.
+     */
+    public static SharedMemoryRegion open(String path) throws IOException {
+        Path file = Paths.get(path);
+        return map(file, (int) Files.size(file));
+    }
+
+    private static SharedMemoryRegion map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            //the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new SharedMemoryRegion(file, buffer);
+        }
+    }
+
+    public String getPath() {
+        return file.toAbsolutePath().toString();
+    }
+
+    /**
+     * Remove the backing file.
+     * Note: on JDK 8 there is no supported way to unmap the buffer, which is released when garbage-collected
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            //not a big deal, it was marked to be deleted on exit anyway
+        }
+    }
+
+    public synchronized boolean writeIds(Collection<Integer> ids) {
+        buffer.clear();
+        try {
+            buffer.putInt(ids.size());
+            for (Integer id : ids) {
+                buffer.putInt(id);
+            }
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized List<Integer> readIds() {
+        buffer.clear();
+        int n = buffer.getInt();
+        List<Integer> ids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ids.add(buffer.getInt());
+        }
+        return ids;
+    }
+
+    /**
+     * @return whether all the infos could be written, ie, whether they fit in the region
+     */
+    public synchronized boolean writeTargetInfos(List<TargetInfo> infos) {
+        buffer.clear();
+        try {
+            buffer.putInt(infos.size());
+            for (TargetInfo info : infos) {
+                buffer.putInt(info.mappedId == null ? NULL_VALUE : info.mappedId);
+                buffer.putDouble(info.value == null ? Double.NaN : info.value);
+                buffer.putInt(info.actionIndex == null ? NULL_VALUE : info.actionIndex);
+                if (info.descriptiveId == null) {
+                    buffer.putInt(-1);
+                } else {
+                    byte[] bytes = info.descriptiveId.getBytes(StandardCharsets.UTF_8);
+                    buffer.putInt(bytes.length);
+                    buffer.put(bytes);
+                }
+            }
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized List<TargetInfo> readTargetInfos() {
+        buffer.clear();
+        int n = buffer.getInt();
+        List<TargetInfo> infos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int mappedId = buffer.getInt();
+            double value = buffer.getDouble();
+            int actionIndex = buffer.getInt();
+            int length = buffer.getInt();
+            String descriptiveId = null;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                descriptiveId = new String(bytes, StandardCharsets.UTF_8);
+            }
+            infos.add(new TargetInfo(
+                    mappedId == NULL_VALUE ? null : mappedId,
+                    descriptiveId,
+                    Double.isNaN(value) ? null : value,
+                    actionIndex == NULL_VALUE ? null : actionIndex));
+        }
+        return infos;
+    }
+}
@@ -2,7 +2,6 @@ package org.evomaster.client.java.instrumentation.staticstate;
 
 import org.evomaster.client.java.instrumentation.Action;
 import org.evomaster.client.java.instrumentation.AdditionalInfo;
-import org.evomaster.client.java.instrumentation.shared.ObjectiveNaming;
 import org.evomaster.client.java.instrumentation.TargetInfo;
 import org.evomaster.client.java.instrumentation.shared.ReplacementType;
 import org.evomaster.client.java.instrumentation.heuristic.HeuristicsForJumps;
@@ -11,7 +10,6 @@ import org.evomaster.client.java.instrumentation.shared.StringSpecializationInfo
 import org.evomaster.client.java.instrumentation.shared.TaintInputName;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -31,10 +29,10 @@ public class ExecutionTracer {
 
 
     /**
-     * Key -> the unique descriptive id of the coverage objective
+     * Index -> the unique numeric id of the coverage objective,
+     * as given by {@link ObjectiveRecorder#getMappedId(String)}
      */
-    private static final Map<String, TargetInfo> objectiveCoverage =
-            new ConcurrentHashMap<>(65536);
+    private static final TargetValues objectiveCoverage = new TargetValues();
 
     /**
      * A test case can be composed by 1 or more actions, eg HTTP calls.
@@ -62,7 +60,7 @@ public class ExecutionTracer {
 
 
     public static void reset() {
-        objectiveCoverage.clear();
+        objectiveCoverage.reset();
         actionIndex = 0;
         additionalInfoList.clear();
         additionalInfoList.add(new AdditionalInfo());
@@ -118,8 +116,53 @@ public class ExecutionTracer {
         additionalInfoList.get(actionIndex).popLastExecutedStatement();
     }
 
-    public static Map<String, TargetInfo> getInternalReferenceToObjectiveCoverage() {
-        return objectiveCoverage;
+    /**
+     * @param id numeric id of the objective
+     * @return info on the objective in the current test execution,
+     * or {@code null} if it was not reached
+     */
+    public static TargetInfo getTargetInfo(int id) {
+        if (!objectiveCoverage.isReached(id)) {
+            return null;
+        }
+        return new TargetInfo(id, null, objectiveCoverage.getValue(id), objectiveCoverage.getActionIndex(id));
+    }
+
+    /**
+     * Collect info on the objectives reached in the current test execution whose value
+     * could improve the archive of the EvoMaster process, ie, it is not lower than the
+     * baseline set by the EvoMaster process (see {@link ObjectiveRecorder#updateArchiveBaseline}).
+     * Ties are included, as the archive could still prefer a test with same value
+     * (eg, if shorter).
+     * Objectives that are reported for the first time also contain their descriptive id.
+     * <br>
+     * In other words, this is what could matter for the EvoMaster process, which then does not
+     * need to ask for specific ids.
+     */
+    public static List<TargetInfo> getImprovedTargetInfos() {
+
+        List<TargetInfo> list = new ArrayList<>();
+
+        objectiveCoverage.forEachReached(id -> {
+            double value = objectiveCoverage.getValue(id);
+            if (value < ObjectiveRecorder.getArchiveBaseline(id)) {
+                return;
+            }
+            String descriptiveId = ObjectiveRecorder.markAsReported(id) ? ObjectiveRecorder.getDescriptiveId(id) : null;
+            list.add(new TargetInfo(id, descriptiveId, value, objectiveCoverage.getActionIndex(id)));
+        });
+
+        return list;
+    }
+
+    /**
+     * @return the descriptive ids of the objectives that have been encountered
+     * during the test execution
+     */
+    private static Set<String> getReachedObjectives() {
+        Set<String> ids = new HashSet<>();
+        objectiveCoverage.forEachReached(id -> ids.add(ObjectiveRecorder.getDescriptiveId(id)));
+        return ids;
     }
 
     /**
@@ -127,13 +170,12 @@ public class ExecutionTracer {
      * during the test execution
      */
     public static int getNumberOfObjectives() {
-        return objectiveCoverage.size();
+        return getReachedObjectives().size();
     }
 
     public static int getNumberOfObjectives(String prefix) {
-        return (int) objectiveCoverage
-                .entrySet().stream()
-                .filter(e -> prefix == null || e.getKey().startsWith(prefix))
+        return (int) getReachedObjectives().stream()
+                .filter(id -> prefix == null || id.startsWith(prefix))
                 .count();
     }
 
@@ -156,82 +198,79 @@ public class ExecutionTracer {
 
     public static Set<String> getNonCoveredObjectives(String prefix) {
 
-        return objectiveCoverage
-                .entrySet().stream()
-                .filter(e -> prefix == null || e.getKey().startsWith(prefix))
-                .filter(e -> e.getValue().value < 1)
-                .map(e -> e.getKey())
+        return getReachedObjectives().stream()
+                .filter(id -> prefix == null || id.startsWith(prefix))
+                .filter(id -> getValue(id) < 1)
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * @return the heuristic value of the objective in the current test execution,
+     * or {@code null} if it was not reached
+     */
     public static Double getValue(String id) {
-        return objectiveCoverage.get(id).value;
+        TargetInfo info = getTargetInfo(ObjectiveRecorder.getMappedId(id));
+        return info == null ? null : info.value;
     }
 
-    private static void updateObjective(String id, double value) {
+    private static void updateObjective(int id, double value) {
         if (value < 0d || value > 1d) {
             throw new IllegalArgumentException("Invalid value " + value + " out of range [0,1]");
         }
 
         /*
             In the same execution, a target could be reached several times,
-            so we should keep track of the best value found so far
+            so we should keep track of the best value found so far.
+            If not improved, then there is no way it could improve the
+            global best value in ObjectiveRecorder either
          */
-        if (objectiveCoverage.containsKey(id)) {
-            double previous = objectiveCoverage.get(id).value;
-            if(value > previous){
-                objectiveCoverage.put(id, new TargetInfo(null, id, value, actionIndex));
-            }
-        } else {
-            objectiveCoverage.put(id, new TargetInfo(null, id, value, actionIndex));
-        }
+        int result = objectiveCoverage.update(id, value, actionIndex);
 
-        ObjectiveRecorder.update(id, value);
+        if (result != TargetValues.NOT_IMPROVED) {
+            ObjectiveRecorder.update(id, value);
+        }
     }
 
     public static void executedReplacedMethod(String idTemplate, ReplacementType type, Truthness t){
 
-        String idTrue = ObjectiveNaming.methodReplacementObjectiveName(idTemplate, true, type);
-        String idFalse = ObjectiveNaming.methodReplacementObjectiveName(idTemplate, false, type);
+        int[] ids = ObjectiveRecorder.getMethodReplacementIds(idTemplate, type);
 
-        updateObjective(idTrue, t.getOfTrue());
-        updateObjective(idFalse, t.getOfFalse());
+        updateObjective(ids[0], t.getOfTrue());
+        updateObjective(ids[1], t.getOfFalse());
     }
 
 
     public static final String EXECUTED_LINE_METHOD_NAME = "executedLine";
-    public static final String EXECUTED_LINE_DESCRIPTOR = "(Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;I)V";
+    public static final String EXECUTED_LINE_DESCRIPTOR = "(IILjava/lang/String;Ljava/lang/String;)V";
 
     /**
      * Report on the fact that a given line has been executed.
+     *
+     * @param lineId     numeric id of the line target
+     * @param classId    numeric id of the class target
+     * @param lastLine   descriptive name of the line, to calculate last executed line
+     * @param lastMethod descriptive name of the method containing the line
      */
-    public static void executedLine(String className, String methodName, String descriptor, int line) {
+    public static void executedLine(int lineId, int classId, String lastLine, String lastMethod) {
         //for targets to cover
-        String lineId = ObjectiveNaming.lineObjectiveName(className, line);
-        String classId = ObjectiveNaming.classObjectiveName(className);
         updateObjective(lineId, 1d);
         updateObjective(classId, 1d);
 
-        //to calculate last executed line
-        String lastLine = className + "_" + line + "_" + methodName;
-        String lastMethod = className + "_" + methodName + "_" + descriptor;
         markLastExecutedStatement(lastLine, lastMethod);
     }
 
     public static final String EXECUTING_METHOD_METHOD_NAME = "executingMethod";
-    public static final String EXECUTING_METHOD_DESCRIPTOR = "(Ljava/lang/String;IIZ)V";
+    public static final String EXECUTING_METHOD_DESCRIPTOR = "(IZ)V";
 
     /**
      *  Report on whether method calls have been successfully completed.
      *  Failures can happen due to thrown exceptions.
      *
-     * @param className
-     * @param line
-     * @param index    as there can be many method calls on same line, need to differentiate them
+     * @param id    numeric id of the target for the method call.
+     *              Note: as there can be many method calls on same line, each one has its own target
      * @param completed whether the method call was successfully completed.
      */
-    public static void executingMethod(String className, int line, int index, boolean completed){
-        String id = ObjectiveNaming.successCallObjectiveName(className, line, index);
+    public static void executingMethod(int id, boolean completed){
         if(completed) {
             updateObjective(id, 1d);
         } else {
@@ -242,7 +281,7 @@ public class ExecutionTracer {
 
     //---- branch-jump methods --------------------------
 
-    private static void updateBranch(String className, int line, int branchId, Truthness t) {
+    private static void updateBranch(int thenId, int elseId, Truthness t) {
 
         /*
             Note: when we have
@@ -253,57 +292,54 @@ public class ExecutionTracer {
             x <= 0
          */
 
-        String forThen = ObjectiveNaming.branchObjectiveName(className, line, branchId, true);
-        String forElse = ObjectiveNaming.branchObjectiveName(className, line, branchId, false);
-
-        updateObjective(forElse, t.getOfTrue());
-        updateObjective(forThen, t.getOfFalse());
+        updateObjective(elseId, t.getOfTrue());
+        updateObjective(thenId, t.getOfFalse());
     }
 
     public static final String EXECUTING_BRANCH_JUMP_METHOD_NAME = "executingBranchJump";
 
 
-    public static final String JUMP_DESC_1_VALUE = "(IILjava/lang/String;II)V";
+    public static final String JUMP_DESC_1_VALUE = "(IIII)V";
 
     public static void executingBranchJump(
-            int value, int opcode, String className, int line, int branchId) {
+            int value, int opcode, int thenId, int elseId) {
 
         Truthness t = HeuristicsForJumps.getForSingleValueJump(value, opcode);
 
-        updateBranch(className, line, branchId, t);
+        updateBranch(thenId, elseId, t);
     }
 
 
-    public static final String JUMP_DESC_2_VALUES = "(IIILjava/lang/String;II)V";
+    public static final String JUMP_DESC_2_VALUES = "(IIIII)V";
 
     public static void executingBranchJump(
-            int firstValue, int secondValue, int opcode, String className, int line, int branchId) {
+            int firstValue, int secondValue, int opcode, int thenId, int elseId) {
 
         Truthness t = HeuristicsForJumps.getForValueComparison(firstValue, secondValue, opcode);
 
-        updateBranch(className, line, branchId, t);
+        updateBranch(thenId, elseId, t);
     }
 
     public static final String JUMP_DESC_OBJECTS =
-            "(Ljava/lang/Object;Ljava/lang/Object;ILjava/lang/String;II)V";
+            "(Ljava/lang/Object;Ljava/lang/Object;III)V";
 
     public static void executingBranchJump(
-            Object first, Object second, int opcode, String className, int line, int branchId) {
+            Object first, Object second, int opcode, int thenId, int elseId) {
 
         Truthness t = HeuristicsForJumps.getForObjectComparison(first, second, opcode);
 
-        updateBranch(className, line, branchId, t);
+        updateBranch(thenId, elseId, t);
     }
 
 
     public static final String JUMP_DESC_NULL =
-            "(Ljava/lang/Object;ILjava/lang/String;II)V";
+            "(Ljava/lang/Object;III)V";
 
     public static void executingBranchJump(
-            Object obj, int opcode, String className, int line, int branchId) {
+            Object obj, int opcode, int thenId, int elseId) {
 
         Truthness t = HeuristicsForJumps.getForNullComparison(obj, opcode);
 
-        updateBranch(className, line, branchId, t);
+        updateBranch(thenId, elseId, t);
     }
 }
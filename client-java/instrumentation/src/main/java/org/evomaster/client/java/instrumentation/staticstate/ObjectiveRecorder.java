@@ -1,10 +1,14 @@
 package org.evomaster.client.java.instrumentation.staticstate;
 
+import org.evomaster.client.java.instrumentation.shared.ObjectiveNaming;
+import org.evomaster.client.java.instrumentation.shared.ReplacementType;
+
 import java.io.PrintWriter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  * Keep track of all objective coverage so far.
@@ -15,13 +19,30 @@ public class ObjectiveRecorder {
 
 
     /**
-     * Key -> the unique id of the coverage objective
+     * Index -> the unique numeric id of the coverage objective
      * <br>
      * Value -> heuristic [0,1], where 1 means covered.
      * Only the highest value found so far is kept.
      */
-    private static final Map<Integer, Double> maxObjectiveCoverage =
-            new ConcurrentHashMap<>(65536);
+    private static final TargetValues maxObjectiveCoverage = new TargetValues();
+
+    /**
+     * Index -> the unique numeric id of the coverage objective
+     * <br>
+     * Value -> lowest heuristic value with which a test could still be added to the archive
+     * of the EvoMaster process for such objective, as told by the EvoMaster process itself.
+     * This is needed when only the targets that could improve the archive are returned,
+     * instead of the ones explicitly asked for by the EvoMaster process.
+     * Note: this cannot be computed here from the values seen in the SUT, as those include
+     * what is executed when the SUT starts or is reset, and tests that EvoMaster discarded.
+     */
+    private static final TargetValues archiveBaseline = new TargetValues();
+
+    /**
+     * Objectives whose descriptive id has already been sent to the EvoMaster process.
+     * Only the fact that they are reached matters, not their value
+     */
+    private static final TargetValues reportedTargets = new TargetValues();
 
 
     /**
@@ -48,7 +69,11 @@ public class ObjectiveRecorder {
      * <br>
      * Note: we need this mapping to reduce the id size,
      * as to reduce TCP bandwidth consumption when communicating
-     * with the EvoMaster process
+     * with the EvoMaster process.
+     * Furthermore, these numeric ids are computed when the SUT classes
+     * are instrumented, and used directly in the probes added to the bytecode.
+     * So, like {@link #allTargets}, this mapping is not reset between
+     * different searches.
      */
     private static Map<String, Integer> idMapping =
             new ConcurrentHashMap<>(65536);
@@ -57,11 +82,42 @@ public class ObjectiveRecorder {
             new ConcurrentHashMap<>(65536);
 
 
+    /**
+     * Method replacements are not given numeric ids in the bytecode, but rather
+     * a template for the descriptive ids of their targets.
+     * So, to avoid building those descriptive ids at each call, we cache
+     * the numeric ids of the true/false targets for each template.
+     * <br>
+     * Key -> type of replacement, plus id template
+     * <br>
+     * Value -> numeric ids of the true and false targets
+     */
+    private static final Map<ReplacementType, Map<String, int[]>> methodReplacementIds =
+            new EnumMap<>(ReplacementType.class);
+
+    static {
+        for (ReplacementType type : ReplacementType.values()) {
+            methodReplacementIds.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
     /**
      * Counter used to generate unique numeric ids for idMapping
      */
     private static final AtomicInteger idMappingCounter = new AtomicInteger(0);
 
+    /**
+     * If not null, called each time a new numeric id is assigned to a target
+     */
+    private static volatile BiConsumer<Integer, String> idMappingListener;
+
+    /**
+     * If not null, all the targets registered by the current thread are added to it.
+     * This is needed when instrumented classes are cached, as then the registration
+     * of their targets has to be replayed
+     */
+    private static final ThreadLocal<Set<String>> registeredTargetsCollector = new ThreadLocal<>();
+
     /**
      * Counter used to get unique ids, where the number ordering and continuity
      * is not important. In other words, if an entity gets "n", that does not
@@ -88,19 +144,22 @@ public class ObjectiveRecorder {
      * Reset all the static state in this class
      */
     public static void reset(boolean alsoAtLoadTime) {
-        maxObjectiveCoverage.clear();
-        idMapping.clear();
-        reversedIdMapping.clear();
-        idMappingCounter.set(0);
+        maxObjectiveCoverage.reset();
+        archiveBaseline.reset();
+        reportedTargets.reset();
         firstTimeEncountered.clear();
         counter.set(0);
 
         if (alsoAtLoadTime) {
             /*
-                Shouldn't always reset it, because
-                it is only computed at SUT classloading time
+                Shouldn't always reset them, because
+                they are only computed at SUT classloading time
              */
             allTargets.clear();
+            idMapping.clear();
+            reversedIdMapping.clear();
+            methodReplacementIds.values().forEach(Map::clear);
+            idMappingCounter.set(0);
         }
     }
 
@@ -114,12 +173,39 @@ public class ObjectiveRecorder {
      * on test data.
      *
      * @param target a descriptive string representing the id of the target
+     * @return the numeric id of the target, to use in the probes
      */
-    public static void registerTarget(String target) {
+    public static int registerTarget(String target) {
         if (target == null || target.isEmpty()) {
             throw new IllegalArgumentException("Empty target name");
         }
         allTargets.add(target);
+
+        Set<String> collector = registeredTargetsCollector.get();
+        if (collector != null) {
+            collector.add(target);
+        }
+
+        return getMappedId(target);
+    }
+
+    /**
+     * Run the given code, and collect all the targets registered by the current thread while doing it.
+     *
+     * @return the registered targets, in order of registration
+     */
+    public static Set<String> collectRegisteredTargets(Runnable code) {
+
+        Set<String> previous = registeredTargetsCollector.get();
+        Set<String> collector = new LinkedHashSet<>();
+        registeredTargetsCollector.set(collector);
+        try {
+            code.run();
+        } finally {
+            registeredTargetsCollector.set(previous);
+        }
+
+        return collector;
     }
 
     /**
@@ -136,12 +222,9 @@ public class ObjectiveRecorder {
             }
 
             n++;
-            if(idMapping.containsKey(id)){
-                int numericID = idMapping.get(id);
-                double h = maxObjectiveCoverage.get(numericID);
-                if(h == 1d){
-                    covered++;
-                }
+            Integer numericID = idMapping.get(id);
+            if(numericID != null && maxObjectiveCoverage.getValue(numericID) == 1d){
+                covered++;
             }
         }
 
@@ -158,9 +241,9 @@ public class ObjectiveRecorder {
                 .sorted()
                 .forEachOrdered(id -> {
                     double h = 0;
-                    if (idMapping.containsKey(id)) {
-                        int numericID = idMapping.get(id);
-                        h = maxObjectiveCoverage.get(numericID);
+                    Integer numericID = idMapping.get(id);
+                    if (numericID != null && maxObjectiveCoverage.isReached(numericID)) {
+                        h = maxObjectiveCoverage.getValue(numericID);
                     }
                     writer.println(id + " , " + h);
                 });
@@ -179,39 +262,122 @@ public class ObjectiveRecorder {
 
 
     /**
-     * @param descriptiveId of the objective/target
-     * @param value         of the coverage heuristic, in [0,1]
+     * @param id    numeric id of the objective/target
+     * @param value of the coverage heuristic, in [0,1]
      */
-    static void update(String descriptiveId, double value) {
+    static void update(int id, double value) {
 
-        Objects.requireNonNull(descriptiveId);
         if (value < 0d || value > 1) {
             throw new IllegalArgumentException("Invalid value " + value + " out of range [0,1]");
         }
 
-        int id = getMappedId(descriptiveId);
+        int result = maxObjectiveCoverage.update(id, value, 0);
 
-        if (!maxObjectiveCoverage.containsKey(id)) {
-            firstTimeEncountered.add(descriptiveId);
-            maxObjectiveCoverage.put(id, value);
+        if (result == TargetValues.FIRST_TIME) {
+            firstTimeEncountered.add(getDescriptiveId(id));
+        }
+    }
 
-        } else {
+    /**
+     * Keep track that the given target is going to be reported to the EvoMaster process.
+     *
+     * @return whether this was the first time the target was reported,
+     * ie, whether its descriptive id is needed by the EvoMaster process
+     */
+    static boolean markAsReported(int id) {
+        return reportedTargets.update(id, 0, 0) == TargetValues.FIRST_TIME;
+    }
 
-            double old = maxObjectiveCoverage.get(id);
-            if (value > old) {
-                maxObjectiveCoverage.put(id, value);
-            }
+    /**
+     * Update the lowest heuristic values with which tests could still be added
+     * to the archive of the EvoMaster process.
+     *
+     * @param reset  whether all the previous values should be discarded first
+     * @param values Key -> numeric id of the objective, Value -> lowest heuristic value
+     *               accepted by the archive, or {@code null} if any value would be accepted
+     */
+    public static void updateArchiveBaseline(boolean reset, Map<Integer, Double> values) {
+        if (reset) {
+            archiveBaseline.reset();
         }
+        values.forEach((id, value) -> archiveBaseline.set(id, value == null ? -1 : value));
+    }
+
+    /**
+     * @return the lowest heuristic value with which the objective could still improve the
+     * archive of the EvoMaster process, or a negative value if any would
+     */
+    static double getArchiveBaseline(int id) {
+        return archiveBaseline.getValue(id);
     }
 
     public static int getMappedId(String descriptiveId) {
 
         int id = idMapping.computeIfAbsent(descriptiveId, k -> idMappingCounter.getAndIncrement());
-        reversedIdMapping.computeIfAbsent(id, k -> descriptiveId);
+
+        if (reversedIdMapping.putIfAbsent(id, descriptiveId) == null) {
+            BiConsumer<Integer, String> listener = idMappingListener;
+            if (listener != null) {
+                listener.accept(id, descriptiveId);
+            }
+        }
 
         return id;
     }
 
+    /**
+     * Add a mapping for a target, eg computed in a previous run of the SUT.
+     * This is needed when numeric ids in instrumented classes are re-used among
+     * different JVM executions.
+     * Mappings in conflict with existing ones are ignored.
+     * This should be called before the SUT classes are loaded, ie, not concurrently
+     * with the assignment of new ids.
+     *
+     * @return whether the mapping was added
+     */
+    public static synchronized boolean addIdMapping(int id, String descriptiveId) {
+        Objects.requireNonNull(descriptiveId);
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid negative id: " + id);
+        }
+
+        if (idMapping.containsKey(descriptiveId) || reversedIdMapping.containsKey(id)) {
+            return false;
+        }
+
+        /*
+            As counter is incremented before the mappings are updated, need to make
+            sure that no new id can clash with this one
+         */
+        idMappingCounter.accumulateAndGet(id + 1, Math::max);
+
+        if (reversedIdMapping.putIfAbsent(id, descriptiveId) != null) {
+            return false;
+        }
+        idMapping.put(descriptiveId, id);
+
+        return true;
+    }
+
+    /**
+     * @param listener called each time a new numeric id is assigned to a target.
+     *                 Can be {@code null}
+     */
+    public static void setIdMappingListener(BiConsumer<Integer, String> listener) {
+        idMappingListener = listener;
+    }
+
+
+    /**
+     * @return the numeric ids of the true and false targets of a method replacement
+     */
+    static int[] getMethodReplacementIds(String idTemplate, ReplacementType type) {
+
+        return methodReplacementIds.get(type).computeIfAbsent(idTemplate, k -> new int[]{
+                getMappedId(ObjectiveNaming.methodReplacementObjectiveName(k, true, type)),
+                getMappedId(ObjectiveNaming.methodReplacementObjectiveName(k, false, type))
+        });
+    }
 
     public static Map<Integer, String> getDescriptiveIds(Collection<Integer> ids) {
 
@@ -0,0 +1,204 @@
+package org.evomaster.client.java.instrumentation.staticstate;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Heuristic values of the testing targets, indexed by their numeric ids.
+ * As such ids are dense (ie, from 0 to n), this is just a growable array.
+ *
+ * <p>
+ * This is used by the probes injected in the SUT, so updates of
+ * already reached targets do not allocate any object and do not acquire any lock.
+ * A lock is only needed the first time a target is reached (to keep track of it),
+ * and, only the first time a (large) range of ids is accessed, a new block
+ * of memory needs to be allocated.
+ *
+ * <p>
+ * Note: as in the SUT a target can be reached at the same time by different threads,
+ * there is no guarantee that the highest value is kept when two threads
+ * update the same target concurrently.
+ * However, those would be just lost heuristic values, as anyway the SUT
+ * would need to be deterministic to be able to use such values in the tests.
+ */
+class TargetValues {
+
+    /**
+     * Returned by {@link #update} if the target was not reached before
+     */
+    static final int FIRST_TIME = 2;
+
+    /**
+     * Returned by {@link #update} if the target had a lower value
+     */
+    static final int IMPROVED = 1;
+
+    static final int NOT_IMPROVED = 0;
+
+    /**
+     * Marker for targets not reached yet, as valid values are in [0,1]
+     */
+    private static final double NOT_REACHED = -1d;
+
+    private static final int BLOCK_BITS = 12;
+
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private static final class Block {
+
+        final double[] values = new double[BLOCK_SIZE];
+
+        final int[] actionIndices = new int[BLOCK_SIZE];
+
+        Block() {
+            Arrays.fill(values, NOT_REACHED);
+        }
+    }
+
+    /**
+     * Blocks are never replaced, only added, so writes on a block are never lost
+     */
+    private volatile Block[] blocks = new Block[16];
+
+    /**
+     * Ids of the reached targets, ie the ones with a value.
+     * Could contain duplicates when a target is reached for the first time
+     * by different threads at the same time.
+     */
+    private int[] reached = new int[1024];
+
+    private int numberOfReached = 0;
+
+
+    /**
+     * @return the heuristic value in [0,1], or a negative value if the target was not reached
+     */
+    double getValue(int id) {
+        Block block = getBlock(id);
+        if (block == null) {
+            return NOT_REACHED;
+        }
+        return block.values[id & BLOCK_MASK];
+    }
+
+    boolean isReached(int id) {
+        return getValue(id) >= 0;
+    }
+
+    int getActionIndex(int id) {
+        Block block = getBlock(id);
+        if (block == null) {
+            return -1;
+        }
+        return block.actionIndices[id & BLOCK_MASK];
+    }
+
+    /**
+     * Keep track of the new value for the target, if higher than the current one
+     *
+     * @return whether this was the first time the target was reached, it was improved, or not
+     */
+    int update(int id, double value, int actionIndex) {
+
+        Block block = getBlock(id);
+        if (block == null) {
+            block = createBlock(id);
+        }
+
+        int i = id & BLOCK_MASK;
+        double previous = block.values[i];
+
+        if (previous < 0) {
+            block.values[i] = value;
+            block.actionIndices[i] = actionIndex;
+            addReached(id);
+            return FIRST_TIME;
+        }
+
+        if (value > previous) {
+            block.values[i] = value;
+            block.actionIndices[i] = actionIndex;
+            return IMPROVED;
+        }
+
+        return NOT_IMPROVED;
+    }
+
+    /**
+     * Set the value of the target, regardless of the current one.
+     * A negative value marks the target as not reached.
+     */
+    void set(int id, double value) {
+
+        Block block = getBlock(id);
+        if (block == null) {
+            if (value < 0) {
+                return;
+            }
+            block = createBlock(id);
+        }
+
+        int i = id & BLOCK_MASK;
+        if (block.values[i] < 0 && value >= 0) {
+            addReached(id);
+        }
+        block.values[i] = value < 0 ? NOT_REACHED : value;
+    }
+
+    /**
+     * Apply the consumer on the ids of all the reached targets.
+     * Note: an id could be visited more than once
+     */
+    synchronized void forEachReached(IntConsumer consumer) {
+        for (int i = 0; i < numberOfReached; i++) {
+            consumer.accept(reached[i]);
+        }
+    }
+
+    /**
+     * Mark all targets as not reached.
+     * Note: only the reached ones need to be modified, so the cost
+     * of a reset does not depend on the total number of targets
+     */
+    synchronized void reset() {
+        forEachReached(id -> getBlock(id).values[id & BLOCK_MASK] = NOT_REACHED);
+        numberOfReached = 0;
+    }
+
+    private Block getBlock(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid negative id: " + id);
+        }
+        Block[] current = blocks;
+        int index = id >>> BLOCK_BITS;
+        if (index >= current.length) {
+            return null;
+        }
+        return current[index];
+    }
+
+    private synchronized Block createBlock(int id) {
+
+        int index = id >>> BLOCK_BITS;
+        Block[] current = blocks;
+
+        if (index >= current.length) {
+            current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+        }
+        if (current[index] == null) {
+            current[index] = new Block();
+        }
+
+        blocks = current;
+        return current[index];
+    }
+
+    private synchronized void addReached(int id) {
+        if (numberOfReached == reached.length) {
+            reached = Arrays.copyOf(reached, reached.length * 2);
+        }
+        reached[numberOfReached++] = id;
+    }
+}
@@ -0,0 +1,114 @@
+package org.evomaster.client.java.instrumentation;
+
+import com.foo.somedifferentpackage.examples.branches.BranchesImp;
+import org.evomaster.client.java.instrumentation.example.branches.Branches;
+import org.evomaster.client.java.instrumentation.shared.ClassName;
+import org.evomaster.client.java.instrumentation.shared.ObjectiveNaming;
+import org.evomaster.client.java.instrumentation.staticstate.ExecutionTracer;
+import org.evomaster.client.java.instrumentation.staticstate.ObjectiveRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentationCacheTest {
+
+    private static class ByteClassLoader extends ClassLoader {
+
+        ByteClassLoader() {
+            super(InstrumentationCacheTest.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private final ClassName className = new ClassName(BranchesImp.class.getName());
+
+    private final Instrumentator instrumentator = new Instrumentator("com.foo");
+
+    private Path dir;
+
+    @BeforeEach
+    public void init() throws IOException {
+        ObjectiveRecorder.reset(true);
+        ExecutionTracer.reset();
+        dir = Files.createTempDirectory("evomaster-cache-test");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ObjectiveRecorder.setIdMappingListener(null);
+        ObjectiveRecorder.reset(true);
+    }
+
+    private byte[] readOriginal() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(className.getAsResourcePath())) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private byte[] transform(InstrumentationCache cache) throws IOException {
+        return cache.transformBytes(instrumentator, getClass().getClassLoader(), className, readOriginal());
+    }
+
+    @Test
+    public void testReplayInNewRun() throws Exception {
+
+        InstrumentationCache cache = new InstrumentationCache(dir);
+        byte[] first = transform(cache);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        //as in a new JVM
+        ObjectiveRecorder.reset(true);
+        assertEquals(1d, ObjectiveRecorder.computeCoverage(ObjectiveNaming.BRANCH));
+
+        cache = new InstrumentationCache(dir);
+        byte[] second = transform(cache);
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertArrayEquals(first, second);
+
+        //registration of targets was replayed
+        assertEquals(0d, ObjectiveRecorder.computeCoverage(ObjectiveNaming.BRANCH));
+
+        //ids in the cached bytecode are the right ones
+        Branches b = (Branches) new ByteClassLoader().define(className.getFullNameWithDots(), second).newInstance();
+        b.pos(10, 0);
+        assertEquals(2, ExecutionTracer.getNumberOfObjectives(ObjectiveNaming.BRANCH));
+        assertTrue(ObjectiveRecorder.computeCoverage(ObjectiveNaming.BRANCH) > 0);
+    }
+
+    @Test
+    public void testConflictingIds() throws Exception {
+
+        InstrumentationCache cache = new InstrumentationCache(dir);
+        transform(cache);
+
+        ObjectiveRecorder.reset(true);
+        ObjectiveRecorder.setIdMappingListener(null);
+
+        //this will take the id 0, used in the cache for another target
+        ObjectiveRecorder.registerTarget("foo");
+
+        cache = new InstrumentationCache(dir);
+        transform(cache);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -1,7 +1,9 @@
 package org.evomaster.client.java.instrumentation.example.branches;
 
 import com.foo.somedifferentpackage.examples.branches.BranchesImp;
+import org.evomaster.client.java.instrumentation.InstrumentationController;
 import org.evomaster.client.java.instrumentation.InstrumentingClassLoader;
+import org.evomaster.client.java.instrumentation.TargetInfo;
 import org.evomaster.client.java.instrumentation.shared.ObjectiveNaming;
 import org.evomaster.client.java.instrumentation.staticstate.ExecutionTracer;
 import org.evomaster.client.java.instrumentation.staticstate.ObjectiveRecorder;
@@ -9,6 +11,12 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class BranchesInstrumentedTest {
@@ -249,4 +257,75 @@ public class BranchesInstrumentedTest {
         assertEquals(0, ExecutionTracer.getNumberOfNonCoveredObjectives(ObjectiveNaming.BRANCH));
     }
 
+
+    private List<TargetInfo> improvedBranches(){
+        return InstrumentationController.getImprovedTargetInfos().stream()
+                .filter(t -> ObjectiveRecorder.getDescriptiveId(t.mappedId).startsWith(ObjectiveNaming.BRANCH))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Integer, Double> valuesOf(List<TargetInfo> targets){
+        Map<Integer, Double> values = new HashMap<>();
+        targets.forEach(t -> values.put(t.mappedId, t.value));
+        return values;
+    }
+
+    @Test
+    public void testImprovedTargetInfos(){
+
+        evalPos(10, 0);
+        List<TargetInfo> first = improvedBranches();
+        assertEquals(2, first.size());
+        //reported for first time, so descriptive ids are needed
+        assertTrue(first.stream().allMatch(t -> t.descriptiveId != null));
+
+        //the archive of EvoMaster has not accepted anything yet, so same values are reported again
+        ExecutionTracer.reset();
+        evalPos(10, 0);
+        List<TargetInfo> second = improvedBranches();
+        assertEquals(2, second.size());
+        assertTrue(second.stream().allMatch(t -> t.descriptiveId == null));
+
+        InstrumentationController.updateArchiveBaseline(false, valuesOf(first));
+
+        ExecutionTracer.reset();
+        evalPos(15, 0); //worse value for the else branch, same for the covered one
+        List<TargetInfo> third = improvedBranches();
+        assertEquals(1, third.size());
+        assertEquals(1d, third.get(0).value);
+
+        ExecutionTracer.reset();
+        evalPos(8, 0); //better value for the else branch
+        List<TargetInfo> fourth = improvedBranches();
+        assertEquals(2, fourth.size());
+        assertTrue(fourth.stream().anyMatch(t -> t.value < 1d));
+
+        //ties are reported, as the archive could still accept them, eg for shorter tests
+        ExecutionTracer.reset();
+        evalPos(10, 0);
+        assertEquals(2, improvedBranches().size());
+    }
+
+    @Test
+    public void testResetArchiveBaseline(){
+
+        evalPos(10, 0);
+        List<TargetInfo> first = improvedBranches();
+        InstrumentationController.updateArchiveBaseline(false, valuesOf(first));
+
+        ExecutionTracer.reset();
+        evalPos(15, 0);
+        assertEquals(1, improvedBranches().size());
+
+        //value no longer needed to enter the archive
+        int nonCovered = first.stream().filter(t -> t.value < 1d).findFirst().get().mappedId;
+        InstrumentationController.updateArchiveBaseline(false, Collections.singletonMap(nonCovered, null));
+        assertEquals(2, improvedBranches().size());
+
+        InstrumentationController.updateArchiveBaseline(false, valuesOf(first));
+        assertEquals(1, improvedBranches().size());
+
+        InstrumentationController.updateArchiveBaseline(true, Collections.emptyMap());
+        assertEquals(2, improvedBranches().size());
+    }
 }
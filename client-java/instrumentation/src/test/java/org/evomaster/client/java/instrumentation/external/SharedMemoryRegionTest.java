@@ -0,0 +1,118 @@
+package org.evomaster.client.java.instrumentation.external;
+
+import org.evomaster.client.java.instrumentation.TargetInfo;
+import org.evomaster.client.java.instrumentation.staticstate.ExecutionTracer;
+import org.evomaster.client.java.instrumentation.staticstate.ObjectiveRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedMemoryRegionTest {
+
+    @Test
+    public void testIds() throws Exception {
+
+        SharedMemoryRegion writer = SharedMemoryRegion.create(1024);
+        try {
+            SharedMemoryRegion reader = SharedMemoryRegion.open(writer.getPath());
+
+            assertTrue(writer.writeIds(Arrays.asList(3, 1, 42)));
+            assertEquals(Arrays.asList(3, 1, 42), reader.readIds());
+        } finally {
+            writer.delete();
+        }
+        assertFalse(Files.exists(Paths.get(writer.getPath())));
+    }
+
+    @Test
+    public void testTargetInfos() throws Exception {
+
+        SharedMemoryRegion writer = SharedMemoryRegion.create(1024);
+        try {
+            SharedMemoryRegion reader = SharedMemoryRegion.open(writer.getPath());
+
+            assertTrue(writer.writeTargetInfos(Arrays.asList(
+                    new TargetInfo(1, null, 0.5, 2),
+                    new TargetInfo(7, "Line_at_com.foo.Bar_00042", 1d, 0),
+                    new TargetInfo(null, "æøå", null, null),
+                    TargetInfo.notReached(5))));
+
+            List<TargetInfo> infos = reader.readTargetInfos();
+            assertEquals(4, infos.size());
+
+            assertEquals(1, infos.get(0).mappedId.intValue());
+            assertNull(infos.get(0).descriptiveId);
+            assertEquals(0.5, infos.get(0).value, 0.0001);
+            assertEquals(2, infos.get(0).actionIndex.intValue());
+
+            assertEquals("Line_at_com.foo.Bar_00042", infos.get(1).descriptiveId);
+
+            assertNull(infos.get(2).mappedId);
+            assertEquals("æøå", infos.get(2).descriptiveId);
+            assertNull(infos.get(2).value);
+            assertNull(infos.get(2).actionIndex);
+
+            assertEquals(5, infos.get(3).mappedId.intValue());
+            assertEquals(0d, infos.get(3).value, 0.0001);
+            assertEquals(-1, infos.get(3).actionIndex.intValue());
+        } finally {
+            writer.delete();
+        }
+    }
+
+    @Test
+    public void testTooLarge() throws Exception {
+
+        SharedMemoryRegion region = SharedMemoryRegion.create(16);
+        try {
+            assertTrue(region.writeIds(Arrays.asList(1, 2, 3)));
+            assertFalse(region.writeIds(Arrays.asList(1, 2, 3, 4)));
+            assertFalse(region.writeTargetInfos(Arrays.asList(TargetInfo.notReached(1))));
+        } finally {
+            region.delete();
+        }
+    }
+
+    @Test
+    public void testWithAgent() throws Exception {
+
+        ExecutionTracer.reset();
+        ObjectiveRecorder.reset(false);
+
+        ServerController server = new ServerController();
+        int port = server.startServer();
+
+        //the agent blocks until the server accepts the connection
+        Thread agent = new Thread(() -> AgentController.start(port));
+        agent.start();
+
+        try {
+            assertTrue(server.waitForIncomingConnection());
+            assertTrue(server.initSharedMemory(1024));
+            assertTrue(server.isUsingSharedMemory());
+
+            List<TargetInfo> infos = server.getTargetInfos(Arrays.asList(10, 20));
+            assertEquals(2, infos.size());
+            assertEquals(10, infos.get(0).mappedId.intValue());
+            assertEquals(20, infos.get(1).mappedId.intValue());
+            assertEquals(0d, infos.get(1).value, 0.0001);
+
+            assertEquals(0, server.getImprovedTargetInfos().size());
+
+            //too many ids for the region: fallback to serialization
+            Integer[] ids = new Integer[1000];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i;
+            }
+            assertEquals(1000, server.getTargetInfos(Arrays.asList(ids)).size());
+        } finally {
+            server.closeServer();
+            agent.join(10_000);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.evomaster.client.java.instrumentation.staticstate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TargetValuesTest {
+
+    @Test
+    public void testUpdate() {
+
+        TargetValues values = new TargetValues();
+        assertFalse(values.isReached(0));
+        assertTrue(values.getValue(0) < 0);
+
+        assertEquals(TargetValues.FIRST_TIME, values.update(0, 0.5, 1));
+        assertTrue(values.isReached(0));
+        assertEquals(0.5, values.getValue(0));
+        assertEquals(1, values.getActionIndex(0));
+
+        assertEquals(TargetValues.NOT_IMPROVED, values.update(0, 0.3, 2));
+        assertEquals(0.5, values.getValue(0));
+        assertEquals(1, values.getActionIndex(0));
+
+        assertEquals(TargetValues.IMPROVED, values.update(0, 1, 3));
+        assertEquals(1, values.getValue(0));
+        assertEquals(3, values.getActionIndex(0));
+    }
+
+    @Test
+    public void testSet() {
+
+        TargetValues values = new TargetValues();
+        values.set(7, -1);
+        assertFalse(values.isReached(7));
+
+        values.set(7, 0.8);
+        assertEquals(0.8, values.getValue(7));
+
+        //lower values are not ignored
+        values.set(7, 0.2);
+        assertEquals(0.2, values.getValue(7));
+
+        values.set(7, -1);
+        assertFalse(values.isReached(7));
+
+        values.set(7, 0.5);
+        values.reset();
+        assertFalse(values.isReached(7));
+    }
+
+    @Test
+    public void testZeroIsReached() {
+
+        TargetValues values = new TargetValues();
+        assertEquals(TargetValues.FIRST_TIME, values.update(42, 0, 0));
+        assertTrue(values.isReached(42));
+        assertEquals(TargetValues.NOT_IMPROVED, values.update(42, 0, 0));
+    }
+
+    @Test
+    public void testLargeIds() {
+
+        TargetValues values = new TargetValues();
+        int[] ids = {0, 4095, 4096, 100_000, 1_000_000};
+
+        for (int id : ids) {
+            values.update(id, 1, 0);
+        }
+
+        for (int id : ids) {
+            assertTrue(values.isReached(id));
+        }
+        assertFalse(values.isReached(1));
+        assertFalse(values.isReached(2_000_000));
+
+        Set<Integer> reached = new HashSet<>();
+        values.forEachReached(reached::add);
+        assertEquals(ids.length, reached.size());
+    }
+
+    @Test
+    public void testReset() {
+
+        TargetValues values = new TargetValues();
+        for (int i = 0; i < 5000; i++) {
+            values.update(i * 3, 0.2, 0);
+        }
+
+        values.reset();
+
+        for (int i = 0; i < 15000; i++) {
+            assertFalse(values.isReached(i));
+        }
+        Set<Integer> reached = new HashSet<>();
+        values.forEachReached(reached::add);
+        assertTrue(reached.isEmpty());
+
+        assertEquals(TargetValues.FIRST_TIME, values.update(3, 0.1, 0));
+    }
+
+    @Test
+    public void testNegativeId() {
+        assertThrows(IllegalArgumentException.class, () -> new TargetValues().update(-1, 0, 0));
+    }
+}
@@ -5,6 +5,7 @@ import com.google.inject.Provides
 import com.google.inject.Singleton
 import org.evomaster.core.output.service.TestSuiteWriter
 import org.evomaster.core.search.service.*
+import org.evomaster.core.search.service.checkpoint.CheckpointService
 import org.evomaster.core.search.service.monitor.SearchProcessMonitor
 
 
@@ -45,6 +46,9 @@ class BaseModule(val args: Array<String>) : AbstractModule() {
 
         bind(ExtraHeuristicsLogger::class.java)
                 .asEagerSingleton()
+
+        bind(CheckpointService::class.java)
+                .asEagerSingleton()
     }
 
     @Provides @Singleton
@@ -246,6 +246,10 @@ class EMConfig {
                     "extracting SQL execution info with 'extractSqlExecutionInfo'")
         }
 
+        if(resume && algorithm != Algorithm.MIO){
+            throw IllegalArgumentException("Resuming a search from a checkpoint is supported only for MIO")
+        }
+
         if(enableTrackEvaluatedIndividual && enableTrackIndividual){
             throw IllegalArgumentException("When tracking EvaluatedIndividual, it is not necessary to track individual")
         }
@@ -296,10 +300,35 @@ class EMConfig {
         if(!blackBox && bbExperiments){
             throw IllegalArgumentException("Cannot setup bbExperiments without black-box mode")
         }
+
+        if(sutControllerWorkerPorts.isNotBlank()){
+            val ports = try {
+                getSutControllerWorkerPorts()
+            } catch (e: NumberFormatException){
+                throw IllegalArgumentException("Invalid list of ports in sutControllerWorkerPorts: $sutControllerWorkerPorts")
+            }
+            if(ports.any { it < 0 || it > 65535 }){
+                throw IllegalArgumentException("Invalid port number in sutControllerWorkerPorts: $sutControllerWorkerPorts")
+            }
+            if(ports.contains(sutControllerPort) || ports.size != ports.toSet().size){
+                throw IllegalArgumentException("Ports in sutControllerWorkerPorts must be unique and different from sutControllerPort")
+            }
+            if(blackBox || problemType != ProblemType.REST || algorithm != Algorithm.MIO
+                    || resourceSampleStrategy != ResourceSamplingStrategy.NONE){
+                throw IllegalArgumentException("Parallel evaluations with sutControllerWorkerPorts are only applicable on" +
+                        " white-box REST problem with MIO algorithm, without resource-based sampling")
+            }
+        }
     }
 
     fun shouldGenerateSqlData() = generateSqlDataWithDSE || generateSqlDataWithSearch
 
+    fun getSutControllerWorkerPorts(): List<Int> = sutControllerWorkerPorts
+            .split(",")
+            .map { it.trim() }
+            .filter { it.isNotEmpty() }
+            .map { it.toInt() }
+
     fun experimentalFeatures() : List<String>{
 
         val properties = getConfigurationProperties()
@@ -414,6 +443,48 @@ class EMConfig {
     @Cfg("Host name or IP address of where the SUT REST controller is listening on")
     var sutControllerHost = ControllerConstants.DEFAULT_CONTROLLER_HOST
 
+    @Experimental
+    @Cfg("Retrieve the results of each test case from the SUT REST controller in a compact binary format instead of JSON," +
+            " if the controller supports it")
+    var binaryTestResults = false
+
+    @Experimental
+    @Cfg("After each test execution, retrieve from the SUT REST controller all the targets whose values" +
+            " could improve the archive (as the archive tells the controller which values it would still accept)," +
+            " instead of asking for a random subset of the targets not covered yet, if the controller supports it")
+    var onlyImprovedTargets = false
+
+    @Experimental
+    @Cfg("Save a snapshot of the state of the SQL database after executing the initializing insertions of a test," +
+            " and restore it (instead of executing those insertions again) when evaluating other tests with the very" +
+            " same insertions, if the controller supports it")
+    var databaseSnapshots = false
+
+    @Experimental
+    @Cfg("Timeout, in milliseconds, for opening a connection to the SUT, and for reading its response, in each HTTP call")
+    @Min(1.0)
+    var tcpTimeoutMs = 10_000
+
+    @Experimental
+    @Cfg("Max number of idle keep-alive connections that the HTTP client kept open toward each SUT instance." +
+            " Note: this is a JVM-wide setting of the JDK HTTP client, used only if not already" +
+            " specified with the 'http.maxConnections' system property, and only before any connection is opened")
+    @Min(1.0)
+    var maxIdleConnectionsPerSut = 5
+
+    @Experimental
+    @Cfg("Max number of test evaluations to cache, keyed by the HTTP calls and SQL insertions they execute." +
+            " Tests with the very same calls and insertions as a cached one are not run again on the SUT, but" +
+            " rather get the cached fitness. This is valid only if the SUT is deterministic. 0 means no cache")
+    @Min(0.0)
+    var fitnessCacheSize = 0
+
+    @Experimental
+    @Cfg("Comma-separated list of TCP ports of further SUT REST controllers listening on 'sutControllerHost'." +
+            " Each one must handle its own independent instance of the SUT (e.g., started in its own JVM, with its own database)." +
+            " If any is specified, then test cases are evaluated in parallel on all the available SUT instances")
+    var sutControllerWorkerPorts = ""
+
     @Cfg("Limit of number of individuals per target to keep in the archive")
     @Min(1.0)
     var archiveTargetLimit = 10
@@ -569,6 +640,11 @@ class EMConfig {
     @Min(1.0)
     var maxSqlInitActionsPerMissingData = 5
 
+    @Cfg("Max number of rows to retrieve from each table when extracting the data already existing in the database. " +
+            "This is needed to avoid running out of memory when the SUT starts with a large database. " +
+            "A negative value means no limit.")
+    var maxExistingDataRowsPerTable = 10_000
+
 
     @Cfg("Maximum size (in bytes) that EM handles response payloads in the HTTP responses. " +
             "If larger than that, a response will not be stored internally in EM during the test generation. "+
@@ -591,6 +667,21 @@ class EMConfig {
     @Cfg("Specify how often to save results when a search monitor is enabled ")
     var processInterval = 100
 
+    @Experimental
+    @Cfg("How often (in seconds) to save a checkpoint of the search, from which a search that crashed can be resumed." +
+            " Checkpoints are written in the background, without stopping the search. 0 means no checkpoint is saved")
+    @Min(0.0)
+    var checkpointInterval = 0
+
+    @Experimental
+    @Cfg("File where to save the checkpoints of the search, and from where to load it when resuming a search")
+    var checkpointFile = "checkpoint.json.gz"
+
+    @Experimental
+    @Cfg("Whether to resume the search from the checkpoint saved in 'checkpointFile' by a previous run." +
+            " Note: this is supported only for the MIO algorithm")
+    var resume = false
+
     @Experimental
     @Cfg("Enable EvoMaster to generate, use, and attach complete objects to REST calls, rather than just the needed fields/values")
     var enableCompleteObjects = false
@@ -7,6 +7,7 @@ import org.evomaster.core.search.gene.Gene
 import org.evomaster.core.search.gene.sql.SqlForeignKeyGene
 import org.evomaster.core.search.gene.sql.SqlPrimaryKeyGene
 import org.evomaster.core.search.gene.sql.SqlWrapperGene
+import java.security.MessageDigest
 
 
 object DbActionTransformer {
@@ -84,6 +85,36 @@ object DbActionTransformer {
         return DatabaseCommandDto().apply { this.insertions = list }
     }
 
+    /**
+     * Compute a key identifying the content of the [insertions][DatabaseCommandDto.insertions] in [dto],
+     * which can be used to save and restore a snapshot of the database after those insertions
+     * are executed.
+     * Two commands have the same key only if they insert the very same data.
+     */
+    fun computeSnapshotKey(dto: DatabaseCommandDto) : String {
+
+        val sb = StringBuilder()
+
+        //each string is prefixed by its length, to avoid ambiguities with separators
+        val append = { s: String? -> if (s == null) sb.append("-1;") else sb.append(s.length).append(":").append(s).append(";") }
+
+        for (insertion in dto.insertions) {
+            append(insertion.targetTable)
+            append(insertion.id?.toString())
+            sb.append(insertion.data.size).append("[")
+            for (entry in insertion.data) {
+                append(entry.variableName)
+                append(entry.printableValue)
+                append(entry.foreignKeyToPreviouslyGeneratedRow?.toString())
+            }
+            sb.append("]")
+        }
+
+        val hash = MessageDigest.getInstance("SHA-256").digest(sb.toString().toByteArray(Charsets.UTF_8))
+
+        return hash.joinToString("") { String.format("%02x", it) }
+    }
+
     /**
      * @param sqlIdMap is a map from Insertion Id to generated Id in database.
      *
@@ -19,7 +19,12 @@ import org.evomaster.dbconstraint.*
 
 class SqlInsertBuilder(
         schemaDto: DbSchemaDto,
-        private val dbExecutor: DatabaseExecutor? = null
+        private val dbExecutor: DatabaseExecutor? = null,
+        /**
+         * Max number of rows to retrieve from each table when extracting existing data.
+         * A negative value means no limit
+         */
+        private val maxExistingRowsPerTable: Int = -1
 ) {
 
     /**
@@ -415,6 +420,7 @@ class SqlInsertBuilder(
 
             val dto = DatabaseCommandDto()
             dto.command = sql
+            dto.maxRows = maxExistingRowsPerTable
 
             val result: QueryResultDto = dbExecutor.executeDatabaseCommandAndGetQueryResults(dto)
                     ?: continue
@@ -586,6 +592,7 @@ class SqlInsertBuilder(
 
             val dto = DatabaseCommandDto()
             dto.command = sql
+            dto.maxRows = maxExistingRowsPerTable
 
             val result : QueryResultDto = dbExecutor.executeDatabaseCommandAndGetQueryResults(dto)
                     ?: continue
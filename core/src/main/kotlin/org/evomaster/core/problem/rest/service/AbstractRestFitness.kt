@@ -12,6 +12,7 @@ import org.evomaster.core.problem.rest.param.HeaderParam
 import org.evomaster.core.problem.rest.param.QueryParam
 import org.evomaster.core.remote.SutProblemException
 import org.evomaster.core.remote.service.RemoteController
+import org.evomaster.core.remote.service.SutWorker
 import org.evomaster.core.search.ActionResult
 import org.evomaster.core.search.FitnessValue
 import org.evomaster.core.search.Individual
@@ -19,6 +20,7 @@ import org.evomaster.core.search.gene.OptionalGene
 import org.evomaster.core.search.gene.StringGene
 import org.evomaster.core.search.service.ExtraHeuristicsLogger
 import org.evomaster.core.search.service.FitnessFunction
+import org.evomaster.core.search.service.IdMapper
 import org.evomaster.core.search.service.SearchTimeController
 import org.glassfish.jersey.client.ClientConfig
 import org.glassfish.jersey.client.ClientProperties
@@ -52,23 +54,33 @@ abstract class AbstractRestFitness<T> : FitnessFunction<T>() where T : Individua
     private lateinit var searchTimeController: SearchTimeController
 
 
-    private val client: Client = {
-        val configuration = ClientConfig()
-                .property(ClientProperties.CONNECT_TIMEOUT, 10_000)
-                .property(ClientProperties.READ_TIMEOUT, 10_000)
-                //workaround bug in Jersey client
-                .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true)
-        ClientBuilder.newClient(configuration)
-    }.invoke()
+    /**
+     * Client used to call the SUT.
+     * It is based on the JDK HttpURLConnection, which keeps connections alive and re-uses them,
+     * as long as each response is fully read or closed
+     */
+    private lateinit var client: Client
 
     private lateinit var infoDto: SutInfoDto
 
+    /**
+     * The EvoMaster Drivers on which tests can be evaluated.
+     * The first one is always the Driver at [EMConfig.sutControllerPort].
+     * Further ones are present only when tests are evaluated in parallel,
+     * see [EMConfig.sutControllerWorkerPorts]
+     */
+    protected val sutWorkers: MutableList<SutWorker> = mutableListOf()
+
 
     @PostConstruct
     private fun initialize() {
 
         log.debug("Initializing {}", AbstractRestFitness::class.simpleName)
 
+        if (!::client.isInitialized) {
+            client = createClient()
+        }
+
         if(! config.blackBox || config.bbExperiments) {
             rc.checkConnection()
 
@@ -79,17 +91,86 @@ abstract class AbstractRestFitness<T> : FitnessFunction<T>() where T : Individua
 
             infoDto = rc.getSutInfo()
                     ?: throw SutProblemException("Failed to retrieve the info about the system under test")
+
+            if (sutWorkers.isEmpty()) {
+                initializeWorkers()
+            } else {
+                //the SUT might have been restarted on a different port
+                sutWorkers[0].baseUrlOfSUT = infoDto.baseUrlOfSUT
+            }
         }
 
         log.debug("Done initializing {}", AbstractRestFitness::class.simpleName)
     }
 
+    private fun createClient(): Client {
+
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", "${config.maxIdleConnectionsPerSut}")
+        }
+
+        val configuration = ClientConfig()
+                .property(ClientProperties.CONNECT_TIMEOUT, config.tcpTimeoutMs)
+                .property(ClientProperties.READ_TIMEOUT, config.tcpTimeoutMs)
+                //workaround bug in Jersey client
+                .property(HttpUrlConnectorProvider.SET_METHOD_WORKAROUND, true)
+        return ClientBuilder.newClient(configuration)
+    }
+
+    private fun initializeWorkers() {
+
+        val ports = config.getSutControllerWorkerPorts()
+        val parallel = ports.isNotEmpty()
+
+        sutWorkers.add(SutWorker(rc, infoDto.baseUrlOfSUT, parallel))
+
+        ports.forEach { port ->
+            val worker = RemoteController(config.sutControllerHost, port,
+                    config.heuristicsForSQL, config.extractSqlExecutionInfo, config.binaryTestResults,
+                    config.onlyImprovedTargets, config.databaseSnapshots)
+
+            worker.checkConnection()
+
+            //needed to negotiate the format of the test results
+            worker.getControllerInfo()
+                    ?: throw SutProblemException("Failed to retrieve the info of the controller on port $port")
+
+            if (!worker.startSUT()) {
+                throw SutProblemException("Failed to start the system under test handled by the controller on port $port")
+            }
+
+            val info = worker.getSutInfo()
+                    ?: throw SutProblemException("Failed to retrieve the info about the system under test" +
+                            " handled by the controller on port $port")
+
+            if (!worker.startANewSearch()) {
+                throw SutProblemException("Failed to start a new search on the controller on port $port")
+            }
+
+            sutWorkers.add(SutWorker(worker, info.baseUrlOfSUT, parallel))
+        }
+    }
+
+    /**
+     * Tell the Drivers that return only the targets that could improve the archive
+     * which heuristic values the archive would still accept, see [SutWorker.updateArchiveBaseline].
+     * This must be called before running tests, and not while they are running.
+     */
+    protected fun updateArchiveBaselines() {
+        sutWorkers.forEach {
+            if (!it.updateArchiveBaseline(archive, idMapper)) {
+                log.warn("Failed to update the archive baseline of the SUT at ${it.baseUrlOfSUT}")
+            }
+        }
+    }
+
     override fun reinitialize(): Boolean {
 
         try {
             if(! config.blackBox) {
                 rc.stopSUT()
             }
+            sutWorkers.firstOrNull()?.resetArchiveBaseline()
             initialize()
         } catch (e: Exception) {
             log.warn("Failed to re-initialize the SUT: $e")
@@ -267,14 +348,11 @@ abstract class AbstractRestFitness<T> : FitnessFunction<T>() where T : Individua
      */
     protected fun handleRestCall(a: RestCallAction,
                                actionResults: MutableList<ActionResult>,
-                               chainState: MutableMap<String, String>)
+                               chainState: MutableMap<String, String>,
+                               baseUrlOfSUT: String = getBaseUrlOfSUT())
             : Boolean {
 
-        var baseUrl = if(!config.blackBox || config.bbExperiments){
-            infoDto.baseUrlOfSUT
-        } else {
-            config.bbTargetUrl!!
-        }
+        var baseUrl = baseUrlOfSUT
 
         if (baseUrl.endsWith("/")) {
             baseUrl = baseUrl.substring(0, baseUrl.length - 1)
@@ -372,10 +450,14 @@ abstract class AbstractRestFitness<T> : FitnessFunction<T>() where T : Individua
         val rcr = RestCallResult()
         actionResults.add(rcr)
 
+        val start = System.nanoTime()
+
         val response = try {
             invocation.invoke()
         } catch (e: ProcessingException) {
 
+            statistics.sutCallTimes.record(System.nanoTime() - start)
+
             //this can happen for example if call ends up in an infinite redirection loop
             if ((e.cause?.message?.contains("redirected too many") == true) && e.cause is ProtocolException) {
                 rcr.setInfiniteLoop(true)
@@ -403,31 +485,40 @@ abstract class AbstractRestFitness<T> : FitnessFunction<T>() where T : Individua
             }
         }
 
-        rcr.setStatusCode(response.status)
+        try {
+            rcr.setStatusCode(response.status)
 
-        if (response.hasEntity()) {
-            if (response.mediaType != null) {
-                rcr.setBodyType(response.mediaType)
-            }
-            try {
-                /*
-                    FIXME should read as byte[]
-                 */
-                val body = response.readEntity(String::class.java)
-
-                if (body.length < configuration.maxResponseByteSize) {
-                    rcr.setBody(body)
-                } else {
-                    log.warn("A very large response body was retrieved from the endpoint '${a.path}'." +
-                            " If that was expected, increase the 'maxResponseByteSize' threshold" +
-                            " in the configurations.")
-                    rcr.setTooLargeBody(true)
+            if (response.hasEntity()) {
+                if (response.mediaType != null) {
+                    rcr.setBodyType(response.mediaType)
+                }
+                try {
+                    /*
+                        FIXME should read as byte[]
+                     */
+                    val body = response.readEntity(String::class.java)
+
+                    if (body.length < configuration.maxResponseByteSize) {
+                        rcr.setBody(body)
+                    } else {
+                        log.warn("A very large response body was retrieved from the endpoint '${a.path}'." +
+                                " If that was expected, increase the 'maxResponseByteSize' threshold" +
+                                " in the configurations.")
+                        rcr.setTooLargeBody(true)
+                    }
+
+                } catch (e: Exception) {
+                    log.warn("Failed to parse HTTP response: ${e.message}")
                 }
 
-            } catch (e: Exception) {
-                log.warn("Failed to parse HTTP response: ${e.message}")
             }
-
+        } finally {
+            /*
+                release the connection, so that it can be re-used with keep-alive,
+                even if the body was not read
+             */
+            response.close()
+            statistics.sutCallTimes.record(System.nanoTime() - start)
         }
 
         if (response.status == 401 && a.auth !is NoAuth) {
@@ -441,6 +532,14 @@ abstract class AbstractRestFitness<T> : FitnessFunction<T>() where T : Individua
         return true
     }
 
+    private fun getBaseUrlOfSUT(): String {
+        return if(!config.blackBox || config.bbExperiments){
+            infoDto.baseUrlOfSUT
+        } else {
+            config.bbTargetUrl
+        }
+    }
+
     private fun handleSaveLocation(a: RestCallAction, response: Response, rcr: RestCallResult, chainState: MutableMap<String, String>): Boolean {
         if (a.saveLocation) {
 
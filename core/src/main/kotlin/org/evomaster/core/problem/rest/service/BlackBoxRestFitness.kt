@@ -48,7 +48,7 @@ class BlackBoxRestFitness : RestFitness() {
 
         handleResponseTargets(fv, individual.seeActions(), actionResults)
 
-        return EvaluatedIndividual(fv, individual.copy() as RestIndividual, actionResults)
+        return EvaluatedIndividual(fv, individual, actionResults)
     }
 
     protected fun handleResponseTargets(
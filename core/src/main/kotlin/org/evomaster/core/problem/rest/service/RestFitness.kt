@@ -3,6 +3,7 @@ package org.evomaster.core.problem.rest.service
 import com.google.inject.Inject
 import org.evomaster.client.java.controller.api.dto.ActionDto
 import org.evomaster.client.java.controller.api.dto.AdditionalInfoDto
+import org.evomaster.client.java.controller.api.dto.TestResultsDto
 import org.evomaster.client.java.instrumentation.shared.ObjectiveNaming
 import org.evomaster.client.java.instrumentation.shared.StringSpecialization
 import org.evomaster.client.java.instrumentation.shared.StringSpecializationInfo
@@ -11,16 +12,26 @@ import org.evomaster.core.logging.LoggingUtil
 import org.evomaster.core.problem.rest.RestCallAction
 import org.evomaster.core.problem.rest.RestIndividual
 import org.evomaster.core.remote.service.RemoteController
+import org.evomaster.core.remote.service.SutWorker
 import org.evomaster.core.search.ActionResult
 import org.evomaster.core.search.EvaluatedIndividual
 import org.evomaster.core.search.FitnessValue
+import org.evomaster.core.search.service.EvaluationPhase
 import org.evomaster.core.search.service.IdMapper
+import org.evomaster.core.search.service.measure
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import org.evomaster.core.Lazy
 import org.evomaster.core.problem.rest.RestAction
+import org.evomaster.core.search.gene.OptionalGene
 import org.evomaster.core.search.gene.StringGene
 import org.evomaster.core.search.gene.regex.RegexGene
+import java.security.MessageDigest
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.LinkedBlockingQueue
+import javax.annotation.PreDestroy
 
 open class RestFitness : AbstractRestFitness<RestIndividual>() {
 
@@ -34,15 +45,189 @@ open class RestFitness : AbstractRestFitness<RestIndividual>() {
     @Inject
     private lateinit var sampler: RestSampler
 
+    /**
+     * Threads used to run tests in parallel on [sutWorkers], if more than one
+     */
+    private var executor: ExecutorService? = null
+
+    /**
+     * What is retrieved from the SUT when running a test on one of the Drivers,
+     * before being turned into an [EvaluatedIndividual]
+     */
+    private class TestExecution(
+            val worker: SutWorker,
+            val actionResults: List<ActionResult>,
+            val dto: TestResultsDto)
+
+    @PreDestroy
+    private fun preDestroy() {
+        executor?.shutdownNow()
+    }
+
+    override fun parallelism() = sutWorkers.size
+
     override fun doCalculateCoverage(individual: RestIndividual): EvaluatedIndividual<RestIndividual>? {
 
-        rc.resetSUT()
+        updateArchiveBaselines()
 
-        doInitializingActions(individual)
+        val execution = executeTest(individual, sutWorkers[0], targetsToQuery())
+                ?: return null
 
-        individual.enforceCoherence()
+        return evaluate(individual, execution)
+    }
 
-        val fv = FitnessValue(individual.size().toDouble())
+    override fun calculateCoverage(individuals: List<RestIndividual>): List<EvaluatedIndividual<RestIndividual>?> {
+
+        if (sutWorkers.size <= 1 || individuals.size <= 1) {
+            return super.calculateCoverage(individuals)
+        }
+
+        val pool = executor ?: Executors.newFixedThreadPool(sutWorkers.size) { r ->
+            Thread(r, "EvoMaster-SUT-worker").apply { isDaemon = true }
+        }.also { executor = it }
+
+        updateArchiveBaselines()
+
+        val free = LinkedBlockingQueue<SutWorker>(sutWorkers)
+
+        //same ids for all tests in the batch, as archive is not updated while running them
+        val ids = targetsToQuery()
+
+        val keys = individuals.map { cacheKey(it) }
+        val cached = individuals.mapIndexed { i, ind -> getFromCache(ind, keys[i]) }
+
+        val toRun = individuals.indices.filter { cached[it] == null }
+
+        val tasks = toRun.map { i ->
+            Callable<TestExecution?> {
+                val worker = free.take()
+                try {
+                    executeTest(individuals[i], worker, ids)
+                } catch (e: Exception) {
+                    log.warn("Failed to run test on SUT at ${worker.baseUrlOfSUT}: $e")
+                    null
+                } finally {
+                    free.put(worker)
+                }
+            }
+        }
+
+        val executions = mutableMapOf<Int, TestExecution?>()
+        pool.invokeAll(tasks).forEachIndexed { k, f -> executions[toRun[k]] = f.get() }
+
+        /*
+            Results are handled in the same order of the input, regardless
+            of which test finished first, to keep the search deterministic
+         */
+        return individuals.mapIndexed { i, ind ->
+            val hit = cached[i]
+            val execution = executions[i]
+            if (hit != null) {
+                processMonitor.eval = hit
+                reportEvaluation(ind)
+                hit
+            } else if (execution == null) {
+                //try again on the main Driver, with its re-initialization in case of failures.
+                //this was already a cache miss, so no need to check the cache again
+                calculateCoverageNotCached(ind, keys[i])
+            } else {
+                val ei = evaluate(ind, execution)
+                addToCache(keys[i], ei)
+                processMonitor.eval = ei
+                reportEvaluation(ind)
+                ei
+            }
+        }
+    }
+
+    /**
+     * The phenotype of a test is given by its SQL insertions and by the HTTP calls it makes,
+     * ie, the values of all the genes used to build them.
+     * Two tests with the same key are hence indistinguishable for the SUT.
+     *
+     * Note: on a cache hit the test is not run, and so [doTaintAnalysis] is skipped.
+     * Its string genes hence get no specializations, which were only added to the genes
+     * of the test first evaluated with the same phenotype.
+     */
+    override fun computePhenotypeKey(individual: RestIndividual): String? {
+
+        val sb = StringBuilder()
+
+        //each string is prefixed by its length, to avoid ambiguities with separators
+        val append = { x: Any? ->
+            val s = x?.toString()
+            if (s == null) sb.append("-1;") else sb.append(s.length).append(":").append(s).append(";")
+        }
+
+        try {
+            append(DbActionTransformer.computeSnapshotKey(DbActionTransformer.transform(individual.dbInitialization)))
+
+            for (a in individual.seeActions()) {
+                if (a !is RestCallAction) {
+                    return null
+                }
+                append(a.getName())
+                append(a.auth.name)
+                append(a.saveLocation)
+                append(a.locationId)
+                append(a.produces)
+
+                for (p in a.parameters) {
+                    append(p.javaClass.simpleName)
+                    append(p.name)
+                    //not just p.gene, as eg a body param also has a gene for its content type
+                    for (g in p.seeGenes().flatMap { it.flatView() }) {
+                        append(g.name)
+                        if (g is OptionalGene) {
+                            append(g.isActive)
+                        }
+                        append(g.getValueAsRawString())
+                    }
+                }
+            }
+        } catch (e: Exception) {
+            //not a problem, the test will just not be cached
+            log.debug("Cannot compute phenotype key: {}", e.message)
+            return null
+        }
+
+        val hash = MessageDigest.getInstance("SHA-256").digest(sb.toString().toByteArray(Charsets.UTF_8))
+
+        return hash.joinToString("") { String.format("%02x", it) }
+    }
+
+    /**
+     * We cannot request all non-covered targets, because:
+     * 1) performance hit
+     * 2) might not be possible to have a too long URL
+     */
+    private fun targetsToQuery(): Set<Int> {
+
+        if (sutWorkers.all { it.rc.useOnlyImprovedTargets }) {
+            //no need to ask, as the Drivers return all the targets that improved
+            return setOf()
+        }
+
+        //TODO prioritized list
+        return randomness.choose(
+                archive.notCoveredTargets().filter { !IdMapper.isLocal(it) },
+                100).toSet()
+    }
+
+    /**
+     * Run the test on the SUT handled by [worker].
+     * This can be called concurrently on different workers, so no shared
+     * state of the search must be modified here
+     */
+    private fun executeTest(individual: RestIndividual, worker: SutWorker, ids: Set<Int>): TestExecution? {
+
+        val rc = worker.rc
+
+        statistics.timeOf(EvaluationPhase.RESET_SUT).measure { rc.resetSUT() }
+
+        statistics.timeOf(EvaluationPhase.INITIALIZING_ACTIONS).measure { doInitializingActions(individual, rc) }
+
+        individual.enforceCoherence()
 
         val actionResults: MutableList<ActionResult> = mutableListOf()
 
@@ -54,12 +239,12 @@ open class RestFitness : AbstractRestFitness<RestIndividual>() {
 
             val a = individual.seeActions()[i]
 
-            registerNewAction(a, i)
+            registerNewAction(a, i, rc)
 
             var ok = false
 
             if (a is RestCallAction) {
-                ok = handleRestCall(a, actionResults, chainState)
+                ok = handleRestCall(a, actionResults, chainState, worker.baseUrlOfSUT)
             } else {
                 throw IllegalStateException("Cannot handle: ${a.javaClass}")
             }
@@ -69,38 +254,41 @@ open class RestFitness : AbstractRestFitness<RestIndividual>() {
             }
         }
 
-        /*
-            We cannot request all non-covered targets, because:
-            1) performance hit
-            2) might not be possible to have a too long URL
-         */
-        //TODO prioritized list
-        val ids = randomness.choose(
-                archive.notCoveredTargets().filter { !IdMapper.isLocal(it) },
-                100).toSet()
-
-        val dto = rc.getTestResults(ids)
+        val dto = statistics.timeOf(EvaluationPhase.TEST_RESULTS).measure {
+            rc.getTestResults(worker.toRemoteIds(ids, idMapper))
+        }
         if (dto == null) {
             log.warn("Cannot retrieve coverage")
             return null
         }
 
-        dto.targets.forEach { t ->
+        worker.recordDescriptiveIds(dto.targets)
 
-            if (t.descriptiveId != null) {
+        return TestExecution(worker, actionResults, dto)
+    }
 
-                if (!config.useMethodReplacement &&
-                        t.descriptiveId.startsWith(ObjectiveNaming.METHOD_REPLACEMENT)) {
-                    return@forEach
-                }
+    private fun evaluate(individual: RestIndividual, execution: TestExecution): EvaluatedIndividual<RestIndividual> {
+
+        val dto = execution.dto
+        val actionResults = execution.actionResults
+
+        val fv = FitnessValue(individual.size().toDouble())
+
+        dto.targets.forEach { t ->
+
+            val descriptiveId = execution.worker.getDescriptiveId(t)
 
-                idMapper.addMapping(t.id, t.descriptiveId)
+            if (descriptiveId != null && !config.useMethodReplacement &&
+                    descriptiveId.startsWith(ObjectiveNaming.METHOD_REPLACEMENT)) {
+                return@forEach
             }
 
-            fv.updateTarget(t.id, t.value, t.actionIndex)
+            val id = execution.worker.toLocalId(t, idMapper) ?: return@forEach
+
+            fv.updateTarget(id, t.value, t.actionIndex)
         }
 
-        handleExtra(dto, fv)
+        statistics.timeOf(EvaluationPhase.EXTRA_HEURISTICS).measure { handleExtra(dto, fv) }
 
         handleResponseTargets(fv, individual.seeActions(), actionResults, dto.additionalInfoList)
 
@@ -109,13 +297,15 @@ open class RestFitness : AbstractRestFitness<RestIndividual>() {
         }
 
         if (config.baseTaintAnalysisProbability > 0) {
-            doTaintAnalysis(individual, dto.additionalInfoList)
+            statistics.timeOf(EvaluationPhase.TAINT_ANALYSIS).measure {
+                doTaintAnalysis(individual, dto.additionalInfoList)
+            }
         }
 
-        return EvaluatedIndividual(fv, individual.copy() as RestIndividual, actionResults)
+        return EvaluatedIndividual(fv, individual, actionResults)
     }
 
-    private fun registerNewAction(action: RestAction, index: Int){
+    private fun registerNewAction(action: RestAction, index: Int, rc: RemoteController){
 
         rc.registerNewAction(ActionDto().apply {
             this.index = index
@@ -179,6 +369,10 @@ open class RestFitness : AbstractRestFitness<RestIndividual>() {
     }
 
     override fun doInitializingActions(ind: RestIndividual) {
+        doInitializingActions(ind, rc)
+    }
+
+    private fun doInitializingActions(ind: RestIndividual, rc: RemoteController) {
 
         if (ind.dbInitialization.none { !it.representExistingData }) {
             /*
@@ -192,6 +386,18 @@ open class RestFitness : AbstractRestFitness<RestIndividual>() {
 
         val dto = DbActionTransformer.transform(ind.dbInitialization)
 
+        if (rc.useDatabaseSnapshots) {
+            /*
+                mutations often do not touch the initializing actions, so the very same
+                state of the database could had already been created by a previous test
+             */
+            val key = DbActionTransformer.computeSnapshotKey(dto)
+            if (rc.restoreDatabaseSnapshot(key)) {
+                return
+            }
+            dto.snapshotKey = key
+        }
+
         val ok = rc.executeDatabaseCommand(dto)
         if (!ok) {
             //this can happen if we do not handle all constraints
@@ -11,7 +11,9 @@ import org.evomaster.core.remote.service.RemoteController
 import org.evomaster.core.search.ActionResult
 import org.evomaster.core.search.EvaluatedIndividual
 import org.evomaster.core.search.FitnessValue
+import org.evomaster.core.search.service.EvaluationPhase
 import org.evomaster.core.search.service.IdMapper
+import org.evomaster.core.search.service.measure
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
@@ -38,7 +40,9 @@ class RestResourceFitness : AbstractRestFitness<RestIndividual>() {
      */
     override fun doCalculateCoverage(individual: RestIndividual): EvaluatedIndividual<RestIndividual>? {
 
-        rc.resetSUT()
+        updateArchiveBaselines()
+
+        statistics.timeOf(EvaluationPhase.RESET_SUT).measure { rc.resetSUT() }
 
         //individual.enforceCoherence()
 
@@ -56,7 +60,7 @@ class RestResourceFitness : AbstractRestFitness<RestIndividual>() {
 
         for (call in individual.getResourceCalls()) {
 
-            doInitializingCalls(call.dbActions, sqlIdMap)
+            statistics.timeOf(EvaluationPhase.INITIALIZING_ACTIONS).measure { doInitializingCalls(call.dbActions, sqlIdMap) }
 
             var terminated = false
 
@@ -97,11 +101,16 @@ class RestResourceFitness : AbstractRestFitness<RestIndividual>() {
             2) might not be possible to have a too long URL
          */
         //TODO prioritized list
-        val ids = randomness.choose(
-                archive.notCoveredTargets().filter { !IdMapper.isLocal(it) },
-                100).toSet()
+        val ids = if (rc.useOnlyImprovedTargets) {
+            //no need to ask, as the Driver returns all the targets that improved
+            setOf()
+        } else {
+            randomness.choose(
+                    archive.notCoveredTargets().filter { !IdMapper.isLocal(it) },
+                    100).toSet()
+        }
 
-        val dto = rc.getTestResults(ids)
+        val dto = statistics.timeOf(EvaluationPhase.TEST_RESULTS).measure { rc.getTestResults(ids) }
         if (dto == null) {
             log.warn("Cannot retrieve coverage")
             return null
@@ -122,7 +131,7 @@ class RestResourceFitness : AbstractRestFitness<RestIndividual>() {
             fv.updateTarget(t.id, t.value, t.actionIndex)
         }
 
-        handleExtra(dto, fv)
+        statistics.timeOf(EvaluationPhase.EXTRA_HEURISTICS).measure { handleExtra(dto, fv) }
 
         handleResponseTargets(fv, individual.seeActions().toMutableList(), actionResults, dto.additionalInfoList)
 
@@ -131,8 +140,8 @@ class RestResourceFitness : AbstractRestFitness<RestIndividual>() {
         }
 
         return if(config.enableTrackEvaluatedIndividual)
-            EvaluatedIndividual(fv, individual.copy() as RestIndividual, actionResults, null, mutableListOf(), mutableListOf(), withImpacts = (config.probOfArchiveMutation > 0.0))
-        else EvaluatedIndividual(fv, individual.copy() as RestIndividual, actionResults, withImpacts = (config.probOfArchiveMutation > 0.0))
+            EvaluatedIndividual(fv, individual, actionResults, null, mutableListOf(), mutableListOf(), withImpacts = (config.probOfArchiveMutation > 0.0))
+        else EvaluatedIndividual(fv, individual, actionResults, withImpacts = (config.probOfArchiveMutation > 0.0))
 
         /*
             TODO when dealing with seeding, might want to extend EvaluatedIndividual
@@ -53,7 +53,7 @@ class RestResourceSampler : ResourceSampler(){
         setupAuthentication(infoDto)
 
         val sqlBuilder = if (infoDto.sqlSchemaDto != null && (config.shouldGenerateSqlData() || config.extractSqlExecutionInfo || (config.probOfApplySQLActionToCreateResources > 0.0))) {
-            SqlInsertBuilder(infoDto.sqlSchemaDto, rc)
+            SqlInsertBuilder(infoDto.sqlSchemaDto, rc, config.maxExistingDataRowsPerTable)
         }else null
 
         assert(config.resourceSampleStrategy != EMConfig.ResourceSamplingStrategy.NONE)
@@ -98,7 +98,7 @@ class RestSampler : Sampler<RestIndividual>(){
 
         if (infoDto.sqlSchemaDto != null && configuration.shouldGenerateSqlData()) {
 
-            sqlInsertBuilder = SqlInsertBuilder(infoDto.sqlSchemaDto, rc)
+            sqlInsertBuilder = SqlInsertBuilder(infoDto.sqlSchemaDto, rc, configuration.maxExistingDataRowsPerTable)
             existingSqlData = sqlInsertBuilder!!.extractExistingPKs()
         }
 
@@ -26,7 +26,7 @@ class RestStructureMutator : StructureMutator() {
             return
         }
 
-        val ind = individual.individual as? RestIndividual
+        val current = individual.individual as? RestIndividual
                 ?: throw IllegalArgumentException("Invalid individual type")
 
         val fw = individual.fitness.getViewOfAggregatedFailedWhere()
@@ -35,9 +35,18 @@ class RestStructureMutator : StructureMutator() {
             return
         }
 
-        if(ind.dbInitialization.isEmpty()
-                || ! ind.dbInitialization.any { it.representExistingData }) {
-            //add existing data only once
+        //add existing data only once
+        val addExistingData = sampler.existingSqlData.isNotEmpty()
+                && current.dbInitialization.none { it.representExistingData }
+
+        if (!addExistingData && findMissing(fw, current).isEmpty()) {
+            //nothing to add, so no need to copy the individual, if shared
+            return
+        }
+
+        val ind = individual.modifiableIndividual() as RestIndividual
+
+        if (addExistingData) {
             ind.dbInitialization.addAll(0, sampler.existingSqlData)
         }
 
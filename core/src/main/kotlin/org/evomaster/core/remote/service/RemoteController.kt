@@ -3,6 +3,8 @@ package org.evomaster.core.remote.service
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException
 import com.google.inject.Inject
 import org.evomaster.client.java.controller.api.ControllerConstants
+import org.evomaster.client.java.controller.api.Formats
+import org.evomaster.client.java.controller.api.TestResultsBinaryFormat
 import org.evomaster.client.java.controller.api.dto.*
 import org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto
 import org.evomaster.client.java.controller.api.dto.database.operations.QueryResultDto
@@ -43,19 +45,63 @@ class RemoteController() : DatabaseExecutor {
 
     private var extractSqlExecutionInfo = true
 
+    /**
+     * Whether we want to retrieve test results in binary format, if supported by the controller
+     */
+    private var binaryTestResults = false
+
+    /**
+     * Whether test results are going to be retrieved in binary format.
+     * This is negotiated when retrieving the controller info
+     */
+    private var useBinaryTestResults = false
+
+    /**
+     * Whether we want to retrieve only the targets that improved, if supported by the controller
+     */
+    private var onlyImprovedTargets = false
+
+    /**
+     * Whether the controller returns only the targets that improved in a test execution.
+     * This is negotiated when retrieving the controller info
+     */
+    var useOnlyImprovedTargets = false
+        private set
+
+    /**
+     * Whether we want to use snapshots of the database, if supported by the controller
+     */
+    private var databaseSnapshots = false
+
+    /**
+     * Whether the controller can save and restore snapshots of the database.
+     * This is negotiated when retrieving the controller info
+     */
+    var useDatabaseSnapshots = false
+        private set
+
 
     @Inject
     private lateinit var config: EMConfig
 
     private val client: Client = ClientBuilder.newClient()
 
-    constructor(host: String, port: Int, computeSqlHeuristics: Boolean, extractSqlExecutionInfo: Boolean) : this() {
+    constructor(host: String,
+                port: Int,
+                computeSqlHeuristics: Boolean,
+                extractSqlExecutionInfo: Boolean,
+                binaryTestResults: Boolean = false,
+                onlyImprovedTargets: Boolean = false,
+                databaseSnapshots: Boolean = false) : this() {
         if (computeSqlHeuristics && !extractSqlExecutionInfo)
             throw IllegalArgumentException("'extractSqlExecutionInfo' should be enabled when 'computeSqlHeuristics' is enabled")
         this.host = host
         this.port = port
         this.computeSqlHeuristics = computeSqlHeuristics
         this.extractSqlExecutionInfo = computeSqlHeuristics || extractSqlExecutionInfo
+        this.binaryTestResults = binaryTestResults
+        this.onlyImprovedTargets = onlyImprovedTargets
+        this.databaseSnapshots = databaseSnapshots
     }
 
     constructor(host: String, port: Int, computeSqlHeuristics: Boolean) : this(host, port, computeSqlHeuristics, computeSqlHeuristics)
@@ -66,6 +112,9 @@ class RemoteController() : DatabaseExecutor {
         port = config.sutControllerPort
         computeSqlHeuristics = config.heuristicsForSQL
         extractSqlExecutionInfo = config.extractSqlExecutionInfo
+        binaryTestResults = config.binaryTestResults
+        onlyImprovedTargets = config.onlyImprovedTargets
+        databaseSnapshots = config.databaseSnapshots
     }
 
     @PreDestroy
@@ -163,7 +212,14 @@ class RemoteController() : DatabaseExecutor {
             return null
         }
 
-        return getData(dto)
+        val info = getData(dto)
+
+        //older controllers do not have such field, and so only JSON can be used
+        useBinaryTestResults = binaryTestResults && info?.supportBinaryTestResults == true
+        useOnlyImprovedTargets = onlyImprovedTargets && info?.supportImprovedTargetsOnly == true
+        useDatabaseSnapshots = databaseSnapshots && info?.supportDatabaseSnapshots == true
+
+        return info
     }
 
     private fun changeState(run: Boolean, reset: Boolean): Boolean {
@@ -218,13 +274,40 @@ class RemoteController() : DatabaseExecutor {
         return checkResponse(response, "Failed to inform SUT of new search")
     }
 
-    fun getTestResults(ids: Set<Int> = setOf()): TestResultsDto? {
+    /**
+     * Tell the SUT the lowest heuristic values with which tests could still be added
+     * to the archive, needed when [useOnlyImprovedTargets]
+     *
+     * @param reset whether the values sent in previous calls should be discarded
+     * @param values Key -> id of the target in the Driver, Value -> lowest value accepted
+     *          by the archive, or null if any would be
+     */
+    fun updateArchiveBaseline(reset: Boolean, values: Map<Int, Double?>): Boolean {
 
-        val queryParam = ids.joinToString(",")
+        val request = ArchiveBaselineDto()
+        request.reset = reset
+        request.values.putAll(values)
 
         val response = getWebTarget()
-                .path(ControllerConstants.TEST_RESULTS)
-                .queryParam("ids", queryParam)
+                .path(ControllerConstants.ARCHIVE_BASELINE)
+                .request()
+                .put(Entity.entity(request, MediaType.APPLICATION_JSON_TYPE))
+
+        return checkResponse(response, "Failed to update the archive baseline in the SUT")
+    }
+
+    /**
+     * @param ids of the targets to retrieve, besides the ones encountered for the first time.
+     *            Ignored if [useOnlyImprovedTargets], as then all targets that could improve
+     *            the archive are going to be returned, see [updateArchiveBaseline]
+     */
+    fun getTestResults(ids: Set<Int> = setOf()): TestResultsDto? {
+
+        if(useBinaryTestResults){
+            return getTestResultsInBinaryFormat(ids)
+        }
+
+        val response = testResultsTarget(ids)
                 .request(MediaType.APPLICATION_JSON_TYPE)
                 .get()
 
@@ -237,6 +320,38 @@ class RemoteController() : DatabaseExecutor {
         return getData(dto)
     }
 
+    private fun testResultsTarget(ids: Set<Int>): WebTarget {
+
+        val target = getWebTarget().path(ControllerConstants.TEST_RESULTS)
+
+        if(useOnlyImprovedTargets){
+            return target.queryParam("improvedOnly", true)
+        }
+
+        return target.queryParam("ids", ids.joinToString(","))
+    }
+
+    private fun getTestResultsInBinaryFormat(ids: Set<Int>): TestResultsDto? {
+
+        val response = testResultsTarget(ids)
+                .request(Formats.BINARY_TEST_RESULTS)
+                .get()
+
+        if (response.status != 200) {
+            //errors are still sent as JSON
+            val dto = getDto(response, object : GenericType<WrappedResponseDto<Any>>() {})
+            checkResponse(response, dto, "Failed to retrieve target coverage")
+            return null
+        }
+
+        return try {
+            TestResultsBinaryFormat.decode(response.readEntity(ByteArray::class.java))
+        } catch (e: Exception) {
+            log.warn("Failed to decode binary test results: ${e.message}")
+            null
+        }
+    }
+
     fun registerNewAction(actionDto: ActionDto) : Boolean{
 
         val response = getWebTarget()
@@ -288,6 +403,35 @@ class RemoteController() : DatabaseExecutor {
         return true
     }
 
+    /**
+     * Restore the state of the database saved, with the given [key], after executing
+     * a [DatabaseCommandDto] with insertions.
+     *
+     * @return false if the snapshot could not be restored, eg because the controller has no such snapshot
+     */
+    fun restoreDatabaseSnapshot(key: String): Boolean {
+
+        val response = getWebTarget()
+                .path(ControllerConstants.DATABASE_COMMAND)
+                .request()
+                .post(Entity.entity(DatabaseCommandDto().apply { snapshotKey = key }, MediaType.APPLICATION_JSON_TYPE))
+
+        try {
+            if (wasSuccess(response)) {
+                return true
+            }
+
+            if (response.status != 404) {
+                LoggingUtil.uniqueWarn(log, "Failed to restore database snapshot. HTTP status: {}.", response.status)
+            }
+
+            return false
+        } finally {
+            //nothing to read from the body, but the connection has to be given back to the pool
+            response.close()
+        }
+    }
+
     override fun executeDatabaseCommandAndGetQueryResults(dto: DatabaseCommandDto): QueryResultDto? {
         return executeDatabaseCommandAndGetResults(dto, object : GenericType<WrappedResponseDto<QueryResultDto>>() {})
     }
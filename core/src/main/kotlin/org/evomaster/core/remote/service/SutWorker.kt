@@ -0,0 +1,156 @@
+package org.evomaster.core.remote.service
+
+import org.evomaster.client.java.controller.api.dto.TargetInfoDto
+import org.evomaster.core.search.service.Archive
+import org.evomaster.core.search.service.IdMapper
+
+/**
+ * One of the EvoMaster Drivers on which test cases are evaluated.
+ *
+ * When several Drivers are used at the same time, each one assigns its
+ * own numeric ids to the targets. In such case, those ids need to be
+ * translated into the ones used in EvoMaster Core, based on their
+ * descriptive ids.
+ *
+ * Note: a worker is used by only one thread at a time
+ */
+class SutWorker(
+        val rc: RemoteController,
+        /**
+         * Can change if the SUT is restarted
+         */
+        var baseUrlOfSUT: String,
+        /**
+         * Whether the target ids of this Driver need to be translated
+         */
+        private val translateIds: Boolean
+) {
+
+    /**
+     * Key -> id of the target in the Driver
+     *
+     * Value -> descriptive id of the target
+     */
+    private val remoteToDescriptive = mutableMapOf<Int, String>()
+
+    private val descriptiveToRemote = mutableMapOf<String, Int>()
+
+    /**
+     * Targets whose population in the archive was modified since the last time their
+     * acceptance threshold was sent to this Driver, see [updateArchiveBaseline]
+     */
+    private var modifiedTargets: MutableSet<Int>? = null
+
+    /**
+     * Whether the acceptance thresholds of all the targets need to be sent again
+     */
+    private var fullBaseline = true
+
+
+    /**
+     * Descriptive ids are sent by a Driver only the first time a target is
+     * encountered. So they need to be recorded as soon as the results of a
+     * test are retrieved, regardless of the order in which such results are
+     * then going to be handled
+     */
+    fun recordDescriptiveIds(targets: List<TargetInfoDto>) {
+        if (!translateIds) {
+            return
+        }
+        targets.filter { it.descriptiveId != null }
+                .forEach {
+                    remoteToDescriptive[it.id] = it.descriptiveId
+                    descriptiveToRemote[it.descriptiveId] = it.id
+                }
+    }
+
+    /**
+     * @return the ids used by this Driver for the given targets.
+     *          Targets never seen by this Driver are skipped
+     */
+    fun toRemoteIds(ids: Collection<Int>, idMapper: IdMapper): Set<Int> {
+        if (!translateIds) {
+            return ids.toSet()
+        }
+        return ids.mapNotNull { toRemoteId(it, idMapper) }.toSet()
+    }
+
+    /**
+     * @return the id used by this Driver for the given target, or [null] if never seen by this Driver
+     */
+    fun toRemoteId(id: Int, idMapper: IdMapper): Int? {
+        if (!translateIds) {
+            return id
+        }
+        return descriptiveToRemote[idMapper.getDescriptiveId(id)]
+    }
+
+    /**
+     * When only the targets that could improve the archive are returned by this Driver,
+     * send it the lowest values the [archive] would still accept for the targets whose
+     * population was modified since the last call (or for all targets, the first time).
+     * The Driver cannot compute these values by itself.
+     *
+     * @return false if the values could not be sent. In such case, all of them are
+     *          sent again at the next call
+     */
+    fun updateArchiveBaseline(archive: Archive<*>, idMapper: IdMapper): Boolean {
+
+        if (!rc.useOnlyImprovedTargets) {
+            return true
+        }
+
+        val tracker = modifiedTargets
+                ?: archive.trackModifiedTargets().also { modifiedTargets = it }
+
+        val reset = fullBaseline
+        if (!reset && tracker.isEmpty()) {
+            return true
+        }
+
+        val values = mutableMapOf<Int, Double?>()
+        (if (reset) archive.reachedTargets() else tracker)
+                .filter { !IdMapper.isLocal(it) }
+                .forEach {
+                    val threshold = archive.acceptanceThreshold(it)
+                    val remote = toRemoteId(it, idMapper)
+                    if (remote != null && (threshold != null || !reset)) {
+                        values[remote] = threshold
+                    }
+                }
+
+        val ok = rc.updateArchiveBaseline(reset, values)
+        if (ok) {
+            tracker.clear()
+        }
+        fullBaseline = !ok
+        return ok
+    }
+
+    /**
+     * The Driver might have lost the values of the archive baseline, eg if the SUT was restarted
+     */
+    fun resetArchiveBaseline() {
+        fullBaseline = true
+    }
+
+    fun getDescriptiveId(target: TargetInfoDto): String? {
+        return target.descriptiveId ?: remoteToDescriptive[target.id]
+    }
+
+    /**
+     * @return the id of the target in EvoMaster Core, or [null] if it cannot be determined
+     */
+    fun toLocalId(target: TargetInfoDto, idMapper: IdMapper): Int? {
+
+        if (!translateIds) {
+            if (target.descriptiveId != null) {
+                idMapper.addMapping(target.id, target.descriptiveId)
+            }
+            return target.id
+        }
+
+        val descriptiveId = getDescriptiveId(target) ?: return null
+        return idMapper.handleRemoteTarget(descriptiveId)
+    }
+}
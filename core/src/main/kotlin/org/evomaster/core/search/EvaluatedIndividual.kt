@@ -11,9 +11,14 @@ import kotlin.math.absoluteValue
 /**
  * EvaluatedIndividual allows to tracking its evolution.
  * Note that tracking EvaluatedIndividual can be enabled by set EMConfig.enableTrackEvaluatedIndividual true.
+ *
+ * Copies of an EvaluatedIndividual share the same [individual], which is copied only
+ * when one of them needs to modify it, see [modifiableIndividual].
+ * Note: the individual given as input is owned by this EvaluatedIndividual, and so it must
+ * not be modified afterwards by whoever created it
  */
 class EvaluatedIndividual<T>(val fitness: FitnessValue,
-                             val individual: T,
+                             individual: T,
                              /**
                               * Note: as the test execution could had been
                               * prematurely stopped, there might be less
@@ -26,6 +31,20 @@ class EvaluatedIndividual<T>(val fitness: FitnessValue,
                              withImpacts : Boolean = false)
     : TraceableElement(trackOperator,  tracking, undoTracking) where T : Individual {
 
+    /**
+     * The evaluated individual.
+     * It must not be modified in place, as it might be shared with copies of this
+     * EvaluatedIndividual. Use [modifiableIndividual] instead
+     */
+    var individual: T = individual
+        private set
+
+    /**
+     * Whether [individual] might be referenced by other EvaluatedIndividuals
+     */
+    @Transient
+    private var shared = false
+
     init{
         if(individual.seeActions().size < results.size){
             throw IllegalArgumentException("Less actions than results")
@@ -58,10 +77,28 @@ class EvaluatedIndividual<T>(val fitness: FitnessValue,
     fun copy(): EvaluatedIndividual<T> {
         return EvaluatedIndividual(
                 fitness.copy(),
-                individual.copy() as T,
+                shareIndividual(),
                 results.map(ActionResult::copy),
                 trackOperator
-        )
+        ).also { it.shared = true }
+    }
+
+    /**
+     * Get [individual] to modify it in place, copying it first if it is shared
+     * with other EvaluatedIndividuals. After the modification, [fitness] and [results]
+     * might no longer be valid for it.
+     */
+    fun modifiableIndividual(): T {
+        if (shared) {
+            individual = individual.copy(true) as T
+            shared = false
+        }
+        return individual
+    }
+
+    private fun shareIndividual(): T {
+        shared = true
+        return individual
     }
 
     /**
@@ -105,12 +142,13 @@ class EvaluatedIndividual<T>(val fitness: FitnessValue,
     fun forceCopyWithTrack(): EvaluatedIndividual<T> {
         val copy = EvaluatedIndividual(
                 fitness.copy(),
-                individual.copy() as T,
+                shareIndividual(),
                 results.map(ActionResult::copy),
                 trackOperator?:individual.trackOperator,
                 getTracking()?.map { it.copy() }?.toMutableList()?: mutableListOf(),
                 getUndoTracking()?.map { it.copy()}?.toMutableList()?: mutableListOf()
         )
+        copy.shared = true
 
         copyWithImpacts(copy)
         return copy
@@ -150,12 +188,13 @@ class EvaluatedIndividual<T>(val fitness: FitnessValue,
         if (next !is EvaluatedIndividual<*>) throw  IllegalArgumentException("the type of next is mismatched")
         val copy =  EvaluatedIndividual(
                 next.fitness.copy(),
-                next.individual.copy(false) as T,
+                (next as EvaluatedIndividual<T>).shareIndividual(),
                 next.results.map(ActionResult::copy),
                 trackOperator,
                 getTracking()?.plus(this)?.map { it.copy()}?.toMutableList()?: mutableListOf(this.copy()),
                 getUndoTracking()?.map { it.copy()}?.toMutableList()?: mutableListOf()
         )
+        copy.shared = true
 
         copyWithImpacts(copy)
 
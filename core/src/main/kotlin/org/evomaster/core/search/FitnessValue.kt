@@ -33,12 +33,12 @@ class FitnessValue(
     /**
      *  Key -> target Id
      *
-     *  Value -> heuristic distance in [0,1], where 1 is for "covered"
+     *  Value -> heuristic distance in [0,1], where 1 is for "covered", and action index
      */
-    private val targets: MutableMap<Int, Heuristics> = mutableMapOf()
+    private var targets = TargetHeuristics()
 
     /**
-     *  Key -> action Id
+     *  Index -> action Id
      *
      * Value -> List of extra heuristics to minimize (min 0).
      * Those are related to the whole test, and not specific target.
@@ -46,9 +46,9 @@ class FitnessValue(
      * covering target.
      * An example is rewarding SQL Select commands that return non-empty
      *
-     * Note: these values are SORTED.
+     * Note: these values are SORTED, and never modified once set.
      */
-    private val extraToMinimize: MutableMap<Int, List<Double>> = mutableMapOf()
+    private var extraToMinimize: Array<DoubleArray?> = arrayOf()
 
 
     /**
@@ -64,13 +64,22 @@ class FitnessValue(
      */
     private val aggregatedFailedWhere: MutableMap<String, Set<String>> = mutableMapOf()
 
+    /**
+     * Whether [aggregatedFailedWhere] is up to date with [databaseExecutions]
+     */
+    private var aggregated = true
+
 
     fun copy(): FitnessValue {
         val copy = FitnessValue(size)
-        copy.targets.putAll(this.targets)
-        copy.extraToMinimize.putAll(this.extraToMinimize)
+        copy.targets = this.targets.copy()
+        copy.extraToMinimize = this.extraToMinimize.copyOf()
         copy.databaseExecutions.putAll(this.databaseExecutions) //note: DatabaseExecution supposed to be immutable
-        copy.aggregateDatabaseData()
+        if (aggregated) {
+            copy.aggregatedFailedWhere.putAll(this.aggregatedFailedWhere)
+        } else {
+            copy.aggregateDatabaseData()
+        }
         return copy
     }
 
@@ -86,39 +95,59 @@ class FitnessValue(
                 databaseExecutions.values,
                 {x ->  x.failedWhere}
         ))
+        aggregated = true
     }
 
     fun setExtraToMinimize(actionIndex: Int, list: List<Double>) {
-        extraToMinimize[actionIndex] = list.sorted()
+        if (actionIndex >= extraToMinimize.size) {
+            extraToMinimize = extraToMinimize.copyOf(actionIndex + 1)
+        }
+        extraToMinimize[actionIndex] = list.toDoubleArray().apply { sort() }
     }
 
+    private fun getExtraToMinimize(actionIndex: Int): DoubleArray? =
+            if (actionIndex < 0 || actionIndex >= extraToMinimize.size) null else extraToMinimize[actionIndex]
+
     fun setDatabaseExecution(actionIndex: Int, databaseExecution: DatabaseExecution){
         databaseExecutions[actionIndex] = databaseExecution
+        aggregated = false
     }
 
     fun isAnyDatabaseExecutionInfo() = databaseExecutions.isNotEmpty()
 
+    /**
+     * Note: this creates a new map each time. Prefer [getViewOfTargets] when only
+     * iterating over the targets
+     */
     fun getViewOfData(): Map<Int, Heuristics> {
-        return targets
+        val map = LinkedHashMap<Int, Heuristics>(targets.size * 2)
+        targets.forEach { id, distance, actionIndex -> map[id] = Heuristics(distance, actionIndex) }
+        return map
     }
 
+    /**
+     * Read-only view of the heuristics of all the targets.
+     * This is not a copy, so it reflects later updates
+     */
+    fun getViewOfTargets(): TargetHeuristicsView = targets
+
     fun getViewOfAggregatedFailedWhere() = aggregatedFailedWhere
 
     fun doesCover(target: Int): Boolean {
-        return targets[target]?.distance == MAX_VALUE
+        return targets.getDistance(target) == MAX_VALUE
     }
 
-    fun getHeuristic(target: Int): Double = targets[target]?.distance ?: 0.0
+    fun getHeuristic(target: Int): Double = targets.getDistance(target)
 
 
     fun computeFitnessScore(): Double {
 
-        return targets.values.map { h -> h.distance }.sum()
+        return targets.sumOfDistances()
     }
 
     fun coveredTargets(): Int {
 
-        return targets.values.filter { t -> t.distance == MAX_VALUE }.count()
+        return targets.coveredTargets()
     }
 
     fun coverTarget(id: Int) {
@@ -126,9 +155,13 @@ class FitnessValue(
     }
 
     fun potentialFoundFaults(idMapper: IdMapper) : List<String>{
-        return targets.keys
-                .filter { idMapper.isFault(it)}
-                .map { idMapper.getDescriptiveId(it) }
+        val faults = mutableListOf<String>()
+        targets.forEach { id, _, _ ->
+            if (idMapper.isFault(id)) {
+                faults.add(idMapper.getDescriptiveId(id))
+            }
+        }
+        return faults
     }
 
     /**
@@ -141,10 +174,8 @@ class FitnessValue(
             throw IllegalArgumentException("Invalid value: $value")
         }
 
-        val current = targets[id]
-
-        if(current == null || value > current.distance) {
-            targets[id] = Heuristics(value, actionIndex)
+        if(!targets.contains(id) || value > targets.getDistance(id)) {
+            targets.put(id, value, actionIndex)
         }
     }
 
@@ -153,8 +184,7 @@ class FitnessValue(
      */
     fun merge(other: FitnessValue) {
 
-        other.targets.keys.forEach { t ->
-            val k = other.getHeuristic(t)
+        other.targets.forEach { t, k, _ ->
             if (k > this.getHeuristic(t)) {
                 this.updateTarget(t, k)
             }
@@ -183,8 +213,8 @@ class FitnessValue(
 
         for (k in targetSubset) {
 
-            val v = this.targets[k]?.distance ?: 0.0
-            val z = other.targets[k]?.distance ?: 0.0
+            val v = this.targets.getDistance(k)
+            val z = other.targets.getDistance(k)
             if (v < z) {
                 return false
             }
@@ -212,7 +242,7 @@ class FitnessValue(
     }
 
     fun averageExtraDistancesToMinimize(actionIndex: Int): Double{
-        return averageDistance(extraToMinimize[actionIndex])
+        return averageDistance(getExtraToMinimize(actionIndex))
     }
 
     /**
@@ -234,25 +264,28 @@ class FitnessValue(
     }
 
 
-    private fun isEmptyList(list: List<Double>?) : Boolean{
+    private fun isEmptyList(list: DoubleArray?) : Boolean{
         return list == null || list.isEmpty()
     }
 
-    private fun averageDistance(distances: List<Double>?): Double {
+    private fun averageDistance(distances: DoubleArray?): Double {
         if (isEmptyList(distances)) {
             //return 0.0
             throw IllegalArgumentException("Cannot compute average on empty list")
         }
 
-        val sum = distances!!.map { v -> v / distances.size }.sum()
+        var sum = 0.0
+        for (v in distances!!) {
+            sum += v / distances.size
+        }
 
         return sum
     }
 
     private fun compareAverageSameNActions(target: Int, other: FitnessValue): Int {
 
-        val thisAction = targets[target]?.actionIndex
-        val otherAction = other.targets[target]?.actionIndex
+        val thisAction = targets.getActionIndex(target)
+        val otherAction = other.targets.getActionIndex(target)
 
         val thisN = databaseExecutions[thisAction]?.numberOfSqlCommands ?: 0
         val otherN = other.databaseExecutions[otherAction]?.numberOfSqlCommands ?: 0
@@ -266,11 +299,11 @@ class FitnessValue(
 
     private fun compareAverage(target: Int, other: FitnessValue): Int {
 
-        val thisAction = targets[target]?.actionIndex
-        val otherAction = other.targets[target]?.actionIndex
+        val thisAction = targets.getActionIndex(target)
+        val otherAction = other.targets.getActionIndex(target)
 
-        val thisDistances = this.extraToMinimize[thisAction]
-        val otherDistances = other.extraToMinimize[otherAction]
+        val thisDistances = this.getExtraToMinimize(thisAction)
+        val otherDistances = other.getExtraToMinimize(otherAction)
 
         if(isEmptyList(thisDistances) && isEmptyList(otherDistances)){
             return 0
@@ -296,17 +329,19 @@ class FitnessValue(
 
     private fun compareByBestMin(target: Int, other: FitnessValue): Int {
 
-        val thisAction = targets[target]?.actionIndex
-        val otherAction = other.targets[target]?.actionIndex
+        val thisAction = targets.getActionIndex(target)
+        val otherAction = other.targets.getActionIndex(target)
 
-        val thisLength = this.extraToMinimize[thisAction]?.size ?: 0
-        val otherLength = other.extraToMinimize[otherAction]?.size ?: 0
+        val thisExtra = this.getExtraToMinimize(thisAction)
+        val otherExtra = other.getExtraToMinimize(otherAction)
+        val thisLength = thisExtra?.size ?: 0
+        val otherLength = otherExtra?.size ?: 0
         val minLen = min(thisLength, otherLength)
 
         if (minLen > 0) {
             for (i in 0 until minLen) {
-                val te = this.extraToMinimize[thisAction]!![i]
-                val oe = other.extraToMinimize[otherAction]!![i]
+                val te = thisExtra!![i]
+                val oe = otherExtra!![i]
 
                 /*
                     We prioritize the improvement of lowest
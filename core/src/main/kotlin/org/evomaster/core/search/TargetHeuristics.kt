@@ -0,0 +1,177 @@
+package org.evomaster.core.search
+
+/**
+ * Map from target ids to their heuristic distance and action index, as used in [FitnessValue],
+ * storing all values in primitive arrays to avoid boxing.
+ *
+ * Entries are stored densely in insertion order (as entries are never removed), with an
+ * open-addressing hash table pointing to them. Iterating over the entries follows their
+ * insertion order, as it was the case with a [LinkedHashMap].
+ *
+ * The number of covered targets is kept up to date on each update, and so is the sum of
+ * all the distances when new entries are added. Replacing the distance of an existing entry
+ * requires to sum them again, but that is done lazily only when the sum is needed.
+ * In both cases, the sum is the same as if computed from scratch over the entries in order.
+ *
+ * Copies share the same arrays, which are cloned only when one of the copies is modified.
+ *
+ * Outside of [FitnessValue], this should only be accessed as a [TargetHeuristicsView].
+ */
+class TargetHeuristics private constructor(
+        private var ids: IntArray,
+        private var distances: DoubleArray,
+        private var actionIndices: IntArray,
+        /**
+         * For each slot, either 0 if empty, or the position of the entry plus 1
+         */
+        private var table: IntArray,
+        size: Int,
+        private var sum: Double,
+        private var sumIsValid: Boolean,
+        private var covered: Int
+) : TargetHeuristicsView {
+
+    companion object {
+        private const val INITIAL_CAPACITY = 8
+    }
+
+    constructor() : this(IntArray(INITIAL_CAPACITY), DoubleArray(INITIAL_CAPACITY), IntArray(INITIAL_CAPACITY),
+            IntArray(INITIAL_CAPACITY * 2), 0, 0.0, true, 0)
+
+    override var size: Int = size
+        private set
+
+    /**
+     * Whether the arrays might be referenced by other instances
+     */
+    @Transient
+    private var shared = false
+
+    fun copy(): TargetHeuristics {
+        shared = true
+        return TargetHeuristics(ids, distances, actionIndices, table, size, sum, sumIsValid, covered)
+                .also { it.shared = true }
+    }
+
+    override fun isEmpty() = size == 0
+
+    override fun contains(id: Int) = find(id) >= 0
+
+    override fun getDistance(id: Int): Double {
+        val k = find(id)
+        return if (k < 0) 0.0 else distances[k]
+    }
+
+    override fun getActionIndex(id: Int): Int {
+        val k = find(id)
+        return if (k < 0) -1 else actionIndices[k]
+    }
+
+    override fun sumOfDistances(): Double {
+        if (!sumIsValid) {
+            var s = 0.0
+            for (k in 0 until size) {
+                s += distances[k]
+            }
+            sum = s
+            sumIsValid = true
+        }
+        return sum
+    }
+
+    override fun coveredTargets() = covered
+
+    /**
+     * Set the [distance] and [actionIndex] of the target [id], replacing any existing values
+     */
+    fun put(id: Int, distance: Double, actionIndex: Int) {
+
+        if (shared) {
+            ids = ids.copyOf()
+            distances = distances.copyOf()
+            actionIndices = actionIndices.copyOf()
+            table = table.copyOf()
+            shared = false
+        }
+
+        val k = find(id)
+
+        if (k >= 0) {
+            if (FitnessValue.isMaxValue(distances[k])) {
+                covered--
+            }
+            if (distances[k] != distance) {
+                sumIsValid = false
+            }
+            distances[k] = distance
+            actionIndices[k] = actionIndex
+        } else {
+            if (size == ids.size) {
+                grow()
+            }
+            ids[size] = id
+            distances[size] = distance
+            actionIndices[size] = actionIndex
+            insertInTable(size)
+            size++
+            if (sumIsValid) {
+                sum += distance
+            }
+        }
+
+        if (FitnessValue.isMaxValue(distance)) {
+            covered++
+        }
+    }
+
+    override fun idAt(position: Int) = ids[position]
+
+    override fun distanceAt(position: Int) = distances[position]
+
+    override fun actionIndexAt(position: Int) = actionIndices[position]
+
+    private fun slotOf(id: Int, mask: Int): Int {
+        //spread the bits, as ids are often consecutive numbers
+        val h = id * -0x61c88647
+        return (h xor (h ushr 16)) and mask
+    }
+
+    /**
+     * @return the position of the entry for [id], or -1 if none
+     */
+    private fun find(id: Int): Int {
+        val mask = table.size - 1
+        var slot = slotOf(id, mask)
+        while (true) {
+            val e = table[slot]
+            if (e == 0) {
+                return -1
+            }
+            if (ids[e - 1] == id) {
+                return e - 1
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    private fun insertInTable(position: Int) {
+        val mask = table.size - 1
+        var slot = slotOf(ids[position], mask)
+        while (table[slot] != 0) {
+            slot = (slot + 1) and mask
+        }
+        table[slot] = position + 1
+    }
+
+    private fun grow() {
+        val capacity = ids.size * 2
+        ids = ids.copyOf(capacity)
+        distances = distances.copyOf(capacity)
+        actionIndices = actionIndices.copyOf(capacity)
+        //load factor is at most 0.5
+        table = IntArray(capacity * 2)
+        for (k in 0 until size) {
+            insertInTable(k)
+        }
+    }
+}
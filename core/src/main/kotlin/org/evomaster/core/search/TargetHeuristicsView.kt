@@ -0,0 +1,51 @@
+package org.evomaster.core.search
+
+/**
+ * Read-only access to the heuristics of the targets in a [FitnessValue].
+ * Updates must go through [FitnessValue.updateTarget], which checks the new values.
+ *
+ * Entries can be iterated by position, from 0 to [size] (excluded), in insertion order.
+ */
+interface TargetHeuristicsView {
+
+    val size: Int
+
+    fun isEmpty(): Boolean
+
+    fun contains(id: Int): Boolean
+
+    /**
+     * @return the distance for the target [id], or 0 if not present
+     */
+    fun getDistance(id: Int): Double
+
+    /**
+     * @return the action index for the target [id], or -1 if not present (or if not available)
+     */
+    fun getActionIndex(id: Int): Int
+
+    /**
+     * The sum of the distances of all the targets
+     */
+    fun sumOfDistances(): Double
+
+    /**
+     * The number of targets with distance [FitnessValue.MAX_VALUE]
+     */
+    fun coveredTargets(): Int
+
+    fun idAt(position: Int): Int
+
+    fun distanceAt(position: Int): Double
+
+    fun actionIndexAt(position: Int): Int
+}
+
+/**
+ * Apply [consumer] to the id, distance and action index of each target, in insertion order
+ */
+inline fun TargetHeuristicsView.forEach(consumer: (id: Int, distance: Double, actionIndex: Int) -> Unit) {
+    for (k in 0 until size) {
+        consumer(idAt(k), distanceAt(k), actionIndexAt(k))
+    }
+}
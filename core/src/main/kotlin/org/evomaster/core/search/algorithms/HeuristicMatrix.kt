@@ -0,0 +1,200 @@
+package org.evomaster.core.search.algorithms
+
+import org.evomaster.core.search.EvaluatedIndividual
+import java.util.stream.IntStream
+
+/**
+ * Heuristic values of a population on a set of targets, packed in a dense
+ * row-major matrix (one row per individual, one column per target), so that
+ * dominance comparisons in [MosaAlgorithm] do not need to look up each
+ * value in the [org.evomaster.core.search.FitnessValue] of the individuals.
+ *
+ * Recall: it is a maximization problem, ie, the higher the heuristic value the better.
+ *
+ * Computations over many rows are split among the threads of the common fork-join pool.
+ * Their results do not depend on how the work is split, so the search stays deterministic.
+ */
+class HeuristicMatrix(
+        val rows: Int,
+        val columns: Int,
+        private val values: DoubleArray
+) {
+
+    companion object {
+
+        /**
+         * Below this number of (pairs of rows) x columns, computations are not worth
+         * to be done in parallel
+         */
+        private const val PARALLEL_THRESHOLD = 50_000L
+
+        fun of(population: List<EvaluatedIndividual<*>>, targets: Collection<Int>): HeuristicMatrix {
+
+            val ids = targets.toIntArray()
+            val m = ids.size
+            val values = DoubleArray(population.size * m)
+
+            rangeOf(population.size, population.size.toLong() * m).forEach { i ->
+                val fv = population[i].fitness
+                val offset = i * m
+                for (t in 0 until m) {
+                    values[offset + t] = fv.getHeuristic(ids[t])
+                }
+            }
+
+            return HeuristicMatrix(population.size, m, values)
+        }
+
+        private fun rangeOf(n: Int, work: Long): IntStream {
+            val range = IntStream.range(0, n)
+            return if (work >= PARALLEL_THRESHOLD) range.parallel() else range
+        }
+    }
+
+    init {
+        if (values.size != rows * columns) {
+            throw IllegalArgumentException("Expected ${rows * columns} values, but got ${values.size}")
+        }
+    }
+
+    fun get(row: Int, column: Int) = values[row * columns + column]
+
+    /**
+     * For each column, the row with highest value. Ties are broken by the smallest [sizes],
+     * and then by the lowest row index.
+     */
+    fun bestRowPerColumn(sizes: IntArray): IntArray {
+
+        val best = IntArray(columns)
+
+        rangeOf(columns, rows.toLong() * columns).forEach { t ->
+            var chosen = 0
+            for (i in 1 until rows) {
+                val h = get(i, t)
+                val c = get(chosen, t)
+                if (h > c || (h == c && sizes[i] < sizes[chosen])) {
+                    chosen = i
+                }
+            }
+            best[t] = chosen
+        }
+
+        return best
+    }
+
+    /**
+     * @return whether row [a] is at least as good as [b] on all columns, and better on at least one
+     */
+    fun dominates(a: Int, b: Int): Boolean {
+        val x = a * columns
+        val y = b * columns
+        var better = false
+        for (t in 0 until columns) {
+            val d = values[x + t] - values[y + t]
+            if (d < 0) {
+                return false
+            }
+            if (d > 0) {
+                better = true
+            }
+        }
+        return better
+    }
+
+    /**
+     * Partition the given [candidates] rows into non-dominated fronts, using the
+     * Efficient Non-dominated Sort with sequential search (ENS-SS) from
+     * "An Efficient Approach to Nondominated Sorting for Evolutionary Multiobjective Optimization".
+     *
+     * Rows are sorted lexicographically, so that a row can only be dominated by the rows
+     * before it. Then, each row is put in the first front having no row dominating it.
+     *
+     * @param maxSelected once the fronts contain at least this many rows, no further front is computed
+     * @return the fronts, in order, each one with rows in the same relative order as in [candidates]
+     */
+    fun nonDominatedFronts(candidates: IntArray, maxSelected: Int = Int.MAX_VALUE): List<IntArray> {
+
+        val sorted = candidates.sortedWith(Comparator { a, b -> compareLexicographically(b, a) })
+
+        val fronts = mutableListOf<MutableList<Int>>()
+
+        for (s in sorted) {
+            val k = fronts.indexOfFirst { !isDominatedBy(s, it) }
+            if (k >= 0) {
+                fronts[k].add(s)
+            } else {
+                fronts.add(mutableListOf(s))
+            }
+        }
+
+        val position = HashMap<Int, Int>(candidates.size * 2)
+        candidates.forEachIndexed { i, c -> position[c] = i }
+
+        val result = mutableListOf<IntArray>()
+        var selected = 0
+        for (f in fronts) {
+            if (selected >= maxSelected) {
+                break
+            }
+            result.add(f.sortedBy { position[it] }.toIntArray())
+            selected += f.size
+        }
+        return result
+    }
+
+    /**
+     * Sub-vector dominance of each of the given [rows] against the others, ie, the max number
+     * of columns in which it is better than another row, as discussed in
+     * "Substitute Distance Assignments in NSGA-II for Handling Many-Objective Optimization Problems"
+     *
+     * @return the distance of each row, in the same order as [rows]
+     */
+    fun subvectorDominance(rows: IntArray): IntArray {
+
+        val distances = IntArray(rows.size)
+
+        rangeOf(rows.size, rows.size.toLong() * rows.size * columns).forEach { k ->
+            val x = rows[k] * columns
+            var max = 0
+            for (j in rows.indices) {
+                if (j == k) {
+                    continue
+                }
+                val y = rows[j] * columns
+                var cnt = 0
+                for (t in 0 until columns) {
+                    if (values[x + t] > values[y + t]) {
+                        cnt++
+                    }
+                }
+                if (cnt > max) {
+                    max = cnt
+                }
+            }
+            distances[k] = max
+        }
+
+        return distances
+    }
+
+    private fun isDominatedBy(row: Int, front: List<Int>): Boolean {
+        val stream = if (front.size.toLong() * columns >= PARALLEL_THRESHOLD) {
+            front.parallelStream()
+        } else {
+            front.stream()
+        }
+        return stream.anyMatch { dominates(it, row) }
+    }
+
+    private fun compareLexicographically(a: Int, b: Int): Int {
+        val x = a * columns
+        val y = b * columns
+        for (t in 0 until columns) {
+            val c = values[x + t].compareTo(values[y + t])
+            if (c != 0) {
+                return c
+            }
+        }
+        return 0
+    }
+}
@@ -7,12 +7,16 @@ import org.evomaster.core.problem.rest.service.ResourceSampler
 import org.evomaster.core.search.Individual
 import org.evomaster.core.search.Solution
 import org.evomaster.core.search.service.SearchAlgorithm
+import org.evomaster.core.search.service.checkpoint.CheckpointService
 
 /**
  * Many Independent Objective (MIO) Algorithm
  */
 class MioAlgorithm<T> : SearchAlgorithm<T>() where T : Individual {
 
+    @Inject
+    private lateinit var checkpoints: CheckpointService
+
     override fun getType(): EMConfig.Algorithm {
         return EMConfig.Algorithm.MIO
     }
@@ -22,8 +26,18 @@ class MioAlgorithm<T> : SearchAlgorithm<T>() where T : Individual {
 
         time.startSearch()
 
+        if(config.resume){
+            checkpoints.resume(ff, archive)
+        }
+
         while(time.shouldContinueSearch()){
 
+            val n = ff.parallelism()
+            if(n > 1){
+                searchStepInParallel(n)
+                continue
+            }
+
             val randomP = apc.getProbRandomSampling()
 
             if(archive.isEmpty()
@@ -55,4 +69,45 @@ class MioAlgorithm<T> : SearchAlgorithm<T>() where T : Individual {
 
         return archive.extractSolution()
     }
-}
\ No newline at end of file
+
+    /**
+     * Create [n] new individuals, either sampled or mutated from the archive,
+     * and evaluate all of them at the same time.
+     * Compared to the sequential version, each individual from the archive is mutated
+     * only once before its evaluation. Results are then handled in the same
+     * order in which the individuals were created
+     */
+    private fun searchStepInParallel(n: Int) {
+
+        val randomP = apc.getProbRandomSampling()
+
+        val sampled = mutableListOf<Boolean>()
+
+        val individuals = (0 until n).map {
+            if(archive.isEmpty()
+                    || sampler.hasSpecialInit()
+                    || randomness.nextBoolean(randomP)) {
+
+                sampled.add(true)
+
+                if(sampler.hasSpecialInit()){
+                    sampler.smartSample()
+                } else {
+                    sampler.sample()
+                }
+            } else {
+                sampled.add(false)
+                getMutatator().mutateWithoutEvaluation(archive.sampleIndividual())
+            }
+        }
+
+        ff.calculateCoverage(individuals).forEachIndexed { i, ei ->
+            ei?.run {
+                archive.addIfNeeded(this)
+                if(sampled[i]){
+                    sampler.feedback(this)
+                }
+            }
+        }
+    }
+}
@@ -6,7 +6,6 @@ import org.evomaster.core.search.Individual
 import org.evomaster.core.search.Solution
 import org.evomaster.core.search.service.SearchAlgorithm
 import org.evomaster.core.logging.LoggingUtil
-import java.util.ArrayList
 
 
 
@@ -76,21 +75,29 @@ class MosaAlgorithm<T> : SearchAlgorithm<T>() where T : Individual {
             return
         }
 
-        val fronts = preferenceSorting(notCovered, population)
+        if(population.isEmpty()){
+            //search budget finished before sampling anything
+            return
+        }
+
+        val matrix = HeuristicMatrix.of(population.map { it.ind }, notCovered)
+
+        val fronts = preferenceSorting(matrix, population)
 
         var remain: Int = config.populationSize
         var index = 0
-        population.clear()
+        val previous = population
+        population = mutableListOf()
 
         // Obtain the next front
-        var front = fronts[index]
+        var front = fronts.getOrNull(index)
 
         while (front!=null && remain > 0 && remain >= front.size && front.isNotEmpty()) {
             // Assign crowding distance to individuals
-            subvectorDominance(notCovered, front)
+            subvectorDominance(matrix, previous, front)
             // Add the individuals of this front
-            for (d in front) {
-                population.add(d)
+            for (i in front) {
+                population.add(previous[i])
             }
 
             // Decrement remain
@@ -99,16 +106,16 @@ class MosaAlgorithm<T> : SearchAlgorithm<T>() where T : Individual {
             // Obtain the next front
             index += 1
             if (remain > 0) {
-                front = fronts[index]
+                front = fronts.getOrNull(index)
             } // if
         } // while
 
         // Remain is less than front(index).size, insert only the best one
         if (remain > 0 && front!=null && front.isNotEmpty()) {
-            subvectorDominance(notCovered, front)
-            var front2 = front.sortedWith(compareBy<Data> { - it.crowdingDistance })
-                     .toMutableList()
-           for (k in 0..remain - 1) {
+            subvectorDominance(matrix, previous, front)
+            val front2 = front.map { previous[it] }
+                    .sortedWith(compareBy<Data> { - it.crowdingDistance })
+            for (k in 0..remain - 1) {
                 population.add(front2[k])
             } // for
 
@@ -116,158 +123,49 @@ class MosaAlgorithm<T> : SearchAlgorithm<T>() where T : Individual {
 
     }
 
-    private fun subvectorDominance(notCovered: Set<Int>, list: List<Data>){
+    private fun subvectorDominance(matrix: HeuristicMatrix, list: List<Data>, front: IntArray){
         /*
             see:
             Substitute Distance Assignments in NSGA-II for
             Handling Many-Objective Optimization Problems
          */
-
-        list.forEach { i ->
-            i.crowdingDistance = 0
-            list.filter { j -> j!=i }.forEach { j ->
-                val v = svd(notCovered, i, j)
-                if(v > i.crowdingDistance){
-                    i.crowdingDistance = v
-                }
-            }
-        }
-    }
-
-
-    private fun svd(notCovered: Set<Int>, i: Data, j: Data) : Int{
-        var cnt = 0
-        for(t in notCovered){
-            if(i.ind.fitness.getHeuristic(t) > j.ind.fitness.getHeuristic(t)){
-                cnt++
-            }
-        }
-        return cnt
+        val distances = matrix.subvectorDominance(front)
+        front.forEachIndexed { k, i -> list[i].crowdingDistance = distances[k] }
     }
 
 
     /*
       See: Preference sorting as discussed in the TSE paper for DynaMOSA
+
+      Returned fronts are given as indices in the list, which are the rows of the matrix
     */
-    private fun preferenceSorting(notCovered: Set<Int>, list: List<Data>): HashMap<Int, List<Data>> {
+    private fun preferenceSorting(matrix: HeuristicMatrix, list: List<Data>): List<IntArray> {
 
-        val fronts = HashMap<Int, List<Data>>()
+        // compute the first front using the Preference Criteria:
+        // the best for a target gets Rank 0, with secondary criterion based on tests lengths
+        val sizes = IntArray(list.size) { list[it].ind.individual.size() }
+        val frontZero = matrix.bestRowPerColumn(sizes).distinct().sorted().toIntArray()
+        frontZero.forEach { list[it].rank = 0 }
 
-        // compute the first front using the Preference Criteria
-        val frontZero = mosaPreferenceCriterion(notCovered, list)
-        fronts.put(0, ArrayList(frontZero))
         LoggingUtil.getInfoLogger().apply {
             debug("First front size : ${frontZero.size}")
         }
 
         // compute the remaining non-dominated Fronts
-        val remaining_solutions: MutableList<Data> = mutableListOf()
-        remaining_solutions.addAll(list)
-        remaining_solutions.removeAll(frontZero)
-
-        var selected_solutions = frontZero.size
-        var front_index = 1
-
-        while (selected_solutions < config.populationSize && remaining_solutions.isNotEmpty()){
-            var front: MutableList<Data> = getNonDominatedFront(notCovered, remaining_solutions)
-            fronts.put(front_index, front)
-            for (sol in front){
-                sol.rank = front_index
-            }
-            remaining_solutions.removeAll(front)
-
-            selected_solutions += front.size
+        val inFrontZero = BooleanArray(list.size)
+        frontZero.forEach { inFrontZero[it] = true }
+        val remaining = list.indices.filter { !inFrontZero[it] }.toIntArray()
 
-            front_index += 1
-
-            LoggingUtil.getInfoLogger().apply {
-                debug("Selected Solutions : ${selected_solutions}")
-            }
+        val others = matrix.nonDominatedFronts(remaining, config.populationSize - frontZero.size)
+        others.forEachIndexed { k, front ->
+            front.forEach { list[it].rank = k + 1 }
         }
-        return fronts
-    }
-
-    /**
-     * It retrieves the front of non-dominated solutions from a list
-     */
-    private fun getNonDominatedFront(notCovered: Set<Int>, remaining_sols: List<Data>): MutableList<Data>{
-        var front: MutableList<Data> = mutableListOf()
-        var isDominated: Boolean
-
-        for (p in remaining_sols) {
-            isDominated = false
-            val dominatedSolutions = ArrayList<Data>(remaining_sols.size)
-            for (best in front) {
-                val flag = compare(p, best, notCovered)
-                if (flag == -1) {
-                    dominatedSolutions.add(best)
-                }
-                if (flag == +1) {
-                    isDominated = true
-                }
-            }
-
-            if (isDominated)
-                continue
-
-            front.removeAll(dominatedSolutions)
-            front.add(p)
-
-        }
-        return front
-    }
 
-    /**
-     * Fast routine based on the Dominance Comparator discussed in
-     * "Automated Test Case Generation as a Many-Objective Optimisation Problem with Dynamic
-     *  Selection of the Targets"
-     */
-    private fun compare(x: Data, y: Data, notCovered: Set<Int>): Int {
-        var dominatesX = false
-        var dominatesY = false
-
-        for (index in 1..notCovered.size) {
-            if (x.ind.fitness.getHeuristic(index) > y.ind.fitness.getHeuristic(index))
-                dominatesX = true
-            if (y.ind.fitness.getHeuristic(index) > x.ind.fitness.getHeuristic(index))
-                dominatesY = true
-
-            // if the both do not dominates each other, we don't
-            // need to iterate over all the other targets
-            if (dominatesX && dominatesY)
-                return 0
+        LoggingUtil.getInfoLogger().apply {
+            debug("Selected Solutions : ${frontZero.size + others.sumBy { it.size }}")
         }
 
-        if (dominatesX == dominatesY)
-            return 0
-
-        else if (dominatesX)
-            return -1
-
-        else (dominatesY)
-            return +1
-    }
-
-    private fun mosaPreferenceCriterion(notCovered: Set<Int>, list: List<Data>): HashSet<Data> {
-        var frontZero: HashSet<Data> = HashSet<Data>()
-
-        notCovered.forEach { t ->
-            var chosen = list[0]
-            list.forEach { data ->
-                if (data.ind.fitness.getHeuristic(t) > chosen.ind.fitness.getHeuristic(t)) {
-                    // recall: maximization problem
-                    chosen = data
-                } else if (data.ind.fitness.getHeuristic(t) == chosen.ind.fitness.getHeuristic(t)
-                            && data.ind.individual.size() < chosen.ind.individual.size()){
-                    // Secondary criterion based on tests lengths
-                    chosen = data
-                }
-            }
-            // MOSA preference criterion: the best for a target gets Rank 0
-            chosen.rank = 0
-            frontZero.add(chosen)
-        }
-        return frontZero
+        return listOf(frontZero).plus(others)
     }
 
     private fun selection(): EvaluatedIndividual<T> {
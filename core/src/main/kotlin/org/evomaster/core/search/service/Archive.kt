@@ -5,13 +5,13 @@ import org.evomaster.core.EMConfig
 import org.evomaster.core.EMConfig.FeedbackDirectedSampling.FOCUSED_QUICKEST
 import org.evomaster.core.EMConfig.FeedbackDirectedSampling.LAST
 import org.evomaster.core.Lazy
-import org.evomaster.core.problem.rest.RestCallResult
 import org.evomaster.core.search.EvaluatedIndividual
 import org.evomaster.core.search.FitnessValue
 import org.evomaster.core.search.Individual
 import org.evomaster.core.search.Solution
 import org.evomaster.core.search.service.monitor.SearchProcessMonitor
 import java.lang.Integer.min
+import java.util.*
 
 
 class Archive<T> where T : Individual {
@@ -34,6 +34,9 @@ class Archive<T> where T : Individual {
     @Inject
     private lateinit var processMonitor: SearchProcessMonitor
 
+    @Inject
+    private lateinit var statistics: Statistics
+
     /**
      * a track of archive can be presented as a list of added EvaluatedIndividual
      */
@@ -41,9 +44,30 @@ class Archive<T> where T : Individual {
     /**
      * Key -> id of the target
      *
-     * Value -> sorted list of best individuals for that target
+     * Value -> sorted population of best individuals for that target
+     */
+    private val populations = mutableMapOf<Int, TargetPopulation<T>>()
+
+    /**
+     * Ids of the targets in [populations] that are fully covered.
+     *
+     * Together with [notCovered], this is kept up-to-date every time
+     * a population is modified, as we can have 10s of thousands of
+     * covered targets, and iterating over all of them at each sampling
+     * would be expensive
+     */
+    private val covered = IntSet()
+
+    /**
+     * Ids of the targets in [populations] that are reached but not fully covered
+     */
+    private val notCovered = IntSet()
+
+    /**
+     * Sets to which the id of a target is added each time its population
+     * is modified, see [trackModifiedTargets]
      */
-    private val populations = mutableMapOf<Int, MutableList<EvaluatedIndividual<T>>>()
+    private val modificationTrackers = mutableListOf<MutableSet<Int>>()
 
     /**
      * Key -> id of the target
@@ -88,7 +112,7 @@ class Archive<T> where T : Individual {
 
         populations.entries.forEach { e ->
             if (isCovered(e.key)) {
-                val ind = e.value[0]
+                val ind = e.value.worst()
                 uniques.add(ind)
                 overall.coverTarget(e.key)
                 overall.size += ind.individual.size()
@@ -101,6 +125,16 @@ class Archive<T> where T : Individual {
 
     fun isEmpty() = populations.isEmpty()
 
+    /**
+     * @return all the individuals in the archive, each one only once
+     * even if it is in the populations of several targets
+     */
+    fun distinctIndividuals(): List<EvaluatedIndividual<T>> {
+        val uniques = Collections.newSetFromMap(IdentityHashMap<EvaluatedIndividual<T>, Boolean>())
+        populations.values.forEach { uniques.addAll(it.individuals()) }
+        return uniques.toList()
+    }
+
     /**
      * Get a copy of an individual in the archive.
      * Different kinds of heuristics are used to choose
@@ -115,7 +149,7 @@ class Archive<T> where T : Individual {
         var toChooseFrom = notCoveredTargets()
         if (toChooseFrom.isEmpty()) {
             //this means all current targets are covered
-            toChooseFrom = populations.keys.toSet()
+            toChooseFrom = populations.keys
         }
 
 
@@ -129,20 +163,12 @@ class Archive<T> where T : Individual {
 
         incrementCounter(chosenTarget)
 
-        sortAndShrinkIfNeeded(candidates, chosenTarget)
-
-        val notTimedout = candidates.filter {
-            !it.results.any { res -> res is RestCallResult && res.getTimedout() }
-        }
+        shrinkIfNeeded(candidates)
 
         /*
             If possible avoid sampling tests that did timeout
          */
-        val chosen = if (!notTimedout.isEmpty()) {
-            randomness.choose(notTimedout)
-        } else {
-            randomness.choose(candidates)
-        }
+        val chosen = candidates.sample(randomness)
 
         return chosen.copy(config.enableTrackIndividual || config.enableTrackEvaluatedIndividual)
     }
@@ -156,7 +182,9 @@ class Archive<T> where T : Individual {
             FOCUSED_QUICKEST ->
                 handleFocusedQuickest(toChooseFrom)
             else ->
-                randomness.choose(toChooseFrom)
+                //avoid iterating over all the targets, as there can be many
+                if (toChooseFrom is IntSet) toChooseFrom[randomness.nextInt(toChooseFrom.size)]
+                else randomness.choose(toChooseFrom)
         }
     }
 
@@ -221,17 +249,16 @@ class Archive<T> where T : Individual {
     }
 
     fun numberOfCoveredTargets(): Int {
-        return populations.keys.stream().filter { isCovered(it) }.count().toInt()
+        return covered.size
     }
 
     fun numberOfReachedButNotCoveredTargets(): Int {
-        return populations.keys.stream().filter { ! isCovered(it) }.count().toInt()
+        return notCovered.size
     }
 
     fun averageTestSizeForReachedButNotCovered() : Double {
-        return populations.entries
-                .filter { ! isCovered(it.key) }
-                .flatMap { it.value }
+        return notCovered
+                .flatMap { populations[it]!!.individuals() }
                 .map { it.individual.size() }
                 .average()
     }
@@ -239,40 +266,101 @@ class Archive<T> where T : Individual {
     /**
      * Get all known targets that are not fully covered
      *
-     * @return a list of ids
+     * Note: this is a read-only view, and not a copy. It will change
+     * when new individuals are added to the archive. If a stable set
+     * is needed while the archive is modified, a copy of it must be made
+     *
+     * @return a set of ids
      */
     fun notCoveredTargets(): Set<Int> {
+        return notCovered
+    }
 
-        /*
-            FIXME: performance, use cache for non-covered.
-            As we can have 10s of thousands of covered targets,
-            iterating over them is expensive
-         */
+    /**
+     * Get all known targets that are fully covered by the tests in the archive
+     *
+     * Note: this is a read-only view, and not a copy, like [notCoveredTargets]
+     *
+     * @return a set of ids
+     */
+    fun coveredTargets(): Set<Int> {
+        return covered
+    }
+
+
+    /**
+     * @return a set to which, from now on, the id of a target is added every time
+     *          its population is modified. It is up to the caller to clear it
+     */
+    fun trackModifiedTargets(): MutableSet<Int> {
+        val tracker = mutableSetOf<Int>()
+        modificationTrackers.add(tracker)
+        return tracker
+    }
+
+    /**
+     * @return the lowest heuristic value with which a new individual could still be added
+     *          to the population of [target], or null if any value could be (eg, when the
+     *          population is not full yet).
+     *          A covered target is only replaced by a test that covers it as well.
+     *          As the limit on the size of the populations can only decrease during the search,
+     *          this value can only increase, unless the population of [target] is modified
+     */
+    fun acceptanceThreshold(target: Int): Double? {
+
+        val current = populations[target] ?: return null
+
+        if (isCovered(target)) {
+            return FitnessValue.MAX_VALUE
+        }
+
+        if (current.size < apc.getArchiveTargetLimit()) {
+            return null
+        }
 
-        return populations.keys.filter { !isCovered(it) }.toSet()
+        return current.heuristicOfWorst()
     }
 
+    /**
+     * @return the ids of all the targets with a population.
+     *          Note: this is a read-only view, and not a copy, like [notCoveredTargets]
+     */
+    fun reachedTargets(): Set<Int> {
+        return populations.keys
+    }
 
     fun wouldReachNewTarget(ei: EvaluatedIndividual<T>): Boolean {
 
-        return ei.fitness.getViewOfData()
-                .filter { it.value.distance > 0.0 }
-                .map { it.key }
-                .any { populations[it]?.isEmpty() ?: true }
+        val targets = ei.fitness.getViewOfTargets()
+        for (i in 0 until targets.size) {
+            if (targets.distanceAt(i) > 0.0 && populations[targets.idAt(i)]?.isEmpty() != false) {
+                return true
+            }
+        }
+        return false
     }
 
     /**
      * @return true if the new individual was added to the archive
      */
     fun addIfNeeded(ei: EvaluatedIndividual<T>): Boolean {
+        return statistics.timeOf(EvaluationPhase.ARCHIVE_INSERTION).measure { doAddIfNeeded(ei) }
+    }
+
+    private fun doAddIfNeeded(ei: EvaluatedIndividual<T>): Boolean {
 
         val copy = ei.copy(config.enableTrackIndividual || config.enableTrackEvaluatedIndividual)
         var added = false
         var anyBetter = false
 
-        for ((k, v) in ei.fitness.getViewOfData()) {
+        val targets = ei.fitness.getViewOfTargets()
+
+        for (i in 0 until targets.size) {
+
+            val k = targets.idAt(i)
+            val distance = targets.distanceAt(i)
 
-            if (v.distance == 0.0) {
+            if (distance == 0.0) {
                 /*
                     No point adding an individual with no impact
                     on a given target
@@ -280,11 +368,12 @@ class Archive<T> where T : Individual {
                 continue
             }
 
-            val current = populations.getOrPut(k, { mutableListOf() })
+            val current = populations.getOrPut(k, { TargetPopulation(k, config.secondaryObjectiveStrategy) })
 
             //ind does reach a new target?
             if (current.isEmpty()) {
                 current.add(copy)
+                updateCoverageIndex(k)
                 added = true
                 time.newActionImprovement()
                 reportImprovement(k)
@@ -296,7 +385,7 @@ class Archive<T> where T : Individual {
                 continue
             }
 
-            val maxed = FitnessValue.isMaxValue(v.distance)
+            val maxed = FitnessValue.isMaxValue(distance)
 
             if (isCovered(k) && maxed) {
                 /*
@@ -310,9 +399,9 @@ class Archive<T> where T : Individual {
                  */
                 Lazy.assert{current.size == 1} //if covered, should keep only one solution in buffer
 
-                val shorter = copy.individual.size() < current[0].individual.size()
-                val sameLengthButBetterScore = (copy.individual.size() == current[0].individual.size())
-                        && (copy.fitness.computeFitnessScore() > current[0].fitness.computeFitnessScore())
+                val shorter = copy.individual.size() < current.sizeOfWorst()
+                val sameLengthButBetterScore = (copy.individual.size() == current.sizeOfWorst())
+                        && (copy.fitness.computeFitnessScore() > current.worst().fitness.computeFitnessScore())
 
                 /*
                  * Once a target is covered, we check if can cover it with a new test that is shorter.
@@ -320,7 +409,8 @@ class Archive<T> where T : Individual {
                  * the one that has most collateral coverage
                  */
                 if (shorter || sameLengthButBetterScore) {
-                    current[0] = copy
+                    current.replaceWorst(copy)
+                    updateCoverageIndex(k)
                     added = true
                     time.newActionImprovement()
                     reportImprovement(k)
@@ -329,8 +419,8 @@ class Archive<T> where T : Individual {
             }
 
             if (maxed) {
-                current.clear() //remove all existing non-optimal solutions
-                current.add(copy)
+                current.replaceAll(copy) //remove all existing non-optimal solutions
+                updateCoverageIndex(k)
                 added = true
                 time.newActionImprovement()
                 reportImprovement(k)
@@ -340,16 +430,16 @@ class Archive<T> where T : Individual {
 
 
             //handle regular case.
-            sortAndShrinkIfNeeded(current, k)
+            shrinkIfNeeded(current)
 
             /*
                 as the population are internally sorted by fitness, the indivdidual
                 at position [0] would be the worst
              */
-            val currh = current[0].fitness.getHeuristic(k)
-            val currsize = current[0].individual.size()
+            val currh = current.heuristicOfWorst()
+            val currsize = current.sizeOfWorst()
             val copySize = copy.individual.size()
-            val extra = copy.fitness.compareExtraToMinimize(k, current[0].fitness, config.secondaryObjectiveStrategy)
+            val extra = copy.fitness.compareExtraToMinimize(k, current.worst().fitness, config.secondaryObjectiveStrategy)
 
             val better = if(config.bloatControlForSecondaryObjective
                     /*
@@ -357,13 +447,13 @@ class Archive<T> where T : Individual {
                         With at least 2 actions, we can have a WRITE followed by a READ
                      */
                     && min(copySize, currsize) >= 2){
-                v.distance > currh ||
-                        (v.distance == currh && copySize < currsize) ||
-                        (v.distance == currh &&  copySize == currsize && extra > 0)
+                distance > currh ||
+                        (distance == currh && copySize < currsize) ||
+                        (distance == currh &&  copySize == currsize && extra > 0)
             } else {
-                v.distance > currh ||
-                        (v.distance == currh && extra > 0) ||
-                        (v.distance == currh && extra == 0 && copySize < currsize)
+                distance > currh ||
+                        (distance == currh && extra > 0) ||
+                        (distance == currh && extra == 0 && copySize < currsize)
             }
 
             anyBetter = anyBetter || better
@@ -377,18 +467,20 @@ class Archive<T> where T : Individual {
             if (current.size < limit) {
                 //we have space in the buffer, regardless of fitness
                 current.add(copy)
+                updateCoverageIndex(k)
                 added = true
 
                 continue
             }
 
-            val equivalent = (v.distance == currh && extra == 0 && copySize == currsize)
+            val equivalent = (distance == currh && extra == 0 && copySize == currsize)
 
             if (better || equivalent) {
                 /*
                     replace worst element, if copy is not worse than it (but not necessarily better).
                  */
-                current[0] = copy
+                current.replaceWorst(copy)
+                updateCoverageIndex(k)
                 added = true
             }
         }
@@ -399,47 +491,45 @@ class Archive<T> where T : Individual {
     }
 
     /*
-       Ascending sort based on heuristics and, if same value, on negation of size.
-       Worst element will be the first, best the last.
-       Resize the list if needed
+       Populations are always kept sorted (see [TargetPopulation]), but the limit
+       on their size can decrease during the search.
+       Resize the population if needed, removing the worst elements
      */
-    private fun sortAndShrinkIfNeeded(list: MutableList<EvaluatedIndividual<T>>, target: Int) {
-
-        /*
-            First look at heuristics for the target.
-            That is most important value.
-            In case of same, then look at the extra heuristics.
-            If all the same, then do prefer shorter tests.
-         */
+    private fun shrinkIfNeeded(population: TargetPopulation<T>) {
 
-        list.sortWith(compareBy<EvaluatedIndividual<T>>
-        { it.fitness.getHeuristic(target) }
-                .thenComparator { a, b -> a.fitness.compareExtraToMinimize(target, b.fitness, config.secondaryObjectiveStrategy) }
-                .thenBy { -it.individual.size() })
+        population.shrink(apc.getArchiveTargetLimit())
 
-        val limit = apc.getArchiveTargetLimit()
-        while (list.size > limit) {
-            //remove worst, ie the one with lowest heuristic value
-            list.removeAt(0)
-        }
+        updateCoverageIndex(population.target)
     }
 
-    fun isCovered(target: Int): Boolean {
+    /**
+     * Must be called each time the population of [target] is modified,
+     * to keep [covered] and [notCovered] in sync with [populations]
+     */
+    private fun updateCoverageIndex(target: Int) {
 
-        val current = populations[target] ?: return false
+        val current = populations[target] ?: return
 
-        if (current.size != 1) {
-            return false
+        modificationTrackers.forEach { it.add(target) }
+
+        if (current.size == 1 && current.worst().fitness.doesCover(target)) {
+            notCovered.remove(target)
+            covered.add(target)
+        } else {
+            covered.remove(target)
+            notCovered.add(target)
         }
+    }
 
-        return current[0].fitness.doesCover(target)
+    fun isCovered(target: Int): Boolean {
+        return covered.has(target)
     }
 
     /**
      * @return current population
      */
-    fun getSnapshotOfBestIndividuals(): Map<Int, MutableList<EvaluatedIndividual<T>>>{
-        return populations
+    fun getSnapshotOfBestIndividuals(): Map<Int, List<EvaluatedIndividual<T>>>{
+        return populations.mapValues { it.value.individuals() }
     }
 
     /**
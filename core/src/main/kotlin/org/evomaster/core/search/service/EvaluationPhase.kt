@@ -0,0 +1,40 @@
+package org.evomaster.core.search.service
+
+/**
+ * Phases in which the time of evaluating a test can be spent.
+ * Their durations are recorded in [Statistics], to diagnose where
+ * the time of the search goes
+ */
+enum class EvaluationPhase(
+        /**
+         * Used as prefix for the columns in the statistics files
+         */
+        val label: String) {
+
+    /**
+     * Resetting the state of the SUT before running a test
+     */
+    RESET_SUT("resetSut"),
+
+    /**
+     * Executing the SQL insertions of a test, if any
+     */
+    INITIALIZING_ACTIONS("initializingActions"),
+
+    /**
+     * Retrieving from the SUT the coverage and heuristics of a test
+     */
+    TEST_RESULTS("testResults"),
+
+    /**
+     * Handling the extra heuristics of a test, eg on the SQL commands it executed
+     */
+    EXTRA_HEURISTICS("extraHeuristics"),
+
+    TAINT_ANALYSIS("taintAnalysis"),
+
+    /**
+     * Checking if an evaluated test should be added to the archive
+     */
+    ARCHIVE_INSERTION("archiveInsertion")
+}
@@ -0,0 +1,48 @@
+package org.evomaster.core.search.service
+
+import org.evomaster.core.search.ActionResult
+import org.evomaster.core.search.FitnessValue
+
+/**
+ * Bounded LRU cache of the results of evaluating individuals, keyed by their phenotype,
+ * ie a canonical representation of what is actually sent to the SUT.
+ * Mutations can lead to individuals that are different in their genotype but not in their
+ * phenotype (eg, modifying a gene that is not used), and, if the SUT is deterministic,
+ * there is no need to run those again.
+ *
+ * Entries are copied when added and when read, so that the cached data is never modified.
+ * This can be accessed concurrently.
+ */
+class FitnessCache(private val maxSize: Int) {
+
+    class Entry(val fitness: FitnessValue, val results: List<ActionResult>)
+
+    init {
+        if (maxSize <= 0) {
+            throw IllegalArgumentException("Invalid cache size: $maxSize")
+        }
+    }
+
+    private val entries = object : LinkedHashMap<String, FitnessCache.Entry>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, FitnessCache.Entry>?): Boolean {
+            return size > maxSize
+        }
+    }
+
+    @Synchronized
+    fun get(key: String): Entry? {
+        val entry = entries[key] ?: return null
+        return copy(entry.fitness, entry.results)
+    }
+
+    @Synchronized
+    fun put(key: String, fitness: FitnessValue, results: List<ActionResult>) {
+        entries[key] = copy(fitness, results)
+    }
+
+    @Synchronized
+    fun size() = entries.size
+
+    private fun copy(fitness: FitnessValue, results: List<ActionResult>) =
+            Entry(fitness.copy(), results.map(ActionResult::copy))
+}
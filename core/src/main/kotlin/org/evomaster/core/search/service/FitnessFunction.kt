@@ -2,7 +2,9 @@ package org.evomaster.core.search.service
 
 import com.google.inject.Inject
 import org.evomaster.core.EMConfig
+import org.evomaster.core.search.ActionResult
 import org.evomaster.core.search.EvaluatedIndividual
+import org.evomaster.core.search.FitnessValue
 import org.evomaster.core.search.Individual
 import org.evomaster.core.search.service.monitor.SearchProcessMonitor
 
@@ -34,9 +36,40 @@ abstract class FitnessFunction<T>  where T : Individual {
     protected lateinit var config: EMConfig
 
     /**
+     * Results of previous evaluations, if [EMConfig.fitnessCacheSize] is positive
+     */
+    private val cache: FitnessCache? by lazy {
+        if (config.fitnessCacheSize > 0) FitnessCache(config.fitnessCacheSize) else null
+    }
+
+    /**
+     * Note: the returned [EvaluatedIndividual] takes ownership of [individual], which
+     * hence must not be modified afterwards
+     *
      * @return [null] if there were problems in calculating the coverage
      */
     fun calculateCoverage(individual: T) : EvaluatedIndividual<T>?{
+
+        val key = cacheKey(individual)
+        val cached = getFromCache(individual, key)
+        if(cached != null){
+            processMonitor.eval = cached
+            reportEvaluation(individual)
+            return cached
+        }
+
+        return calculateCoverageNotCached(individual, key)
+    }
+
+    /**
+     * Evaluate [individual] on the SUT, after it was already looked up in the cache
+     * (if any) with [key], and not found there.
+     * This does not look up the cache again, so the miss is not counted twice.
+     *
+     * @return [null] if there were problems in calculating the coverage
+     */
+    protected fun calculateCoverageNotCached(individual: T, key: String?) : EvaluatedIndividual<T>?{
+
         var ei = doCalculateCoverage(individual)
         processMonitor.eval = ei
 
@@ -54,12 +87,40 @@ abstract class FitnessFunction<T>  where T : Individual {
             }
         }
 
+        if(ei != null){
+            addToCache(key, ei)
+        }
+
+        reportEvaluation(individual)
+
+        return ei
+    }
+
+    /**
+     * Evaluate several individuals. By default, this is done one at a time,
+     * but subclasses might evaluate them in parallel.
+     * In any case, results are returned in the same order as [individuals],
+     * and any further handling of them (eg, adding to the archive) is
+     * left to the caller
+     *
+     * @return a list in which an element is [null] if there were problems in
+     *          calculating the coverage of the corresponding individual
+     */
+    open fun calculateCoverage(individuals: List<T>) : List<EvaluatedIndividual<T>?>{
+        return individuals.map { calculateCoverage(it) }
+    }
+
+    /**
+     * @return how many individuals can be evaluated at the same time
+     */
+    open fun parallelism() = 1
+
+    protected fun reportEvaluation(individual: T){
+
         val a = individual.seeActions().filter { a -> a.shouldCountForFitnessEvaluations() }.count()
 
         time.newActionEvaluation(maxOf(1, a))
         time.newIndividualEvaluation()
-
-        return ei
     }
 
     /**
@@ -67,6 +128,52 @@ abstract class FitnessFunction<T>  where T : Individual {
      */
     protected abstract fun doCalculateCoverage(individual: T) : EvaluatedIndividual<T>?
 
+    /**
+     * A canonical representation of everything that [individual] sends to the SUT when evaluated,
+     * so that two individuals with the same key lead to the same fitness (assuming a deterministic SUT).
+     *
+     * @return [null] if this is not supported, and so the individual should not be cached
+     */
+    protected open fun computePhenotypeKey(individual: T) : String? = null
+
+    /**
+     * Build the evaluation of [individual] out of the cached data of a previous evaluation
+     * with the same phenotype
+     */
+    protected open fun fromCache(individual: T, fitness: FitnessValue, results: List<ActionResult>) : EvaluatedIndividual<T> {
+        return EvaluatedIndividual(fitness, individual, results)
+    }
+
+    /**
+     * @return [null] if the cache is not used for [individual]
+     */
+    protected fun cacheKey(individual: T) : String? {
+        return if (cache == null) null else computePhenotypeKey(individual)
+    }
+
+    /**
+     * @return the evaluation of [individual] based on the cache, or [null] if not there.
+     *         Hits and misses are reported in [Statistics]
+     */
+    protected fun getFromCache(individual: T, key: String?) : EvaluatedIndividual<T>? {
+        if (key == null) {
+            return null
+        }
+        val entry = cache!!.get(key)
+        if (entry == null) {
+            statistics.reportFitnessCacheMiss()
+            return null
+        }
+        statistics.reportFitnessCacheHit()
+        return fromCache(individual, entry.fitness, entry.results)
+    }
+
+    protected fun addToCache(key: String?, ei: EvaluatedIndividual<T>) {
+        if (key != null) {
+            cache!!.put(key, ei.fitness, ei.results)
+        }
+    }
+
     /**
      * Try to reinitialize the SUT. This is done when there are issues
      * in calculating coverage
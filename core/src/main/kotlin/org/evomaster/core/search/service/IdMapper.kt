@@ -43,6 +43,14 @@ class IdMapper {
      */
     private val localCounter = AtomicInteger(-1)
 
+    /**
+     * Counter used to create ids for targets reported by the SUT when
+     * several EvoMaster Drivers are used at the same time.
+     * In such case, each Driver has its own numbering of the targets,
+     * so the ids used in EvoMaster Core need to be created here
+     */
+    private val remoteCounter = AtomicInteger(0)
+
     fun addMapping(id: Int, descriptiveId: String) {
         mapping[id] = descriptiveId
         reverseMapping[descriptiveId] = id
@@ -58,6 +66,14 @@ class IdMapper {
         })
     }
 
+    fun handleRemoteTarget(descriptiveId: String): Int {
+        return reverseMapping.getOrPut(descriptiveId, {
+            val k = remoteCounter.getAndIncrement()
+            mapping[k] = descriptiveId
+            k
+        })
+    }
+
     fun getFaultDescriptiveId(postfix: String): String {
         return FAULT_DESCRIPTIVE_ID_PREFIX + postfix
     }
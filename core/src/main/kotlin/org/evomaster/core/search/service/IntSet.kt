@@ -0,0 +1,225 @@
+package org.evomaster.core.search.service
+
+/**
+ * Set of ints, storing all values in primitive arrays to avoid boxing.
+ * Used by [Archive] to index its targets, which can be up to millions.
+ *
+ * Values are stored both in an open-addressing hash table (with linear probing),
+ * for the lookups, and densely in an array, for iterating over them and for accessing
+ * them by position (see [get]). A removed value is replaced in the array by the last one,
+ * so the iteration order is not the insertion order.
+ *
+ * Modifications are only possible through [add] and [remove] on this class,
+ * so this can be shared as a read-only [Set]. Like for [HashSet], modifying
+ * it while iterating over it leads to a [ConcurrentModificationException].
+ */
+class IntSet : AbstractSet<Int>() {
+
+    companion object {
+        private const val INITIAL_CAPACITY = 8
+
+        /**
+         * Marks an empty slot in [keys], so such value is tracked separately by [freePosition]
+         */
+        private const val FREE = Int.MIN_VALUE
+    }
+
+    private var values = IntArray(INITIAL_CAPACITY)
+
+    private var keys = IntArray(INITIAL_CAPACITY * 2) { FREE }
+
+    /**
+     * For each slot of [keys], the position of its value in [values]
+     */
+    private var positions = IntArray(INITIAL_CAPACITY * 2)
+
+    /**
+     * Position of [FREE] in [values], or -1 if not in this set
+     */
+    private var freePosition = -1
+
+    override var size: Int = 0
+        private set
+
+    private var modifications = 0
+
+    override fun isEmpty() = size == 0
+
+    override fun contains(element: Int) = has(element)
+
+    /**
+     * Same as [contains], but without boxing [value], which Kotlin would do
+     * when calling [contains] even if [value] is a primitive
+     */
+    fun has(value: Int): Boolean {
+        if (value == FREE) {
+            return freePosition >= 0
+        }
+        return keys[findSlot(value)] == value
+    }
+
+    /**
+     * @return the value at the given [position], from 0 (included) to [size] (excluded)
+     */
+    operator fun get(position: Int): Int {
+        if (position < 0 || position >= size) {
+            throw IndexOutOfBoundsException("Invalid position $position for size $size")
+        }
+        return values[position]
+    }
+
+    /**
+     * @return whether [value] was not already in this set
+     */
+    fun add(value: Int): Boolean {
+
+        if (value == FREE) {
+            if (freePosition >= 0) {
+                return false
+            }
+            freePosition = size
+        } else {
+            val slot = findSlot(value)
+            if (keys[slot] == value) {
+                return false
+            }
+            keys[slot] = value
+            positions[slot] = size
+        }
+
+        if (size == values.size) {
+            values = values.copyOf(size * 2)
+        }
+        values[size] = value
+        size++
+        modifications++
+
+        //load factor is at most 0.5
+        if (size > keys.size / 2) {
+            rehash(keys.size * 2)
+        }
+
+        return true
+    }
+
+    /**
+     * @return whether [value] was in this set
+     */
+    fun remove(value: Int): Boolean {
+
+        val position: Int
+
+        if (value == FREE) {
+            if (freePosition < 0) {
+                return false
+            }
+            position = freePosition
+            freePosition = -1
+        } else {
+            val slot = findSlot(value)
+            if (keys[slot] != value) {
+                return false
+            }
+            position = positions[slot]
+            deleteFromTable(slot)
+        }
+
+        //move the last value into the freed position
+        val last = size - 1
+        if (position != last) {
+            val moved = values[last]
+            values[position] = moved
+            if (moved == FREE) {
+                freePosition = position
+            } else {
+                positions[findSlot(moved)] = position
+            }
+        }
+        size--
+        modifications++
+
+        return true
+    }
+
+    /**
+     * Note: when iterating over an [IntSet] (and not a generic [Set]), values are not boxed
+     */
+    override fun iterator(): IntIterator = object : IntIterator() {
+
+        private var position = 0
+
+        private val expectedModifications = modifications
+
+        override fun hasNext() = position < size
+
+        override fun nextInt(): Int {
+            if (modifications != expectedModifications) {
+                throw ConcurrentModificationException()
+            }
+            if (position >= size) {
+                throw NoSuchElementException()
+            }
+            return values[position++]
+        }
+    }
+
+    private fun slotOf(value: Int, mask: Int): Int {
+        //spread the bits, as ids are often consecutive numbers
+        val h = value * -0x61c88647
+        return (h xor (h ushr 16)) and mask
+    }
+
+    /**
+     * @return the slot of [value] in [keys], or the free slot where it would be inserted
+     */
+    private fun findSlot(value: Int): Int {
+        val mask = keys.size - 1
+        var slot = slotOf(value, mask)
+        while (true) {
+            val k = keys[slot]
+            if (k == FREE || k == value) {
+                return slot
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Empty the given [slot], shifting back the following entries of the same cluster
+     * when needed, so that no lookup stops early at the freed slot
+     */
+    private fun deleteFromTable(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var current = slot
+        while (true) {
+            current = (current + 1) and mask
+            val k = keys[current]
+            if (k == FREE) {
+                break
+            }
+            val home = slotOf(k, mask)
+            //the entry can be moved back to the free slot only if its home is not in (free, current]
+            val reachable = if (free <= current) home in (free + 1)..current else home > free || home <= current
+            if (!reachable) {
+                keys[free] = k
+                positions[free] = positions[current]
+                free = current
+            }
+        }
+        keys[free] = FREE
+    }
+
+    private fun rehash(capacity: Int) {
+        keys = IntArray(capacity) { FREE }
+        positions = IntArray(capacity)
+        for (p in 0 until size) {
+            val value = values[p]
+            if (value != FREE) {
+                val slot = findSlot(value)
+                keys[slot] = value
+                positions[slot] = p
+            }
+        }
+    }
+}
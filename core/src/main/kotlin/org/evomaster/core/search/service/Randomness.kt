@@ -2,16 +2,38 @@ package org.evomaster.core.search.service
 
 import com.google.inject.Inject
 import org.evomaster.core.EMConfig
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.EOFException
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
 import java.util.*
 import javax.annotation.PostConstruct
 
 
-class Randomness {
+/**
+ * Source of all the random choices in the search, so that a run can be reproduced with the same seed.
+ *
+ * An instance is not meant to be shared among threads. Each worker (or component) that needs its
+ * own stream of values should use a [fork], which is independent from the stream of this instance.
+ */
+class Randomness() {
 
     @Inject
     private lateinit var configuration: EMConfig
 
-    private val random = Random()
+    private var random = Random()
+
+    /**
+     * Used only to derive the seeds of the [fork]s, so that creating a fork does not
+     * change the values generated by [random]
+     */
+    private var splitter = SplitMixRandom(0)
+
+    private constructor(random: Random, splitter: SplitMixRandom) : this() {
+        this.random = random
+        this.splitter = splitter
+    }
 
     @PostConstruct
     private fun initialize(){
@@ -22,10 +44,45 @@ class Randomness {
      * A negative value means the current CPU time clock is used instead
      */
     fun updateSeed(seed: Long) {
-        if(seed < 0 ){
-            random.setSeed(System.currentTimeMillis())
-        } else {
-            random.setSeed(seed)
+        val s = if(seed < 0 ) System.currentTimeMillis() else seed
+        random.setSeed(s)
+        splitter.setSeed(s)
+    }
+
+    /**
+     * Create a new instance with its own stream of values, independent from the one of
+     * this instance and of any other fork.
+     * The forks are derived from the seed, in the order in which they are created, like
+     * with [java.util.SplittableRandom.split]. So, a run with the same seed gets the same forks.
+     * Creating a fork does not change the values generated by this instance.
+     */
+    fun fork(): Randomness {
+        return Randomness(splitter.split(), splitter.split())
+    }
+
+    /**
+     * @return the current state of the generator, eg to save it in a checkpoint
+     */
+    fun getState(): ByteArray {
+        val bytes = ByteArrayOutputStream()
+        ObjectOutputStream(bytes).use {
+            it.writeObject(random)
+            it.writeObject(splitter)
+        }
+        return bytes.toByteArray()
+    }
+
+    /**
+     * Continue generating the same sequence of values from when [state] was taken with [getState]
+     */
+    fun setState(state: ByteArray) {
+        ObjectInputStream(ByteArrayInputStream(state)).use {
+            random = it.readObject() as Random
+            try {
+                splitter = it.readObject() as SplitMixRandom
+            } catch (e: EOFException){
+                //state saved before forks were supported
+            }
         }
     }
 
@@ -71,7 +128,7 @@ class Randomness {
             throw IllegalArgumentException("Min $min is bigger than max $max")
         }
 
-        return (min.toLong() + Math.random() * (max.toLong() - min + 1)).toInt()
+        return (min.toLong() + random.nextDouble() * (max.toLong() - min + 1)).toInt()
     }
 
 
@@ -128,18 +185,32 @@ class Randomness {
      */
     fun <K> chooseByProbability(map: Map<K, Float>): K {
 
-        val randFl = random.nextFloat()*map.values.sum()
-        var temp = 0.toFloat()
-        var found = map.keys.first()
+        var sum = 0f
+        for(v in map.values){
+            sum += v
+        }
+
+        val randFl = random.nextFloat()*sum
+        var temp = 0f
+        var first = true
+        var found: K? = null
 
-        for((k, v) in map){
-            if(randFl <= (v + temp)){
-                found = k
-                break
+        for(e in map.entries){
+            if(first){
+                found = e.key
+                first = false
+            }
+            if(randFl <= (e.value + temp)){
+                return e.key
             }
-            temp += v
+            temp += e.value
+        }
+
+        if(first){
+            throw NoSuchElementException("Empty map to choose from")
         }
-        return found
+        @Suppress("UNCHECKED_CAST")
+        return found as K
     }
 
     /**
@@ -183,11 +254,12 @@ class Randomness {
             return list
         }
 
-        val selection: MutableList<T> = mutableListOf()
-        selection.addAll(list)
-        Collections.shuffle(selection, random)
-
-        return selection.subList(0, n)
+        val positions = choosePositions(list.size, n)
+        val selection = ArrayList<T>(n)
+        for(i in 0 until n){
+            selection.add(list[positions[i]])
+        }
+        return selection
     }
 
     /**
@@ -198,11 +270,42 @@ class Randomness {
             return set
         }
 
-        val selection: MutableList<T> = mutableListOf()
-        selection.addAll(set)
-        Collections.shuffle(selection, random)
+        val positions = choosePositions(set.size, n)
+
+        //for each element in the set, where it goes in the selection, if chosen
+        val slots = IntArray(set.size) { -1 }
+        for(i in 0 until n){
+            slots[positions[i]] = i
+        }
+
+        val chosen = arrayOfNulls<Any>(n)
+        var k = 0
+        for(v in set){
+            if(slots[k] >= 0){
+                chosen[slots[k]] = v
+            }
+            k++
+        }
 
-        return selection.subList(0, n).toSet()
+        val selection = LinkedHashSet<T>(n * 2)
+        @Suppress("UNCHECKED_CAST")
+        chosen.forEach { selection.add(it as T) }
+        return selection
+    }
+
+    /**
+     * Partial Fisher-Yates shuffle of the positions in 0 until [size].
+     * Only the first [n] positions in the returned array are chosen, in random order
+     */
+    private fun choosePositions(size: Int, n: Int): IntArray {
+        val positions = IntArray(size) { it }
+        for(i in 0 until n){
+            val j = i + random.nextInt(size - i)
+            val tmp = positions[i]
+            positions[i] = positions[j]
+            positions[j] = tmp
+        }
+        return positions
     }
 
 
@@ -218,6 +321,9 @@ class Randomness {
             throw IllegalArgumentException("Empty map to choose from")
         }
         val index = random.nextInt(collection.size)
+        if(collection is List<V>){
+            return collection[index]
+        }
         var i = 0
 
         val iter = collection.iterator()
@@ -38,6 +38,29 @@ class SearchTimeController {
         startTime = System.currentTimeMillis()
     }
 
+    /**
+     * Continue the search from the given counters, eg when resuming it from a checkpoint.
+     * This must be called after [startSearch]
+     */
+    fun restore(evaluatedIndividuals: Int,
+                individualsWithSqlFailedWhere: Int,
+                evaluatedActions: Int,
+                lastActionImprovement: Int,
+                elapsedMs: Long){
+        this.evaluatedIndividuals = evaluatedIndividuals
+        this.individualsWithSqlFailedWhere = individualsWithSqlFailedWhere
+        this.evaluatedActions = evaluatedActions
+        this.lastActionImprovement = lastActionImprovement
+        startTime = System.currentTimeMillis() - elapsedMs
+    }
+
+    fun getElapsedMs() : Long{
+        if(!searchStarted){
+            return 0
+        }
+        return System.currentTimeMillis() - startTime
+    }
+
     fun addListener(listener: SearchListener){
         listeners.add(listener)
     }
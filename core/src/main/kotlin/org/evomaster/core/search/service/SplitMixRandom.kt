@@ -0,0 +1,98 @@
+package org.evomaster.core.search.service
+
+import java.util.*
+
+/**
+ * Generator using the same SplitMix64 algorithm of [SplittableRandom], from
+ * "Fast Splittable Pseudorandom Number Generators".
+ *
+ * It extends [Random] so it can be used wherever one is expected (eg, [Collections.shuffle]),
+ * but with no atomic update of the seed at each generated value, and it can be saved
+ * with Java serialization (eg, in a checkpoint), unlike [SplittableRandom].
+ * As such, it is not thread-safe.
+ */
+class SplitMixRandom private constructor(
+        seed: Long,
+        gamma: Long
+) : Random() {
+
+    companion object {
+        private const val serialVersionUID = 1L
+
+        private fun unsigned(hex: String) = java.lang.Long.parseUnsignedLong(hex, 16)
+
+        private val GOLDEN_GAMMA = unsigned("9e3779b97f4a7c15")
+
+        private val MIX64_1 = unsigned("bf58476d1ce4e5b9")
+
+        private val MIX64_2 = unsigned("94d049bb133111eb")
+
+        private val MIX32 = unsigned("cb24d0a5c88c35b3")
+
+        private val GAMMA_1 = unsigned("ff51afd7ed558ccd")
+
+        private val GAMMA_2 = unsigned("c4ceb9fe1a85ec53")
+
+        private val ALTERNATING_BITS = unsigned("aaaaaaaaaaaaaaaa")
+
+        private const val DOUBLE_UNIT = 1.0 / (1L shl 53)
+
+        private fun mix64(value: Long): Long {
+            var z = value
+            z = (z xor (z ushr 30)) * MIX64_1
+            z = (z xor (z ushr 27)) * MIX64_2
+            return z xor (z ushr 31)
+        }
+
+        private fun mix32(value: Long): Int {
+            var z = value
+            z = (z xor (z ushr 33)) * 0x62a9d9ed799705f5L
+            return (((z xor (z ushr 28)) * MIX32) ushr 32).toInt()
+        }
+
+        private fun mixGamma(value: Long): Long {
+            var z = value
+            z = (z xor (z ushr 33)) * GAMMA_1
+            z = (z xor (z ushr 33)) * GAMMA_2
+            z = (z xor (z ushr 33)) or 1L
+            //ensure enough transitions between 0s and 1s
+            val n = java.lang.Long.bitCount(z xor (z ushr 1))
+            return if (n < 24) z xor ALTERNATING_BITS else z
+        }
+    }
+
+    /*
+        Note: the constructor of Random calls setSeed(), but that happens before
+        these properties are initialized, so they need to be set here
+     */
+    private var state: Long = seed
+
+    private var gamma: Long = gamma
+
+    constructor(seed: Long) : this(seed, GOLDEN_GAMMA)
+
+    override fun setSeed(seed: Long) {
+        state = seed
+        gamma = GOLDEN_GAMMA
+    }
+
+    /**
+     * @return a new generator whose values are independent from the ones of this generator
+     */
+    fun split() = SplitMixRandom(nextLong(), mixGamma(nextSeed()))
+
+    private fun nextSeed(): Long {
+        state += gamma
+        return state
+    }
+
+    override fun next(bits: Int) = (nextLong() ushr (64 - bits)).toInt()
+
+    override fun nextInt() = mix32(nextSeed())
+
+    override fun nextLong() = mix64(nextSeed())
+
+    override fun nextDouble() = (nextLong() ushr 11) * DOUBLE_UNIT
+
+    override fun nextBoolean() = mix32(nextSeed()) < 0
+}
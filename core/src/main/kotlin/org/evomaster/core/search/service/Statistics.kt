@@ -1,6 +1,7 @@
 package org.evomaster.core.search.service
 
 import com.google.inject.Inject
+import org.evomaster.client.java.controller.api.TimeHistogram
 import org.evomaster.core.EMConfig
 import org.evomaster.core.problem.rest.RestCallResult
 import org.evomaster.core.problem.rest.service.RestSampler
@@ -9,6 +10,7 @@ import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 import java.nio.file.Files
 import java.nio.file.Paths
+import java.util.concurrent.atomic.AtomicInteger
 import javax.annotation.PostConstruct
 
 
@@ -35,15 +37,36 @@ class Statistics : SearchListener {
 
 
     /**
-     * How often test executions did timeout
+     * How often test executions did timeout.
+     * Note: this can be updated concurrently when tests are evaluated in parallel
      */
-    private var timeouts = 0
+    private val timeouts = AtomicInteger(0)
 
     /**
      * How often it was not possible to compute coverage for a test
      */
     private var coverageFailures = 0
 
+    /**
+     * How often the fitness of a test was taken from the [FitnessCache]
+     */
+    private val fitnessCacheHits = AtomicInteger(0)
+
+    /**
+     * How often the fitness of a test was not in the [FitnessCache], and so the test was run
+     */
+    private val fitnessCacheMisses = AtomicInteger(0)
+
+    /**
+     * Durations of the HTTP calls to the SUT, including reading their responses
+     */
+    val sutCallTimes = TimeHistogram()
+
+    /**
+     * Durations of the different phases of the evaluation of the tests
+     */
+    private val phaseTimes = EvaluationPhase.values().associate { it to TimeHistogram() }
+
 
     private class Pair(val header: String, val element: String)
 
@@ -55,7 +78,11 @@ class Statistics : SearchListener {
     private class Snapshot(
             val coveredTargets: Int = 0,
             val reachedNonCoveredTargets: Int = 0,
-            val averageTestSizeForReachedButNotCovered: Double = 0.0
+            val averageTestSizeForReachedButNotCovered: Double = 0.0,
+            /**
+             * Durations of the evaluation phases, up to when the snapshot was taken
+             */
+            val phaseTimes: List<Pair> = listOf()
     )
 
     /**
@@ -117,7 +144,8 @@ class Statistics : SearchListener {
             Files.deleteIfExists(path)
             Files.createFile(path)
 
-            path.toFile().appendText("interval,covered,reachedNonCovered,averageTestSizeForReachedButNotCovered,$confHeader\n")
+            val timeHeader = phaseTimesData().joinToString(",") { it.header }
+            path.toFile().appendText("interval,covered,reachedNonCovered,averageTestSizeForReachedButNotCovered,$timeHeader,$confHeader\n")
         }
 
         snapshots.entries.stream().sorted { o1, o2 -> o1.key.compareTo(o2.key) }
@@ -126,19 +154,53 @@ class Statistics : SearchListener {
                             "${it.value.coveredTargets}," +
                             "${it.value.reachedNonCoveredTargets}," +
                             "${it.value.averageTestSizeForReachedButNotCovered}," +
+                            "${it.value.phaseTimes.joinToString(",") { t -> t.element }}," +
                             "$confValues\n")
                 }
     }
 
 
+    /**
+     * @return where to record the durations of the given evaluation [phase]
+     */
+    fun timeOf(phase: EvaluationPhase) = phaseTimes.getValue(phase)
+
+    private fun phaseTimesData(): List<Pair> {
+        return EvaluationPhase.values().flatMap {
+            val h = timeOf(it)
+            listOf(
+                    Pair("${it.label}Count", "${h.getCount()}"),
+                    Pair("${it.label}AvgMs", "${h.averageMs()}"),
+                    Pair("${it.label}P50Ms", "${h.percentileMs(50.0)}"),
+                    Pair("${it.label}P99Ms", "${h.percentileMs(99.0)}"),
+                    Pair("${it.label}MaxMs", "${h.maxMs()}"),
+                    Pair("${it.label}TotalMs", "${h.totalMs()}")
+            )
+        }
+    }
+
     fun reportTimeout() {
-        timeouts++
+        timeouts.incrementAndGet()
     }
 
     fun reportCoverageFailure() {
         coverageFailures++
     }
 
+    fun reportFitnessCacheHit() {
+        fitnessCacheHits.incrementAndGet()
+    }
+
+    fun reportFitnessCacheMiss() {
+        fitnessCacheMisses.incrementAndGet()
+    }
+
+    private fun fitnessCacheHitRate(): Double {
+        val hits = fitnessCacheHits.get()
+        val total = hits + fitnessCacheMisses.get()
+        return if (total == 0) 0.0 else hits.toDouble() / total
+    }
+
     override fun newActionEvaluated() {
         if (snapshotThreshold <= 0) {
             //not collecting snapshot data
@@ -157,7 +219,8 @@ class Statistics : SearchListener {
         val snap = Snapshot(
                 coveredTargets = archive.numberOfCoveredTargets(),
                 reachedNonCoveredTargets = archive.numberOfReachedButNotCoveredTargets(),
-                averageTestSizeForReachedButNotCovered = archive.averageTestSizeForReachedButNotCovered()
+                averageTestSizeForReachedButNotCovered = archive.averageTestSizeForReachedButNotCovered(),
+                phaseTimes = phaseTimesData()
         )
 
         val key = if (snapshotThreshold <= 100) snapshotThreshold else 100.0
@@ -190,9 +253,20 @@ class Statistics : SearchListener {
             add(Pair("avgReturnCodes", "" + codes.average()))
             add(Pair("maxReturnCodes", "" + codes.max()))
 
-            add(Pair("testTimeouts", "$timeouts"))
+            add(Pair("testTimeouts", "${timeouts.get()}"))
             add(Pair("coverageFailures", "$coverageFailures"))
 
+            add(Pair("fitnessCacheHits", "${fitnessCacheHits.get()}"))
+            add(Pair("fitnessCacheMisses", "${fitnessCacheMisses.get()}"))
+            add(Pair("fitnessCacheHitRate", "${fitnessCacheHitRate()}"))
+
+            add(Pair("sutCalls", "${sutCallTimes.getCount()}"))
+            add(Pair("avgSutCallMs", "${sutCallTimes.averageMs()}"))
+            add(Pair("p50SutCallMs", "${sutCallTimes.percentileMs(50.0)}"))
+            add(Pair("p99SutCallMs", "${sutCallTimes.percentileMs(99.0)}"))
+            add(Pair("maxSutCallMs", "${sutCallTimes.maxMs()}"))
+            addAll(phaseTimesData())
+
             add(Pair("id", config.statisticsColumnId))
         }
         addConfig(list)
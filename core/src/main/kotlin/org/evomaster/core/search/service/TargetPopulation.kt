@@ -0,0 +1,183 @@
+package org.evomaster.core.search.service
+
+import org.evomaster.core.EMConfig
+import org.evomaster.core.problem.rest.RestCallResult
+import org.evomaster.core.search.EvaluatedIndividual
+import org.evomaster.core.search.Individual
+
+/**
+ * Best individuals for a single [target] in the [Archive], always kept sorted
+ * in ascending order: the worst individual is the first, the best the last.
+ *
+ * First, the heuristics for the target are compared, as that is the most important value.
+ * In case of same, then the extra heuristics are compared based on [strategy].
+ * If all the same, then shorter tests are preferred.
+ *
+ * Heuristic value and size of each individual are computed only once, when inserted.
+ * New individuals are placed with a binary search, after the ones that compare equal
+ * to them, whereas the replacement of the worst goes before them. This is the same order
+ * that a stable sort would give if the new individual were appended at the end, or put
+ * at position 0, respectively.
+ */
+class TargetPopulation<T>(
+        val target: Int,
+        private val strategy: EMConfig.SecondaryObjectiveStrategy
+) where T : Individual {
+
+    private class Entry<T>(
+            val ei: EvaluatedIndividual<T>,
+            val heuristic: Double,
+            val size: Int,
+            val timedOut: Boolean
+    ) where T : Individual
+
+    private val entries = ArrayList<Entry<T>>()
+
+    private val view = object : AbstractList<EvaluatedIndividual<T>>() {
+        override val size: Int
+            get() = entries.size
+
+        override fun get(index: Int) = entries[index].ei
+    }
+
+    private var timedOut = 0
+
+    /**
+     * Individuals that did not time out, in the same order as [entries].
+     * Built lazily, and only when some but not all individuals did time out
+     */
+    private var notTimedOut: MutableList<EvaluatedIndividual<T>>? = null
+
+    val size: Int
+        get() = entries.size
+
+    fun isEmpty() = entries.isEmpty()
+
+    operator fun get(index: Int) = entries[index].ei
+
+    /**
+     * @return a read-only view of the individuals, from the worst to the best
+     */
+    fun individuals(): List<EvaluatedIndividual<T>> = view
+
+    fun worst() = entries[0].ei
+
+    fun heuristicOfWorst() = entries[0].heuristic
+
+    fun sizeOfWorst() = entries[0].size
+
+    fun add(ei: EvaluatedIndividual<T>) {
+        val e = entryOf(ei)
+        insert(upperBound(e), e)
+    }
+
+    /**
+     * Replace the worst individual with [ei]
+     */
+    fun replaceWorst(ei: EvaluatedIndividual<T>) {
+        removeAt(0)
+        val e = entryOf(ei)
+        insert(lowerBound(e), e)
+    }
+
+    /**
+     * Remove all the individuals, and only keep [ei]
+     */
+    fun replaceAll(ei: EvaluatedIndividual<T>) {
+        entries.clear()
+        timedOut = 0
+        notTimedOut = null
+        add(ei)
+    }
+
+    /**
+     * Remove the worst individuals, until at most [limit] are left
+     */
+    fun shrink(limit: Int) {
+        while (entries.size > limit) {
+            removeAt(0)
+        }
+    }
+
+    /**
+     * Choose an individual at random, avoiding the ones that did timeout if possible
+     */
+    fun sample(randomness: Randomness): EvaluatedIndividual<T> {
+
+        if (timedOut == 0 || timedOut == entries.size) {
+            return randomness.choose(view)
+        }
+
+        val candidates = notTimedOut
+                ?: entries.filter { !it.timedOut }.mapTo(mutableListOf()) { it.ei }.also { notTimedOut = it }
+
+        return randomness.choose(candidates)
+    }
+
+    private fun entryOf(ei: EvaluatedIndividual<T>) = Entry(
+            ei,
+            ei.fitness.getHeuristic(target),
+            ei.individual.size(),
+            ei.results.any { it is RestCallResult && it.getTimedout() })
+
+    private fun insert(index: Int, e: Entry<T>) {
+        entries.add(index, e)
+        if (e.timedOut) {
+            timedOut++
+        }
+        notTimedOut = null
+    }
+
+    private fun removeAt(index: Int) {
+        if (entries.removeAt(index).timedOut) {
+            timedOut--
+        }
+        notTimedOut = null
+    }
+
+    private fun compare(a: Entry<T>, b: Entry<T>): Int {
+        val h = a.heuristic.compareTo(b.heuristic)
+        if (h != 0) {
+            return h
+        }
+        val extra = a.ei.fitness.compareExtraToMinimize(target, b.ei.fitness, strategy)
+        if (extra != 0) {
+            return extra
+        }
+        return b.size.compareTo(a.size)
+    }
+
+    /**
+     * @return the first position with an entry greater than [e]
+     */
+    private fun upperBound(e: Entry<T>): Int {
+        var low = 0
+        var high = entries.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (compare(entries[mid], e) <= 0) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
+        }
+        return low
+    }
+
+    /**
+     * @return the first position with an entry not lower than [e]
+     */
+    private fun lowerBound(e: Entry<T>): Int {
+        var low = 0
+        var high = entries.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (compare(entries[mid], e) < 0) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
+        }
+        return low
+    }
+}
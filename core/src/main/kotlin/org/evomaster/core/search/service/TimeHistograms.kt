@@ -0,0 +1,15 @@
+package org.evomaster.core.search.service
+
+import org.evomaster.client.java.controller.api.TimeHistogram
+
+/**
+ * Record the duration of the given [operation], and return its result
+ */
+inline fun <T> TimeHistogram.measure(operation: () -> T): T {
+    val start = System.nanoTime()
+    try {
+        return operation()
+    } finally {
+        recordSince(start)
+    }
+}
@@ -0,0 +1,200 @@
+package org.evomaster.core.search.service.checkpoint
+
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonElement
+import com.google.inject.Inject
+import org.evomaster.core.EMConfig
+import org.evomaster.core.logging.LoggingUtil
+import org.evomaster.core.search.EvaluatedIndividual
+import org.evomaster.core.search.Individual
+import org.evomaster.core.search.service.*
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.InputStreamReader
+import java.io.OutputStreamWriter
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.*
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+import javax.annotation.PostConstruct
+
+/**
+ * Periodically save the state of the search (ie, the individuals in the [Archive], the
+ * used budget and the state of [Randomness]) to a gzipped JSON file, so that a search
+ * can be resumed if EvoMaster or the SUT crash during a long run.
+ *
+ * A checkpoint only contains the current individuals in the archive, and not the history of
+ * the search, so its size depends only on the content of the archive.
+ * The search thread just collects the references to those individuals (which are not modified
+ * once in the archive), whereas their serialization and the write to disk are done in a background
+ * thread. Individuals that were already in the previous checkpoint are not serialized again.
+ *
+ * When resuming, the individuals are evaluated again on the SUT instead of restoring their
+ * fitness, as the numeric ids of the targets (see [IdMapper]) are not stable across different
+ * runs of the SUT. This rebuilds the archive and the id mappings, but not the sampling counters of
+ * each target, which start from scratch.
+ * [AdaptiveParameterControl] has no state besides the used budget, which is restored.
+ */
+class CheckpointService : SearchListener {
+
+    companion object {
+        private val log: Logger = LoggerFactory.getLogger(CheckpointService::class.java)
+    }
+
+    /**
+     * What is saved on disk
+     */
+    private class Checkpoint(
+            val evaluatedIndividuals: Int,
+            val individualsWithSqlFailedWhere: Int,
+            val evaluatedActions: Int,
+            val lastActionImprovement: Int,
+            val elapsedMs: Long,
+            /**
+             * Base64 of the state of [Randomness]
+             */
+            val randomness: String,
+            val individuals: List<JsonElement>
+    )
+
+    @Inject
+    private lateinit var config: EMConfig
+
+    @Inject
+    private lateinit var time: SearchTimeController
+
+    @Inject
+    private lateinit var archive: Archive<*>
+
+    @Inject
+    private lateinit var randomness: Randomness
+
+    private val gson = GsonBuilder().serializeSpecialFloatingPointValues().create()
+
+    private val codec = ObjectGraphCodec()
+
+    private var executor: ExecutorService? = null
+
+    private val writing = AtomicBoolean(false)
+
+    private var lastCheckpointMs = 0L
+
+    private var resuming = false
+
+    /**
+     * Serialized individuals of the last checkpoint.
+     * Only accessed by the background thread
+     */
+    private var encoded = IdentityHashMap<EvaluatedIndividual<*>, JsonElement>()
+
+
+    @PostConstruct
+    private fun postConstruct() {
+        if (config.checkpointInterval > 0) {
+            executor = Executors.newSingleThreadExecutor { r ->
+                Thread(r, "EvoMaster-checkpoint").apply { isDaemon = true }
+            }
+            time.addListener(this)
+        }
+    }
+
+    override fun newActionEvaluated() {
+
+        val elapsed = time.getElapsedMs()
+
+        if (resuming
+                || elapsed - lastCheckpointMs < config.checkpointInterval * 1000L
+                || !writing.compareAndSet(false, true)) {
+            return
+        }
+        lastCheckpointMs = elapsed
+
+        //done on the search thread, to get a consistent view of the search
+        val individuals: List<EvaluatedIndividual<*>> = archive.distinctIndividuals()
+        val evaluatedIndividuals = time.evaluatedIndividuals
+        val individualsWithSqlFailedWhere = time.individualsWithSqlFailedWhere
+        val evaluatedActions = time.evaluatedActions
+        val lastActionImprovement = time.lastActionImprovement
+        val random = Base64.getEncoder().encodeToString(randomness.getState())
+
+        executor!!.execute {
+            try {
+                val next = IdentityHashMap<EvaluatedIndividual<*>, JsonElement>()
+                individuals.forEach {
+                    next[it] = encoded[it] ?: codec.encode(it.individual.copy())
+                }
+                encoded = next
+
+                write(Checkpoint(evaluatedIndividuals, individualsWithSqlFailedWhere, evaluatedActions,
+                        lastActionImprovement, elapsed, random, next.values.toList()))
+            } catch (e: Exception) {
+                log.warn("Failed to save checkpoint: {}", e.message)
+            } finally {
+                writing.set(false)
+            }
+        }
+    }
+
+    private fun write(checkpoint: Checkpoint) {
+
+        val path = Paths.get(config.checkpointFile).toAbsolutePath()
+        path.parent?.let { Files.createDirectories(it) }
+        val tmp = path.resolveSibling(path.fileName.toString() + ".tmp")
+
+        OutputStreamWriter(GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8).use {
+            gson.toJson(checkpoint, it)
+        }
+
+        //a crash while writing should not corrupt the previous checkpoint
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    }
+
+    /**
+     * Load the checkpoint, if any, and bring the search back to its state.
+     * This must be called at the beginning of the search, after [SearchTimeController.startSearch]
+     */
+    fun <T : Individual> resume(ff: FitnessFunction<T>, archive: Archive<T>) {
+
+        val path = Paths.get(config.checkpointFile)
+        if (!Files.exists(path)) {
+            LoggingUtil.getInfoLogger().info("No checkpoint to resume from at ${path.toAbsolutePath()}")
+            return
+        }
+
+        val checkpoint = InputStreamReader(GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8).use {
+            gson.fromJson(it, Checkpoint::class.java)
+        }
+
+        val individuals = checkpoint.individuals.mapNotNull {
+            try {
+                @Suppress("UNCHECKED_CAST")
+                codec.decode(it) as T
+            } catch (e: Exception) {
+                log.warn("Failed to load individual from checkpoint: {}", e.message)
+                null
+            }
+        }
+
+        LoggingUtil.getInfoLogger().info("Resuming search from checkpoint with ${individuals.size} tests")
+
+        resuming = true
+        try {
+            individuals.chunked(ff.parallelism()).forEach { chunk ->
+                ff.calculateCoverage(chunk).forEach { ei -> ei?.let { archive.addIfNeeded(it) } }
+            }
+        } finally {
+            resuming = false
+        }
+
+        time.restore(checkpoint.evaluatedIndividuals, checkpoint.individualsWithSqlFailedWhere,
+                checkpoint.evaluatedActions, checkpoint.lastActionImprovement, checkpoint.elapsedMs)
+        lastCheckpointMs = checkpoint.elapsedMs
+        randomness.setState(Base64.getDecoder().decode(checkpoint.randomness))
+    }
+}
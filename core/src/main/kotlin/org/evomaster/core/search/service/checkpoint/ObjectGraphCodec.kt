@@ -0,0 +1,296 @@
+package org.evomaster.core.search.service.checkpoint
+
+import com.google.gson.*
+import org.objenesis.ObjenesisStd
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+import java.util.*
+
+/**
+ * Convert object graphs (eg, individuals with their actions and genes) to JSON and back.
+ *
+ * Contrary to plain Gson, this keeps the concrete class of each object, so polymorphic
+ * fields (eg, a [org.evomaster.core.search.gene.Gene] inside an ArrayGene template) are
+ * restored with their actual type. Objects reachable more than once from the root (eg, genes
+ * bound to each other) are written once, and later referred to by id.
+ *
+ * Only classes of EvoMaster (and Kotlin data classes like Pair) are serialized field by field.
+ * Strings, boxed primitives, enums, arrays, collections and maps are handled explicitly,
+ * whereas any other type leads to an [IllegalArgumentException].
+ * Transient fields are skipped, so they get their JVM default value when decoded.
+ */
+class ObjectGraphCodec {
+
+    companion object {
+        private const val CLASS = "@c"
+        private const val ID = "@id"
+        private const val REF = "@r"
+        private const val VALUE = "v"
+        private const val ITEMS = "@items"
+
+        /**
+         * Used to create objects without calling any of their constructors,
+         * as their fields are then all set from the decoded values
+         */
+        private val objenesis = ObjenesisStd()
+
+        private val fieldCache = mutableMapOf<Class<*>, List<Pair<String, Field>>>()
+
+        private val boxes = mapOf<Class<*>, Class<*>>(
+                java.lang.Integer.TYPE to java.lang.Integer::class.java,
+                java.lang.Long.TYPE to java.lang.Long::class.java,
+                java.lang.Double.TYPE to java.lang.Double::class.java,
+                java.lang.Float.TYPE to java.lang.Float::class.java,
+                java.lang.Short.TYPE to java.lang.Short::class.java,
+                java.lang.Byte.TYPE to java.lang.Byte::class.java,
+                java.lang.Character.TYPE to java.lang.Character::class.java,
+                java.lang.Boolean.TYPE to java.lang.Boolean::class.java
+        )
+
+        private fun isSerializedByFields(k: Class<*>) =
+                (k.name.startsWith("org.evomaster.") || k.name.startsWith("kotlin."))
+                        && !k.isSynthetic && !kotlin.Function::class.java.isAssignableFrom(k)
+
+        private fun fields(k: Class<*>): List<Pair<String, Field>> = synchronized(fieldCache) {
+            fieldCache.getOrPut(k) {
+                val list = mutableListOf<Pair<String, Field>>()
+                val names = mutableSetOf<String>()
+                var c: Class<*>? = k
+                while (c != null && c != Any::class.java) {
+                    c.declaredFields
+                            .filter { !Modifier.isStatic(it.modifiers) && !Modifier.isTransient(it.modifiers) }
+                            .forEach {
+                                it.isAccessible = true
+                                //a subclass could shadow a field of a superclass
+                                val name = if (names.add(it.name)) it.name else "${c!!.name}.${it.name}"
+                                list.add(name to it)
+                            }
+                    c = c.superclass
+                }
+                list
+            }
+        }
+
+        private fun singleton(k: Class<*>): Any? {
+            return try {
+                val f = k.getDeclaredField("INSTANCE")
+                if (Modifier.isStatic(f.modifiers) && f.type == k) f.get(null) else null
+            } catch (e: NoSuchFieldException) {
+                null
+            }
+        }
+    }
+
+    private val gson = GsonBuilder().serializeSpecialFloatingPointValues().create()
+
+    private val parser = JsonParser()
+
+    fun toJson(obj: Any?): String = gson.toJson(encode(obj))
+
+    fun fromJson(json: String): Any? = decode(parser.parse(json))
+
+    /**
+     * Encode the whole graph reachable from [obj]
+     */
+    fun encode(obj: Any?): JsonElement = Encoder().write(obj, Any::class.java)
+
+    fun decode(json: JsonElement): Any? = Decoder().read(json, Any::class.java)
+
+
+    private class Encoder {
+
+        private val ids = IdentityHashMap<Any, Int>()
+
+        fun write(value: Any?, declared: Class<*>): JsonElement {
+            if (value == null) {
+                return JsonNull.INSTANCE
+            }
+
+            val k = value.javaClass
+
+            if (value is String) {
+                return JsonPrimitive(value)
+            }
+            if (value is Boolean && (declared == k || boxes[declared] == k || declared == Any::class.java)) {
+                return JsonPrimitive(value)
+            }
+            if (value is Number || value is Char || value is Boolean) {
+                val p = if (value is Char) JsonPrimitive(value) else if (value is Boolean) JsonPrimitive(value) else JsonPrimitive(value as Number)
+                return if (declared == k || boxes[declared] == k) p else tagged(k, p)
+            }
+            if (k.isEnum || (k.superclass?.isEnum == true)) {
+                //constants with a body are anonymous subclasses of the enum
+                val e = if (k.isEnum) k else k.superclass
+                return tagged(e, JsonPrimitive((value as Enum<*>).name))
+            }
+
+            val id = ids[value]
+            if (id != null) {
+                return JsonObject().apply { addProperty(REF, id) }
+            }
+            ids[value] = ids.size
+
+            val o = JsonObject()
+            o.addProperty(ID, ids[value])
+
+            when {
+                k.isArray -> {
+                    o.addProperty(CLASS, k.name)
+                    val items = JsonArray()
+                    val component = k.componentType
+                    for (i in 0 until java.lang.reflect.Array.getLength(value)) {
+                        items.add(write(java.lang.reflect.Array.get(value, i), component))
+                    }
+                    o.add(ITEMS, items)
+                }
+                value is Collection<*> -> {
+                    o.addProperty(CLASS, collectionClass(k, value is Set<*>).name)
+                    val items = JsonArray()
+                    value.forEach { items.add(write(it, Any::class.java)) }
+                    o.add(ITEMS, items)
+                }
+                value is Map<*, *> -> {
+                    o.addProperty(CLASS, mapClass(k).name)
+                    val items = JsonArray()
+                    value.entries.forEach {
+                        val pair = JsonArray()
+                        pair.add(write(it.key, Any::class.java))
+                        pair.add(write(it.value, Any::class.java))
+                        items.add(pair)
+                    }
+                    o.add(ITEMS, items)
+                }
+                isSerializedByFields(k) -> {
+                    o.addProperty(CLASS, k.name)
+                    if (singleton(k) !== value) {
+                        fields(k).forEach { (name, f) -> o.add(name, write(f.get(value), f.type)) }
+                    }
+                }
+                else -> throw IllegalArgumentException("Cannot serialize object of type ${k.name}")
+            }
+
+            return o
+        }
+
+        private fun tagged(k: Class<*>, p: JsonPrimitive): JsonObject {
+            val o = JsonObject()
+            o.addProperty(CLASS, k.name)
+            o.add(VALUE, p)
+            return o
+        }
+
+        /**
+         * Only keep collection classes from the JDK that can be recreated with
+         * a no-arg constructor, otherwise fallback to a general one (eg, for
+         * read-only views and Kotlin's empty collections)
+         */
+        private fun collectionClass(k: Class<*>, isSet: Boolean): Class<*> {
+            return when (k) {
+                ArrayList::class.java, LinkedList::class.java, HashSet::class.java,
+                LinkedHashSet::class.java, ArrayDeque::class.java -> k
+                else -> if (isSet) LinkedHashSet::class.java else ArrayList::class.java
+            }
+        }
+
+        private fun mapClass(k: Class<*>): Class<*> {
+            return when (k) {
+                HashMap::class.java, LinkedHashMap::class.java,
+                java.util.concurrent.ConcurrentHashMap::class.java -> k
+                else -> LinkedHashMap::class.java
+            }
+        }
+    }
+
+
+    private class Decoder {
+
+        private val objects = mutableMapOf<Int, Any>()
+
+        fun read(json: JsonElement, declared: Class<*>): Any? {
+            if (json.isJsonNull) {
+                return null
+            }
+
+            if (json.isJsonPrimitive) {
+                return primitive(json.asJsonPrimitive, declared)
+            }
+
+            val o = json.asJsonObject
+
+            if (o.has(REF)) {
+                val id = o.get(REF).asInt
+                return objects[id] ?: throw IllegalArgumentException("Unknown reference: $id")
+            }
+
+            val k = Class.forName(o.get(CLASS).asString)
+
+            if (o.has(VALUE)) {
+                val p = o.get(VALUE).asJsonPrimitive
+                if (k.isEnum) {
+                    return k.enumConstants.first { (it as Enum<*>).name == p.asString }
+                }
+                return primitive(p, k)
+            }
+
+            val id = o.get(ID).asInt
+
+            when {
+                k.isArray -> {
+                    val items = o.get(ITEMS).asJsonArray
+                    val array = java.lang.reflect.Array.newInstance(k.componentType, items.size())
+                    objects[id] = array
+                    items.forEachIndexed { i, e -> java.lang.reflect.Array.set(array, i, read(e, k.componentType)) }
+                    return array
+                }
+                Collection::class.java.isAssignableFrom(k) -> {
+                    @Suppress("UNCHECKED_CAST")
+                    val c = k.getDeclaredConstructor().newInstance() as MutableCollection<Any?>
+                    objects[id] = c
+                    o.get(ITEMS).asJsonArray.forEach { c.add(read(it, Any::class.java)) }
+                    return c
+                }
+                Map::class.java.isAssignableFrom(k) -> {
+                    @Suppress("UNCHECKED_CAST")
+                    val m = k.getDeclaredConstructor().newInstance() as MutableMap<Any?, Any?>
+                    objects[id] = m
+                    o.get(ITEMS).asJsonArray.forEach {
+                        val pair = it.asJsonArray
+                        m[read(pair[0], Any::class.java)] = read(pair[1], Any::class.java)
+                    }
+                    return m
+                }
+                isSerializedByFields(k) -> {
+                    val instance = singleton(k)
+                    if (instance != null) {
+                        objects[id] = instance
+                        return instance
+                    }
+                    val obj = objenesis.newInstance(k)
+                    objects[id] = obj
+                    fields(k).forEach { (name, f) ->
+                        val e = o.get(name)
+                        if (e != null) {
+                            f.set(obj, read(e, f.type))
+                        }
+                    }
+                    return obj
+                }
+                else -> throw IllegalArgumentException("Cannot deserialize object of type ${k.name}")
+            }
+        }
+
+        private fun primitive(p: JsonPrimitive, k: Class<*>): Any {
+            return when (boxes[k] ?: k) {
+                java.lang.Integer::class.java -> p.asInt
+                java.lang.Long::class.java -> p.asLong
+                java.lang.Double::class.java -> p.asDouble
+                java.lang.Float::class.java -> p.asFloat
+                java.lang.Short::class.java -> p.asShort
+                java.lang.Byte::class.java -> p.asByte
+                java.lang.Character::class.java -> p.asString[0]
+                java.lang.Boolean::class.java -> p.asBoolean
+                else -> if (p.isBoolean) p.asBoolean else p.asString
+            }
+        }
+    }
+}
@@ -54,14 +54,25 @@ class SearchProcessMonitor: SearchListener {
 
     private val evaluatedIndividuals : MutableList<EvaluatedIndividual<*>> = mutableListOf()
 
+    /**
+     * where steps are saved, created when the first step is saved
+     */
+    private var stepLog : StepLogWriter? = null
+
     companion object {
         private val log: Logger = LoggerFactory.getLogger(SearchProcessMonitor::class.java)
 
         /**
-         * all steps of search are archived under the DATA_FOLDER, e.g., @see org.evomaster.core.EMConfig.processFiles/data
+         * all steps of search can be exported under the DATA_FOLDER, e.g., @see org.evomaster.core.EMConfig.processFiles/data
          * */
         const val DATA_FOLDER = "data"
 
+        /**
+         * all steps of search are appended to this log, e.g., @see org.evomaster.core.EMConfig.processFiles/steps.log.
+         * They can be converted into one json file per step under DATA_FOLDER with [StepLogReader]
+         * */
+        const val STEP_LOG = "steps.log"
+
         /**
          * a name of a file to save final Archive, and it can be found in @see org.evomaster.core.EMConfig.processFiles/overall.json
          * */
@@ -80,6 +91,8 @@ class SearchProcessMonitor: SearchListener {
 
     @PostConstruct
     fun postConstruct(){
+        stepLog?.close()
+        stepLog = null
         initMonitorProcessOutputs()
         if(config.enableProcessMonitor){
             time.addListener(this)
@@ -138,12 +151,28 @@ class SearchProcessMonitor: SearchListener {
         }
     }
     fun saveOverall(){
+        stepLog?.close()
+        stepLog = null
         setOverall()
         writeByChannel(Paths.get(config.processFiles + File.separator + getOverallFileName()), gson.toJson(this.overall))
     }
 
     private fun saveStep(index:Int, v : StepOfSearchProcess<*>){
-        writeByChannel(Paths.get(config.processFiles + File.separator+ DATA_FOLDER +File.separator + ""+ getStepFileName(index) ), gson.toJson(v))
+        val writer = stepLog ?: StepLogWriter(getStepLogPath()).also { stepLog = it }
+        writer.append(index, gson.toJson(v))
+    }
+
+    fun getStepLogPath() : Path = Paths.get(config.processFiles + File.separator + STEP_LOG)
+
+    /**
+     * Convert the steps saved so far into one json file per step under DATA_FOLDER
+     */
+    fun exportSteps(){
+        stepLog?.flush()
+        val path = getStepLogPath()
+        if(Files.exists(path)){
+            StepLogReader(path).toJsonFiles(Paths.get(config.processFiles + File.separator + DATA_FOLDER)) { getStepFileName(it) }
+        }
     }
 
 
@@ -0,0 +1,129 @@
+package org.evomaster.core.search.service.monitor
+
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.RandomAccessFile
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.zip.Inflater
+
+/**
+ * Read a log written with [StepLogWriter].
+ * Only the headers of the blocks are read when opening the log, whereas a
+ * block is decompressed only when one of its steps is accessed.
+ */
+class StepLogReader(private val path: Path) {
+
+    companion object {
+
+        /**
+         * Convert a log into one JSON file per step, ie, the same layout used
+         * by [SearchProcessMonitor] before the introduction of the log.
+         *
+         * Usage: `StepLogReader <log file> <output folder> [<number of digits in file names>]`
+         */
+        @JvmStatic
+        fun main(args: Array<String>) {
+            if (args.size < 2) {
+                println("Usage: StepLogReader <log file> <output folder> [<number of digits in file names>]")
+                return
+            }
+            val reader = StepLogReader(Paths.get(args[0]))
+            val digits = if (args.size > 2) args[2].toInt() else (reader.indices().max() ?: 0).toString().length
+            reader.toJsonFiles(Paths.get(args[1])) { String.format("%0${digits}d", it) + SearchProcessMonitor.FILE_TYPE }
+        }
+    }
+
+    private class Block(val offset: Long, val firstIndex: Int, val count: Int, val rawSize: Int, val compressedSize: Int)
+
+    private val blocks = mutableListOf<Block>()
+
+    init {
+        RandomAccessFile(path.toFile(), "r").use {
+            var offset = 0L
+            //a truncated block at the end (eg, due to a crash) is ignored
+            while (offset + 16 <= it.length()) {
+                it.seek(offset)
+                val b = Block(offset + 16, it.readInt(), it.readInt(), it.readInt(), it.readInt())
+                if (b.offset + b.compressedSize > it.length()) {
+                    break
+                }
+                blocks.add(b)
+                offset = b.offset + b.compressedSize
+            }
+        }
+    }
+
+    /**
+     * @return the indices of all the steps in the log, in the order they were written
+     */
+    fun indices(): List<Int> = blocks.flatMap { records(it).map { r -> r.first } }
+
+    /**
+     * @return the JSON content of the step with the given [index], or null if not in the log
+     */
+    fun read(index: Int): String? {
+        //blocks are sorted by index, so take the last one starting before it
+        var low = 0
+        var high = blocks.size - 1
+        var found = -1
+        while (low <= high) {
+            val mid = (low + high) / 2
+            if (blocks[mid].firstIndex <= index) {
+                found = mid
+                low = mid + 1
+            } else {
+                high = mid - 1
+            }
+        }
+        if (found < 0) {
+            return null
+        }
+        return records(blocks[found]).find { it.first == index }?.second
+    }
+
+    /**
+     * Apply [consumer] to the index and JSON content of each step, in the order they were written
+     */
+    fun forEach(consumer: (Int, String) -> Unit) {
+        blocks.forEach { b -> records(b).forEach { consumer(it.first, it.second) } }
+    }
+
+    /**
+     * Write each step in its own file in [folder], named with [fileName]
+     */
+    fun toJsonFiles(folder: Path, fileName: (Int) -> String) {
+        Files.createDirectories(folder)
+        forEach { index, json ->
+            Files.write(folder.resolve(fileName(index)), json.toByteArray(StandardCharsets.UTF_8))
+        }
+    }
+
+    private fun records(b: Block): List<Pair<Int, String>> {
+
+        val compressed = ByteArray(b.compressedSize)
+        RandomAccessFile(path.toFile(), "r").use {
+            it.seek(b.offset)
+            it.readFully(compressed)
+        }
+
+        val raw = ByteArray(b.rawSize)
+        val inflater = Inflater()
+        inflater.setInput(compressed)
+        var n = 0
+        while (n < raw.size && !inflater.finished()) {
+            n += inflater.inflate(raw, n, raw.size - n)
+        }
+        inflater.end()
+
+        val input = DataInputStream(ByteArrayInputStream(raw))
+        return (0 until b.count).map {
+            val index = input.readInt()
+            val content = ByteArray(input.readInt())
+            input.readFully(content)
+            index to String(content, StandardCharsets.UTF_8)
+        }
+    }
+}
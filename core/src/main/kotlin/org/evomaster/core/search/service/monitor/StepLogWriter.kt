@@ -0,0 +1,171 @@
+package org.evomaster.core.search.service.monitor
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.ByteArrayOutputStream
+import java.io.Closeable
+import java.io.DataOutputStream
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.zip.Deflater
+
+/**
+ * Append-only log of the steps of the search saved by [SearchProcessMonitor], instead
+ * of having one JSON file per step.
+ *
+ * Records are appended to a bounded queue, and written to disk by a background thread,
+ * so the search is not blocked by I/O (unless the queue is full).
+ * Records are grouped in blocks, each one compressed on its own. Layout of a block:
+ * index of its first step, number of records, size of the uncompressed records, size of
+ * the compressed data, followed by the compressed data. Each record is the index of its
+ * step, the length of its UTF-8 JSON content, and the content itself.
+ * The headers of the blocks allow to access a step without decompressing the whole log,
+ * see [StepLogReader].
+ *
+ * A block is written when it is large enough, when no new record arrives for a while,
+ * or on [flush] and [close]. So, in case of crash, only the last few records might be lost.
+ */
+class StepLogWriter(
+        private val path: Path,
+        queueCapacity: Int = 1024,
+        private val blockSize: Int = 256 * 1024
+) : Closeable {
+
+    companion object {
+        private val log: Logger = LoggerFactory.getLogger(StepLogWriter::class.java)
+
+        /**
+         * How long to wait for new records before writing a non-full block
+         */
+        private const val IDLE_MS = 1000L
+    }
+
+    private sealed class Entry {
+        class Record(val index: Int, val content: ByteArray) : Entry()
+        class Flush(val done: CountDownLatch) : Entry()
+    }
+
+    private val queue = ArrayBlockingQueue<Entry>(queueCapacity)
+
+    private val thread = Thread({ run() }, "EvoMaster-process-monitor").apply { isDaemon = true }
+
+    private val bytes = ByteArrayOutputStream()
+
+    private val block = DataOutputStream(bytes)
+
+    private var firstIndex = 0
+
+    private var count = 0
+
+    @Volatile
+    private var closed = false
+
+    init {
+        path.parent?.let { Files.createDirectories(it) }
+        Files.deleteIfExists(path)
+        Files.createFile(path)
+        thread.start()
+    }
+
+    /**
+     * Add the [json] content of the step with the given [index].
+     * Indices are expected to be increasing.
+     */
+    fun append(index: Int, json: String) {
+        if (closed) {
+            throw IllegalStateException("Log is closed")
+        }
+        queue.put(Entry.Record(index, json.toByteArray(StandardCharsets.UTF_8)))
+    }
+
+    /**
+     * Wait until all the records appended so far are on disk
+     */
+    fun flush() {
+        if (closed) {
+            return
+        }
+        val done = CountDownLatch(1)
+        queue.put(Entry.Flush(done))
+        done.await()
+    }
+
+    override fun close() {
+        flush()
+        closed = true
+        thread.interrupt()
+    }
+
+    private fun run() {
+        try {
+            while (true) {
+                val entry = queue.poll(IDLE_MS, TimeUnit.MILLISECONDS)
+                when (entry) {
+                    null -> writeBlock()
+                    is Entry.Flush -> {
+                        writeBlock()
+                        entry.done.countDown()
+                    }
+                    is Entry.Record -> {
+                        if (count == 0) {
+                            firstIndex = entry.index
+                        }
+                        block.writeInt(entry.index)
+                        block.writeInt(entry.content.size)
+                        block.write(entry.content)
+                        count++
+                        if (bytes.size() >= blockSize) {
+                            writeBlock()
+                        }
+                    }
+                }
+            }
+        } catch (e: InterruptedException) {
+            //closed
+        } catch (e: Exception) {
+            log.warn("Failed to write search process log: {}", e.message)
+            closed = true
+            //do not leave anyone waiting for a flush
+            queue.filterIsInstance<Entry.Flush>().forEach { it.done.countDown() }
+        }
+    }
+
+    private fun writeBlock() {
+        if (count == 0) {
+            return
+        }
+
+        val raw = bytes.toByteArray()
+        val deflater = Deflater(Deflater.BEST_SPEED)
+        deflater.setInput(raw)
+        deflater.finish()
+        val compressed = ByteArrayOutputStream(raw.size / 2 + 64)
+        val buffer = ByteArray(64 * 1024)
+        while (!deflater.finished()) {
+            val n = deflater.deflate(buffer)
+            compressed.write(buffer, 0, n)
+        }
+        deflater.end()
+
+        val header = ByteArrayOutputStream(16)
+        DataOutputStream(header).apply {
+            writeInt(firstIndex)
+            writeInt(count)
+            writeInt(raw.size)
+            writeInt(compressed.size())
+        }
+
+        Files.newOutputStream(path, StandardOpenOption.APPEND).use {
+            header.writeTo(it)
+            compressed.writeTo(it)
+        }
+
+        bytes.reset()
+        count = 0
+    }
+}
@@ -69,7 +69,11 @@ abstract class Mutator<T> : TrackOperator where T : Individual {
             : EvaluatedIndividual<T> {
 
         var current = individual
-        val targets = archive.notCoveredTargets()
+        /*
+            the archive is updated in the loop, but we want to compare
+            against the targets not covered at the beginning
+         */
+        val targets = archive.notCoveredTargets().toSet()
 
         for (i in 0 until upToNTimes) {
 
@@ -124,10 +128,22 @@ abstract class Mutator<T> : TrackOperator where T : Individual {
     fun mutateAndSave(individual: EvaluatedIndividual<T>, archive: Archive<T>)
             : EvaluatedIndividual<T>? {
 
+        return ff.calculateCoverage(mutateWithoutEvaluation(individual))
+                ?.also { archive.addIfNeeded(it) }
+    }
+
+    /**
+     * Apply a single mutation, without evaluating the result.
+     * This is useful when several individuals are first created, and
+     * then evaluated at the same time
+     *
+     * @return a mutated copy
+     */
+    fun mutateWithoutEvaluation(individual: EvaluatedIndividual<T>): T {
+
         structureMutator.addInitializingActions(individual)
 
-        return ff.calculateCoverage(mutate(individual))
-                ?.also { archive.addIfNeeded(it) }
+        return mutate(individual)
     }
 
 }
\ No newline at end of file
@@ -109,4 +109,27 @@ internal class EMConfigTest{
         val options = parser.parse()
         assertEquals("", opt.value(options))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testSutControllerWorkerPorts(){
+
+        val parser = EMConfig.getOptionParser()
+        val config = EMConfig()
+
+        config.updateProperties(parser.parse("--sutControllerWorkerPorts", " 40101, 40102"))
+        assertEquals(listOf(40101, 40102), config.getSutControllerWorkerPorts())
+
+        assertThrows(IllegalArgumentException::class.java){
+            config.updateProperties(parser.parse("--sutControllerWorkerPorts", "foo"))
+        }
+
+        assertThrows(IllegalArgumentException::class.java){
+            config.updateProperties(parser.parse("--sutControllerWorkerPorts",
+                    "" + ControllerConstants.DEFAULT_CONTROLLER_PORT))
+        }
+
+        assertThrows(IllegalArgumentException::class.java){
+            config.updateProperties(parser.parse("--sutControllerWorkerPorts", "40101", "--algorithm", "MOSA"))
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.evomaster.core.database
 
-import org.junit.jupiter.api.Assertions.assertTrue
+import org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto
+import org.evomaster.client.java.controller.api.dto.database.operations.InsertionDto
+import org.evomaster.client.java.controller.api.dto.database.operations.InsertionEntryDto
+import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.Test
 
 class DbActionTransformerTest {
@@ -12,5 +15,31 @@ class DbActionTransformerTest {
         assertTrue(dto.insertions.isEmpty())
     }
 
+    private fun command(vararg values: String?) = DatabaseCommandDto().apply {
+        insertions = values.mapIndexed { i, v ->
+            InsertionDto().apply {
+                id = i.toLong()
+                targetTable = "Foo"
+                data = mutableListOf(InsertionEntryDto().apply {
+                    variableName = "x"
+                    printableValue = v
+                })
+            }
+        }
+    }
+
+    @Test
+    fun testSnapshotKey() {
 
-}
\ No newline at end of file
+        val key = DbActionTransformer.computeSnapshotKey(command("1", "2"))
+
+        assertEquals(key, DbActionTransformer.computeSnapshotKey(command("1", "2")))
+        assertNotEquals(key, DbActionTransformer.computeSnapshotKey(command("1", "3")))
+        assertNotEquals(key, DbActionTransformer.computeSnapshotKey(command("2", "1")))
+        assertNotEquals(key, DbActionTransformer.computeSnapshotKey(command("1")))
+        assertNotEquals(key, DbActionTransformer.computeSnapshotKey(command("1", null)))
+        //separators in the values should not lead to collisions
+        assertNotEquals(DbActionTransformer.computeSnapshotKey(command("1;", "2")),
+                DbActionTransformer.computeSnapshotKey(command("1", ";2")))
+    }
+}
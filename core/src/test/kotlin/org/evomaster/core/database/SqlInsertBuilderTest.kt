@@ -1,5 +1,6 @@
 package org.evomaster.core.database
 
+import org.evomaster.client.java.controller.api.dto.database.operations.DataRowDto
 import org.evomaster.client.java.controller.api.dto.database.operations.DatabaseCommandDto
 import org.evomaster.client.java.controller.api.dto.database.operations.QueryResultDto
 import org.evomaster.client.java.controller.db.SqlScriptRunner
@@ -389,6 +390,9 @@ class SqlInsertBuilderTest {
         }
 
         override fun executeDatabaseCommandAndGetQueryResults(dto: DatabaseCommandDto): QueryResultDto? {
+            if (dto.maxRows != null) {
+                return SqlScriptRunner.execQueryAsDto(connection, dto.command, dto.maxRows)
+            }
             return SqlScriptRunner.execCommand(connection, dto.command).toDto()
         }
 
@@ -434,6 +438,25 @@ class SqlInsertBuilderTest {
     }
 
 
+    @Test
+    fun testExtractExistingPKsWithMaxRows() {
+
+        SqlScriptRunner.execCommand(connection, "CREATE TABLE Users(id  bigserial not null, primary key (id));")
+        for (i in 0 until 10) {
+            SqlScriptRunner.execCommand(connection, "INSERT INTO Users (id) VALUES ($i)")
+        }
+
+        val schema = SchemaExtractor.extract(connection)
+
+        assertEquals(10, SqlInsertBuilder(schema, DirectDatabaseExecutor()).extractExistingPKs().size)
+        assertEquals(4, SqlInsertBuilder(schema, DirectDatabaseExecutor(), 4).extractExistingPKs().size)
+
+        val dataInDB = mutableMapOf<String, MutableList<DataRowDto>>()
+        SqlInsertBuilder(schema, DirectDatabaseExecutor(), 4).extractExistingPKs(dataInDB)
+        assertEquals(4, dataInDB.values.first().size)
+    }
+
+
     @Test
     fun testExtractExistingPKsMultiTables() {
 
@@ -0,0 +1,54 @@
+package org.evomaster.core.remote.service
+
+import org.evomaster.client.java.controller.api.dto.TargetInfoDto
+import org.evomaster.core.search.service.IdMapper
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class SutWorkerTest {
+
+    private fun target(id: Int, descriptiveId: String? = null) = TargetInfoDto().apply {
+        this.id = id
+        this.descriptiveId = descriptiveId
+        this.value = 1.0
+        this.actionIndex = 0
+    }
+
+    @Test
+    fun testNoTranslation() {
+
+        val idMapper = IdMapper()
+        val worker = SutWorker(RemoteController("localhost", 0, false), "http://localhost:8080", false)
+
+        assertEquals(5, worker.toLocalId(target(5, "Line_5"), idMapper))
+        assertEquals("Line_5", idMapper.getDescriptiveId(5))
+        assertEquals(setOf(5, 7), worker.toRemoteIds(listOf(5, 7), idMapper))
+    }
+
+    @Test
+    fun testTranslationAcrossWorkers() {
+
+        val idMapper = IdMapper()
+        val a = SutWorker(RemoteController("localhost", 0, false), "http://localhost:8080", true)
+        val b = SutWorker(RemoteController("localhost", 0, false), "http://localhost:8081", true)
+
+        //same targets, but with different numbering in the two Drivers
+        a.recordDescriptiveIds(listOf(target(0, "Line_A"), target(1, "Line_B")))
+        b.recordDescriptiveIds(listOf(target(0, "Line_B"), target(1, "Line_A")))
+
+        val idA = a.toLocalId(target(0), idMapper)!!
+        val idB = a.toLocalId(target(1), idMapper)!!
+
+        assertNotEquals(idA, idB)
+        assertEquals(idA, b.toLocalId(target(1), idMapper))
+        assertEquals(idB, b.toLocalId(target(0), idMapper))
+        assertFalse(IdMapper.isLocal(idA))
+
+        assertEquals(setOf(0), a.toRemoteIds(listOf(idA), idMapper))
+        assertEquals(setOf(1), b.toRemoteIds(listOf(idA), idMapper))
+
+        //never seen by the Driver
+        assertNull(a.toLocalId(target(42), idMapper))
+        assertTrue(a.toRemoteIds(listOf(idMapper.handleRemoteTarget("Line_C")), idMapper).isEmpty())
+    }
+}
@@ -0,0 +1,94 @@
+package org.evomaster.core.remote.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.evomaster.client.java.controller.api.TestResultsBinaryFormat
+import org.evomaster.client.java.controller.api.dto.*
+import org.evomaster.client.java.controller.api.dto.database.execution.ExecutionDto
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+/**
+ * Check that the binary format is actually more compact, and faster to decode, than the JSON
+ * one that is used by default, on data resembling what a Driver sends for a single test
+ */
+class TestResultsBinaryFormatSizeTest {
+
+    private fun createResults(): TestResultsDto {
+
+        val dto = TestResultsDto()
+
+        (0 until 500).forEach { i ->
+            dto.targets.add(TargetInfoDto().apply {
+                id = i * 3
+                //descriptive ids are sent only the first time a target is seen
+                descriptiveId = if (i % 50 == 0) "Line_at_org.foo.service.SomeService_${i}" else null
+                value = if (i % 2 == 0) 1.0 else 1.0 / (i + 1)
+                actionIndex = i % 5
+            })
+        }
+
+        (0 until 5).forEach {
+            dto.additionalInfoList.add(AdditionalInfoDto().apply {
+                lastExecutedStatement = "org.foo.service.SomeService_00042"
+            })
+            dto.extraHeuristics.add(ExtraHeuristicsDto().apply {
+                heuristics.add(HeuristicEntryDto(HeuristicEntryDto.Type.SQL,
+                        HeuristicEntryDto.Objective.MINIMIZE_TO_ZERO, "SELECT * FROM Foo WHERE x = 5", 10.0))
+                databaseExecutionDto = ExecutionDto().apply {
+                    queriedData["FOO"] = mutableSetOf("X", "Y")
+                    failedWhere["FOO"] = mutableSetOf("X")
+                    numberOfSqlCommands = 1
+                }
+            })
+        }
+
+        return dto
+    }
+
+    @Test
+    fun testSmallerThanJson() {
+
+        val dto = createResults()
+
+        val json = ObjectMapper().writeValueAsBytes(WrappedResponseDto.withData(dto))
+        val binary = TestResultsBinaryFormat.encode(dto)
+
+        assertTrue(binary.size * 3 < json.size, "Binary ${binary.size} bytes vs JSON ${json.size} bytes")
+
+        val decoded = TestResultsBinaryFormat.decode(binary)
+        assertEquals(dto.targets.size, decoded.targets.size)
+        assertEquals(dto.extraHeuristics.size, decoded.extraHeuristics.size)
+    }
+
+    @Test
+    fun testBytesPerTestAndDecodeTime() {
+
+        val dto = createResults()
+        val mapper = ObjectMapper()
+
+        val json = mapper.writeValueAsBytes(WrappedResponseDto.withData(dto))
+        val binary = TestResultsBinaryFormat.encode(dto)
+
+        val decodeJson = { mapper.readValue(json, WrappedResponseDto::class.java) }
+        val decodeBinary = { TestResultsBinaryFormat.decode(binary) }
+
+        val repetitions = 2_000
+        //warm-up, for the JIT
+        repeat(repetitions) { decodeJson(); decodeBinary() }
+
+        val jsonNs = averageNs(repetitions, decodeJson)
+        val binaryNs = averageNs(repetitions, decodeBinary)
+
+        println("Bytes per test: JSON ${json.size}, binary ${binary.size}." +
+                " Decode time per test: JSON ${jsonNs / 1000} us, binary ${binaryNs / 1000} us")
+
+        assertTrue(binaryNs < jsonNs, "Binary decode $binaryNs ns vs JSON $jsonNs ns")
+    }
+
+    private fun averageNs(repetitions: Int, f: () -> Any): Long {
+        val start = System.nanoTime()
+        repeat(repetitions) { f() }
+        return (System.nanoTime() - start) / repetitions
+    }
+}
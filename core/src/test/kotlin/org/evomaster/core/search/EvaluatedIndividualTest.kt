@@ -0,0 +1,68 @@
+package org.evomaster.core.search
+
+import org.evomaster.core.search.algorithms.onemax.OneMaxIndividual
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class EvaluatedIndividualTest {
+
+    private fun evaluated(): EvaluatedIndividual<OneMaxIndividual> {
+        val ind = OneMaxIndividual(3)
+        ind.setValue(0, 0.5)
+        return EvaluatedIndividual(FitnessValue(ind.size().toDouble()), ind, listOf())
+    }
+
+    @Test
+    fun testCopySharesIndividual() {
+        val ei = evaluated()
+        val copy = ei.copy()
+
+        assertSame(ei.individual, copy.individual)
+        assertNotSame(ei.fitness, copy.fitness)
+    }
+
+    @Test
+    fun testModifiableNotShared() {
+        val ei = evaluated()
+        val ind = ei.individual
+
+        assertSame(ind, ei.modifiableIndividual())
+    }
+
+    @Test
+    fun testModifiableCopiesSharedIndividual() {
+        val ei = evaluated()
+        val copy = ei.copy()
+        val original = ei.individual
+
+        val modifiable = copy.modifiableIndividual()
+        assertNotSame(original, modifiable)
+        assertSame(modifiable, copy.individual)
+        //no longer shared, so no further copy
+        assertSame(modifiable, copy.modifiableIndividual())
+
+        modifiable.setValue(0, 1.0)
+        assertEquals(1.0, copy.individual.getValue(0))
+        assertEquals(0.5, ei.individual.getValue(0))
+        assertSame(original, ei.individual)
+
+        //the source still shares its individual with the copy it was taken from, if any
+        val other = ei.modifiableIndividual()
+        assertNotSame(original, other)
+        assertEquals(0.5, other.getValue(0))
+    }
+
+    @Test
+    fun testCopyOfCopy() {
+        val ei = evaluated()
+        val a = ei.copy()
+        val b = a.copy()
+
+        assertSame(ei.individual, b.individual)
+
+        b.modifiableIndividual().setValue(1, 0.75)
+        assertEquals(0.0, ei.individual.getValue(1))
+        assertEquals(0.0, a.individual.getValue(1))
+        assertEquals(0.75, b.individual.getValue(1))
+    }
+}
@@ -0,0 +1,110 @@
+package org.evomaster.core.search
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class TargetHeuristicsTest {
+
+    @Test
+    fun testEmpty() {
+        val th = TargetHeuristics()
+
+        assertTrue(th.isEmpty())
+        assertFalse(th.contains(0))
+        assertEquals(0.0, th.getDistance(42))
+        assertEquals(-1, th.getActionIndex(42))
+        assertEquals(0.0, th.sumOfDistances())
+        assertEquals(0, th.coveredTargets())
+    }
+
+    @Test
+    fun testAsLinkedHashMap() {
+
+        val random = Random(123)
+        val th = TargetHeuristics()
+        val map = LinkedHashMap<Int, Heuristics>()
+
+        repeat(5_000) {
+            //also negative ids, as used for local targets
+            val id = random.nextInt(-500, 2_000)
+            val distance = if (random.nextBoolean()) FitnessValue.MAX_VALUE else random.nextDouble()
+            val action = random.nextInt(-1, 10)
+
+            th.put(id, distance, action)
+            map[id] = Heuristics(distance, action)
+
+            if (it % 100 == 0) {
+                assertEquals(map.values.map { h -> h.distance }.sum(), th.sumOfDistances())
+                assertEquals(map.values.count { h -> h.distance == FitnessValue.MAX_VALUE }, th.coveredTargets())
+            }
+        }
+
+        assertEquals(map.size, th.size)
+
+        val entries = mutableListOf<Pair<Int, Heuristics>>()
+        th.forEach { id, distance, actionIndex -> entries.add(id to Heuristics(distance, actionIndex)) }
+        assertEquals(map.toList(), entries)
+
+        (-600 until 2_100).forEach {
+            assertEquals(map.containsKey(it), th.contains(it))
+            assertEquals(map[it]?.distance ?: 0.0, th.getDistance(it))
+            assertEquals(map[it]?.actionIndex ?: -1, th.getActionIndex(it))
+        }
+    }
+
+    @Test
+    fun testCopyOnWrite() {
+
+        val th = TargetHeuristics()
+        th.put(1, 0.5, 0)
+        th.put(2, 1.0, 1)
+
+        val copy = th.copy()
+        copy.put(1, 1.0, 3)
+        copy.put(3, 0.2, 4)
+
+        assertEquals(2, th.size)
+        assertEquals(0.5, th.getDistance(1))
+        assertEquals(0, th.getActionIndex(1))
+        assertFalse(th.contains(3))
+        assertEquals(1.5, th.sumOfDistances())
+        assertEquals(1, th.coveredTargets())
+
+        assertEquals(3, copy.size)
+        assertEquals(1.0, copy.getDistance(1))
+        assertEquals(3, copy.getActionIndex(1))
+        assertEquals(2.2, copy.sumOfDistances(), 0.0001)
+        assertEquals(2, copy.coveredTargets())
+
+        //original can still be modified, without affecting the copy
+        th.put(4, 1.0, 0)
+        assertFalse(copy.contains(4))
+        assertEquals(2, th.coveredTargets())
+    }
+
+    @Test
+    fun testFitnessValueCopy() {
+
+        val fv = FitnessValue(1.0)
+        fv.updateTarget(1, 0.3, 0)
+        fv.coverTarget(2)
+        fv.setExtraToMinimize(0, listOf(3.0, 1.0, 2.0))
+
+        val copy = fv.copy()
+        copy.updateTarget(1, 0.7, 1)
+        copy.setExtraToMinimize(2, listOf(5.0))
+
+        assertEquals(1.3, fv.computeFitnessScore(), 0.0001)
+        assertEquals(1.7, copy.computeFitnessScore(), 0.0001)
+        assertEquals(1, fv.coveredTargets())
+        assertEquals(2.0, fv.averageExtraDistancesToMinimize(0), 0.0001)
+        assertEquals(5.0, copy.averageExtraDistancesToMinimize(2), 0.0001)
+        assertThrows(IllegalArgumentException::class.java) { fv.averageExtraDistancesToMinimize(2) }
+
+        //lower values do not replace existing ones
+        copy.updateTarget(1, 0.1)
+        assertEquals(0.7, copy.getHeuristic(1))
+        assertEquals(mapOf(1 to Heuristics(0.7, 1), 2 to Heuristics(1.0, -1)), copy.getViewOfData())
+    }
+}
@@ -0,0 +1,110 @@
+package org.evomaster.core.search.algorithms
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class HeuristicMatrixTest {
+
+    private fun randomMatrix(random: Random, rows: Int, columns: Int, levels: Int): HeuristicMatrix {
+        //few distinct levels, to have ties and duplicated rows
+        val values = DoubleArray(rows * columns) { random.nextInt(levels).toDouble() / levels }
+        return HeuristicMatrix(rows, columns, values)
+    }
+
+    /**
+     * Fronts computed by repeatedly extracting the non-dominated rows
+     */
+    private fun naiveFronts(matrix: HeuristicMatrix, candidates: IntArray): List<Set<Int>> {
+        val fronts = mutableListOf<Set<Int>>()
+        var remaining = candidates.toList()
+        while (remaining.isNotEmpty()) {
+            val front = remaining.filter { r -> remaining.none { matrix.dominates(it, r) } }
+            fronts.add(front.toSet())
+            remaining = remaining.filter { !front.contains(it) }
+        }
+        return fronts
+    }
+
+    @Test
+    fun testDominates() {
+        val matrix = HeuristicMatrix(3, 2, doubleArrayOf(
+                1.0, 0.5,
+                1.0, 0.2,
+                0.0, 0.7))
+
+        assertTrue(matrix.dominates(0, 1))
+        assertFalse(matrix.dominates(1, 0))
+        assertFalse(matrix.dominates(0, 2))
+        assertFalse(matrix.dominates(2, 0))
+        assertFalse(matrix.dominates(0, 0))
+    }
+
+    @Test
+    fun testFrontsAsNaive() {
+
+        val random = Random(42)
+
+        for (rows in listOf(1, 2, 10, 50, 200)) {
+            for (columns in listOf(1, 3, 20, 300)) {
+                val matrix = randomMatrix(random, rows, columns, 4)
+                val candidates = (0 until rows).filter { it % 7 != 3 }.toIntArray()
+
+                val fronts = matrix.nonDominatedFronts(candidates)
+
+                assertEquals(naiveFronts(matrix, candidates), fronts.map { it.toSet() })
+                fronts.forEach { f ->
+                    //same relative order as in the input
+                    assertEquals(f.sortedBy { candidates.indexOf(it) }, f.toList())
+                }
+            }
+        }
+    }
+
+    @Test
+    fun testFrontsMaxSelected() {
+
+        val matrix = randomMatrix(Random(1), 100, 3, 10)
+        val candidates = (0 until 100).toList().toIntArray()
+
+        val all = matrix.nonDominatedFronts(candidates)
+        val some = matrix.nonDominatedFronts(candidates, 20)
+
+        assertTrue(all.size > some.size)
+        assertTrue(some.sumBy { it.size } >= 20)
+        assertTrue(some.sumBy { it.size } - some.last().size < 20)
+        some.forEachIndexed { i, f -> assertArrayEquals(all[i], f) }
+    }
+
+    @Test
+    fun testSubvectorDominanceAsNaive() {
+
+        val random = Random(7)
+
+        for (rows in listOf(1, 2, 30, 150)) {
+            for (columns in listOf(1, 5, 500)) {
+                val matrix = randomMatrix(random, rows, columns, 3)
+                val front = (0 until rows).reversed().toList().toIntArray()
+
+                val expected = front.map { i ->
+                    front.filter { it != i }
+                            .map { j -> (0 until columns).count { t -> matrix.get(i, t) > matrix.get(j, t) } }
+                            .max() ?: 0
+                }
+
+                assertEquals(expected, matrix.subvectorDominance(front).toList())
+            }
+        }
+    }
+
+    @Test
+    fun testBestRowPerColumn() {
+        val matrix = HeuristicMatrix(3, 3, doubleArrayOf(
+                0.5, 1.0, 0.0,
+                0.5, 0.2, 0.0,
+                0.1, 1.0, 0.0))
+
+        assertArrayEquals(intArrayOf(1, 0, 1), matrix.bestRowPerColumn(intArrayOf(3, 2, 5)))
+        assertArrayEquals(intArrayOf(0, 2, 2), matrix.bestRowPerColumn(intArrayOf(3, 4, 1)))
+    }
+}
@@ -396,5 +396,65 @@ class ArchiveTest{
         assertEquals(1, scores.size)
         assertEquals(2.0, scores.first(), 0.001)
     }
-}
 
+    @Test
+    fun testNotCoveredTargetsKeptInSync(){
+
+        config.archiveTargetLimit = 2
+
+        val a = OneMaxIndividual(3)
+        a.setValue(0, 0.25)
+        a.setValue(1, 1.0)
+        archive.addIfNeeded(ff.calculateCoverage(a)!!)
+
+        val notCovered = archive.notCoveredTargets()
+        val covered = archive.coveredTargets()
+        assertEquals(setOf(0), notCovered)
+        assertEquals(setOf(1), covered)
+        assertEquals(1, archive.numberOfCoveredTargets())
+        assertTrue(archive.isCovered(1))
+
+        val b = OneMaxIndividual(3)
+        b.setValue(0, 1.0)
+        b.setValue(2, 0.5)
+        archive.addIfNeeded(ff.calculateCoverage(b)!!)
+
+        //view is updated without the need to query the archive again
+        assertEquals(setOf(2), notCovered)
+        assertEquals(setOf(0, 1), covered)
+        assertEquals(2, archive.numberOfCoveredTargets())
+        assertEquals(1, archive.numberOfReachedButNotCoveredTargets())
+        assertTrue(archive.isCovered(0))
+        assertFalse(archive.isCovered(2))
+    }
+
+    @Test
+    fun testAcceptanceThreshold(){
+
+        config.archiveTargetLimit = 2
+
+        val modified = archive.trackModifiedTargets()
+
+        val a = OneMaxIndividual(3)
+        a.setValue(0, 0.25)
+        a.setValue(1, 1.0)
+        archive.addIfNeeded(ff.calculateCoverage(a)!!)
+
+        assertEquals(setOf(0, 1), modified)
+        assertEquals(setOf(0, 1), archive.reachedTargets())
+        //population not full yet, any value would be accepted
+        assertNull(archive.acceptanceThreshold(0))
+        assertEquals(1.0, archive.acceptanceThreshold(1))
+        assertNull(archive.acceptanceThreshold(2))
+
+        modified.clear()
+
+        val b = OneMaxIndividual(3)
+        b.setValue(0, 0.5)
+        archive.addIfNeeded(ff.calculateCoverage(b)!!)
+
+        assertEquals(setOf(0), modified)
+        //population is full, so only values not worse than its worst can get in
+        assertEquals(0.25, archive.acceptanceThreshold(0))
+    }
+}
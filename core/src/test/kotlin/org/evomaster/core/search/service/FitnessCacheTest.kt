@@ -0,0 +1,55 @@
+package org.evomaster.core.search.service
+
+import org.evomaster.core.search.ActionResult
+import org.evomaster.core.search.FitnessValue
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class FitnessCacheTest {
+
+    private fun fitness(target: Int) = FitnessValue(1.0).apply { updateTarget(target, 1.0) }
+
+    @Test
+    fun testGetCopy() {
+
+        val cache = FitnessCache(10)
+        assertNull(cache.get("a"))
+
+        val fv = fitness(42)
+        cache.put("a", fv, listOf(ActionResult()))
+
+        //modifying the original should not impact the cached copy
+        fv.updateTarget(7, 1.0)
+
+        val entry = cache.get("a")!!
+        assertEquals(1, entry.fitness.coveredTargets())
+        assertEquals(1, entry.results.size)
+
+        entry.fitness.updateTarget(8, 1.0)
+        assertEquals(1, cache.get("a")!!.fitness.coveredTargets())
+    }
+
+    @Test
+    fun testLRU() {
+
+        val cache = FitnessCache(2)
+
+        cache.put("a", fitness(1), listOf())
+        cache.put("b", fitness(2), listOf())
+
+        //"a" is now the most recently used
+        assertNotNull(cache.get("a"))
+
+        cache.put("c", fitness(3), listOf())
+
+        assertEquals(2, cache.size())
+        assertNotNull(cache.get("a"))
+        assertNull(cache.get("b"))
+        assertNotNull(cache.get("c"))
+    }
+
+    @Test
+    fun testInvalidSize() {
+        assertThrows(IllegalArgumentException::class.java) { FitnessCache(0) }
+    }
+}
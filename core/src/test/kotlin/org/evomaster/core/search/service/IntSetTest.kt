@@ -0,0 +1,163 @@
+package org.evomaster.core.search.service
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import kotlin.random.Random
+
+class IntSetTest {
+
+    @Test
+    fun testAddRemove() {
+
+        val set = IntSet()
+        assertTrue(set.isEmpty())
+
+        assertTrue(set.add(5))
+        assertFalse(set.add(5))
+        assertTrue(set.add(-3))
+        assertTrue(set.add(Int.MIN_VALUE))
+        assertEquals(3, set.size)
+        assertTrue(set.contains(Int.MIN_VALUE))
+        assertTrue(set.remove(Int.MIN_VALUE))
+        assertFalse(set.contains(Int.MIN_VALUE))
+        assertEquals(2, set.size)
+        assertTrue(set.contains(5))
+        assertTrue(set.has(-3))
+        assertFalse(set.has(0))
+
+        assertTrue(set.remove(5))
+        assertFalse(set.remove(5))
+        assertEquals(setOf(-3), set.toSet())
+    }
+
+    @Test
+    fun testSameAsHashSet() {
+
+        val random = Random(42)
+        val set = IntSet()
+        val expected = HashSet<Int>()
+
+        repeat(100_000) {
+            //small range, to have many collisions and removals
+            val value = if (random.nextInt(100) == 0) Int.MIN_VALUE else random.nextInt(-500, 2000)
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value))
+            } else {
+                assertEquals(expected.remove(value), set.remove(value))
+            }
+            assertEquals(expected.size, set.size)
+        }
+
+        assertEquals(expected, set.toSet())
+        assertEquals(expected, (0 until set.size).map { set[it] }.toSet())
+        (-500 until 2000).forEach { assertEquals(expected.contains(it), set.has(it)) }
+    }
+
+    @Test
+    fun testModifiedWhileIterating() {
+
+        val set = IntSet()
+        set.add(1)
+        set.add(2)
+
+        assertThrows<ConcurrentModificationException> {
+            set.forEach { set.add(it + 10) }
+        }
+    }
+
+    /*
+        Same operations as done by Archive on the index of its targets: each target
+        is first reached, then half of them get covered, and the archive is queried
+        for whether targets are covered and for the ones still to cover.
+        Targets are handled in the order in which tests reach them, ie not sorted
+     */
+
+    private fun targets(n: Int) = (0 until n).shuffled(Random(n)).toIntArray()
+
+    private fun withBoxedSet(ids: IntArray): Long {
+
+        val covered = mutableSetOf<Int>()
+        val notCovered = mutableSetOf<Int>()
+
+        for (k in ids) {
+            notCovered.add(k)
+        }
+        for (i in 0 until ids.size step 2) {
+            notCovered.remove(ids[i])
+            covered.add(ids[i])
+        }
+
+        var checksum = 0L
+        for (k in ids) {
+            if (covered.contains(k)) {
+                checksum++
+            }
+        }
+        for (k in notCovered) {
+            checksum += k
+        }
+        return checksum
+    }
+
+    private fun withIntSet(ids: IntArray): Long {
+
+        val covered = IntSet()
+        val notCovered = IntSet()
+
+        for (k in ids) {
+            notCovered.add(k)
+        }
+        for (i in 0 until ids.size step 2) {
+            notCovered.remove(ids[i])
+            covered.add(ids[i])
+        }
+
+        var checksum = 0L
+        for (k in ids) {
+            if (covered.has(k)) {
+                checksum++
+            }
+        }
+        for (k in notCovered) {
+            checksum += k
+        }
+        return checksum
+    }
+
+    /**
+     * Benchmark of the index of the targets in [Archive], compared to a boxed set.
+     * Times are only printed, and not checked, as the coverage tool used in the build
+     * instruments [IntSet] but not the JDK classes. To get meaningful numbers, run with
+     * -Djacoco.skip=true
+     */
+    @Test
+    fun testBenchmarkAgainstBoxedSet() {
+
+        //warm-up, for the JIT
+        val warmUp = targets(100_000)
+        repeat(10) { withBoxedSet(warmUp); withIntSet(warmUp) }
+
+        for (n in listOf(10_000, 100_000, 1_000_000)) {
+
+            val ids = targets(n)
+            assertEquals(withBoxedSet(ids), withIntSet(ids))
+
+            var boxedNs = Long.MAX_VALUE
+            var intSetNs = Long.MAX_VALUE
+            repeat(10) {
+                boxedNs = minOf(boxedNs, timeNs { withBoxedSet(ids) })
+                intSetNs = minOf(intSetNs, timeNs { withIntSet(ids) })
+            }
+
+            println("$n targets: boxed set ${boxedNs / 1000} us, IntSet ${intSetNs / 1000} us")
+        }
+    }
+
+    private fun timeNs(f: () -> Long): Long {
+        System.gc()
+        val start = System.nanoTime()
+        f()
+        return System.nanoTime() - start
+    }
+}
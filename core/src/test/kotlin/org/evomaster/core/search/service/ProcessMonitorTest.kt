@@ -92,6 +92,9 @@ class ProcessMonitorTest{
         val added = archive.addIfNeeded(eval)
         processMonitor.record(added, true, eval)
 
+        assert(Files.exists(processMonitor.getStepLogPath()))
+        processMonitor.exportSteps()
+
         assert(Files.exists(Paths.get(config.processFiles)))
         assert(Files.exists(Paths.get(config.processFiles + File.separator + SearchProcessMonitor.DATA_FOLDER)))
         assertEquals(1, Files.list(Paths.get(config.processFiles + File.separator + SearchProcessMonitor.DATA_FOLDER)).count())
@@ -120,6 +123,7 @@ class ProcessMonitorTest{
 
         val added = archive.addIfNeeded(eval)
         processMonitor.record(added, true, eval)
+        processMonitor.exportSteps()
 
         assert(Files.exists(Paths.get(config.processFiles + File.separator + SearchProcessMonitor.DATA_FOLDER + File.separator + processMonitor.getStepFileName(1) )))
         val data = String(Files.readAllBytes(Paths.get(config.processFiles + File.separator + SearchProcessMonitor.DATA_FOLDER + File.separator + processMonitor.getStepFileName(1) )))
@@ -173,6 +177,7 @@ class ProcessMonitorTest{
         processMonitor.record(addedB, true, evalB)
 
         processMonitor.saveOverall()
+        processMonitor.exportSteps()
 
         assertEquals(2, Files.list(Paths.get(config.processFiles + File.separator + SearchProcessMonitor.DATA_FOLDER)).count())
         assert(Files.exists(Paths.get(config.processFiles + File.separator + SearchProcessMonitor.DATA_FOLDER + File.separator + processMonitor.getStepFileName(1) )))
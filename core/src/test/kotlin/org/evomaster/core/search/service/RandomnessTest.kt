@@ -0,0 +1,108 @@
+package org.evomaster.core.search.service
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class RandomnessTest {
+
+    private fun randomness(seed: Long) = Randomness().apply { updateSeed(seed) }
+
+    private fun values(randomness: Randomness) = (0 until 20).map { randomness.nextInt() }
+
+    @Test
+    fun testForkIsDeterministic() {
+
+        val a = randomness(42)
+        val b = randomness(42)
+
+        val forksOfA = (0 until 3).map { a.fork() }
+        val forksOfB = (0 until 3).map { b.fork() }
+
+        for (i in 0 until 3) {
+            assertEquals(values(forksOfA[i]), values(forksOfB[i]))
+        }
+        //forks are different from each other
+        assertNotEquals(values(forksOfA[0]), values(forksOfA[1]))
+    }
+
+    @Test
+    fun testForkDoesNotChangeStream() {
+
+        val a = randomness(42)
+        val b = randomness(42)
+
+        a.fork().nextInt()
+        a.fork()
+
+        assertEquals(values(b), values(a))
+    }
+
+    @Test
+    fun testForkOfFork() {
+
+        val a = randomness(3).fork()
+        val b = randomness(3).fork()
+
+        assertEquals(values(a.fork()), values(b.fork()))
+        assertEquals(values(a), values(b))
+    }
+
+    @Test
+    fun testStateWithForks() {
+
+        val a = randomness(5)
+        a.fork()
+        val state = a.getState()
+        val expected = values(a.fork())
+
+        val b = randomness(123)
+        b.setState(state)
+        assertEquals(expected, values(b.fork()))
+    }
+
+    @Test
+    fun testChooseFromList() {
+
+        val randomness = randomness(1)
+        val list = (0 until 10).toList()
+
+        repeat(100) {
+            val n = randomness.nextInt(0, 9)
+            val selection = randomness.choose(list, n)
+            assertEquals(n, selection.size)
+            assertEquals(n, selection.toSet().size)
+            assertTrue(list.containsAll(selection))
+        }
+
+        assertSame(list, randomness.choose(list, 10))
+    }
+
+    @Test
+    fun testChooseFromSet() {
+
+        val randomness = randomness(1)
+        val set = (0 until 10).toSet()
+
+        val seen = mutableSetOf<Int>()
+        repeat(100) {
+            val selection = randomness.choose(set, 3)
+            assertEquals(3, selection.size)
+            assertTrue(set.containsAll(selection))
+            seen.addAll(selection)
+        }
+        assertEquals(set, seen)
+    }
+
+    @Test
+    fun testNextIntIsDeterministic() {
+
+        val a = randomness(9)
+        val b = randomness(9)
+
+        repeat(100) {
+            val k = a.nextInt(-5, 5)
+            assertTrue(k in -5..5)
+            assertEquals(k, b.nextInt(-5, 5))
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.evomaster.core.search.service
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.util.*
+
+class SplitMixRandomTest {
+
+    @Test
+    fun testSameValuesAsSplittableRandom() {
+
+        val seed = 42L
+        val random = SplitMixRandom(seed)
+        val expected = SplittableRandom(seed)
+
+        repeat(100) {
+            assertEquals(expected.nextLong(), random.nextLong())
+            assertEquals(expected.nextInt(), random.nextInt())
+            assertEquals(expected.nextDouble(), random.nextDouble())
+        }
+    }
+
+    @Test
+    fun testSameSplitsAsSplittableRandom() {
+
+        val random = SplitMixRandom(7)
+        val expected = SplittableRandom(7)
+
+        repeat(10) {
+            val a = random.split()
+            val b = expected.split()
+            repeat(10) { assertEquals(b.nextLong(), a.nextLong()) }
+        }
+        assertEquals(expected.nextLong(), random.nextLong())
+    }
+
+    @Test
+    fun testSetSeed() {
+
+        val random = SplitMixRandom(1)
+        val first = random.nextLong()
+        random.nextLong()
+
+        random.setSeed(1)
+        assertEquals(first, random.nextLong())
+    }
+}
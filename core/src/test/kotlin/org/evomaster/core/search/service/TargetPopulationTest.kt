@@ -0,0 +1,97 @@
+package org.evomaster.core.search.service
+
+import org.evomaster.core.EMConfig
+import org.evomaster.core.search.EvaluatedIndividual
+import org.evomaster.core.search.FitnessValue
+import org.evomaster.core.search.algorithms.onemax.OneMaxIndividual
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class TargetPopulationTest {
+
+    private val target = 7
+
+    private val strategy = EMConfig.SecondaryObjectiveStrategy.AVG_DISTANCE
+
+    private fun evaluated(h: Double, size: Int): EvaluatedIndividual<OneMaxIndividual> {
+        val fv = FitnessValue(size.toDouble())
+        fv.updateTarget(target, h)
+        return EvaluatedIndividual(fv, OneMaxIndividual(size), listOf())
+    }
+
+    /**
+     * How the archive used to sort its populations
+     */
+    private fun naiveSort(list: MutableList<EvaluatedIndividual<OneMaxIndividual>>) {
+        list.sortWith(compareBy<EvaluatedIndividual<OneMaxIndividual>>
+        { it.fitness.getHeuristic(target) }
+                .thenComparator { a, b -> a.fitness.compareExtraToMinimize(target, b.fitness, strategy) }
+                .thenBy { -it.individual.size() })
+    }
+
+    @Test
+    fun testSortedAfterAdd() {
+        val population = TargetPopulation<OneMaxIndividual>(target, strategy)
+
+        population.add(evaluated(0.5, 3))
+        population.add(evaluated(0.2, 1))
+        population.add(evaluated(0.5, 1))
+        population.add(evaluated(0.8, 5))
+
+        assertEquals(4, population.size)
+        assertEquals(0.2, population.heuristicOfWorst())
+        assertEquals(listOf(0.2, 0.5, 0.5, 0.8), population.individuals().map { it.fitness.getHeuristic(target) })
+        //same heuristic, shorter is better
+        assertEquals(listOf(1, 3, 1, 5), population.individuals().map { it.individual.size() })
+    }
+
+    @Test
+    fun testShrinkRemovesWorst() {
+        val population = TargetPopulation<OneMaxIndividual>(target, strategy)
+
+        (1..5).forEach { population.add(evaluated(it / 10.0, 2)) }
+        population.shrink(2)
+
+        assertEquals(listOf(0.4, 0.5), population.individuals().map { it.fitness.getHeuristic(target) })
+    }
+
+    @Test
+    fun testSameOrderAsStableSort() {
+
+        val random = Random(42)
+        val population = TargetPopulation<OneMaxIndividual>(target, strategy)
+        val expected = mutableListOf<EvaluatedIndividual<OneMaxIndividual>>()
+
+        repeat(500) {
+            //few distinct values, to have many ties
+            val ei = evaluated(random.nextInt(4) / 4.0, 1 + random.nextInt(3))
+
+            if (expected.size < 10 || random.nextBoolean()) {
+                population.add(ei)
+                expected.add(ei)
+            } else {
+                population.replaceWorst(ei)
+                expected[0] = ei
+            }
+            naiveSort(expected)
+
+            assertEquals(expected.size, population.size)
+            expected.indices.forEach { assertSame(expected[it], population[it]) }
+        }
+    }
+
+    @Test
+    fun testSample() {
+        val population = TargetPopulation<OneMaxIndividual>(target, strategy)
+        val a = evaluated(0.5, 2)
+        population.add(a)
+
+        val randomness = Randomness()
+        assertSame(a, population.sample(randomness))
+
+        population.replaceAll(evaluated(1.0, 1))
+        assertEquals(1, population.size)
+        assertNotSame(a, population.sample(randomness))
+    }
+}
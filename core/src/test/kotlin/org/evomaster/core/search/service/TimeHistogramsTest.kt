@@ -0,0 +1,19 @@
+package org.evomaster.core.search.service
+
+import org.evomaster.client.java.controller.api.TimeHistogram
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class TimeHistogramsTest {
+
+    @Test
+    fun testMeasure() {
+        val h = TimeHistogram()
+        val x = h.measure { 42 }
+        assertEquals(42, x)
+        assertEquals(1, h.count)
+
+        assertThrows(IllegalStateException::class.java) { h.measure { throw IllegalStateException() } }
+        assertEquals(2, h.count)
+    }
+}
@@ -0,0 +1,69 @@
+package org.evomaster.core.search.service.checkpoint
+
+import com.google.inject.Injector
+import com.google.inject.Key
+import com.google.inject.Module
+import com.google.inject.TypeLiteral
+import com.netflix.governator.guice.LifecycleInjector
+import org.evomaster.core.BaseModule
+import org.evomaster.core.EMConfig
+import org.evomaster.core.search.algorithms.MioAlgorithm
+import org.evomaster.core.search.algorithms.onemax.OneMaxIndividual
+import org.evomaster.core.search.algorithms.onemax.OneMaxModule
+import org.evomaster.core.search.algorithms.onemax.OneMaxSampler
+import org.evomaster.core.search.service.SearchTimeController
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.nio.file.Files
+
+class CheckpointServiceTest {
+
+    private fun injector(vararg args: String): Injector = LifecycleInjector.builder()
+            .withModules(* arrayOf<Module>(OneMaxModule(), BaseModule(arrayOf(*args))))
+            .build().createInjector()
+
+    private fun mio(injector: Injector) = injector.getInstance(Key.get(
+            object : TypeLiteral<MioAlgorithm<OneMaxIndividual>>() {}))
+
+    @Test
+    fun testSaveAndResume() {
+
+        val file = Files.createTempDirectory("evomaster-checkpoint").resolve("checkpoint.json.gz")
+        val n = 20
+
+        val first = injector("--checkpointInterval", "1", "--checkpointFile", file.toString(),
+                "--stoppingCriterion", "TIME", "--maxTimeInSeconds", "3", "--seed", "42")
+        first.getInstance(OneMaxSampler::class.java).n = n
+
+        val solution = mio(first).search()
+        assertEquals(n.toDouble(), solution.overall.computeFitnessScore(), 0.001)
+        assertTrue(Files.exists(file))
+        val saved = first.getInstance(SearchTimeController::class.java).evaluatedActions
+
+        //resuming with a budget that was already used in the first run
+        val second = injector("--resume", "true", "--checkpointFile", file.toString(),
+                "--stoppingCriterion", "FITNESS_EVALUATIONS", "--maxActionEvaluations", "10")
+        second.getInstance(OneMaxSampler::class.java).n = n
+
+        val resumed = mio(second).search()
+        val time = second.getInstance(SearchTimeController::class.java)
+
+        assertTrue(time.evaluatedActions in 11..saved)
+        assertTrue(time.getElapsedSeconds() >= 1)
+        //all the individuals in the checkpoint were evaluated again
+        assertEquals(n.toDouble(), resumed.overall.computeFitnessScore(), 0.001)
+    }
+
+    @Test
+    fun testResumeWithoutCheckpoint() {
+
+        val file = Files.createTempDirectory("evomaster-checkpoint").resolve("checkpoint.json.gz")
+
+        val injector = injector("--resume", "true", "--checkpointFile", file.toString(),
+                "--stoppingCriterion", "FITNESS_EVALUATIONS", "--maxActionEvaluations", "100")
+        injector.getInstance(OneMaxSampler::class.java).n = 5
+
+        mio(injector).search()
+        assertEquals(100, injector.getInstance(SearchTimeController::class.java).evaluatedActions)
+    }
+}
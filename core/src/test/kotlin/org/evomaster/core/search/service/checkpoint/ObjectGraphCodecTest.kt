@@ -0,0 +1,69 @@
+package org.evomaster.core.search.service.checkpoint
+
+import io.swagger.parser.SwaggerParser
+import org.evomaster.core.problem.rest.RestActionBuilder
+import org.evomaster.core.problem.rest.RestIndividual
+import org.evomaster.core.problem.rest.SampleType
+import org.evomaster.core.search.Action
+import org.evomaster.core.search.gene.IntegerGene
+import org.evomaster.core.search.gene.OptionalGene
+import org.evomaster.core.search.service.Randomness
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+
+class ObjectGraphCodecTest {
+
+    private fun phenotype(ind: RestIndividual) = ind.seeActions().joinToString("|") { a ->
+        a.toString() + a.seeGenes().flatMap { it.flatView() }
+                .joinToString(",") { it.name + "=" + it.getValueAsRawString() }
+    }
+
+    @Test
+    fun testRestIndividuals() {
+        listOf("/swagger/proxyprint.json", "/swagger/catwatch.json", "/swagger/features_service.json",
+                "/swagger/scout-api.json", "/swagger/ocvn_1oc.json", "/swagger/news.json")
+                .forEach { checkRestIndividuals(it) }
+    }
+
+    private fun checkRestIndividuals(swagger: String) {
+
+        val actions = mutableMapOf<String, Action>()
+        RestActionBuilder.addActionsFromSwagger(SwaggerParser().read(swagger), actions)
+
+        val randomness = Randomness()
+        val codec = ObjectGraphCodec()
+
+        actions.values.forEach { a ->
+            val copy = a.copy()
+            copy.seeGenes().forEach { it.randomize(randomness, false) }
+            val ind = RestIndividual(mutableListOf(copy), SampleType.RANDOM)
+
+            val back = codec.fromJson(codec.toJson(ind)) as RestIndividual
+            assertEquals(phenotype(ind), phenotype(back))
+
+            //the decoded individual must be fully usable
+            val other = back.copy() as RestIndividual
+            other.seeGenes().forEach { it.randomize(randomness, false) }
+            phenotype(other)
+        }
+    }
+
+    @Test
+    fun testSharedReferences() {
+
+        val gene = IntegerGene("a", 42)
+        val list = listOf(OptionalGene("x", gene), OptionalGene("y", gene))
+
+        @Suppress("UNCHECKED_CAST")
+        val back = ObjectGraphCodec().fromJson(ObjectGraphCodec().toJson(list)) as List<OptionalGene>
+
+        assertEquals(2, back.size)
+        assertSame(back[0].gene, back[1].gene)
+        assertEquals(42, (back[0].gene as IntegerGene).value)
+    }
+
+    @Test
+    fun testUnsupportedType() {
+        assertThrows(IllegalArgumentException::class.java) { ObjectGraphCodec().encode(Thread()) }
+    }
+}
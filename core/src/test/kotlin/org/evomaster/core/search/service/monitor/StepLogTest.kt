@@ -0,0 +1,64 @@
+package org.evomaster.core.search.service.monitor
+
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.io.RandomAccessFile
+import java.nio.file.Files
+
+class StepLogTest {
+
+    private fun json(i: Int) = "{\"index\":$i,\"data\":\"${"x".repeat(i % 50)}\"}"
+
+    @Test
+    fun testRandomAccess() {
+
+        val path = Files.createTempDirectory("evomaster-steps").resolve("steps.log")
+
+        //small blocks, to have several of them
+        StepLogWriter(path, queueCapacity = 4, blockSize = 512).use { log ->
+            (1..300 step 3).forEach { log.append(it, json(it)) }
+        }
+
+        val reader = StepLogReader(path)
+        assertEquals((1..300 step 3).toList(), reader.indices())
+        assertEquals(json(1), reader.read(1))
+        assertEquals(json(151), reader.read(151))
+        assertEquals(json(298), reader.read(298))
+        assertNull(reader.read(0))
+        assertNull(reader.read(2))
+        assertNull(reader.read(1000))
+    }
+
+    @Test
+    fun testFlushAndTruncation() {
+
+        val path = Files.createTempDirectory("evomaster-steps").resolve("steps.log")
+
+        val log = StepLogWriter(path)
+        log.append(1, json(1))
+        log.append(2, json(2))
+        log.flush()
+        log.append(3, json(3))
+        log.close()
+
+        assertEquals(listOf(1, 2, 3), StepLogReader(path).indices())
+
+        //as if crashed while writing the last block
+        RandomAccessFile(path.toFile(), "rw").use { it.setLength(Files.size(path) - 1) }
+        assertEquals(listOf(1, 2), StepLogReader(path).indices())
+    }
+
+    @Test
+    fun testToJsonFiles() {
+
+        val dir = Files.createTempDirectory("evomaster-steps")
+        val path = dir.resolve("steps.log")
+
+        StepLogWriter(path).use { log -> (1..5).forEach { log.append(it, json(it)) } }
+
+        StepLogReader.main(arrayOf(path.toString(), dir.resolve("data").toString(), "3"))
+
+        assertEquals(5, Files.list(dir.resolve("data")).count())
+        assertEquals(json(4), String(Files.readAllBytes(dir.resolve("data").resolve("004.json"))))
+    }
+}